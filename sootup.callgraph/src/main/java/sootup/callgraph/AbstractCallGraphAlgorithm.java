@@ -72,12 +72,13 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   @Nonnull
   final CallGraph constructCompleteCallGraph(
       View<? extends SootClass<?>> view, List<MethodSignature> entryPoints) {
-    MutableCallGraph cg = new GraphBasedCallGraph();
+    CompactCallGraph cg = new CompactCallGraph();
 
     Deque<MethodSignature> workList = new ArrayDeque<>(entryPoints);
     Set<MethodSignature> processed = new HashSet<>();
 
     processWorkList(view, workList, processed, cg);
+    cg.freeze();
     return cg;
   }
 
@@ -164,7 +165,7 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
     if (optSc.isPresent()) {
       SootClass<?> sc = optSc.get();
 
-      List<ClassType> superClasses = typeHierarchy.superClassesOf(sc.getType());
+      List<ClassType> superClasses = new ArrayList<>(typeHierarchy.superClassesOf(sc.getType()));
       Set<ClassType> interfaces = typeHierarchy.implementedInterfacesOf(sc.getType());
       superClasses.addAll(interfaces);
 
@@ -237,10 +238,12 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
 
     superTypes
         .map(view::getClassOrThrow)
-        .flatMap(superType -> superType.getMethods().stream())
-        .map(Method::getSignature)
-        .filter(
-            superTypeMethodSig -> newMethodSubSigs.contains(superTypeMethodSig.getSubSignature()))
+        .flatMap(
+            superType ->
+                newMethodSubSigs.stream()
+                    .map(subSignature -> superType.getMethod(subSignature))
+                    .filter(Optional::isPresent)
+                    .map(method -> method.get().getSignature()))
         .forEach(
             overriddenMethodSig -> {
               //noinspection OptionalGetWithoutIsPresent (We know this exists)
@@ -252,6 +255,9 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
               }
             });
 
+    if (updated instanceof CompactCallGraph) {
+      ((CompactCallGraph) updated).freeze();
+    }
     return updated;
   }
 
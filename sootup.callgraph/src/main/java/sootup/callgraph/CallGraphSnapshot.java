@@ -0,0 +1,101 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.jimple.binary.BinaryJimpleReader;
+import sootup.java.core.jimple.binary.BinaryJimpleWriter;
+import sootup.java.core.jimple.binary.JavaViewSnapshot;
+
+/**
+ * Stores a {@link CallGraph} in a {@link JavaViewSnapshot}, so that it can be restored together
+ * with the view instead of being computed again.
+ */
+public final class CallGraphSnapshot {
+
+  /** The name of the snapshot section that holds the call graph. */
+  public static final String SECTION = "callgraph";
+
+  private CallGraphSnapshot() {}
+
+  /** Adds the call graph to the snapshot that is written by the given writer. */
+  @Nonnull
+  public static JavaViewSnapshot.Writer store(
+      @Nonnull JavaViewSnapshot.Writer writer, @Nonnull CallGraph callGraph) {
+    return writer.addSection(SECTION, encode(callGraph));
+  }
+
+  /** Restores the call graph that was stored in the snapshot, if any. */
+  @Nonnull
+  public static Optional<MutableCallGraph> restore(@Nonnull JavaViewSnapshot snapshot) {
+    return snapshot.getSection(SECTION).map(CallGraphSnapshot::decode);
+  }
+
+  @Nonnull
+  static byte[] encode(@Nonnull CallGraph callGraph) {
+    final BinaryJimpleWriter writer = new BinaryJimpleWriter();
+    final List<MethodSignature> methods = new ArrayList<>(callGraph.getMethodSignatures());
+    final Map<MethodSignature, Integer> methodIndex = new HashMap<>(methods.size() * 2);
+    writer.writeVarInt(methods.size());
+    for (MethodSignature method : methods) {
+      methodIndex.put(method, methodIndex.size());
+      writer.writeMethodSignature(method);
+    }
+    for (MethodSignature method : methods) {
+      final List<MethodSignature> targets = new ArrayList<>(callGraph.callsFrom(method));
+      writer.writeVarInt(targets.size());
+      for (MethodSignature target : targets) {
+        writer.writeVarInt(methodIndex.get(target));
+      }
+    }
+    return writer.toByteArray();
+  }
+
+  @Nonnull
+  static MutableCallGraph decode(@Nonnull ByteBuffer content) {
+    final BinaryJimpleReader.Cursor cursor =
+        new BinaryJimpleReader(content, JavaIdentifierFactory.getInstance()).cursor(0);
+    final CompactCallGraph callGraph = new CompactCallGraph();
+    final MethodSignature[] methods = new MethodSignature[cursor.readVarInt()];
+    for (int i = 0; i < methods.length; i++) {
+      methods[i] = cursor.readMethodSignature();
+      callGraph.addMethod(methods[i]);
+    }
+    for (MethodSignature method : methods) {
+      final int targetCount = cursor.readVarInt();
+      for (int i = 0; i < targetCount; i++) {
+        callGraph.addCall(method, methods[cursor.readVarInt()]);
+      }
+    }
+    callGraph.freeze();
+    return callGraph;
+  }
+}
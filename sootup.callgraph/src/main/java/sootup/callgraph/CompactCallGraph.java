@@ -0,0 +1,460 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Preconditions;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.SootClassMemberSignature;
+
+/**
+ * A mutable call graph that stores methods as dense int ids and calls as int arrays instead of
+ * vertex and edge objects. The ids are assigned in the order in which the methods are added.
+ *
+ * <p>While the graph is built, the callees and callers of each method are kept in growable arrays.
+ * {@link #freeze()} packs them into a compressed sparse row layout: one array holds the sorted
+ * callees of all methods one after another and another one the offset of each method in it, and the
+ * same for the callers. {@link #callsFrom(MethodSignature)} and {@link #callsTo(MethodSignature)}
+ * of a frozen graph return views on these arrays, so no set is copied. Adding a call to a frozen
+ * graph unpacks it again.
+ *
+ * <p>The graph is not thread-safe.
+ */
+public final class CompactCallGraph implements MutableCallGraph {
+
+  private static final int[] NO_CALLS = new int[0];
+
+  // the methods by id and the ids of the methods; they are looked up for every call, so they are
+  // plain collections instead of a synchronized Numberer
+  @Nonnull private final List<MethodSignature> methods;
+  @Nonnull private final Map<MethodSignature, Integer> ids;
+  private int callCount;
+
+  // the growable arrays while the graph is built, null if it is frozen
+  @Nullable private int[][] callees;
+  @Nullable private int[] calleeCounts;
+  @Nullable private int[][] callers;
+  @Nullable private int[] callerCounts;
+
+  // the compressed sparse rows if the graph is frozen, null otherwise
+  @Nullable private int[] calleeOffsets;
+  @Nullable private int[] calleeIds;
+  @Nullable private int[] callerOffsets;
+  @Nullable private int[] callerIds;
+
+  public CompactCallGraph() {
+    this(new ArrayList<>(), new HashMap<>());
+    callees = new int[16][];
+    calleeCounts = new int[16];
+    callers = new int[16][];
+    callerCounts = new int[16];
+  }
+
+  private CompactCallGraph(
+      @Nonnull List<MethodSignature> methods, @Nonnull Map<MethodSignature, Integer> ids) {
+    this.methods = methods;
+    this.ids = ids;
+  }
+
+  @Override
+  public void addMethod(@Nonnull MethodSignature calledMethod) {
+    Integer existingId = ids.putIfAbsent(calledMethod, methods.size());
+    int id;
+    if (existingId == null) {
+      id = methods.size();
+      methods.add(calledMethod);
+    } else {
+      id = existingId;
+    }
+    if (isFrozen()) {
+      if (id >= calleeOffsets.length - 1) {
+        unfreeze();
+      } else {
+        return;
+      }
+    }
+    if (id >= callees.length) {
+      int capacity = Math.max(id + 1, callees.length * 2);
+      callees = Arrays.copyOf(callees, capacity);
+      calleeCounts = Arrays.copyOf(calleeCounts, capacity);
+      callers = Arrays.copyOf(callers, capacity);
+      callerCounts = Arrays.copyOf(callerCounts, capacity);
+    }
+  }
+
+  /** Adds the call unless the graph contains it already. */
+  @Override
+  public void addCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    int source = idOf(sourceMethod);
+    int target = idOf(targetMethod);
+    if (containsCall(source, target)) {
+      return;
+    }
+    if (isFrozen()) {
+      unfreeze();
+    }
+    callees[source] = append(callees[source], calleeCounts[source]++, target);
+    callers[target] = append(callers[target], callerCounts[target]++, source);
+    callCount++;
+  }
+
+  @Nonnull
+  private static int[] append(@Nullable int[] ids, int count, int id) {
+    if (ids == null) {
+      ids = new int[4];
+    } else if (count == ids.length) {
+      ids = Arrays.copyOf(ids, count * 2);
+    }
+    ids[count] = id;
+    return ids;
+  }
+
+  /**
+   * Packs the calls into compressed sparse rows. Afterwards, the arrays of the calls take eight
+   * bytes per call, four for the callee and four for the caller, and queries do not copy any sets.
+   * Freezing a frozen graph has no effect.
+   */
+  public void freeze() {
+    if (isFrozen()) {
+      return;
+    }
+    int methodCount = methods.size();
+    calleeOffsets = new int[methodCount + 1];
+    calleeIds = pack(callees, calleeCounts, calleeOffsets);
+    callerOffsets = new int[methodCount + 1];
+    callerIds = pack(callers, callerCounts, callerOffsets);
+    callees = null;
+    calleeCounts = null;
+    callers = null;
+    callerCounts = null;
+  }
+
+  @Nonnull
+  private int[] pack(@Nonnull int[][] rows, @Nonnull int[] counts, @Nonnull int[] offsets) {
+    int[] ids = new int[callCount];
+    for (int id = 0; id < offsets.length - 1; id++) {
+      int from = offsets[id];
+      int count = counts[id];
+      if (count > 0) {
+        System.arraycopy(rows[id], 0, ids, from, count);
+        Arrays.sort(ids, from, from + count);
+      }
+      offsets[id + 1] = from + count;
+    }
+    return ids;
+  }
+
+  /** Unpacks the compressed sparse rows into growable arrays, so calls can be added. */
+  private void unfreeze() {
+    int capacity = Math.max(16, methods.size() * 2);
+    callees = new int[capacity][];
+    calleeCounts = new int[capacity];
+    unpack(calleeIds, calleeOffsets, callees, calleeCounts);
+    callers = new int[capacity][];
+    callerCounts = new int[capacity];
+    unpack(callerIds, callerOffsets, callers, callerCounts);
+    calleeOffsets = null;
+    calleeIds = null;
+    callerOffsets = null;
+    callerIds = null;
+  }
+
+  private static void unpack(
+      @Nonnull int[] ids, @Nonnull int[] offsets, @Nonnull int[][] rows, @Nonnull int[] counts) {
+    for (int id = 0; id < offsets.length - 1; id++) {
+      int count = offsets[id + 1] - offsets[id];
+      if (count > 0) {
+        rows[id] = Arrays.copyOfRange(ids, offsets[id], offsets[id + 1]);
+        counts[id] = count;
+      }
+    }
+  }
+
+  /** Returns whether the calls are packed into compressed sparse rows, see {@link #freeze()}. */
+  public boolean isFrozen() {
+    return calleeOffsets != null;
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> getMethodSignatures() {
+    return new AbstractSet<MethodSignature>() {
+      @Override
+      public boolean contains(Object o) {
+        return o instanceof MethodSignature && getId((MethodSignature) o) >= 0;
+      }
+
+      @Override
+      public int size() {
+        return methods.size();
+      }
+
+      @Nonnull
+      @Override
+      public Iterator<MethodSignature> iterator() {
+        return new MethodIterator(null, 0, methods.size());
+      }
+    };
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+    int source = idOf(sourceMethod);
+    if (isFrozen()) {
+      return new MethodSet(calleeIds, calleeOffsets[source], calleeOffsets[source + 1], true);
+    }
+    return copyOf(callees[source], calleeCounts[source]);
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+    int target = idOf(targetMethod);
+    if (isFrozen()) {
+      return new MethodSet(callerIds, callerOffsets[target], callerOffsets[target + 1], true);
+    }
+    return copyOf(callers[target], callerCounts[target]);
+  }
+
+  /** Copies a growable array, as it may change while the returned set is used. */
+  @Nonnull
+  private Set<MethodSignature> copyOf(@Nullable int[] ids, int count) {
+    return new MethodSet(count == 0 ? NO_CALLS : Arrays.copyOf(ids, count), 0, count, false);
+  }
+
+  @Override
+  public boolean containsMethod(@Nonnull MethodSignature method) {
+    return getId(method) >= 0;
+  }
+
+  @Override
+  public boolean containsCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    int source = getId(sourceMethod);
+    int target = getId(targetMethod);
+    return source >= 0 && target >= 0 && containsCall(source, target);
+  }
+
+  private boolean containsCall(int source, int target) {
+    if (isFrozen()) {
+      return Arrays.binarySearch(
+              calleeIds, calleeOffsets[source], calleeOffsets[source + 1], target)
+          >= 0;
+    }
+    // search the shorter one of both arrays
+    return calleeCounts[source] <= callerCounts[target]
+        ? indexOf(callees[source], calleeCounts[source], target) >= 0
+        : indexOf(callers[target], callerCounts[target], source) >= 0;
+  }
+
+  private static int indexOf(@Nullable int[] ids, int count, int id) {
+    for (int i = 0; i < count; i++) {
+      if (ids[i] == id) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int callCount() {
+    return callCount;
+  }
+
+  @Nonnull
+  @Override
+  public MutableCallGraph copy() {
+    CompactCallGraph copy = new CompactCallGraph(new ArrayList<>(methods), new HashMap<>(ids));
+    copy.callCount = callCount;
+    if (isFrozen()) {
+      // the arrays of a frozen graph are never modified, so they can be shared
+      copy.calleeOffsets = calleeOffsets;
+      copy.calleeIds = calleeIds;
+      copy.callerOffsets = callerOffsets;
+      copy.callerIds = callerIds;
+    } else {
+      copy.callees = copyRows(callees, calleeCounts);
+      copy.calleeCounts = calleeCounts.clone();
+      copy.callers = copyRows(callers, callerCounts);
+      copy.callerCounts = callerCounts.clone();
+    }
+    return copy;
+  }
+
+  @Nonnull
+  private static int[][] copyRows(@Nonnull int[][] rows, @Nonnull int[] counts) {
+    int[][] copy = new int[rows.length][];
+    for (int id = 0; id < rows.length; id++) {
+      if (counts[id] > 0) {
+        copy[id] = rows[id].clone();
+      }
+    }
+    return copy;
+  }
+
+  /** Returns the id of the method, or -1 if it has not been added. */
+  private int getId(@Nonnull MethodSignature method) {
+    Integer id = ids.get(method);
+    return id == null ? -1 : id;
+  }
+
+  private int idOf(@Nonnull MethodSignature method) {
+    int id = getId(method);
+    Preconditions.checkArgument(id >= 0, "Node for %s has not been added yet", method);
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (methods.size() == 0) {
+      sb.append(" is empty");
+    } else {
+      sb.append(":\n");
+      for (MethodSignature method : getMethodSignatures()) {
+        sb.append(method).append(":\n");
+        callsFrom(method).forEach(m -> sb.append("\tto ").append(m).append("\n"));
+        callsTo(method).forEach(m -> sb.append("\tfrom   ").append(m).append("\n"));
+        sb.append("\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toStringSorted() {
+    Comparator<MethodSignature> comparator =
+        Comparator.comparing((MethodSignature o) -> o.getDeclClassType().toString())
+            .thenComparing(SootClassMemberSignature::getName)
+            .thenComparing(o -> o.getParameterTypes().toString());
+    StringBuilder sb = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (methods.size() == 0) {
+      sb.append(" is empty");
+    } else {
+      sb.append(":\n");
+      getMethodSignatures().stream()
+          .sorted(comparator)
+          .forEach(
+              method -> {
+                sb.append(method).append(":\n");
+                callsFrom(method).stream()
+                    .sorted(comparator)
+                    .forEach(m -> sb.append("\tto ").append(m).append("\n"));
+                callsTo(method).stream()
+                    .sorted(comparator)
+                    .forEach(m -> sb.append("\tfrom ").append(m).append("\n"));
+                sb.append("\n");
+              });
+    }
+    return sb.toString();
+  }
+
+  /** The methods with the ids in a range of an array. */
+  private final class MethodSet extends AbstractSet<MethodSignature> {
+    @Nonnull private final int[] ids;
+    private final int from;
+    private final int to;
+    private final boolean sorted;
+
+    private MethodSet(@Nonnull int[] ids, int from, int to, boolean sorted) {
+      this.ids = ids;
+      this.from = from;
+      this.to = to;
+      this.sorted = sorted;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof MethodSignature)) {
+        return false;
+      }
+      int id = getId((MethodSignature) o);
+      if (id < 0) {
+        return false;
+      }
+      if (sorted) {
+        return Arrays.binarySearch(ids, from, to, id) >= 0;
+      }
+      for (int i = from; i < to; i++) {
+        if (ids[i] == id) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<MethodSignature> iterator() {
+      return new MethodIterator(ids, from, to);
+    }
+  }
+
+  /**
+   * Iterates over the methods with the ids in a range of an array, or over all ids if it is null.
+   */
+  private final class MethodIterator implements Iterator<MethodSignature> {
+    @Nullable private final int[] ids;
+    private final int to;
+    private int next;
+
+    private MethodIterator(@Nullable int[] ids, int from, int to) {
+      this.ids = ids;
+      this.next = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < to;
+    }
+
+    @Override
+    public MethodSignature next() {
+      if (next >= to) {
+        throw new NoSuchElementException();
+      }
+      int id = ids == null ? next : ids[next];
+      next++;
+      return methods.get(id);
+    }
+  }
+}
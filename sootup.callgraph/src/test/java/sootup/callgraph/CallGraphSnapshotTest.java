@@ -0,0 +1,81 @@
+package sootup.callgraph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.jimple.binary.JavaViewSnapshot;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class CallGraphSnapshotTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+  private MethodSignature method(String className, String name) {
+    return identifierFactory.getMethodSignature(
+        identifierFactory.getClassType(className), name, "void", Collections.emptyList());
+  }
+
+  @Test
+  public void testCallGraphIsRestored() throws IOException {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new PathBasedAnalysisInputLocation(
+                    Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+            .build()
+            .createOnDemandView();
+
+    MutableCallGraph callGraph = new CompactCallGraph();
+    MethodSignature main = method("A", "main");
+    MethodSignature first = method("B", "first");
+    MethodSignature second = method("C", "second");
+    callGraph.addMethod(main);
+    callGraph.addMethod(first);
+    callGraph.addMethod(second);
+    callGraph.addCall(main, first);
+    callGraph.addCall(main, second);
+    callGraph.addCall(first, second);
+    callGraph.addCall(second, first);
+
+    Path file = tempFolder.newFile("MiniApp.snapshot").toPath();
+    CallGraphSnapshot.store(JavaViewSnapshot.writer(view), callGraph).write(file);
+
+    JavaViewSnapshot snapshot = JavaViewSnapshot.open(file);
+    Optional<MutableCallGraph> restored = CallGraphSnapshot.restore(snapshot);
+    assertTrue(restored.isPresent());
+    assertEquals(callGraph.callCount(), restored.get().callCount());
+    assertEquals(callGraph.toStringSorted(), restored.get().toStringSorted());
+  }
+
+  @Test
+  public void testMissingCallGraph() throws IOException {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new PathBasedAnalysisInputLocation(
+                    Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+            .build()
+            .createOnDemandView();
+    Path file = tempFolder.newFile("MiniApp.snapshot").toPath();
+    JavaViewSnapshot.writer(view).write(file);
+
+    assertFalse(CallGraphSnapshot.restore(JavaViewSnapshot.open(file)).isPresent());
+  }
+}
@@ -0,0 +1,116 @@
+package sootup.callgraph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.core.JavaIdentifierFactory;
+
+@Category(Java8Test.class)
+public class CompactCallGraphTest {
+
+  private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+  private MethodSignature method(String className, String name) {
+    return identifierFactory.getMethodSignature(
+        identifierFactory.getClassType(className), name, "void", Collections.emptyList());
+  }
+
+  private static void assertSameCalls(CallGraph expected, CallGraph actual) {
+    assertEquals(expected.callCount(), actual.callCount());
+    assertEquals(expected.getMethodSignatures(), actual.getMethodSignatures());
+    for (MethodSignature method : expected.getMethodSignatures()) {
+      assertEquals(expected.callsFrom(method), actual.callsFrom(method));
+      assertEquals(expected.callsTo(method), actual.callsTo(method));
+      for (MethodSignature target : expected.getMethodSignatures()) {
+        assertEquals(expected.containsCall(method, target), actual.containsCall(method, target));
+      }
+    }
+  }
+
+  @Test
+  public void testSameCallsAsGraphBasedCallGraph() {
+    List<MethodSignature> methods = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      methods.add(method("C" + (i % 7), "m" + i));
+    }
+    MutableCallGraph graphBased = new GraphBasedCallGraph();
+    CompactCallGraph compact = new CompactCallGraph();
+    methods.forEach(graphBased::addMethod);
+    methods.forEach(compact::addMethod);
+
+    Random random = new Random(42);
+    for (int i = 0; i < 400; i++) {
+      // includes duplicate calls and calls of a method to itself
+      MethodSignature source = methods.get(random.nextInt(methods.size()));
+      MethodSignature target = methods.get(random.nextInt(methods.size()));
+      graphBased.addCall(source, target);
+      compact.addCall(source, target);
+    }
+    assertFalse(compact.isFrozen());
+    assertSameCalls(graphBased, compact);
+
+    compact.freeze();
+    assertTrue(compact.isFrozen());
+    assertSameCalls(graphBased, compact);
+  }
+
+  @Test
+  public void testCallsCanBeAddedToFrozenGraph() {
+    MethodSignature main = method("A", "main");
+    MethodSignature first = method("B", "first");
+    MethodSignature second = method("C", "second");
+    CompactCallGraph callGraph = new CompactCallGraph();
+    callGraph.addMethod(main);
+    callGraph.addMethod(first);
+    callGraph.addCall(main, first);
+    callGraph.freeze();
+
+    MutableCallGraph copy = callGraph.copy();
+    copy.addMethod(second);
+    copy.addCall(first, second);
+    copy.addCall(main, second);
+
+    assertEquals(ImmutableSet.of(first, second), copy.callsFrom(main));
+    assertEquals(ImmutableSet.of(main), copy.callsTo(first));
+    assertEquals(3, copy.callCount());
+
+    // the copy does not share its calls with the original
+    assertEquals(ImmutableSet.of(first), callGraph.callsFrom(main));
+    assertFalse(callGraph.containsMethod(second));
+    assertTrue(callGraph.callsFrom(first).isEmpty());
+    assertEquals(1, callGraph.callCount());
+  }
+
+  @Test
+  public void testMethodsAreAddedOnce() {
+    MethodSignature main = method("A", "main");
+    MethodSignature callee = method("B", "callee");
+    CompactCallGraph callGraph = new CompactCallGraph();
+    callGraph.addMethod(main);
+    callGraph.addMethod(callee);
+    callGraph.addCall(main, callee);
+    callGraph.freeze();
+
+    callGraph.addMethod(main);
+    callGraph.addMethod(callee);
+    assertTrue(callGraph.isFrozen());
+    assertEquals(ImmutableSet.of(main, callee), callGraph.getMethodSignatures());
+    assertEquals(ImmutableSet.of(callee), callGraph.callsFrom(main));
+    assertEquals(ImmutableSet.of(main), callGraph.callsTo(callee));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCallFromUnknownMethod() {
+    CompactCallGraph callGraph = new CompactCallGraph();
+    callGraph.addMethod(method("A", "main"));
+    callGraph.addCall(method("A", "main"), method("B", "unknown"));
+  }
+}
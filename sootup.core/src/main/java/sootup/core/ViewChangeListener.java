@@ -9,6 +9,15 @@ public interface ViewChangeListener {
 
   void classRemoved(SootClass sc);
 
+  /**
+   * Called when <code>oldClass</code> is replaced by <code>newClass</code>, which declares the same
+   * type, e.g. when methods of a class are added or removed.
+   */
+  default void classReplaced(SootClass oldClass, SootClass newClass) {
+    classRemoved(oldClass);
+    classAdded(newClass);
+  }
+
   void methodAdded(SootMethod m);
 
   void methodRemoved(SootMethod m);
@@ -0,0 +1,97 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nonnull;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.core.views.View;
+
+/**
+ * Retains the resolved bodies of the methods of a {@link View} according to a bounded body {@link
+ * MemoryPolicy}. Evicted bodies are resolved again from their {@link
+ * sootup.core.frontend.BodySource} on the next access of {@link SootMethod#getBody()}; a
+ * re-resolved body consists of new Stmt objects. The methods are weakly referenced keys, so an
+ * entry vanishes together with its method.
+ *
+ * <p>The cache of a view is kept in its module data, see {@link #setMemoryPolicy(View,
+ * MemoryPolicy)}. A frontend passes it to the methods it creates for that view; methods that are
+ * created without a cache memoize their body.
+ */
+public final class BodyCache {
+
+  @Nonnull private final Cache<SootMethod, Body> cache;
+
+  private BodyCache(@Nonnull Cache<SootMethod, Body> cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Sets how many resolved bodies the methods of the given view retain. The policy applies to the
+   * methods of classes that are resolved afterwards, so it should be set before classes are
+   * resolved in the view.
+   */
+  public static void setMemoryPolicy(
+      @Nonnull View<?> view, @Nonnull MemoryPolicy<Body> memoryPolicy) {
+    view.putModuleData(
+        Key.instance,
+        Optional.ofNullable(
+            memoryPolicy.isBounded()
+                ? new BodyCache(memoryPolicy.buildCache(CacheBuilder.newBuilder().weakKeys()))
+                : null));
+  }
+
+  /** Returns the body cache of the given view if a bounded body {@link MemoryPolicy} is set. */
+  @Nonnull
+  public static Optional<BodyCache> of(@Nonnull View<?> view) {
+    Optional<BodyCache> bodyCache = view.getModuleData(Key.instance);
+    return bodyCache == null ? Optional.empty() : bodyCache;
+  }
+
+  /**
+   * Returns the retained body of the method or resolves it with the given loader.
+   *
+   * @throws ExecutionException if the loader threw a checked exception
+   */
+  @Nonnull
+  public Body get(@Nonnull SootMethod method, @Nonnull Callable<? extends Body> loader)
+      throws ExecutionException {
+    return cache.get(method, loader);
+  }
+
+  /** Returns the hit, miss and eviction counts since the policy was set. */
+  @Nonnull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  private static final class Key extends View.ModuleDataKey<Optional<BodyCache>> {
+    private static final Key instance = new Key();
+  }
+}
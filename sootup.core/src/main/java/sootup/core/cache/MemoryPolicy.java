@@ -0,0 +1,126 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Describes how many resolved objects (e.g. classes or bodies) a cache retains. Entries that are
+ * evicted from a bounded cache are resolved again from their source on the next access.
+ *
+ * @param <V> the type of the cached values
+ */
+public final class MemoryPolicy<V> {
+
+  private enum Kind {
+    UNBOUNDED,
+    SOFT_REFERENCES,
+    MAXIMUM_SIZE,
+    MAXIMUM_WEIGHT
+  }
+
+  @Nonnull private final Kind kind;
+  private final long limit;
+  @Nullable private final ToIntFunction<? super V> weigher;
+
+  private MemoryPolicy(@Nonnull Kind kind, long limit, @Nullable ToIntFunction<? super V> weigher) {
+    this.kind = kind;
+    this.limit = limit;
+    this.weigher = weigher;
+  }
+
+  /** Retains every resolved value until the owner of the cache is garbage collected. */
+  @Nonnull
+  public static <V> MemoryPolicy<V> unbounded() {
+    return new MemoryPolicy<>(Kind.UNBOUNDED, -1, null);
+  }
+
+  /** Retains values via soft references, i.e. the garbage collector evicts them on demand. */
+  @Nonnull
+  public static <V> MemoryPolicy<V> softReferences() {
+    return new MemoryPolicy<>(Kind.SOFT_REFERENCES, -1, null);
+  }
+
+  /** Retains at most <code>maximumSize</code> values; the least recently used are evicted. */
+  @Nonnull
+  public static <V> MemoryPolicy<V> maximumSize(long maximumSize) {
+    Preconditions.checkArgument(maximumSize >= 0, "maximumSize must not be negative");
+    return new MemoryPolicy<>(Kind.MAXIMUM_SIZE, maximumSize, null);
+  }
+
+  /**
+   * Retains values until the sum of their weights exceeds <code>maximumWeight</code>; then the
+   * least recently used values are evicted. A weigher that estimates the size of a value in bytes
+   * turns this policy into a byte budget.
+   */
+  @Nonnull
+  public static <V> MemoryPolicy<V> maximumWeight(
+      long maximumWeight, @Nonnull ToIntFunction<? super V> weigher) {
+    Preconditions.checkArgument(maximumWeight >= 0, "maximumWeight must not be negative");
+    return new MemoryPolicy<>(Kind.MAXIMUM_WEIGHT, maximumWeight, weigher);
+  }
+
+  /** Returns true if values can be evicted from a cache that follows this policy. */
+  public boolean isBounded() {
+    return kind != Kind.UNBOUNDED;
+  }
+
+  /** Builds a thread-safe cache that follows this policy and records its statistics. */
+  @Nonnull
+  public <K> Cache<K, V> buildCache() {
+    return buildCache(CacheBuilder.newBuilder());
+  }
+
+  /**
+   * Applies this policy to the given (e.g. weak keyed) builder and builds a thread-safe cache that
+   * records its statistics.
+   */
+  @Nonnull
+  public <K> Cache<K, V> buildCache(@Nonnull CacheBuilder<Object, Object> builder) {
+    builder.recordStats();
+    switch (kind) {
+      case SOFT_REFERENCES:
+        return builder.softValues().build();
+      case MAXIMUM_SIZE:
+        return builder.maximumSize(limit).build();
+      case MAXIMUM_WEIGHT:
+        final ToIntFunction<? super V> valueWeigher = weigher;
+        return builder
+            .maximumWeight(limit)
+            .<K, V>weigher((key, value) -> valueWeigher.applyAsInt(value))
+            .build();
+      default:
+        return builder.build();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return kind + (limit >= 0 ? "(" + limit + ")" : "");
+  }
+}
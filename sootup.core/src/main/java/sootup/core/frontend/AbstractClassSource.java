@@ -69,6 +69,13 @@ public abstract class AbstractClassSource<T extends AbstractClass> {
     return classSource;
   }
 
+  /**
+   * Returns the path that identifies where the class was found, e.g. for error messages. It is not
+   * guaranteed to contain just the class: classes from a jar or war archive have a path that names
+   * the archive and the entry, e.g. <code>rt.jar/java/lang/Object.class</code>, which does not
+   * exist on the file system, and classes from a binary Jimple file have the path of the whole
+   * file. Their content is read by the class source itself.
+   */
   public Path getSourcePath() {
     return sourcePath;
   }
@@ -23,13 +23,16 @@ package sootup.core.inputlocation;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.SootClassSource;
 import sootup.core.model.AbstractClass;
 import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
 import sootup.core.transform.BodyInterceptor;
+import sootup.core.typehierarchy.TypeHeader;
 import sootup.core.types.ClassType;
 import sootup.core.views.View;
 
@@ -65,6 +68,35 @@ public interface AnalysisInputLocation<T extends AbstractClass> {
   @Nonnull
   Collection<? extends AbstractClassSource<T>> getClassSources(@Nonnull View<?> view);
 
+  /**
+   * Scan the input location lazily: a ClassSource is created when the returned stream reaches its
+   * compilation / interpretation unit, so that the sources do not have to be held in memory at
+   * once. The stream may be made {@link Stream#parallel() parallel} to create the sources
+   * concurrently, and should be closed if it is not consumed completely.
+   *
+   * @return The source entries; by default a stream of {@link #getClassSources(View)}.
+   */
+  @Nonnull
+  default Stream<? extends AbstractClassSource<T>> streamClassSources(@Nonnull View<?> view) {
+    return getClassSources(view).stream();
+  }
+
+  /**
+   * Reads the {@link TypeHeader}s of all classes of this input location, i.e. what is needed to
+   * build the type hierarchy. Input locations which can read the headers without creating class
+   * sources should override this. Like {@link #streamClassSources(View)}, the stream may be made
+   * parallel and should be closed if it is not consumed completely.
+   *
+   * @return The headers; by default the headers of the sources of {@link
+   *     #streamClassSources(View)}.
+   */
+  @Nonnull
+  default Stream<TypeHeader> streamTypeHeaders(@Nonnull View<?> view) {
+    return streamClassSources(view)
+        .filter(classSource -> classSource instanceof SootClassSource)
+        .map(classSource -> TypeHeader.of((SootClassSource<?>) classSource));
+  }
+
   /**
    * If the AnalysisInputLocation is initialized with the SourceType then this method should return
    * that specific SourceType. This is the default implementation and it returns null when no source
@@ -76,4 +108,15 @@ public interface AnalysisInputLocation<T extends AbstractClass> {
   default SourceType getSourceType() {
     return null;
   }
+
+  /**
+   * Returns a {@link ClassNameFilter} of the classes this input location contains if it can provide
+   * one. Views use it to skip input locations which definitely do not contain a requested class.
+   *
+   * @return an empty Optional by default, i.e. every class has to be looked up
+   */
+  @Nonnull
+  default Optional<ClassNameFilter> getClassNameFilter() {
+    return Optional.empty();
+  }
 }
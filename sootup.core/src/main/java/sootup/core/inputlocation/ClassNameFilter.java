@@ -0,0 +1,98 @@
+package sootup.core.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import sootup.core.types.ClassType;
+
+/**
+ * A compact, probabilistic summary of the classes contained in an {@link AnalysisInputLocation}
+ * backed by a Bloom filter. It never rejects a contained class, but may accept a class that is not
+ * contained with the configured false positive probability.
+ */
+public final class ClassNameFilter {
+
+  /** The default probability that a class which is not contained is accepted. */
+  public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  @Nonnull private final List<BloomFilter<CharSequence>> filters;
+
+  private ClassNameFilter(@Nonnull List<BloomFilter<CharSequence>> filters) {
+    this.filters = filters;
+  }
+
+  /** Creates a filter of the given fully qualified class names. */
+  @Nonnull
+  public static ClassNameFilter of(@Nonnull Collection<String> classNames) {
+    return of(classNames, DEFAULT_FALSE_POSITIVE_PROBABILITY);
+  }
+
+  /** Creates a filter of the given fully qualified class names. */
+  @Nonnull
+  public static ClassNameFilter of(
+      @Nonnull Collection<String> classNames, double falsePositiveProbability) {
+    BloomFilter<CharSequence> filter =
+        BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8),
+            Math.max(classNames.size(), 1),
+            falsePositiveProbability);
+    classNames.forEach(filter::put);
+    return new ClassNameFilter(Collections.singletonList(filter));
+  }
+
+  /**
+   * Creates a filter that accepts every class which is accepted by at least one of the given
+   * filters, e.g. for an input location that is composed of other input locations.
+   */
+  @Nonnull
+  public static ClassNameFilter anyOf(@Nonnull Collection<ClassNameFilter> classNameFilters) {
+    List<BloomFilter<CharSequence>> filters = new ArrayList<>();
+    classNameFilters.forEach(classNameFilter -> filters.addAll(classNameFilter.filters));
+    return new ClassNameFilter(filters);
+  }
+
+  /**
+   * Returns <code>false</code> if the class is definitely not contained and <code>true</code> if it
+   * might be contained.
+   */
+  public boolean mightContain(@Nonnull String fullyQualifiedName) {
+    for (BloomFilter<CharSequence> filter : filters) {
+      if (filter.mightContain(fullyQualifiedName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** @see #mightContain(String) */
+  public boolean mightContain(@Nonnull ClassType type) {
+    return mightContain(type.getFullyQualifiedName());
+  }
+}
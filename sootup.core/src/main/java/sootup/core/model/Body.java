@@ -22,6 +22,8 @@ package sootup.core.model;
  * #L%
  */
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Lists;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -36,6 +38,7 @@ import sootup.core.jimple.common.stmt.*;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.types.Type;
 import sootup.core.util.Copyable;
+import sootup.core.util.DenseIndex;
 import sootup.core.util.EscapedWriter;
 import sootup.core.util.ImmutableUtils;
 import sootup.core.util.printer.JimplePrinter;
@@ -59,6 +62,14 @@ public class Body implements Copyable {
   /** The MethodSignature associated with this Body. */
   @Nonnull private final MethodSignature methodSignature;
 
+  @Nonnull
+  private final Supplier<DenseIndex<Local>> lazyLocalIndex =
+      Suppliers.memoize(() -> DenseIndex.of(getLocals()));
+
+  @Nonnull
+  private final Supplier<DenseIndex<Stmt>> lazyStmtIndex =
+      Suppliers.memoize(() -> DenseIndex.of(getStmtGraph()));
+
   /** An array containing some validators in order to validate the JimpleBody */
   @Nonnull
   private static final List<BodyValidator> validators =
@@ -122,6 +133,24 @@ public class Body implements Copyable {
     return locals.size();
   }
 
+  /**
+   * Returns dense indexes <code>0..getLocalCount()-1</code> for the locals of this body, in the
+   * order of {@link #getLocals()}. The index is built on first use.
+   */
+  @Nonnull
+  public DenseIndex<Local> getLocalIndex() {
+    return lazyLocalIndex.get();
+  }
+
+  /**
+   * Returns dense indexes for the statements of this body, in the order of {@link #getStmts()}. The
+   * index is built on first use.
+   */
+  @Nonnull
+  public DenseIndex<Stmt> getStmtIndex() {
+    return lazyStmtIndex.get();
+  }
+
   private void runValidation(BodyValidator validator) {
     final List<ValidationException> exceptionList = new ArrayList<>();
     validator.validate(this, exceptionList);
@@ -23,15 +23,26 @@ package sootup.core.model;
  */
 
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimaps;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import sootup.core.frontend.ResolveException;
 import sootup.core.frontend.SootClassSource;
+import sootup.core.signatures.FieldSubSignature;
+import sootup.core.signatures.MethodSubSignature;
 import sootup.core.types.ClassType;
+import sootup.core.types.Type;
 import sootup.core.util.ImmutableUtils;
 import sootup.core.util.printer.JimplePrinter;
 
@@ -106,6 +117,90 @@ public class SootClass<S extends SootClassSource<? extends SootClass<S>>> extend
     return this._lazyFields.get();
   }
 
+  @Nonnull
+  private final Supplier<Map<MethodSubSignature, SootMethod>> lazyMethodsBySubSignature =
+      Suppliers.memoize(
+          () ->
+              indexBySubSignature(getMethods(), method -> method.getSignature().getSubSignature()));
+
+  @Nonnull
+  private final Supplier<ImmutableListMultimap<String, SootMethod>> lazyMethodsByName =
+      Suppliers.memoize(
+          () -> ImmutableListMultimap.copyOf(Multimaps.index(getMethods(), SootMethod::getName)));
+
+  @Nonnull
+  private final Supplier<Map<FieldSubSignature, SootField>> lazyFieldsBySubSignature =
+      Suppliers.memoize(
+          () -> indexBySubSignature(getFields(), field -> field.getSignature().getSubSignature()));
+
+  @Nonnull
+  private final Supplier<ImmutableListMultimap<String, SootField>> lazyFieldsByName =
+      Suppliers.memoize(
+          () -> ImmutableListMultimap.copyOf(Multimaps.index(getFields(), SootField::getName)));
+
+  /** Keeps the first member of each sub-signature, like a linear search over the members would. */
+  @Nonnull
+  private static <M, S> Map<S, M> indexBySubSignature(
+      @Nonnull Set<? extends M> members, @Nonnull Function<M, S> subSignature) {
+    Map<S, M> index = new LinkedHashMap<>();
+    for (M member : members) {
+      index.putIfAbsent(subSignature.apply(member), member);
+    }
+    return ImmutableMap.copyOf(index);
+  }
+
+  /**
+   * Looks the method up in an index that is built on the first lookup, instead of scanning all
+   * methods.
+   */
+  @Override
+  @Nonnull
+  public Optional<? extends SootMethod> getMethod(@Nonnull MethodSubSignature subSignature) {
+    return Optional.ofNullable(lazyMethodsBySubSignature.get().get(subSignature));
+  }
+
+  @Override
+  @Nonnull
+  public Optional<? extends SootMethod> getMethod(
+      @Nonnull String name, @Nonnull Iterable<? extends Type> parameterTypes) {
+    SootMethod found = null;
+    for (SootMethod method : lazyMethodsByName.get().get(name)) {
+      if (Iterables.elementsEqual(parameterTypes, method.getParameterTypes())) {
+        if (found != null) {
+          throw new ResolveException(
+              "ambiguous method: " + name + " in " + getClassSource().getClassType(),
+              getClassSource().getSourcePath());
+        }
+        found = method;
+      }
+    }
+    return Optional.ofNullable(found);
+  }
+
+  /** Returns all methods with the given name, i.e. the overloads of a method, in a list. */
+  @Nonnull
+  public List<? extends SootMethod> getMethodsByName(@Nonnull String name) {
+    return lazyMethodsByName.get().get(name);
+  }
+
+  @Override
+  @Nonnull
+  public Optional<? extends SootField> getField(@Nonnull FieldSubSignature subSignature) {
+    return Optional.ofNullable(lazyFieldsBySubSignature.get().get(subSignature));
+  }
+
+  @Override
+  @Nonnull
+  public Optional<? extends SootField> getField(@Nonnull String name) {
+    List<SootField> fields = lazyFieldsByName.get().get(name);
+    if (fields.size() > 1) {
+      throw new ResolveException(
+          "ambiguous field: " + name + " in " + getClassSource().getClassType(),
+          getClassSource().getSourcePath());
+    }
+    return fields.isEmpty() ? Optional.empty() : Optional.of(fields.get(0));
+  }
+
   private final Supplier<Set<Modifier>> lazyModifiers =
       Suppliers.memoize(classSource::resolveModifiers);
 
@@ -24,16 +24,20 @@ package sootup.core.model;
 
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import sootup.core.cache.BodyCache;
+import sootup.core.cache.MemoryPolicy;
 import sootup.core.frontend.BodySource;
 import sootup.core.frontend.OverridingBodySource;
 import sootup.core.frontend.ResolveException;
@@ -67,6 +71,9 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
   /** Tells this method how to find out where its body lives. */
   @Nonnull protected final BodySource bodySource;
 
+  /** Retains the body of this method if its view has a bounded body {@link MemoryPolicy}. */
+  @Nullable protected final BodyCache bodyCache;
+
   /** Constructs a SootMethod object with the given attributes. */
   public SootMethod(
       @Nonnull BodySource source,
@@ -74,9 +81,26 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
       @Nonnull Iterable<Modifier> modifiers,
       @Nonnull Iterable<ClassType> thrownExceptions,
       @Nonnull Position position) {
+    this(source, methodSignature, modifiers, thrownExceptions, position, null);
+  }
+
+  /**
+   * Constructs a SootMethod object with the given attributes.
+   *
+   * @param bodyCache the cache of the view the method belongs to, or null to memoize the body in
+   *     the method
+   */
+  public SootMethod(
+      @Nonnull BodySource source,
+      @Nonnull MethodSignature methodSignature,
+      @Nonnull Iterable<Modifier> modifiers,
+      @Nonnull Iterable<ClassType> thrownExceptions,
+      @Nonnull Position position,
+      @Nullable BodyCache bodyCache) {
     super(methodSignature, modifiers, position);
 
     this.bodySource = source;
+    this.bodyCache = bodyCache;
     this.parameterTypes = ImmutableUtils.immutableListOf(methodSignature.getParameterTypes());
     this.exceptions = ImmutableUtils.immutableListOf(thrownExceptions);
   }
@@ -131,7 +155,18 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
   /** Retrieves the active body for this method. */
   @Nonnull
   public Body getBody() {
-    return this._lazyBody.get();
+    if (bodyCache == null) {
+      return this._lazyBody.get();
+    }
+    try {
+      return bodyCache.get(this, this::lazyBodyInitializer);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ResolveException(
+          "Could not resolve a corresponding body for " + getSignature(), Paths.get(""), e);
+    }
   }
 
   /** Returns true if this method has a body. */
@@ -219,24 +254,26 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
         getSignature(),
         getModifiers(),
         exceptions,
-        getPosition());
+        getPosition(),
+        bodyCache);
   }
 
   @Nonnull
   public SootMethod withSource(BodySource source) {
-    return new SootMethod(source, getSignature(), getModifiers(), exceptions, getPosition());
+    return new SootMethod(
+        source, getSignature(), getModifiers(), exceptions, getPosition(), bodyCache);
   }
 
   @Nonnull
   public SootMethod withModifiers(Iterable<Modifier> modifiers) {
     return new SootMethod(
-        bodySource, getSignature(), modifiers, getExceptionSignatures(), getPosition());
+        bodySource, getSignature(), modifiers, getExceptionSignatures(), getPosition(), bodyCache);
   }
 
   @Nonnull
   public SootMethod withThrownExceptions(Iterable<ClassType> thrownExceptions) {
     return new SootMethod(
-        bodySource, getSignature(), getModifiers(), thrownExceptions, getPosition());
+        bodySource, getSignature(), getModifiers(), thrownExceptions, getPosition(), bodyCache);
   }
 
   @Nonnull
@@ -246,7 +283,8 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
         getSignature(),
         getModifiers(),
         exceptions,
-        getPosition());
+        getPosition(),
+        bodyCache);
   }
 
   /**
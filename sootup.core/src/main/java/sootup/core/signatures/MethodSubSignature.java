@@ -45,6 +45,9 @@ public class MethodSubSignature extends SootClassMemberSubSignature
 
   @Nonnull private final List<Type> parameterTypes;
 
+  /** The hash code, computed on first use. */
+  private int hashCode;
+
   /**
    * Creates a new instance of the {@link FieldSubSignature} class.
    *
@@ -90,7 +93,12 @@ public class MethodSubSignature extends SootClassMemberSubSignature
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(super.hashCode(), getParameterTypes());
+    int h = hashCode;
+    if (h == 0) {
+      h = Objects.hashCode(super.hashCode(), getParameterTypes());
+      hashCode = h;
+    }
+    return h;
   }
 
   @Override
@@ -42,6 +42,9 @@ public abstract class SootClassMemberSignature<V extends SootClassMemberSubSigna
 
   @Nonnull private final V subSignature;
 
+  /** The hash code, computed on first use; signatures are keys of many hash maps. */
+  private int hashCode;
+
   public SootClassMemberSignature(@Nonnull ClassType klass, @Nonnull V subSignature) {
     this.declClassSignature = klass;
     this.subSignature = subSignature;
@@ -84,7 +87,12 @@ public abstract class SootClassMemberSignature<V extends SootClassMemberSubSigna
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(declClassSignature, subSignature);
+    int h = hashCode;
+    if (h == 0) {
+      h = Objects.hashCode(declClassSignature, subSignature);
+      hashCode = h;
+    }
+    return h;
   }
 
   @Override
@@ -43,6 +43,9 @@ public abstract class SootClassMemberSubSignature {
   @Nonnull private final String name;
   @Nonnull private final Type type;
 
+  /** The hash code, computed on first use. */
+  private int hashCode;
+
   /** Creates a new instance of the {@link SootClassMemberSubSignature} class. */
   protected SootClassMemberSubSignature(@Nonnull String name, @Nonnull Type type) {
     this.name = name;
@@ -85,7 +88,12 @@ public abstract class SootClassMemberSubSignature {
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(getName(), getType());
+    int h = hashCode;
+    if (h == 0) {
+      h = Objects.hashCode(getName(), getType());
+      hashCode = h;
+    }
+    return h;
   }
 
   protected int compareTo(@Nonnull SootClassMemberSubSignature o) {
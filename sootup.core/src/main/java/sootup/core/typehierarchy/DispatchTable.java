@@ -0,0 +1,193 @@
+package sootup.core.typehierarchy;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import sootup.core.BaseViewChangeListener;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.Method;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.types.ClassType;
+import sootup.core.views.MutableView;
+import sootup.core.views.View;
+
+/**
+ * The memoized dispatch results of {@link MethodDispatchResolver} for a {@link View}. Like a
+ * virtual method table, it maps a receiver type and a sub-signature to the concrete target; the
+ * table of a class is filled from the table of its superclass. Like an interface method table, it
+ * maps a method to its targets in the subtypes of its declaring type.
+ *
+ * <p>The tables are filled lazily and kept for the lifetime of the view, see {@link #of(View)}.
+ * Changes to a {@link MutableView} clear them.
+ */
+final class DispatchTable extends BaseViewChangeListener {
+
+  @Nonnull private final View<? extends SootClass<?>> view;
+
+  @Nonnull
+  private final Map<ClassType, Map<MethodSubSignature, Optional<MethodSignature>>> concreteTargets =
+      new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<MethodSignature, Set<MethodSignature>> abstractTargets =
+      new ConcurrentHashMap<>();
+
+  private DispatchTable(@Nonnull View<? extends SootClass<?>> view) {
+    this.view = view;
+  }
+
+  /** Returns the dispatch table of the given view; it is created on first use. */
+  @Nonnull
+  static DispatchTable of(@Nonnull View<? extends SootClass<?>> view) {
+    return view.computeModuleDataIfAbsent(
+        Key.instance,
+        () -> {
+          DispatchTable table = new DispatchTable(view);
+          if (view instanceof MutableView) {
+            ((MutableView) view).addChangeListener(table);
+          }
+          return table;
+        });
+  }
+
+  /**
+   * Returns the concrete method that is called for <code>m</code> on a receiver of the given type,
+   * i.e. the first non-abstract method that <code>m</code> can dispatch to in the type or its
+   * superclasses.
+   */
+  @Nonnull
+  Optional<MethodSignature> concreteTarget(@Nonnull ClassType type, @Nonnull MethodSignature m) {
+    Map<MethodSubSignature, Optional<MethodSignature>> table =
+        concreteTargets.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+    Optional<MethodSignature> target = table.get(m.getSubSignature());
+    if (target == null) {
+      target = findConcreteTarget(type, m);
+      table.put(m.getSubSignature(), target);
+    }
+    return target;
+  }
+
+  @Nonnull
+  private Optional<MethodSignature> findConcreteTarget(
+      @Nonnull ClassType type, @Nonnull MethodSignature m) {
+    TypeHierarchy hierarchy = view.getTypeHierarchy();
+    SootClass<?> sootClass =
+        view.getClass(type)
+            .orElseThrow(() -> new ResolveException("Did not find class " + type + " in View"));
+
+    SootMethod concreteMethod =
+        sootClass.getMethodsByName(m.getName()).stream()
+            .filter(
+                potentialTarget ->
+                    MethodDispatchResolver.canDispatch(
+                        m, potentialTarget.getSignature(), hierarchy))
+            .findAny()
+            .orElse(null);
+    if (concreteMethod != null && !concreteMethod.isAbstract()) {
+      return Optional.of(concreteMethod.getSignature());
+    }
+
+    // the superclass chain is shared, so its targets are looked up in its table
+    ClassType superClassType = hierarchy.superClassOf(type);
+    return superClassType == null ? Optional.empty() : concreteTarget(superClassType, m);
+  }
+
+  /**
+   * Returns the non-abstract methods that <code>m</code> can dispatch to in the subtypes of its
+   * declaring type.
+   */
+  @Nonnull
+  Set<MethodSignature> abstractTargets(@Nonnull MethodSignature m) {
+    Set<MethodSignature> targets = abstractTargets.get(m);
+    if (targets == null) {
+      targets = findAbstractTargets(m);
+      abstractTargets.put(m, targets);
+    }
+    return targets;
+  }
+
+  @Nonnull
+  private Set<MethodSignature> findAbstractTargets(@Nonnull MethodSignature m) {
+    TypeHierarchy hierarchy = view.getTypeHierarchy();
+    ImmutableSet.Builder<MethodSignature> targets = ImmutableSet.builder();
+    for (ClassType subtype : hierarchy.subtypesOf(m.getDeclClassType())) {
+      SootClass<?> sootClass =
+          view.getClass(subtype)
+              .orElseThrow(
+                  () ->
+                      new ResolveException(
+                          "Could not resolve " + subtype + ", but found it in hierarchy."));
+      sootClass.getMethodsByName(m.getName()).stream()
+          .filter(
+              potentialTarget ->
+                  MethodDispatchResolver.canDispatch(m, potentialTarget.getSignature(), hierarchy))
+          .filter(method -> !method.isAbstract())
+          .map(Method::getSignature)
+          .forEach(targets::add);
+    }
+    return targets.build();
+  }
+
+  /** Drops all tables, as a change of the view may change any of them. */
+  private void clear() {
+    concreteTargets.clear();
+    abstractTargets.clear();
+  }
+
+  @Override
+  public void classAdded(SootClass sc) {
+    clear();
+  }
+
+  @Override
+  public void classRemoved(SootClass sc) {
+    clear();
+  }
+
+  @Override
+  public void classReplaced(SootClass oldClass, SootClass newClass) {
+    clear();
+  }
+
+  @Override
+  public void methodAdded(SootMethod m) {
+    clear();
+  }
+
+  @Override
+  public void methodRemoved(SootMethod m) {
+    clear();
+  }
+
+  private static final class Key extends View.ModuleDataKey<DispatchTable> {
+    private static final Key instance = new Key();
+  }
+}
@@ -0,0 +1,534 @@
+package sootup.core.typehierarchy;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.collect.Iterables;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.ResolveException;
+import sootup.core.types.ClassType;
+import sootup.core.types.Type;
+
+/**
+ * An immutable {@link TypeHierarchy} that answers subtype queries without traversing the hierarchy.
+ *
+ * <p>Every type gets a dense id. Classes are numbered in depth-first pre-order of the class tree,
+ * so the subclasses of a class occupy the contiguous id range that directly follows it: subclass
+ * checks are two comparisons and {@link #subclassesOf(ClassType)} is a view of that range.
+ * Interfaces are numbered after all classes. Each interface stores its subtypes as a row of a bit
+ * matrix over all ids, which is filled from the class ranges of its implementers and the rows of
+ * its subinterfaces.
+ *
+ * <p>The returned sets are unmodifiable views backed by the hierarchy. Use {@link
+ * ViewTypeHierarchy#freeze()} to create a frozen copy of a view's hierarchy, or {@link
+ * #of(Iterable)} to build one from headers directly.
+ */
+public final class FrozenTypeHierarchy implements TypeHierarchy {
+
+  private static final int NONE = -1;
+
+  /** The types, indexed by id. */
+  @Nonnull private final ClassType[] types;
+
+  @Nonnull private final Map<ClassType, Integer> ids;
+
+  /** Ids below this are classes, the others interfaces. */
+  private final int classCount;
+
+  /**
+   * The id of <code>java.lang.Object</code> or {@link #NONE}. It is a supertype of every other
+   * type, even of classes whose superclass chain does not reach it as a superclass has no header.
+   */
+  private final int objectId;
+
+  /** The id of the direct superclass or {@link #NONE}. */
+  @Nonnull private final int[] superClasses;
+
+  @Nonnull private final int[][] directInterfaces;
+
+  /** Direct subclasses of a class; direct implementers and subinterfaces of an interface. */
+  @Nonnull private final int[][] directSubtypes;
+
+  /** For classes, the exclusive end of the id range of the class and its subclasses. */
+  @Nonnull private final int[] subtreeEnds;
+
+  /** For interfaces, the ids of all their subtypes; indexed by <code>id - classCount</code>. */
+  @Nonnull private final BitSet[] interfaceSubtypes;
+
+  private FrozenTypeHierarchy(
+      @Nonnull ClassType[] types,
+      @Nonnull Map<ClassType, Integer> ids,
+      int classCount,
+      @Nonnull int[] superClasses,
+      @Nonnull int[][] directInterfaces,
+      @Nonnull int[][] directSubtypes,
+      @Nonnull int[] subtreeEnds,
+      @Nonnull BitSet[] interfaceSubtypes) {
+    this.types = types;
+    this.ids = ids;
+    this.classCount = classCount;
+    this.superClasses = superClasses;
+    this.directInterfaces = directInterfaces;
+    this.directSubtypes = directSubtypes;
+    this.subtreeEnds = subtreeEnds;
+    this.interfaceSubtypes = interfaceSubtypes;
+    int objectId = NONE;
+    for (int id = 0; id < classCount; id++) {
+      if (superClasses[id] == NONE
+          && types[id].getFullyQualifiedName().equals("java.lang.Object")) {
+        objectId = id;
+        break;
+      }
+    }
+    this.objectId = objectId;
+  }
+
+  /**
+   * Builds the hierarchy of the given headers. Types that are only referenced by a header are added
+   * as well: as a class if they are referenced as superclass, otherwise as an interface.
+   */
+  @Nonnull
+  public static FrozenTypeHierarchy of(@Nonnull Iterable<TypeHeader> headers) {
+    return new Builder(headers).build();
+  }
+
+  /** Returns the number of types in this hierarchy; ids range from 0 to <code>size() - 1</code>. */
+  public int size() {
+    return types.length;
+  }
+
+  /** Returns the id of the given type or -1 if it is not part of this hierarchy. */
+  public int getId(@Nonnull ClassType type) {
+    final Integer id = ids.get(type);
+    return id == null ? NONE : id;
+  }
+
+  /** Returns the type with the given id. */
+  @Nonnull
+  public ClassType getType(int id) {
+    return types[id];
+  }
+
+  public boolean contains(@Nonnull ClassType type) {
+    return ids.containsKey(type);
+  }
+
+  private int idOf(@Nonnull ClassType type) {
+    final Integer id = ids.get(type);
+    if (id == null) {
+      throw new ResolveException("Could not find " + type + " in hierarchy.");
+    }
+    return id;
+  }
+
+  private boolean isInterface(int id) {
+    return id >= classCount;
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> implementersOf(@Nonnull ClassType interfaceType) {
+    final int id = idOf(interfaceType);
+    if (!isInterface(id)) {
+      throw new IllegalArgumentException(interfaceType + " is not an interface.");
+    }
+    return new IdBitSet(interfaceSubtypes[id - classCount]);
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> subclassesOf(@Nonnull ClassType classType) {
+    final int id = idOf(classType);
+    if (isInterface(id)) {
+      throw new IllegalArgumentException(classType + " is not a class.");
+    }
+    return new IdRangeSet(id + 1, subtreeEnds[id]);
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+    final int id = idOf(type);
+    if (isInterface(id)) {
+      return new IdBitSet(interfaceSubtypes[id - classCount]);
+    }
+    return new IdRangeSet(id + 1, subtreeEnds[id]);
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> directSubtypesOf(@Nonnull ClassType type) {
+    return new IdBitSet(toBitSet(directSubtypes[idOf(type)]));
+  }
+
+  @Nonnull
+  @Override
+  public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+    final int id = idOf(type);
+    final BitSet interfaces = new BitSet();
+    final Deque<Integer> worklist = new ArrayDeque<>();
+    if (isInterface(id)) {
+      addAll(worklist, directInterfaces[id]);
+    } else {
+      for (int classId = id; classId != NONE; classId = superClasses[classId]) {
+        addAll(worklist, directInterfaces[classId]);
+      }
+    }
+    while (!worklist.isEmpty()) {
+      final int interfaceId = worklist.pop();
+      if (!interfaces.get(interfaceId)) {
+        interfaces.set(interfaceId);
+        addAll(worklist, directInterfaces[interfaceId]);
+      }
+    }
+    return new IdBitSet(interfaces);
+  }
+
+  @Nullable
+  @Override
+  public ClassType superClassOf(@Nonnull ClassType classType) {
+    final int superClass = superClasses[idOf(classType)];
+    return superClass == NONE ? null : types[superClass];
+  }
+
+  @Nonnull
+  @Override
+  public List<ClassType> superClassesOf(@Nonnull ClassType classType) {
+    final List<ClassType> superClassList = new ArrayList<>();
+    for (int id = superClasses[idOf(classType)]; id != NONE; id = superClasses[id]) {
+      superClassList.add(types[id]);
+    }
+    return superClassList;
+  }
+
+  /**
+   * Checks subtyping of two types of this hierarchy by their ids and falls back to {@link
+   * TypeHierarchy#isSubtype(Type, Type)} for all other types.
+   */
+  @Override
+  public boolean isSubtype(@Nonnull Type supertype, @Nonnull Type potentialSubtype) {
+    if (supertype instanceof ClassType && potentialSubtype instanceof ClassType) {
+      final Integer superId = ids.get(supertype);
+      final Integer subId = ids.get(potentialSubtype);
+      if (superId != null && subId != null) {
+        return isSubtype(superId, subId);
+      }
+    }
+    return TypeHierarchy.super.isSubtype(supertype, potentialSubtype);
+  }
+
+  private boolean isSubtype(int superId, int subId) {
+    if (superId == objectId) {
+      return subId != objectId;
+    }
+    if (isInterface(superId)) {
+      return interfaceSubtypes[superId - classCount].get(subId);
+    }
+    if (isInterface(subId)) {
+      // interfaces are subtypes of java.lang.Object only
+      return false;
+    }
+    return superId < subId && subId < subtreeEnds[superId];
+  }
+
+  private static void addAll(@Nonnull Deque<Integer> worklist, @Nonnull int[] ids) {
+    for (int id : ids) {
+      worklist.push(id);
+    }
+  }
+
+  @Nonnull
+  private static BitSet toBitSet(@Nonnull int[] ids) {
+    final BitSet bits = new BitSet();
+    for (int id : ids) {
+      bits.set(id);
+    }
+    return bits;
+  }
+
+  /** The types with ids from <code>start</code> (inclusive) to <code>end</code> (exclusive). */
+  private final class IdRangeSet extends AbstractSet<ClassType> {
+    private final int start;
+    private final int end;
+
+    private IdRangeSet(int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof ClassType)) {
+        return false;
+      }
+      final Integer id = ids.get(o);
+      return id != null && start <= id && id < end;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<ClassType> iterator() {
+      return new Iterator<ClassType>() {
+        private int next = start;
+
+        @Override
+        public boolean hasNext() {
+          return next < end;
+        }
+
+        @Override
+        public ClassType next() {
+          if (next >= end) {
+            throw new NoSuchElementException();
+          }
+          return types[next++];
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return end - start;
+    }
+  }
+
+  /** The types whose ids are set in the given bits, which must not be modified afterwards. */
+  private final class IdBitSet extends AbstractSet<ClassType> {
+    @Nonnull private final BitSet bits;
+    private final int size;
+
+    private IdBitSet(@Nonnull BitSet bits) {
+      this.bits = bits;
+      this.size = bits.cardinality();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof ClassType)) {
+        return false;
+      }
+      final Integer id = ids.get(o);
+      return id != null && bits.get(id);
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<ClassType> iterator() {
+      return new Iterator<ClassType>() {
+        private int next = bits.nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public ClassType next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          final ClassType type = types[next];
+          next = bits.nextSetBit(next + 1);
+          return type;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private static final class Builder {
+    @Nonnull private final Map<ClassType, TypeHeader> headers = new LinkedHashMap<>();
+    @Nonnull private final Map<ClassType, Boolean> isInterface = new LinkedHashMap<>();
+
+    private Builder(@Nonnull Iterable<TypeHeader> typeHeaders) {
+      for (TypeHeader header : typeHeaders) {
+        headers.put(header.getType(), header);
+        isInterface.put(header.getType(), header.isInterface());
+      }
+      for (TypeHeader header : headers.values()) {
+        header.getSuperClass().ifPresent(superClass -> isInterface.putIfAbsent(superClass, false));
+        for (ClassType implemented : header.getInterfaces()) {
+          isInterface.putIfAbsent(implemented, true);
+        }
+      }
+    }
+
+    @Nonnull
+    private FrozenTypeHierarchy build() {
+      final Map<ClassType, List<ClassType>> subclasses = new HashMap<>();
+      final List<ClassType> roots = new ArrayList<>();
+      final List<ClassType> classes = new ArrayList<>();
+      final List<ClassType> interfaces = new ArrayList<>();
+      isInterface.forEach(
+          (type, isInterfaceType) -> {
+            if (isInterfaceType) {
+              interfaces.add(type);
+              return;
+            }
+            classes.add(type);
+            final ClassType superClass = superClassOf(type);
+            if (superClass == null || isInterface.get(superClass)) {
+              roots.add(type);
+            } else {
+              subclasses.computeIfAbsent(superClass, key -> new ArrayList<>()).add(type);
+            }
+          });
+
+      // number the classes in depth-first pre-order, then the interfaces
+      final int typeCount = isInterface.size();
+      final ClassType[] types = new ClassType[typeCount];
+      final Map<ClassType, Integer> ids = new HashMap<>(typeCount * 2);
+      int nextId = 0;
+      final Deque<ClassType> stack = new ArrayDeque<>();
+      // classes on a superclass cycle are not reachable from a root; they start their own tree
+      for (ClassType start : Iterables.concat(roots, classes)) {
+        stack.push(start);
+        while (!stack.isEmpty()) {
+          final ClassType type = stack.pop();
+          if (ids.containsKey(type)) {
+            continue;
+          }
+          ids.put(type, nextId);
+          types[nextId++] = type;
+          final List<ClassType> directSubclasses =
+              subclasses.getOrDefault(type, Collections.emptyList());
+          for (int i = directSubclasses.size() - 1; i >= 0; i--) {
+            stack.push(directSubclasses.get(i));
+          }
+        }
+      }
+      final int classCount = nextId;
+      for (ClassType type : interfaces) {
+        ids.put(type, nextId);
+        types[nextId++] = type;
+      }
+
+      // record the direct edges
+      final int[] superClasses = new int[typeCount];
+      final int[][] directInterfaces = new int[typeCount][];
+      final List<List<Integer>> directSubtypeLists = new ArrayList<>(typeCount);
+      for (int id = 0; id < typeCount; id++) {
+        directSubtypeLists.add(new ArrayList<>());
+      }
+      for (int id = 0; id < typeCount; id++) {
+        final ClassType superClass = superClassOf(types[id]);
+        superClasses[id] = superClass == null ? NONE : ids.get(superClass);
+        if (id < classCount && superClass != null && !isInterface.get(superClass)) {
+          directSubtypeLists.get(superClasses[id]).add(id);
+        }
+        final TypeHeader header = headers.get(types[id]);
+        final Set<ClassType> implemented =
+            header == null ? Collections.emptySet() : header.getInterfaces();
+        directInterfaces[id] = new int[implemented.size()];
+        int i = 0;
+        for (ClassType implementedType : implemented) {
+          final int interfaceId = ids.get(implementedType);
+          directInterfaces[id][i++] = interfaceId;
+          if (interfaceId >= classCount) {
+            directSubtypeLists.get(interfaceId).add(id);
+          }
+        }
+      }
+      final int[][] directSubtypes = new int[typeCount][];
+      for (int id = 0; id < typeCount; id++) {
+        directSubtypes[id] =
+            directSubtypeLists.get(id).stream().mapToInt(Integer::intValue).toArray();
+      }
+
+      // subclasses have higher ids than their superclass, so their ranges are known first
+      final int[] subtreeEnds = new int[typeCount];
+      for (int id = classCount - 1; id >= 0; id--) {
+        subtreeEnds[id] = id + 1;
+        for (int subclass : directSubtypes[id]) {
+          subtreeEnds[id] = Math.max(subtreeEnds[id], subtreeEnds[subclass]);
+        }
+      }
+
+      final BitSet[] interfaceSubtypes = new BitSet[typeCount - classCount];
+      for (int id = classCount; id < typeCount; id++) {
+        fillInterfaceSubtypes(id, classCount, directSubtypes, subtreeEnds, interfaceSubtypes);
+      }
+
+      return new FrozenTypeHierarchy(
+          types,
+          ids,
+          classCount,
+          superClasses,
+          directInterfaces,
+          directSubtypes,
+          subtreeEnds,
+          interfaceSubtypes);
+    }
+
+    /** Fills the bit matrix row of an interface after the rows of its subinterfaces. */
+    @Nonnull
+    private static BitSet fillInterfaceSubtypes(
+        int id,
+        int classCount,
+        @Nonnull int[][] directSubtypes,
+        @Nonnull int[] subtreeEnds,
+        @Nonnull BitSet[] interfaceSubtypes) {
+      BitSet row = interfaceSubtypes[id - classCount];
+      if (row != null) {
+        return row;
+      }
+      // registered before the recursion, which terminates on malformed interface cycles
+      row = new BitSet();
+      interfaceSubtypes[id - classCount] = row;
+      for (int subtype : directSubtypes[id]) {
+        if (subtype < classCount) {
+          row.set(subtype, subtreeEnds[subtype]);
+        } else {
+          row.set(subtype);
+          row.or(
+              fillInterfaceSubtypes(
+                  subtype, classCount, directSubtypes, subtreeEnds, interfaceSubtypes));
+        }
+      }
+      return row;
+    }
+
+    @Nullable
+    private ClassType superClassOf(@Nonnull ClassType type) {
+      final TypeHeader header = headers.get(type);
+      return header == null ? null : header.getSuperClass().orElse(null);
+    }
+  }
+}
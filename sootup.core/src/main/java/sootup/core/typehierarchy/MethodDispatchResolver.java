@@ -27,7 +27,6 @@ import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import sootup.core.frontend.ResolveException;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
-import sootup.core.model.Method;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -40,25 +39,13 @@ public final class MethodDispatchResolver {
   /**
    * Searches the view for classes that implement or override the method <code>m</code> and returns
    * the set of method signatures that a method call could resolve to.
+   *
+   * <p>The result is memoized for the view, so resolving a method again is a table lookup.
    */
   @Nonnull
   public static Set<MethodSignature> resolveAbstractDispatch(
       View<? extends SootClass<?>> view, MethodSignature m) {
-    TypeHierarchy hierarchy = view.getTypeHierarchy();
-
-    return hierarchy.subtypesOf(m.getDeclClassType()).stream()
-        .map(
-            subtype ->
-                view.getClass(subtype)
-                    .orElseThrow(
-                        () ->
-                            new ResolveException(
-                                "Could not resolve " + subtype + ", but found it in hierarchy.")))
-        .flatMap(abstractClass -> abstractClass.getMethods().stream())
-        .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
-        .filter(method -> !method.isAbstract())
-        .map(Method::getSignature)
-        .collect(Collectors.toSet());
+    return DispatchTable.of(view).abstractTargets(m);
   }
 
   /**
@@ -68,21 +55,8 @@ public final class MethodDispatchResolver {
   @Nonnull
   public static Set<MethodSignature> resolveAbstractDispatchInClasses(
       View<? extends SootClass<?>> view, MethodSignature m, Set<ClassType> classes) {
-    TypeHierarchy hierarchy = view.getTypeHierarchy();
-
-    return hierarchy.subtypesOf(m.getDeclClassType()).stream()
-        .map(
-            subtype ->
-                view.getClass(subtype)
-                    .orElseThrow(
-                        () ->
-                            new ResolveException(
-                                "Could not resolve " + subtype + ", but found it in hierarchy.")))
-        .filter(c -> classes.contains(c.getType()))
-        .flatMap(abstractClass -> abstractClass.getMethods().stream())
-        .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
-        .filter(method -> !method.isAbstract())
-        .map(Method::getSignature)
+    return resolveAbstractDispatch(view, m).stream()
+        .filter(target -> classes.contains(target.getDeclClassType()))
         .collect(Collectors.toSet());
   }
 
@@ -136,35 +110,16 @@ public final class MethodDispatchResolver {
    * Searches for the signature of the method that is the concrete implementation of <code>m</code>.
    * This is done by checking each superclass and the class itself for whether it contains the
    * concrete implementation.
+   *
+   * <p>The result is memoized per class for the view, and the classes share the results of their
+   * superclasses, so resolving a method again is a table lookup.
    */
   @Nonnull
   public static MethodSignature resolveConcreteDispatch(
       View<? extends SootClass<?>> view, MethodSignature m) {
-    TypeHierarchy hierarchy = view.getTypeHierarchy();
-
-    ClassType superClassType = m.getDeclClassType();
-    do {
-      ClassType finalSuperClassType = superClassType;
-      SootClass<?> superClass =
-          view.getClass(superClassType)
-              .orElseThrow(
-                  () ->
-                      new ResolveException(
-                          "Did not find class " + finalSuperClassType + " in View"));
-
-      SootMethod concreteMethod =
-          superClass.getMethods().stream()
-              .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
-              .findAny()
-              .orElse(null);
-      if (concreteMethod != null && !concreteMethod.isAbstract()) {
-        return concreteMethod.getSignature();
-      }
-
-      superClassType = hierarchy.superClassOf(superClassType);
-    } while (superClassType != null);
-
-    throw new ResolveException("Could not find concrete method for " + m);
+    return DispatchTable.of(view)
+        .concreteTarget(m.getDeclClassType(), m)
+        .orElseThrow(() -> new ResolveException("Could not find concrete method for " + m));
   }
 
   /**
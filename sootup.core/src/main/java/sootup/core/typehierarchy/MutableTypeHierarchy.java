@@ -21,6 +21,7 @@ package sootup.core.typehierarchy;
  * #L%
  */
 import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
 
 /** For internal use only. */
 public interface MutableTypeHierarchy extends TypeHierarchy {
@@ -32,4 +33,22 @@ public interface MutableTypeHierarchy extends TypeHierarchy {
    * <p>For internal use only.
    */
   void addType(SootClass sootClass);
+
+  /**
+   * Removes the type from the hierarchy, updating all structures as if it had never been a member
+   * of the hierarchy. Types that still extend or implement it keep it as their supertype.
+   *
+   * <p>For internal use only.
+   */
+  void removeType(ClassType type);
+
+  /**
+   * Replaces the type of <code>oldClass</code> by the type of <code>newClass</code>.
+   *
+   * <p>For internal use only.
+   */
+  default void replaceType(SootClass oldClass, SootClass newClass) {
+    removeType(oldClass.getType());
+    addType(newClass);
+  }
 }
@@ -0,0 +1,158 @@
+package sootup.core.typehierarchy;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.SootClassSource;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.Modifier;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+
+/**
+ * The part of a class declaration that determines its place in the type hierarchy: whether it is an
+ * interface, its superclass and the interfaces it implements or extends. A {@link
+ * ViewTypeHierarchy} can be built from headers alone, without resolving any {@link SootClass}.
+ */
+public final class TypeHeader {
+
+  @Nonnull private final ClassType type;
+  private final boolean isInterface;
+  @Nullable private final ClassType superClass;
+  @Nonnull private final Set<ClassType> interfaces;
+
+  public TypeHeader(
+      @Nonnull ClassType type,
+      boolean isInterface,
+      @Nullable ClassType superClass,
+      @Nonnull Set<? extends ClassType> interfaces) {
+    this.type = type;
+    this.isInterface = isInterface;
+    this.superClass = superClass;
+    this.interfaces = ImmutableSet.copyOf(interfaces);
+  }
+
+  @Nonnull
+  public static TypeHeader of(@Nonnull SootClass<?> sootClass) {
+    return new TypeHeader(
+        sootClass.getType(),
+        sootClass.isInterface(),
+        sootClass.getSuperclass().orElse(null),
+        sootClass.getInterfaces());
+  }
+
+  @Nonnull
+  public static TypeHeader of(@Nonnull SootClassSource<?> classSource) {
+    return new TypeHeader(
+        classSource.getClassType(),
+        Modifier.isInterface(classSource.resolveModifiers()),
+        classSource.resolveSuperclass().orElse(null),
+        classSource.resolveInterfaces());
+  }
+
+  /**
+   * Reads the headers of all classes in the input locations of the view, see {@link
+   * AnalysisInputLocation#streamTypeHeaders(View)}. The input locations are read in parallel. If
+   * several input locations contain a type, the header of the first one is kept, just like the view
+   * resolves the class from the first one.
+   */
+  @Nonnull
+  public static Collection<TypeHeader> readAll(@Nonnull View<?> view) {
+    @SuppressWarnings("unchecked")
+    List<AnalysisInputLocation<?>> inputLocations = view.getProject().getInputLocations();
+    List<List<TypeHeader>> headersPerLocation =
+        inputLocations
+            .parallelStream()
+            .map(
+                location -> {
+                  try (Stream<TypeHeader> headers = location.streamTypeHeaders(view)) {
+                    return headers.parallel().collect(Collectors.toList());
+                  }
+                })
+            .collect(Collectors.toList());
+
+    Map<ClassType, TypeHeader> firstHeaders = new LinkedHashMap<>();
+    for (List<TypeHeader> headers : headersPerLocation) {
+      for (TypeHeader header : headers) {
+        firstHeaders.putIfAbsent(header.getType(), header);
+      }
+    }
+    return firstHeaders.values();
+  }
+
+  @Nonnull
+  public ClassType getType() {
+    return type;
+  }
+
+  public boolean isInterface() {
+    return isInterface;
+  }
+
+  @Nonnull
+  public Optional<ClassType> getSuperClass() {
+    return Optional.ofNullable(superClass);
+  }
+
+  @Nonnull
+  public Set<ClassType> getInterfaces() {
+    return interfaces;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof TypeHeader)) {
+      return false;
+    }
+    TypeHeader that = (TypeHeader) o;
+    return isInterface == that.isInterface
+        && type.equals(that.type)
+        && Objects.equals(superClass, that.superClass)
+        && interfaces.equals(that.interfaces);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, isInterface, superClass, interfaces);
+  }
+
+  @Override
+  public String toString() {
+    return type.toString();
+  }
+}
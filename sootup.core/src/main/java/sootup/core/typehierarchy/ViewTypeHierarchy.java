@@ -21,14 +21,18 @@ package sootup.core.typehierarchy;
  * #L%
  */
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,8 +42,10 @@ import org.jgrapht.Graph;
 import org.jgrapht.graph.SimpleDirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sootup.core.ViewChangeListener;
 import sootup.core.frontend.ResolveException;
 import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Edge;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.EdgeType;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Vertex;
@@ -51,19 +57,66 @@ import sootup.core.views.View;
  * Full documentation is in the <a
  * href="https://github.com/secure-software-engineering/soot-reloaded/wiki/Type-Hierarchy-Algorithm">wiki</a>.
  *
+ * <p>The transitive queries {@link #subtypesOf(ClassType)}, {@link
+ * #implementedInterfacesOf(ClassType)} and {@link #superClassesOf(ClassType)} are memoized and
+ * return immutable collections. Queries may run concurrently; {@link #addType(SootClass)}, {@link
+ * #removeType(ClassType)} and {@link #replaceType(SootClass, SootClass)} drop exactly the memoized
+ * results that the change affects, but must not run concurrently with queries.
+ *
+ * <p>As a {@link ViewChangeListener}, the hierarchy applies the changes of a {@link
+ * sootup.core.views.MutableView} to its graph instead of scanning the view again.
+ *
  * @author Christian Brüggemann
  */
-public class ViewTypeHierarchy implements MutableTypeHierarchy {
+public class ViewTypeHierarchy implements MutableTypeHierarchy, ViewChangeListener {
 
   private static final Logger log = LoggerFactory.getLogger(ViewTypeHierarchy.class);
 
   private final Supplier<ScanResult> lazyScanResult = Suppliers.memoize(this::scanView);
 
+  /** Whether {@link #lazyScanResult} has been computed. */
+  private volatile boolean scanned = false;
+
   @Nonnull private final View<? extends SootClass> view;
 
+  @Nullable private final Supplier<? extends Iterable<TypeHeader>> headers;
+
+  @Nonnull
+  private final Map<ClassType, ImmutableSet<ClassType>> subtypesCache = new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<ClassType, ImmutableSet<ClassType>> implementedInterfacesCache =
+      new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<ClassType, ImmutableList<ClassType>> superClassesCache =
+      new ConcurrentHashMap<>();
+
   /** to allow caching use Typehierarchy.fromView() to get/create the Typehierarchy. */
   public ViewTypeHierarchy(@Nonnull View<? extends SootClass> view) {
     this.view = view;
+    this.headers = null;
+  }
+
+  /**
+   * Creates a hierarchy that is built from the given headers instead of the classes of the view,
+   * e.g. from headers that were recorded earlier. The headers are requested on the first query.
+   */
+  public ViewTypeHierarchy(
+      @Nonnull View<? extends SootClass> view,
+      @Nonnull Supplier<? extends Iterable<TypeHeader>> headers) {
+    this.view = view;
+    this.headers = headers;
+  }
+
+  /**
+   * Creates a hierarchy that is built from the class headers of the input locations of the view,
+   * see {@link TypeHeader#readAll(View)}. No {@link SootClass} is created for the hierarchy, so
+   * building it over large class paths like the JDK is much faster than scanning the view.
+   */
+  @Nonnull
+  public static ViewTypeHierarchy fromHeaders(@Nonnull View<? extends SootClass> view) {
+    return new ViewTypeHierarchy(view, () -> TypeHeader.readAll(view));
   }
 
   @Nonnull
@@ -95,17 +148,27 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Nonnull
   @Override
   public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+    ImmutableSet<ClassType> cached = subtypesCache.get(type);
+    if (cached != null) {
+      return cached;
+    }
     ScanResult scanResult = lazyScanResult.get();
     Vertex vertex = scanResult.typeToVertex.get(type);
     if (vertex == null) {
       throw new ResolveException("Could not find " + type + " in hierarchy.");
     }
 
-    Set<ClassType> subclasses = new HashSet<>();
-    // We now traverse the subgraph of the vertex to find all its subtypes
-    visitSubgraph(
-        scanResult.graph, vertex, false, subvertex -> subclasses.add(subvertex.javaClassType));
-    return subclasses;
+    // The subtypes are the direct subtypes and their subtypes, which are memoized as well
+    ImmutableSet.Builder<ClassType> subtypes = ImmutableSet.builder();
+    directSubtypesOf(scanResult.graph, vertex)
+        .forEach(
+            directSubtype -> {
+              subtypes.add(directSubtype.javaClassType);
+              subtypes.addAll(subtypesOf(directSubtype.javaClassType));
+            });
+    ImmutableSet<ClassType> result = subtypes.build();
+    subtypesCache.put(type, result);
+    return result;
   }
 
   @Nonnull
@@ -117,58 +180,30 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
       throw new ResolveException("Could not find " + type + " in hierarchy.");
     }
 
-    Set<ClassType> subclasses = new HashSet<>();
-
-    Graph<Vertex, Edge> graph = scanResult.graph;
+    return directSubtypesOf(scanResult.graph, vertex)
+        .map(directSubtype -> directSubtype.javaClassType)
+        .collect(Collectors.toSet());
+  }
 
+  /** Returns the direct implementers of an interface or direct subclasses of a class. */
+  @Nonnull
+  private static Stream<Vertex> directSubtypesOf(
+      @Nonnull Graph<Vertex, Edge> graph, @Nonnull Vertex vertex) {
     switch (vertex.type) {
       case Interface:
-        graph.incomingEdgesOf(vertex).stream()
+        return graph.incomingEdgesOf(vertex).stream()
             .filter(
                 edge ->
                     edge.type == EdgeType.ClassDirectlyImplements
                         || edge.type == EdgeType.InterfaceDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubclass -> subclasses.add(directSubclass.javaClassType));
-        break;
+            .map(graph::getEdgeSource);
       case Class:
-        graph.incomingEdgesOf(vertex).stream()
+        return graph.incomingEdgesOf(vertex).stream()
             .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubclass -> subclasses.add(directSubclass.javaClassType));
-        break;
+            .map(graph::getEdgeSource);
       default:
         throw new AssertionError("Unknown vertex type!");
     }
-
-    return subclasses;
-  }
-
-  @Nonnull
-  private List<Vertex> superClassesOf(@Nonnull Vertex classVertex, boolean includingSelf) {
-    ScanResult scanResult = lazyScanResult.get();
-    Graph<Vertex, Edge> graph = scanResult.graph;
-
-    List<Vertex> superClasses = new ArrayList<>();
-    if (includingSelf) {
-      superClasses.add(classVertex);
-    }
-
-    Optional<Vertex> superClass =
-        graph.outgoingEdgesOf(classVertex).stream()
-            .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-            .map(graph::getEdgeTarget)
-            .findAny();
-    while (superClass.isPresent()) {
-      superClasses.add(superClass.get());
-      superClass =
-          graph.outgoingEdgesOf(superClass.get()).stream()
-              .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-              .map(graph::getEdgeTarget)
-              .findAny();
-    }
-
-    return superClasses;
   }
 
   private Stream<Vertex> directlyImplementedInterfacesOf(Vertex classVertex) {
@@ -188,6 +223,10 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Nonnull
   @Override
   public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+    ImmutableSet<ClassType> cached = implementedInterfacesCache.get(type);
+    if (cached != null) {
+      return cached;
+    }
     ScanResult scanResult = lazyScanResult.get();
     Vertex vertex = scanResult.typeToVertex.get(type);
 
@@ -195,79 +234,76 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
       throw new ResolveException("Could not find " + type + " in hierarchy for view " + view);
     }
 
+    ImmutableSet.Builder<ClassType> interfaces = ImmutableSet.builder();
+    Stream<Vertex> directInterfaces;
     switch (vertex.type) {
       case Class:
-        // We ascend from vertex through its superclasses to java.lang.Object.
-        // For each superclass, we take the interfaces it implements and merge
-        // them together in a Set.
-        List<Vertex> superClasses = superClassesOf(vertex, true);
-        return superClasses.stream()
-            .flatMap(this::directlyImplementedInterfacesOf)
-            .flatMap(this::selfAndImplementedInterfaces)
-            .collect(Collectors.toSet());
+        // The interfaces of the superclass are memoized, so we only add the interfaces this class
+        // implements directly and the interfaces they extend.
+        directSuperClassOf(vertex)
+            .ifPresent(
+                superClass -> interfaces.addAll(implementedInterfacesOf(superClass.javaClassType)));
+        directInterfaces = directlyImplementedInterfacesOf(vertex);
+        break;
       case Interface:
-        return directlyExtendedInterfacesOf(vertex)
-            .flatMap(this::selfAndImplementedInterfaces)
-            .collect(Collectors.toSet());
+        directInterfaces = directlyExtendedInterfacesOf(vertex);
+        break;
       default:
         throw new AssertionError("Unexpected vertex type!");
     }
+    directInterfaces.forEach(
+        directInterface -> {
+          interfaces.add(directInterface.javaClassType);
+          interfaces.addAll(implementedInterfacesOf(directInterface.javaClassType));
+        });
+    ImmutableSet<ClassType> result = interfaces.build();
+    implementedInterfacesCache.put(type, result);
+    return result;
   }
 
-  /**
-   * Recursively obtains all interfaces this interface extends, including transitively extended
-   * interfaces.
-   */
   @Nonnull
-  private Stream<ClassType> selfAndImplementedInterfaces(Vertex vertex) {
-    ScanResult scanResult = lazyScanResult.get();
-    Graph<Vertex, Edge> graph = scanResult.graph;
-
-    Stream<Vertex> extendedInterfaces =
-        graph.outgoingEdgesOf(vertex).stream()
-            .filter(edge -> edge.type == EdgeType.InterfaceDirectlyExtends)
-            .map(graph::getEdgeTarget);
-
-    return Stream.concat(
-        Stream.of(vertex.javaClassType),
-        extendedInterfaces.flatMap(this::selfAndImplementedInterfaces));
+  private Optional<Vertex> directSuperClassOf(@Nonnull Vertex classVertex) {
+    Graph<Vertex, Edge> graph = lazyScanResult.get().graph;
+    return graph.outgoingEdgesOf(classVertex).stream()
+        .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
+        .map(graph::getEdgeTarget)
+        .findAny();
   }
 
   @Nullable
   @Override
   public ClassType superClassOf(@Nonnull ClassType classType) {
-    return sootClassFor(classType).getSuperclass().orElse(null);
+    if (headers == null) {
+      return sootClassFor(classType).getSuperclass().orElse(null);
+    }
+    // answer from the graph, as resolving the class would defeat building it from headers
+    Vertex vertex = lazyScanResult.get().typeToVertex.get(classType);
+    if (vertex == null) {
+      throw new ResolveException("Could not find " + classType + " in hierarchy.");
+    }
+    if (vertex.type == VertexType.Interface) {
+      return objectType();
+    }
+    return directSuperClassOf(vertex).map(superClass -> superClass.javaClassType).orElse(null);
   }
 
-  /**
-   * Visits the subgraph of the specified <code>vertex</code> and calls the <code>visitor</code> for
-   * each vertex in the subgraph. If <code>includeSelf</code> is true, the <code>visitor</code> is
-   * also called with the <code>vertex</code>.
-   */
-  private static void visitSubgraph(
-      Graph<Vertex, Edge> graph, Vertex vertex, boolean includeSelf, Consumer<Vertex> visitor) {
-    if (includeSelf) {
-      visitor.accept(vertex);
-    }
-    switch (vertex.type) {
-      case Interface:
-        graph.incomingEdgesOf(vertex).stream()
-            .filter(
-                edge ->
-                    edge.type == EdgeType.ClassDirectlyImplements
-                        || edge.type == EdgeType.InterfaceDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubtype -> visitSubgraph(graph, directSubtype, true, visitor));
-        break;
-      case Class:
-        graph.incomingEdgesOf(vertex).stream()
-            .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubclass -> visitSubgraph(graph, directSubclass, true, visitor));
-        break;
-      default:
-        throw new AssertionError("Unknown vertex type!");
+  @Nonnull
+  @Override
+  public List<ClassType> superClassesOf(@Nonnull ClassType classType) {
+    ImmutableList<ClassType> cached = superClassesCache.get(classType);
+    if (cached != null) {
+      return cached;
     }
+    ClassType superClass = superClassOf(classType);
+    ImmutableList<ClassType> result =
+        superClass == null
+            ? ImmutableList.of()
+            : ImmutableList.<ClassType>builder()
+                .add(superClass)
+                .addAll(superClassesOf(superClass))
+                .build();
+    superClassesCache.put(classType, result);
+    return result;
   }
 
   /**
@@ -286,20 +322,25 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     Map<ClassType, Vertex> typeToVertex = new HashMap<>();
     Graph<Vertex, Edge> graph = new SimpleDirectedGraph<>(null, null, false);
 
-    view.getClasses().stream()
-        .forEach(sootClass -> addSootClassToGraph(sootClass, typeToVertex, graph));
+    if (headers != null) {
+      headers.get().forEach(header -> addTypeToGraph(header, typeToVertex, graph));
+    } else {
+      view.getClasses().stream()
+          .forEach(sootClass -> addTypeToGraph(TypeHeader.of(sootClass), typeToVertex, graph));
+    }
     double runtimeMs = (System.nanoTime() - startNanos) / 1e6;
     log.info("Type hierarchy scan took " + runtimeMs + " ms");
+    scanned = true;
     return new ScanResult(typeToVertex, graph);
   }
 
-  private static void addSootClassToGraph(
-      SootClass<?> sootClass, Map<ClassType, Vertex> typeToVertex, Graph<Vertex, Edge> graph) {
-    if (sootClass.isInterface()) {
+  private static void addTypeToGraph(
+      TypeHeader header, Map<ClassType, Vertex> typeToVertex, Graph<Vertex, Edge> graph) {
+    if (header.isInterface()) {
       Vertex vertex =
           typeToVertex.computeIfAbsent(
-              sootClass.getType(), type -> createAndAddInterfaceVertex(graph, type));
-      for (ClassType extendedInterface : sootClass.getInterfaces()) {
+              header.getType(), type -> createAndAddInterfaceVertex(graph, type));
+      for (ClassType extendedInterface : header.getInterfaces()) {
         Vertex extendedInterfaceVertex =
             typeToVertex.computeIfAbsent(
                 extendedInterface, type -> createAndAddInterfaceVertex(graph, type));
@@ -308,16 +349,16 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     } else {
       Vertex vertex =
           typeToVertex.computeIfAbsent(
-              sootClass.getType(), type -> createAndAddClassVertex(graph, type));
-      for (ClassType implementedInterface : sootClass.getInterfaces()) {
+              header.getType(), type -> createAndAddClassVertex(graph, type));
+      for (ClassType implementedInterface : header.getInterfaces()) {
         Vertex implementedInterfaceVertex =
             typeToVertex.computeIfAbsent(
                 implementedInterface, type -> createAndAddInterfaceVertex(graph, type));
         graph.addEdge(
             vertex, implementedInterfaceVertex, new Edge(EdgeType.ClassDirectlyImplements));
       }
-      sootClass
-          .getSuperclass()
+      header
+          .getSuperClass()
           .ifPresent(
               superClass -> {
                 Vertex superClassVertex =
@@ -350,7 +391,150 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Override
   public void addType(SootClass sootClass) {
     ScanResult scanResult = lazyScanResult.get();
-    addSootClassToGraph(sootClass, scanResult.typeToVertex, scanResult.graph);
+    addTypeToGraph(TypeHeader.of(sootClass), scanResult.typeToVertex, scanResult.graph);
+    invalidateCaches(scanResult.graph, scanResult.typeToVertex.get(sootClass.getType()));
+  }
+
+  /**
+   * Removes the edges from the type to its supertypes. If other types in the hierarchy still extend
+   * or implement the type, it stays in the hierarchy like a type that is referenced but not
+   * declared in the view; otherwise it is removed completely.
+   */
+  @Override
+  public void removeType(@Nonnull ClassType type) {
+    ScanResult scanResult = lazyScanResult.get();
+    Graph<Vertex, Edge> graph = scanResult.graph;
+    Vertex vertex = scanResult.typeToVertex.get(type);
+    if (vertex == null) {
+      return;
+    }
+    invalidateCaches(graph, vertex);
+    graph.removeAllEdges(new ArrayList<>(graph.outgoingEdgesOf(vertex)));
+    if (graph.inDegreeOf(vertex) == 0) {
+      graph.removeVertex(vertex);
+      scanResult.typeToVertex.remove(type);
+      subtypesCache.remove(type);
+    }
+  }
+
+  /**
+   * Replaces the type of <code>oldClass</code> by the type of <code>newClass</code>. If both
+   * declare the same type with the same supertypes, e.g. when only methods were changed, the
+   * hierarchy and its memoized results stay as they are.
+   */
+  @Override
+  public void replaceType(@Nonnull SootClass oldClass, @Nonnull SootClass newClass) {
+    ScanResult scanResult = lazyScanResult.get();
+    Vertex vertex = scanResult.typeToVertex.get(newClass.getType());
+    if (vertex != null
+        && oldClass.getType().equals(newClass.getType())
+        && headerOf(scanResult.graph, vertex, objectType()).equals(TypeHeader.of(newClass))) {
+      return;
+    }
+    removeType(oldClass.getType());
+    addType(newClass);
+  }
+
+  /**
+   * Applies the addition of a class to the view. If the hierarchy was not built yet, the view is
+   * scanned later anyway, so only hierarchies built from headers are updated.
+   */
+  @Override
+  public void classAdded(SootClass sc) {
+    if (scanned || headers != null) {
+      addType(sc);
+    }
+  }
+
+  @Override
+  public void classRemoved(SootClass sc) {
+    if (sc != null && (scanned || headers != null)) {
+      removeType(sc.getType());
+    }
+  }
+
+  @Override
+  public void classReplaced(SootClass oldClass, SootClass newClass) {
+    if (scanned || headers != null) {
+      replaceType(oldClass, newClass);
+    }
+  }
+
+  @Override
+  public void methodAdded(SootMethod m) {
+    // methods do not change the hierarchy
+  }
+
+  @Override
+  public void methodRemoved(SootMethod m) {
+    // methods do not change the hierarchy
+  }
+
+  /**
+   * Drops the memoized results that change when edges from <code>vertex</code> to its supertypes
+   * are added or removed: the supertypes of the vertex and of its subtypes, and the subtypes of all
+   * its supertypes. The subtypes of the vertex itself stay the same.
+   */
+  private void invalidateCaches(@Nonnull Graph<Vertex, Edge> graph, @Nonnull Vertex vertex) {
+    ClassType type = vertex.javaClassType;
+    for (ClassType subtype : subtypesOf(type)) {
+      implementedInterfacesCache.remove(subtype);
+      superClassesCache.remove(subtype);
+    }
+    implementedInterfacesCache.remove(type);
+    superClassesCache.remove(type);
+
+    Set<Vertex> supertypes = new HashSet<>();
+    Deque<Vertex> worklist = new ArrayDeque<>();
+    worklist.push(vertex);
+    while (!worklist.isEmpty()) {
+      for (Edge edge : graph.outgoingEdgesOf(worklist.pop())) {
+        Vertex supertype = graph.getEdgeTarget(edge);
+        if (supertypes.add(supertype)) {
+          subtypesCache.remove(supertype.javaClassType);
+          worklist.push(supertype);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns an immutable copy of this hierarchy in which subtype checks take constant time. Types
+   * added later are not reflected in the copy.
+   */
+  @Nonnull
+  public FrozenTypeHierarchy freeze() {
+    ScanResult scanResult = lazyScanResult.get();
+    ClassType objectType = objectType();
+    List<TypeHeader> typeHeaders = new ArrayList<>(scanResult.typeToVertex.size());
+    for (Vertex vertex : scanResult.typeToVertex.values()) {
+      typeHeaders.add(headerOf(scanResult.graph, vertex, objectType));
+    }
+    return FrozenTypeHierarchy.of(typeHeaders);
+  }
+
+  @Nonnull
+  private ClassType objectType() {
+    return view.getIdentifierFactory().getClassType("java.lang.Object");
+  }
+
+  /** Returns the header that the graph stores for the vertex. */
+  @Nonnull
+  private static TypeHeader headerOf(
+      @Nonnull Graph<Vertex, Edge> graph, @Nonnull Vertex vertex, @Nonnull ClassType objectType) {
+    boolean isInterface = vertex.type == VertexType.Interface;
+    // like in class files, the superclass of an interface is java.lang.Object
+    ClassType superClass = isInterface ? objectType : null;
+    Set<ClassType> interfaces = new HashSet<>();
+    for (Edge edge : graph.outgoingEdgesOf(vertex)) {
+      ClassType target = graph.getEdgeTarget(edge).javaClassType;
+      if (edge.type == EdgeType.ClassDirectlyExtends) {
+        superClass = target;
+      } else {
+        interfaces.add(target);
+      }
+    }
+    return new TypeHeader(vertex.javaClassType, isInterface, superClass, interfaces);
   }
 
   /** Holds a vertex for each {@link ClassType} encountered during the scan. */
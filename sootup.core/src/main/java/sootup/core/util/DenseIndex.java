@@ -0,0 +1,87 @@
+package sootup.core.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * An immutable numbering of a fixed collection: every element gets its position in iteration order,
+ * duplicates keep the position of their first occurrence.
+ *
+ * @see Numberer for a numbering that grows
+ */
+public final class DenseIndex<T> {
+
+  @Nonnull private final ImmutableList<T> elements;
+  @Nonnull private final ImmutableMap<T, Integer> indexes;
+
+  private DenseIndex(
+      @Nonnull ImmutableList<T> elements, @Nonnull ImmutableMap<T, Integer> indexes) {
+    this.elements = elements;
+    this.indexes = indexes;
+  }
+
+  @Nonnull
+  public static <T> DenseIndex<T> of(@Nonnull Iterable<? extends T> elements) {
+    final ImmutableList.Builder<T> distinctElements = ImmutableList.builder();
+    final Map<T, Integer> indexes = new HashMap<>();
+    for (T element : elements) {
+      if (!indexes.containsKey(element)) {
+        indexes.put(element, indexes.size());
+        distinctElements.add(element);
+      }
+    }
+    return new DenseIndex<>(distinctElements.build(), ImmutableMap.copyOf(indexes));
+  }
+
+  /** Returns the index of the given element or -1 if it is not part of this index. */
+  public int indexOf(@Nonnull T element) {
+    final Integer index = indexes.get(element);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Returns the element with the given index.
+   *
+   * @throws IndexOutOfBoundsException if no element has this index
+   */
+  @Nonnull
+  public T get(int index) {
+    return elements.get(index);
+  }
+
+  /** Returns the indexed elements; the position of an element in the list is its index. */
+  @Nonnull
+  public List<T> getElements() {
+    return elements;
+  }
+
+  public int size() {
+    return elements.size();
+  }
+}
@@ -0,0 +1,75 @@
+package sootup.core.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Assigns dense numbers <code>0..size()-1</code> to objects in the order in which they are added. A
+ * number never changes once it is assigned, so it can be used as an index into arrays or bit sets.
+ * The numberer is thread-safe.
+ *
+ * @see DenseIndex for an immutable numbering of a fixed collection
+ */
+public final class Numberer<T> {
+
+  @Nonnull private final Map<T, Integer> numbers = new HashMap<>();
+  @Nonnull private final List<T> objects = new ArrayList<>();
+
+  /** Returns the number of the given object and assigns the next free number if it has none. */
+  public synchronized int add(@Nonnull T object) {
+    final Integer number = numbers.get(object);
+    if (number != null) {
+      return number;
+    }
+    final int newNumber = objects.size();
+    numbers.put(object, newNumber);
+    objects.add(object);
+    return newNumber;
+  }
+
+  /** Returns the number of the given object or -1 if it has not been added. */
+  public synchronized int getNumber(@Nonnull T object) {
+    final Integer number = numbers.get(object);
+    return number == null ? -1 : number;
+  }
+
+  /**
+   * Returns the object with the given number.
+   *
+   * @throws IndexOutOfBoundsException if no object has this number
+   */
+  @Nonnull
+  public synchronized T get(int number) {
+    return objects.get(number);
+  }
+
+  /** Returns the count of numbered objects, i.e. the next number that will be assigned. */
+  public synchronized int size() {
+    return objects.size();
+  }
+}
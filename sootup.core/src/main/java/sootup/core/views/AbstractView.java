@@ -22,9 +22,10 @@ package sootup.core.views;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
@@ -47,7 +48,7 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
 
   @Nonnull private final Project<T, ? extends View<T>> project;
 
-  @Nonnull private final Map<ModuleDataKey<?>, Object> moduleData = new HashMap<>();
+  @Nonnull private final Map<ModuleDataKey<?>, Object> moduleData = new ConcurrentHashMap<>();
 
   @Nullable private TypeHierarchy typeHierarchy;
 
@@ -117,6 +118,13 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
     moduleData.put(key, value);
   }
 
+  @SuppressWarnings("unchecked") // Safe because we only put T in computeModuleDataIfAbsent
+  @Override
+  public <K> K computeModuleDataIfAbsent(
+      @Nonnull ModuleDataKey<K> key, @Nonnull Supplier<K> dataSupplier) {
+    return (K) moduleData.computeIfAbsent(key, k -> dataSupplier.get());
+  }
+
   @Override
   @Nonnull
   public Project<? extends T, ? extends View<T>> getProject() {
@@ -34,6 +34,7 @@ import sootup.core.Project;
 import sootup.core.Scope;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootField;
 import sootup.core.model.SootMethod;
@@ -59,6 +60,16 @@ public interface View<T extends SootClass> {
   @Nonnull
   List<BodyInterceptor> getBodyInterceptors();
 
+  /**
+   * Returns the {@link ClassLoadingOptions} that are used to load classes from the given input
+   * location, if any were specified.
+   */
+  @Nonnull
+  default Optional<ClassLoadingOptions> getClassLoadingOptions(
+      AnalysisInputLocation<T> inputLocation) {
+    return Optional.empty();
+  }
+
   /** Return all classes in the view. */
   @Nonnull
   Collection<T> getClasses();
@@ -0,0 +1,88 @@
+package sootup.core.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.util.Numberer;
+
+/**
+ * Dense numbers for the class types, methods and fields of a {@link View}. Each kind is numbered
+ * separately, starting at 0, in the order in which the objects are first numbered. The numbers are
+ * stable for the lifetime of the view, so analyses can use them to index arrays and bit sets
+ * instead of hashing signatures.
+ *
+ * <p>There is one numbering per view, see {@link #of(View)}. Numbers of locals and statements are
+ * given per body by {@link sootup.core.model.Body#getLocalIndex()} and {@link
+ * sootup.core.model.Body#getStmtIndex()}.
+ */
+public final class ViewNumbering {
+
+  @Nonnull private final Numberer<ClassType> classTypes = new Numberer<>();
+  @Nonnull private final Numberer<MethodSignature> methods = new Numberer<>();
+  @Nonnull private final Numberer<FieldSignature> fields = new Numberer<>();
+
+  private ViewNumbering() {}
+
+  /** Returns the numbering of the given view; it is created on first use. */
+  @Nonnull
+  public static ViewNumbering of(@Nonnull View<?> view) {
+    return view.computeModuleDataIfAbsent(Key.instance, ViewNumbering::new);
+  }
+
+  /** Returns the number of the given type and assigns one if it has none yet. */
+  public int getNumber(@Nonnull ClassType type) {
+    return classTypes.add(type);
+  }
+
+  /** Returns the number of the given method and assigns one if it has none yet. */
+  public int getNumber(@Nonnull MethodSignature method) {
+    return methods.add(method);
+  }
+
+  /** Returns the number of the given field and assigns one if it has none yet. */
+  public int getNumber(@Nonnull FieldSignature field) {
+    return fields.add(field);
+  }
+
+  @Nonnull
+  public Numberer<ClassType> getClassTypes() {
+    return classTypes;
+  }
+
+  @Nonnull
+  public Numberer<MethodSignature> getMethods() {
+    return methods;
+  }
+
+  @Nonnull
+  public Numberer<FieldSignature> getFields() {
+    return fields;
+  }
+
+  private static final class Key extends View.ModuleDataKey<ViewNumbering> {
+    private static final Key instance = new Key();
+  }
+}
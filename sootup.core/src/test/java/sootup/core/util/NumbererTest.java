@@ -0,0 +1,94 @@
+package sootup.core.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(Java8Test.class)
+public class NumbererTest {
+
+  @Test
+  public void testNumbersAreDenseAndStable() {
+    Numberer<String> numberer = new Numberer<>();
+    assertEquals(0, numberer.add("a"));
+    assertEquals(1, numberer.add("b"));
+    assertEquals(0, numberer.add("a"));
+    assertEquals(2, numberer.add("c"));
+
+    assertEquals(3, numberer.size());
+    assertEquals(1, numberer.getNumber("b"));
+    assertEquals(-1, numberer.getNumber("d"));
+    assertEquals("c", numberer.get(2));
+  }
+
+  @Test
+  public void testConcurrentNumbering() throws Exception {
+    Numberer<Integer> numberer = new Numberer<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < 4; thread++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                for (int i = 0; i < 1000; i++) {
+                  numberer.add(i);
+                }
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1000, numberer.size());
+    for (int number = 0; number < numberer.size(); number++) {
+      assertEquals(number, numberer.getNumber(numberer.get(number)));
+    }
+  }
+
+  @Test
+  public void testDenseIndex() {
+    DenseIndex<String> index = DenseIndex.of(Arrays.asList("x", "y", "x", "z"));
+    assertEquals(3, index.size());
+    assertEquals(Arrays.asList("x", "y", "z"), index.getElements());
+    assertEquals(0, index.indexOf("x"));
+    assertEquals(2, index.indexOf("z"));
+    assertEquals(-1, index.indexOf("w"));
+    assertEquals("y", index.get(1));
+
+    assertEquals(0, DenseIndex.of(Collections.emptyList()).size());
+  }
+}
@@ -27,8 +27,10 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.objectweb.asm.tree.*;
 import sootup.core.IdentifierFactory;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.jimple.basic.NoPositionInformation;
@@ -45,13 +47,26 @@ class AsmClassSource extends JavaSootClassSource {
 
   @Nonnull private final ClassNode classNode;
 
+  /** Passed to the methods of the class, see {@link SootMethod#getBody()}. */
+  @Nullable private final BodyCache bodyCache;
+
   public AsmClassSource(
       AnalysisInputLocation<? extends SootClass<?>> inputLocation,
       Path sourcePath,
       JavaClassType javaClassType,
       @Nonnull ClassNode classNode) {
+    this(inputLocation, sourcePath, javaClassType, classNode, null);
+  }
+
+  public AsmClassSource(
+      AnalysisInputLocation<? extends SootClass<?>> inputLocation,
+      Path sourcePath,
+      JavaClassType javaClassType,
+      @Nonnull ClassNode classNode,
+      @Nullable BodyCache bodyCache) {
     super(inputLocation, javaClassType, sourcePath);
     this.classNode = classNode;
+    this.bodyCache = bodyCache;
   }
 
   private static Set<JavaSootField> resolveFields(
@@ -135,7 +150,8 @@ class AsmClassSource extends JavaSootClassSource {
                   modifiers,
                   exceptions,
                   convertAnnotation(methodSource.invisibleAnnotations),
-                  NoPositionInformation.getInstance());
+                  NoPositionInformation.getInstance(),
+                  bodyCache);
             })
         .collect(Collectors.toSet());
   }
@@ -167,6 +183,9 @@ class AsmClassSource extends JavaSootClassSource {
 
   @Nonnull
   public Optional<? extends ClassType> resolveOuterClass() {
+    if (classNode.outerClass == null) {
+      return Optional.empty();
+    }
     return Optional.ofNullable(AsmUtil.toJimpleClassType(classNode.outerClass));
   }
 
@@ -21,33 +21,144 @@ package sootup.java.bytecode.frontend;
  * #L%
  */
 import java.io.IOException;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Attribute;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.TypePath;
 import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ClassProvider;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassLoadingOptionKey;
 import sootup.core.inputlocation.FileType;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.model.SootClass;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.BytecodeClassLoadingOptions;
 import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.JavaSootClass;
 import sootup.java.core.types.AnnotationType;
 import sootup.java.core.types.JavaClassType;
 import sootup.java.core.types.ModuleJavaClassType;
 
-/** A {@link ClassProvider} capable of handling Java bytecode */
+/**
+ * A {@link ClassProvider} capable of handling Java bytecode.
+ *
+ * <p>If the code of methods is loaded on demand, only the headers of classes, fields and methods
+ * are parsed when the class source is created. The code of a method is read again from its class
+ * file when its body is resolved for the first time. If the code is released after resolution, the
+ * ASM tree of a method is dropped once its body was built and read again on the next resolution.
+ */
 public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
 
   @Nonnull private final List<BodyInterceptor> bodyInterceptors;
+  private final boolean loadMethodCodeOnDemand;
+  private final boolean releaseMethodCodeAfterResolution;
+  @Nullable private final JimpleBodyCache bodyCache;
+
+  /** Used to locate a class file again if the file system it was read from has been closed. */
+  @Nullable private final View<JavaSootClass> view;
+
+  /** Retains the bodies of the created methods according to the body policy of the view. */
+  @Nullable private final BodyCache retainedBodies;
 
   public AsmJavaClassProvider(@Nonnull List<BodyInterceptor> bodyInterceptors) {
+    this(bodyInterceptors, false);
+  }
+
+  public AsmJavaClassProvider(
+      @Nonnull List<BodyInterceptor> bodyInterceptors, boolean loadMethodCodeOnDemand) {
+    this(bodyInterceptors, loadMethodCodeOnDemand, false);
+  }
+
+  /**
+   * @param loadMethodCodeOnDemand parse only the headers of a class and read the code of a method
+   *     when its body is resolved
+   * @param releaseMethodCodeAfterResolution drop the ASM tree of the code of a method once its body
+   *     was built; the code is read again if the body is resolved another time
+   */
+  public AsmJavaClassProvider(
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      boolean loadMethodCodeOnDemand,
+      boolean releaseMethodCodeAfterResolution) {
+    this(bodyInterceptors, loadMethodCodeOnDemand, releaseMethodCodeAfterResolution, null);
+  }
+
+  /**
+   * @param bodyCache the cache bodies are read from before they are converted and written to
+   *     afterwards, or null to convert every body
+   */
+  public AsmJavaClassProvider(
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      boolean loadMethodCodeOnDemand,
+      boolean releaseMethodCodeAfterResolution,
+      @Nullable JimpleBodyCache bodyCache) {
+    this(
+        bodyInterceptors,
+        loadMethodCodeOnDemand,
+        releaseMethodCodeAfterResolution,
+        bodyCache,
+        null);
+  }
+
+  /**
+   * Creates a provider which uses the body interceptors and the {@link
+   * BytecodeClassLoadingOptions#LOAD_METHOD_CODE_ON_DEMAND}, {@link
+   * BytecodeClassLoadingOptions#RELEASE_METHOD_CODE_AFTER_RESOLUTION} and {@link
+   * BytecodeClassLoadingOptions#BODY_CACHE} options that the view specifies for the given input
+   * location. The created methods retain their bodies according to the {@link
+   * BodyCache#setMemoryPolicy(View, sootup.core.cache.MemoryPolicy) body policy} of the view.
+   */
+  public AsmJavaClassProvider(
+      @Nonnull View<JavaSootClass> view,
+      @Nonnull AnalysisInputLocation<JavaSootClass> inputLocation) {
+    this(
+        view.getBodyInterceptors(inputLocation),
+        isEnabled(view, inputLocation, BytecodeClassLoadingOptions.LOAD_METHOD_CODE_ON_DEMAND),
+        isEnabled(
+            view, inputLocation, BytecodeClassLoadingOptions.RELEASE_METHOD_CODE_AFTER_RESOLUTION),
+        view.getClassLoadingOptions(inputLocation)
+            .map(
+                options ->
+                    options.<JimpleBodyCache>getValue(BytecodeClassLoadingOptions.BODY_CACHE))
+            .orElse(null),
+        view);
+  }
+
+  private AsmJavaClassProvider(
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      boolean loadMethodCodeOnDemand,
+      boolean releaseMethodCodeAfterResolution,
+      @Nullable JimpleBodyCache bodyCache,
+      @Nullable View<JavaSootClass> view) {
     this.bodyInterceptors = bodyInterceptors;
+    this.loadMethodCodeOnDemand = loadMethodCodeOnDemand;
+    this.releaseMethodCodeAfterResolution = releaseMethodCodeAfterResolution;
+    this.bodyCache = bodyCache;
+    this.view = view;
+    this.retainedBodies = view == null ? null : BodyCache.of(view).orElse(null);
+  }
+
+  private static boolean isEnabled(
+      @Nonnull View<JavaSootClass> view,
+      @Nonnull AnalysisInputLocation<JavaSootClass> inputLocation,
+      @Nonnull ClassLoadingOptionKey key) {
+    return view.getClassLoadingOptions(inputLocation)
+        .map(options -> Boolean.TRUE.equals(options.getValue(key)))
+        .orElse(false);
   }
 
   @Override
@@ -55,10 +166,49 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
       AnalysisInputLocation<? extends SootClass<?>> srcNamespace,
       Path sourcePath,
       ClassType classType) {
+    return createClassSource(
+        srcNamespace,
+        sourcePath,
+        classType,
+        () -> readClassFile(srcNamespace, sourcePath, classType));
+  }
+
+  /**
+   * Creates a class source whose class file is read by the given reader instead of from the source
+   * path, e.g. directly from an archive the input location keeps open. The reader is invoked again
+   * whenever the code of a method has to be (re)loaded.
+   */
+  @Nonnull
+  public AbstractClassSource<JavaSootClass> createClassSource(
+      @Nonnull AnalysisInputLocation<? extends SootClass<?>> srcNamespace,
+      @Nonnull Path sourcePath,
+      @Nonnull ClassType classType,
+      @Nonnull ClassFileReader classFileReader) {
     SootClassNode classNode = new SootClassNode();
 
     try {
-      AsmUtil.initAsmClassSource(sourcePath, classNode);
+      final byte[] classFile = classFileReader.read();
+      new ClassReader(classFile)
+          .accept(
+              classNode,
+              loadMethodCodeOnDemand
+                  ? ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES
+                  : ClassReader.SKIP_FRAMES);
+      if (loadMethodCodeOnDemand || releaseMethodCodeAfterResolution) {
+        for (MethodNode method : classNode.methods) {
+          ((AsmMethodSource) method)
+              .setCodeLoader(
+                  methodSource -> loadMethodCode(classFileReader, sourcePath, methodSource),
+                  !loadMethodCodeOnDemand,
+                  releaseMethodCodeAfterResolution);
+        }
+      }
+      if (bodyCache != null) {
+        final String classHash = JimpleBodyCache.hashClassFile(classFile);
+        for (MethodNode method : classNode.methods) {
+          ((AsmMethodSource) method).setBodyCache(bodyCache, classHash);
+        }
+      }
     } catch (IOException exception) {
       throw new ResolveException(
           exception.getMessage(), sourcePath, NoPositionInformation.getInstance(), exception);
@@ -74,7 +224,48 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
         return new AsmAnnotationClassSource(srcNamespace, sourcePath, klassType, classNode);
       }
 
-      return new AsmClassSource(srcNamespace, sourcePath, klassType, classNode);
+      return new AsmClassSource(srcNamespace, sourcePath, klassType, classNode, retainedBodies);
+    }
+  }
+
+  /** Reads the class file at the given path. */
+  @Nonnull
+  private byte[] readClassFile(
+      @Nonnull AnalysisInputLocation<? extends SootClass<?>> srcNamespace,
+      @Nonnull Path sourcePath,
+      @Nonnull ClassType classType)
+      throws IOException {
+    try {
+      return Files.readAllBytes(sourcePath);
+    } catch (ClosedFileSystemException e) {
+      // e.g. the archive the class was read from has been closed in the meantime
+      if (view == null) {
+        throw new IOException("The file system of " + sourcePath + " has been closed.", e);
+      }
+      Path classFile =
+          srcNamespace
+              .getClassSource(classType, view)
+              .orElseThrow(
+                  () -> new IOException("Class file of " + classType + " does not exist anymore."))
+              .getSourcePath();
+      return Files.readAllBytes(classFile);
+    }
+  }
+
+  /** Reads the code of the given method from its class file. */
+  private static void loadMethodCode(
+      @Nonnull ClassFileReader classFileReader,
+      @Nonnull Path sourcePath,
+      @Nonnull AsmMethodSource methodSource) {
+    try {
+      new ClassReader(classFileReader.read())
+          .accept(new MethodCodeReader(methodSource), ClassReader.SKIP_FRAMES);
+    } catch (IOException | ClosedFileSystemException exception) {
+      throw new ResolveException(
+          "Could not read the code of " + methodSource.getSignature(),
+          sourcePath,
+          NoPositionInformation.getInstance(),
+          exception);
     }
   }
 
@@ -84,6 +275,13 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
     return FileType.CLASS;
   }
 
+  /** Supplies the content of a class file. */
+  @FunctionalInterface
+  public interface ClassFileReader {
+    @Nonnull
+    byte[] read() throws IOException;
+  }
+
   class SootClassNode extends ClassNode {
 
     SootClassNode() {
@@ -105,4 +303,66 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
       return mn;
     }
   }
+
+  /** Passes only the code of the given method from a class file to its {@link AsmMethodSource}. */
+  private static class MethodCodeReader extends ClassVisitor {
+
+    @Nonnull private final AsmMethodSource methodSource;
+
+    private MethodCodeReader(@Nonnull AsmMethodSource methodSource) {
+      super(AsmUtil.SUPPORTED_ASM_OPCODE);
+      this.methodSource = methodSource;
+    }
+
+    @Override
+    @Nullable
+    public MethodVisitor visitMethod(
+        int access,
+        @Nonnull String name,
+        @Nonnull String desc,
+        @Nullable String signature,
+        @Nullable String[] exceptions) {
+      if (!name.equals(methodSource.name) || !desc.equals(methodSource.desc)) {
+        return null;
+      }
+
+      // the headers (annotations, parameters, attributes) were already read with the class
+      return new MethodVisitor(AsmUtil.SUPPORTED_ASM_OPCODE, methodSource) {
+        @Override
+        public void visitParameter(String name, int access) {}
+
+        @Override
+        @Nullable
+        public AnnotationVisitor visitAnnotationDefault() {
+          return null;
+        }
+
+        @Override
+        @Nullable
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+          return null;
+        }
+
+        @Override
+        @Nullable
+        public AnnotationVisitor visitTypeAnnotation(
+            int typeRef, TypePath typePath, String descriptor, boolean visible) {
+          return null;
+        }
+
+        @Override
+        public void visitAnnotableParameterCount(int parameterCount, boolean visible) {}
+
+        @Override
+        @Nullable
+        public AnnotationVisitor visitParameterAnnotation(
+            int parameter, String descriptor, boolean visible) {
+          return null;
+        }
+
+        @Override
+        public void visitAttribute(Attribute attribute) {}
+      };
+    }
+  }
 }
@@ -43,11 +43,14 @@ import com.google.common.collect.*;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.commons.JSRInlinerAdapter;
 import org.objectweb.asm.tree.*;
 import sootup.core.frontend.BodySource;
@@ -138,6 +141,25 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
 
   @Nonnull private final Map<LabelNode, Stmt> labelsToStmt = new HashMap<>();
 
+  /** Reads the code of this method if it was skipped when the class was parsed or released. */
+  @Nullable private Consumer<AsmMethodSource> codeLoader = null;
+
+  private boolean isCodeLoaded = true;
+
+  /** Holds the bodies converted in earlier runs, keyed by the hash of the class file. */
+  @Nullable private JimpleBodyCache bodyCache = null;
+
+  @Nullable private String classHash = null;
+
+  /** Drops the ASM tree of the code once a body was built from it. */
+  private boolean releaseCodeAfterResolution = false;
+
+  /**
+   * The JSRInlinerAdapter keeps its subroutine state after inlining, so the code of a method with
+   * subroutines can not be visited a second time.
+   */
+  private boolean hasSubroutines = false;
+
   // FIXME: [ms] or JavaModuleIdentifierFactory if needed..
   private JavaIdentifierFactory javaIdentifierFactory = JavaIdentifierFactory.getInstance();
   private final Supplier<MethodSignature> lazyMethodSignature =
@@ -171,11 +193,77 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     this.declaringClass = (JavaClassType) declaringClass;
   }
 
+  /**
+   * Allows to (re-)read the code of this method when its body is resolved.
+   *
+   * @param codeLoader visits the code of this method
+   * @param isCodeLoaded false if the code was skipped when the class was parsed
+   * @param releaseCodeAfterResolution true to drop the ASM tree of the code once a body was built;
+   *     it is read again if the body is resolved another time
+   */
+  void setCodeLoader(
+      @Nonnull Consumer<AsmMethodSource> codeLoader,
+      boolean isCodeLoaded,
+      boolean releaseCodeAfterResolution) {
+    this.codeLoader = codeLoader;
+    this.isCodeLoaded = isCodeLoaded;
+    this.releaseCodeAfterResolution = releaseCodeAfterResolution;
+  }
+
+  /** Reads the body from the cache if possible and adds it to the cache after conversion. */
+  void setBodyCache(@Nonnull JimpleBodyCache bodyCache, @Nonnull String classHash) {
+    this.bodyCache = bodyCache;
+    this.classHash = classHash;
+  }
+
+  @Override
+  public void visitJumpInsn(int opcode, Label label) {
+    if (opcode == Opcodes.JSR) {
+      hasSubroutines = true;
+    }
+    super.visitJumpInsn(opcode, label);
+  }
+
+  /** Drops the instructions, try-catch blocks and local variables of the code of this method. */
+  private void releaseCode() {
+    instructions.clear();
+    tryCatchBlocks = new ArrayList<>(0);
+    localVariables = null;
+    visibleLocalVariableAnnotations = null;
+    invisibleLocalVariableAnnotations = null;
+    maxStack = 0;
+    maxLocals = 0;
+    trapHandler = null;
+    replacedStmt.clear();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
+    isCodeLoaded = false;
+  }
+
   @Override
   @Nonnull
-  public Body resolveBody(@Nonnull Iterable<Modifier> modifierIt) {
+  public synchronized Body resolveBody(@Nonnull Iterable<Modifier> modifierIt) {
 
-    /* initialize */
+    if (bodyCache != null && classHash != null) {
+      final Body cachedBody = bodyCache.load(classHash, bodyInterceptors, getSignature());
+      if (cachedBody != null) {
+        return cachedBody;
+      }
+    }
+
+    if (!isCodeLoaded && codeLoader != null) {
+      codeLoader.accept(this);
+      isCodeLoaded = true;
+    }
+
+    /* initialize - the body is resolved again if a bounded body cache evicted it */
+    replacedStmt.clear();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
+    currentLineNumber = -1;
+    maxLineNumber = 0;
     nextLocal = maxLocals;
     locals =
         new NonIndexOutofBoundsArrayList<>(
@@ -228,6 +316,9 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     stmtsThatBranchToLabel = null;
     insnToStmt = null;
     operandStack = null;
+    if (releaseCodeAfterResolution && codeLoader != null && !hasSubroutines) {
+      releaseCode();
+    }
 
     bodyBuilder.setMethodSignature(lazyMethodSignature.get());
 
@@ -239,7 +330,11 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
             "Failed to apply " + bodyInterceptor + " to " + lazyMethodSignature.get(), e);
       }
     }
-    return bodyBuilder.build();
+    final Body body = bodyBuilder.build();
+    if (bodyCache != null && classHash != null) {
+      bodyCache.store(classHash, bodyInterceptors, body);
+    }
+    return body;
   }
 
   @Override
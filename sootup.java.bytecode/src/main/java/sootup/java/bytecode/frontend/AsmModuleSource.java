@@ -22,7 +22,6 @@ package sootup.java.bytecode.frontend;
  */
 import com.google.common.base.Suppliers;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -43,19 +42,30 @@ import sootup.java.core.types.JavaClassType;
 public class AsmModuleSource extends JavaModuleInfo {
 
   @Nonnull private final Path sourcePath;
+  @Nonnull private final AsmJavaClassProvider.ClassFileReader reader;
   @Nonnull private final Supplier<ModuleNode> _lazyModule = Suppliers.memoize(this::_lazyModule);
 
   public AsmModuleSource(@Nonnull Path sourcePath) {
+    this(sourcePath, () -> Files.readAllBytes(sourcePath));
+  }
+
+  /**
+   * Creates a module source whose descriptor is read by the given reader, e.g. from an entry of an
+   * archive. The source path is only used to report errors.
+   */
+  public AsmModuleSource(
+      @Nonnull Path sourcePath, @Nonnull AsmJavaClassProvider.ClassFileReader reader) {
 
     // if it would be an automatic module there would be no module-info.class
     super();
     this.sourcePath = sourcePath;
+    this.reader = reader;
   }
 
   // make loading lazy
   private ModuleNode _lazyModule() {
-    try (InputStream sourceFileInputStream = Files.newInputStream(sourcePath)) {
-      ClassReader clsr = new ClassReader(sourceFileInputStream);
+    try {
+      ClassReader clsr = new ClassReader(reader.read());
 
       ClassNode classNode = new ClassNode(AsmUtil.SUPPORTED_ASM_OPCODE);
       clsr.accept(classNode, ClassReader.SKIP_FRAMES);
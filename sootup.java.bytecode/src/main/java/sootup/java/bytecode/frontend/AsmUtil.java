@@ -43,6 +43,7 @@ import org.objectweb.asm.util.TraceMethodVisitor;
 import sootup.core.frontend.ResolveException;
 import sootup.core.jimple.common.constant.ClassConstant;
 import sootup.core.model.Modifier;
+import sootup.core.typehierarchy.TypeHeader;
 import sootup.core.types.PrimitiveType;
 import sootup.core.types.Type;
 import sootup.core.types.VoidType;
@@ -135,6 +136,21 @@ public final class AsmUtil {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Reads the access flags, the superclass and the interfaces of a class file from its constant
+   * pool, without visiting any fields or methods.
+   */
+  @Nonnull
+  public static TypeHeader readTypeHeader(@Nonnull byte[] classFile) {
+    ClassReader reader = new ClassReader(classFile);
+    String superName = reader.getSuperName();
+    return new TypeHeader(
+        toJimpleClassType(reader.getClassName()),
+        (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0,
+        superName == null ? null : toJimpleClassType(superName),
+        new HashSet<>(asmIdToSignature(Arrays.asList(reader.getInterfaces()))));
+  }
+
   @Nonnull
   public static JavaClassType toJimpleClassType(@Nonnull String asmClassName) {
     return JavaIdentifierFactory.getInstance().getClassType(toQualifiedName(asmClassName));
@@ -0,0 +1,85 @@
+package sootup.java.bytecode.frontend;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+
+/** Statistics about the lookups in and the additions to a {@link JimpleBodyCache}. */
+public final class BodyCacheStats {
+
+  private final long hitCount;
+  private final long missCount;
+  private final long storeCount;
+  private final long failureCount;
+
+  BodyCacheStats(long hitCount, long missCount, long storeCount, long failureCount) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.storeCount = storeCount;
+    this.failureCount = failureCount;
+  }
+
+  /** Returns the number of bodies that were read from the cache instead of being converted. */
+  public long hitCount() {
+    return hitCount;
+  }
+
+  /** Returns the number of bodies that were not cached yet. */
+  public long missCount() {
+    return missCount;
+  }
+
+  /** Returns the number of bodies that were written to the cache. */
+  public long storeCount() {
+    return storeCount;
+  }
+
+  /**
+   * Returns the number of bodies that could not be written to or read from the cache, e.g. because
+   * the binary encoding does not support their content or an entry was corrupt.
+   */
+  public long failureCount() {
+    return failureCount;
+  }
+
+  /** Returns the ratio of hits to lookups, or 0 if there was no lookup. */
+  public double hitRate() {
+    final long lookupCount = hitCount + missCount;
+    return lookupCount == 0 ? 0.0 : (double) hitCount / lookupCount;
+  }
+
+  @Override
+  @Nonnull
+  public String toString() {
+    return "BodyCacheStats{"
+        + "hitCount="
+        + hitCount
+        + ", missCount="
+        + missCount
+        + ", storeCount="
+        + storeCount
+        + ", failureCount="
+        + failureCount
+        + '}';
+  }
+}
@@ -0,0 +1,396 @@
+package sootup.java.bytecode.frontend;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.jimple.binary.BinaryJimpleReader;
+import sootup.java.core.jimple.binary.BinaryJimpleWriter;
+
+/**
+ * Caches the Jimple bodies converted from bytecode on disk, so that the methods of class files
+ * which did not change since an earlier run are not converted again. A body is stored in the binary
+ * Jimple format under the hash of the content of its class file, its method signature, the version
+ * of the converter and a fingerprint of the body interceptors that were applied to it. The version
+ * of the converter consists of the SootUp version, {@link #CONVERTER_VERSION} and the content of
+ * the class file of {@link AsmMethodSource}. The fingerprint of an interceptor consists of its
+ * class, the content of its class file and the values of its fields, so that bodies built by
+ * another version or configuration of the converter are not returned.
+ *
+ * <p>A cached body is trusted, so the cache directory must not be writable by other users.
+ *
+ * <p>Several threads and processes may use the same cache directory, as an entry becomes visible
+ * only once it was written completely. Bodies which can not be encoded are converted on every run.
+ * The cache does not evict entries on its own, see {@link #prune(long, long)}.
+ */
+public final class JimpleBodyCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(JimpleBodyCache.class);
+
+  /**
+   * Has to be incremented whenever the bytecode frontend builds bodies differently in a way that
+   * the class file of {@link AsmMethodSource} does not reflect, e.g. a change of a helper class.
+   */
+  public static final int CONVERTER_VERSION = 1;
+
+  private static final String ENTRY_SUFFIX = ".body";
+
+  @Nonnull private static final String converterFingerprint = fingerprintConverter();
+
+  @Nonnull private final Path directory;
+
+  /** The hashes of the class files of the body interceptors that were used with this cache. */
+  @Nonnull private final Map<Class<?>, String> classFileHashes = new ConcurrentHashMap<>();
+
+  @Nonnull private final LongAdder hitCount = new LongAdder();
+  @Nonnull private final LongAdder missCount = new LongAdder();
+  @Nonnull private final LongAdder storeCount = new LongAdder();
+  @Nonnull private final LongAdder failureCount = new LongAdder();
+
+  /** @param directory the directory which holds the cached bodies */
+  public JimpleBodyCache(@Nonnull Path directory) {
+    this.directory = directory;
+  }
+
+  @Nonnull
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /** Returns the statistics of the lookups and additions since this cache was created. */
+  @Nonnull
+  public BodyCacheStats getStats() {
+    return new BodyCacheStats(
+        hitCount.sum(), missCount.sum(), storeCount.sum(), failureCount.sum());
+  }
+
+  /** Returns the hash of the content of a class file, which identifies its bodies in the cache. */
+  @Nonnull
+  public static String hashClassFile(@Nonnull byte[] classFile) {
+    return Hashing.sha256().hashBytes(classFile).toString();
+  }
+
+  /**
+   * Returns the cached body of the method, or null if it was not cached yet.
+   *
+   * @param classHash the {@link #hashClassFile(byte[]) hash} of the class file declaring the method
+   * @param bodyInterceptors the interceptors the body is requested with
+   */
+  @Nullable
+  public Body load(
+      @Nonnull String classHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull MethodSignature signature) {
+    final Path entry = entryOf(classHash, bodyInterceptors, signature);
+    final byte[] content;
+    try {
+      content = Files.readAllBytes(entry);
+      markUsed(entry);
+    } catch (NoSuchFileException e) {
+      missCount.increment();
+      return null;
+    } catch (IOException e) {
+      logger.warn("Could not read " + entry + " from the body cache.", e);
+      failureCount.increment();
+      missCount.increment();
+      return null;
+    }
+
+    try {
+      final BinaryJimpleReader.Cursor cursor =
+          new BinaryJimpleReader(ByteBuffer.wrap(content), JavaIdentifierFactory.getInstance())
+              .cursor(0);
+      // guards against hash collisions
+      if (!cursor.readMethodSignature().equals(signature)) {
+        throw new IllegalArgumentException("The entry belongs to another method.");
+      }
+      final Body body = cursor.readBody(signature);
+      hitCount.increment();
+      return body;
+    } catch (RuntimeException e) {
+      logger.warn("Discarding the corrupt entry " + entry + " of the body cache.", e);
+      failureCount.increment();
+      missCount.increment();
+      try {
+        Files.deleteIfExists(entry);
+      } catch (IOException ignored) {
+        // it is overwritten once the body is stored again
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Stores the body of the method, unless the binary Jimple format does not support its content.
+   *
+   * @param classHash the {@link #hashClassFile(byte[]) hash} of the class file declaring the method
+   * @param bodyInterceptors the interceptors that were applied to the body
+   */
+  public void store(
+      @Nonnull String classHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull Body body) {
+    final MethodSignature signature = body.getMethodSignature();
+    final BinaryJimpleWriter writer = new BinaryJimpleWriter();
+    try {
+      writer.writeMethodSignature(signature);
+      writer.writeBody(body);
+    } catch (IllegalArgumentException e) {
+      logger.debug("Not caching the body of " + signature + ": " + e.getMessage());
+      failureCount.increment();
+      return;
+    }
+
+    final Path entry = entryOf(classHash, bodyInterceptors, signature);
+    try {
+      Files.createDirectories(entry.getParent());
+      final Path tempEntry =
+          Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+      try {
+        Files.write(tempEntry, writer.toByteArray());
+        try {
+          Files.move(tempEntry, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tempEntry, entry, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tempEntry);
+      }
+      storeCount.increment();
+    } catch (IOException e) {
+      logger.warn("Could not write " + entry + " to the body cache.", e);
+      failureCount.increment();
+    }
+  }
+
+  @Nonnull
+  private Path entryOf(
+      @Nonnull String classHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull MethodSignature signature) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(converterFingerprint, StandardCharsets.UTF_8).putChar('\n');
+    hasher.putString(classHash, StandardCharsets.UTF_8).putChar('\n');
+    for (BodyInterceptor bodyInterceptor : bodyInterceptors) {
+      hasher.putString(fingerprint(bodyInterceptor), StandardCharsets.UTF_8).putChar(',');
+    }
+    hasher.putChar('\n').putString(signature.toString(), StandardCharsets.UTF_8);
+    final String key = hasher.hash().toString();
+    // a level of subdirectories keeps the directories small
+    return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+  }
+
+  @Nonnull
+  private static String fingerprintConverter() {
+    final String sootUpVersion = JimpleBodyCache.class.getPackage().getImplementationVersion();
+    return (sootUpVersion == null ? "unknown" : sootUpVersion)
+        + ','
+        + CONVERTER_VERSION
+        + ','
+        + hashClassFileOf(AsmMethodSource.class);
+  }
+
+  /**
+   * Returns the class and the content of the class file of the interceptor, followed by the values
+   * of its fields. Fields which do not hold a primitive, string or enum value contribute their
+   * class only.
+   */
+  @Nonnull
+  private String fingerprint(@Nonnull BodyInterceptor bodyInterceptor) {
+    final Class<?> interceptorClass = bodyInterceptor.getClass();
+    final String classFileHash =
+        classFileHashes.computeIfAbsent(interceptorClass, JimpleBodyCache::hashClassFileOf);
+    final StringBuilder fingerprint =
+        new StringBuilder(interceptorClass.getName()).append('@').append(classFileHash);
+    for (Class<?> clazz = interceptorClass; clazz != Object.class; clazz = clazz.getSuperclass()) {
+      for (Field field : clazz.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+          continue;
+        }
+        fingerprint.append(';').append(field.getName()).append('=');
+        final Object value;
+        try {
+          field.setAccessible(true);
+          value = field.get(bodyInterceptor);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+          fingerprint.append(field.getType().getName());
+          continue;
+        }
+        if (value == null
+            || value instanceof Number
+            || value instanceof Boolean
+            || value instanceof Character
+            || value instanceof String
+            || value instanceof Enum) {
+          fingerprint.append(value);
+        } else {
+          fingerprint.append(value.getClass().getName());
+        }
+      }
+    }
+    return fingerprint.toString();
+  }
+
+  /** Returns the hash of the class file of the class, or its name if it can not be read. */
+  @Nonnull
+  private static String hashClassFileOf(@Nonnull Class<?> clazz) {
+    final String classFile = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1);
+    try (InputStream content = clazz.getResourceAsStream(classFile + ".class")) {
+      if (content != null) {
+        return hashClassFile(ByteStreams.toByteArray(content));
+      }
+    } catch (IOException e) {
+      logger.debug("Could not read the class file of " + clazz, e);
+    }
+    return clazz.getName();
+  }
+
+  /** Updates the modification time of the entry, which orders the entries for pruning. */
+  private static void markUsed(@Nonnull Path entry) {
+    try {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      // only affects the order of pruning
+    }
+  }
+
+  /**
+   * Deletes the entries which were not used for the given time and then the least recently used
+   * ones until the entries do not exceed the given size.
+   *
+   * @param maximumSize the number of bytes the entries may occupy
+   * @param maximumAgeMillis the time after which an unused entry is deleted
+   * @return the number of deleted entries
+   */
+  public long prune(long maximumSize, long maximumAgeMillis) {
+    final List<Path> entries;
+    try (Stream<Path> files = Files.walk(directory)) {
+      entries =
+          files
+              .filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX))
+              .collect(Collectors.toCollection(ArrayList::new));
+    } catch (NoSuchFileException e) {
+      return 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not list the body cache " + directory, e);
+    }
+
+    final List<EntryInfo> infos = new ArrayList<>(entries.size());
+    long size = 0;
+    for (Path entry : entries) {
+      try {
+        final BasicFileAttributes attributes =
+            Files.readAttributes(entry, BasicFileAttributes.class);
+        infos.add(
+            new EntryInfo(entry, attributes.size(), attributes.lastModifiedTime().toMillis()));
+        size += attributes.size();
+      } catch (IOException e) {
+        // deleted by another process
+      }
+    }
+    infos.sort(Comparator.comparingLong(info -> info.lastUsed));
+
+    final long oldestKept = System.currentTimeMillis() - maximumAgeMillis;
+    long deletedCount = 0;
+    for (EntryInfo info : infos) {
+      if (size <= maximumSize && info.lastUsed >= oldestKept) {
+        break;
+      }
+      try {
+        Files.delete(info.path);
+        deletedCount++;
+      } catch (NoSuchFileException e) {
+        // deleted by another process
+      } catch (IOException e) {
+        logger.warn("Could not delete " + info.path + " from the body cache.", e);
+        continue;
+      }
+      size -= info.size;
+    }
+    return deletedCount;
+  }
+
+  /**
+   * Prunes a cache directory, see {@link #prune(long, long)}.
+   *
+   * <p>Usage: {@code JimpleBodyCache <directory> <maximum size in MB> [<maximum age in days>]}
+   */
+  public static void main(String[] args) {
+    if (args.length < 2 || args.length > 3) {
+      System.err.println(
+          "Usage: JimpleBodyCache <directory> <maximum size in MB> [<maximum age in days>]");
+      System.exit(1);
+    }
+    final long maximumSize = Long.parseLong(args[1]) * 1024 * 1024;
+    final long maximumAgeMillis =
+        args.length == 3 ? TimeUnit.DAYS.toMillis(Long.parseLong(args[2])) : Long.MAX_VALUE;
+    final long deletedCount =
+        new JimpleBodyCache(Paths.get(args[0])).prune(maximumSize, maximumAgeMillis);
+    System.out.println("Deleted " + deletedCount + " entries from the body cache " + args[0]);
+  }
+
+  private static final class EntryInfo {
+    @Nonnull private final Path path;
+    private final long size;
+    private final long lastUsed;
+
+    private EntryInfo(@Nonnull Path path, long size, long lastUsed) {
+      this.path = path;
+      this.size = size;
+      this.lastUsed = lastUsed;
+    }
+  }
+}
@@ -0,0 +1,254 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.Hashing;
+import com.googlecode.d2j.dex.BaseDexExceptionHandler;
+import com.googlecode.d2j.dex.Dex2jar;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the jars that dex2jar creates from APKs so that an unchanged APK is not converted again.
+ * The jars are stored in a cache directory under the SHA-256 hash of the content of their APK. If
+ * the jars exceed the maximum size of the cache, the least recently used ones are deleted.
+ *
+ * <p>Several threads and processes may use the same cache directory: an APK is converted by only
+ * one of them at a time, and a jar becomes visible only once it was written completely.
+ *
+ * <p>A jar in the cache directory is trusted as the conversion of every APK with the hash in its
+ * name, so the directory must not be writable by other users. APKs that are analyzed without a
+ * cache are converted by {@link #convertToTemporaryJar(Path)} instead.
+ */
+public final class ApkConversionCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(ApkConversionCache.class);
+
+  /** A maximum size of 1 GB for callers that have no limit of their own. */
+  public static final long DEFAULT_MAXIMUM_SIZE = 1024L * 1024 * 1024;
+
+  private static final String JAR_SUFFIX = ".jar";
+
+  private static final String LOCK_FILE = "cache.lock";
+
+  /**
+   * Jars that were used this recently are not evicted as another process may be about to read them.
+   */
+  private static final long EVICTION_GRACE_PERIOD_MILLIS = 60 * 1000;
+
+  /** File locks are held by the process, so threads of this process have to wait for each other. */
+  private static final ConcurrentHashMap<Path, Object> directoryLocks = new ConcurrentHashMap<>();
+
+  @Nonnull private final Path directory;
+  private final long maximumSize;
+  @Nonnull private final BiConsumer<Path, Path> converter;
+
+  /**
+   * @param directory the directory which holds the converted jars
+   * @param maximumSize the number of bytes the converted jars may occupy; the most recently used
+   *     jar is kept even if it is larger
+   */
+  public ApkConversionCache(@Nonnull Path directory, long maximumSize) {
+    this(directory, maximumSize, ApkConversionCache::dex2jar);
+  }
+
+  ApkConversionCache(
+      @Nonnull Path directory, long maximumSize, @Nonnull BiConsumer<Path, Path> converter) {
+    this.directory = directory;
+    this.maximumSize = maximumSize;
+    this.converter = converter;
+  }
+
+  /**
+   * Converts the APK into a jar in a new temporary directory that only the current user can access.
+   * The jar is deleted when the JVM exits.
+   */
+  @Nonnull
+  public static Path convertToTemporaryJar(@Nonnull Path apk) {
+    try {
+      final Path directory = Files.createTempDirectory("sootup-dex2jar");
+      directory.toFile().deleteOnExit();
+      final Path jar = directory.resolve("classes" + JAR_SUFFIX);
+      // registered after the directory so that it is deleted first
+      jar.toFile().deleteOnExit();
+      dex2jar(apk, jar);
+      return jar;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not convert " + apk + " into a jar", e);
+    }
+  }
+
+  @Nonnull
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  /** Returns the jar converted from the APK, converting the APK only if it is not cached yet. */
+  @Nonnull
+  public Path getJar(@Nonnull Path apk) {
+    try {
+      Files.createDirectories(directory);
+      final String hash =
+          com.google.common.io.Files.asByteSource(apk.toFile()).hash(Hashing.sha256()).toString();
+      final Path jar = directory.resolve(hash + JAR_SUFFIX);
+      if (markUsed(jar)) {
+        return jar;
+      }
+
+      // conversions are rare, so one lock per cache directory suffices
+      synchronized (
+          directoryLocks.computeIfAbsent(directory.toAbsolutePath(), dir -> new Object())) {
+        try (FileChannel channel =
+                FileChannel.open(
+                    directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            FileLock ignored = channel.lock()) {
+          // another thread or process might have converted the APK in the meantime
+          if (!markUsed(jar)) {
+            convert(apk, jar);
+            evictLeastRecentlyUsed(jar);
+          }
+        }
+      }
+      return jar;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not convert " + apk + " into a jar", e);
+    }
+  }
+
+  private void convert(@Nonnull Path apk, @Nonnull Path jar) throws IOException {
+    final Path tempJar = Files.createTempFile(directory, jar.getFileName().toString(), ".tmp");
+    try {
+      converter.accept(apk, tempJar);
+      // a jar that is cached once is used on every later run, so a failed conversion must not be
+      if (Files.size(tempJar) == 0) {
+        throw new IOException("The conversion of " + apk + " did not produce a jar.");
+      }
+      try {
+        Files.move(tempJar, jar, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempJar, jar, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempJar);
+    }
+  }
+
+  /** Updates the modification time of the jar, which orders the jars for eviction. */
+  private static boolean markUsed(@Nonnull Path jar) throws IOException {
+    try {
+      Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis()));
+      return true;
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+  }
+
+  /** Deletes the least recently used jars until the cache does not exceed its maximum size. */
+  private void evictLeastRecentlyUsed(@Nonnull Path usedJar) throws IOException {
+    final List<Path> jars = new ArrayList<>();
+    long size = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + JAR_SUFFIX)) {
+      for (Path jar : files) {
+        try {
+          size += Files.size(jar);
+          jars.add(jar);
+        } catch (NoSuchFileException e) {
+          // evicted by another process
+        }
+      }
+    }
+    if (size <= maximumSize) {
+      return;
+    }
+
+    jars.sort(Comparator.comparing(ApkConversionCache::lastModifiedTime));
+    final long recentlyUsed = System.currentTimeMillis() - EVICTION_GRACE_PERIOD_MILLIS;
+    for (Path jar : jars) {
+      if (size <= maximumSize) {
+        break;
+      }
+      if (jar.equals(usedJar) || lastModifiedTime(jar).toMillis() > recentlyUsed) {
+        continue;
+      }
+      try {
+        long jarSize = Files.size(jar);
+        Files.delete(jar);
+        size -= jarSize;
+      } catch (NoSuchFileException e) {
+        // evicted by another process
+      } catch (IOException e) {
+        logger.warn("Could not evict " + jar + " from the dex2jar cache.", e);
+      }
+    }
+  }
+
+  @Nonnull
+  private static FileTime lastModifiedTime(@Nonnull Path file) {
+    try {
+      return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime();
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  /**
+   * Converts the APK with the dex2jar API instead of its command line tool, which only prints the
+   * exceptions of a failed conversion. Methods that cannot be translated are replaced by stubs,
+   * like the command line tool does.
+   */
+  private static void dex2jar(@Nonnull Path apk, @Nonnull Path jar) {
+    try {
+      Dex2jar.from(apk.toFile()).withExceptionHandler(new BaseDexExceptionHandler()).to(jar);
+      // fails if the jar is not a readable zip
+      new ZipFile(jar.toFile()).close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("dex2jar could not convert " + apk, e);
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.Hashing;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The names of the classes that are contained in an archive, grouped by their package. The index is
+ * built from the central directory of the archive. It can be persisted in a cache directory so that
+ * later runs can reuse it as long as the size and modification time of the archive are unchanged.
+ *
+ * <p>The index contains every <code>.class</code> entry, i.e. a type that is not in the index is
+ * not in the archive.
+ */
+final class ArchiveClassIndex {
+  private static final @Nonnull Logger logger = LoggerFactory.getLogger(ArchiveClassIndex.class);
+  private static final String FORMAT = "sootup-archive-class-index 1";
+  private static final String CLASS_FILE_SUFFIX = ".class";
+
+  @Nonnull private final Map<String, Set<String>> classNamesByPackage;
+
+  private ArchiveClassIndex(@Nonnull Map<String, Set<String>> classNamesByPackage) {
+    this.classNamesByPackage = classNamesByPackage;
+  }
+
+  /**
+   * Loads the index of the archive from the cache directory or builds it if there is no index for
+   * the current state of the archive.
+   *
+   * @param archive the archive to index
+   * @param cacheDirectory the directory to persist the index in or <code>null</code> to keep the
+   *     index only in memory
+   */
+  @Nonnull
+  static ArchiveClassIndex of(@Nonnull Path archive, @Nullable Path cacheDirectory)
+      throws IOException {
+    if (cacheDirectory == null) {
+      return build(archive);
+    }
+
+    final String fingerprint = fingerprint(archive);
+    final Path indexFile =
+        cacheDirectory.resolve(
+            Hashing.sha256().hashString(fingerprint, StandardCharsets.UTF_8) + ".idx");
+    if (Files.exists(indexFile)) {
+      try {
+        ArchiveClassIndex index = read(indexFile, fingerprint);
+        if (index != null) {
+          return index;
+        }
+      } catch (IOException e) {
+        logger.warn("Could not read the class index " + indexFile + " of " + archive, e);
+      }
+    }
+
+    ArchiveClassIndex index = build(archive);
+    try {
+      index.write(indexFile, fingerprint);
+    } catch (IOException e) {
+      logger.warn("Could not persist the class index of " + archive + " in " + indexFile, e);
+    }
+    return index;
+  }
+
+  /** Returns true if the archive contains a class file of the given fully qualified name. */
+  boolean contains(@Nonnull String fullyQualifiedName) {
+    int separator = fullyQualifiedName.lastIndexOf('.');
+    Set<String> classNames =
+        classNamesByPackage.get(separator < 0 ? "" : fullyQualifiedName.substring(0, separator));
+    return classNames != null && classNames.contains(fullyQualifiedName.substring(separator + 1));
+  }
+
+  /** Returns the fully qualified names of all classes of the archive. */
+  @Nonnull
+  Set<String> getClassNames() {
+    Set<String> classNames = new HashSet<>();
+    classNamesByPackage.forEach(
+        (packageName, names) -> {
+          for (String name : names) {
+            classNames.add(packageName.isEmpty() ? name : packageName + '.' + name);
+          }
+        });
+    return classNames;
+  }
+
+  /**
+   * Identifies the state of the archive by its location, size and modification time. Hashing its
+   * whole content would read every archive completely, which costs more than rebuilding the index
+   * from the central directory.
+   */
+  @Nonnull
+  private static String fingerprint(@Nonnull Path archive) throws IOException {
+    final Path absolutePath = archive.toAbsolutePath().normalize();
+    return absolutePath
+        + "|"
+        + Files.size(absolutePath)
+        + "|"
+        + Files.getLastModifiedTime(absolutePath).toMillis();
+  }
+
+  @Nonnull
+  private static ArchiveClassIndex build(@Nonnull Path archive) throws IOException {
+    Map<String, Set<String>> classNamesByPackage = new HashMap<>();
+    try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String name = entry.getName();
+        if (entry.isDirectory() || !name.endsWith(CLASS_FILE_SUFFIX)) {
+          continue;
+        }
+        String className = name.substring(0, name.length() - CLASS_FILE_SUFFIX.length());
+        int separator = className.lastIndexOf('/');
+        String packageName =
+            separator < 0 ? "" : className.substring(0, separator).replace('/', '.');
+        classNamesByPackage
+            .computeIfAbsent(packageName, key -> new HashSet<>())
+            .add(className.substring(separator + 1));
+      }
+    }
+    return new ArchiveClassIndex(classNamesByPackage);
+  }
+
+  /** Returns the persisted index or <code>null</code> if it belongs to another archive state. */
+  @Nullable
+  private static ArchiveClassIndex read(@Nonnull Path indexFile, @Nonnull String fingerprint)
+      throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+      if (!FORMAT.equals(reader.readLine()) || !fingerprint.equals(reader.readLine())) {
+        return null;
+      }
+      Map<String, Set<String>> classNamesByPackage = new HashMap<>();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] names = line.split("\t");
+        Set<String> classNames = new HashSet<>(names.length - 1);
+        for (int i = 1; i < names.length; i++) {
+          classNames.add(names[i]);
+        }
+        classNamesByPackage.put(names[0], classNames);
+      }
+      return new ArchiveClassIndex(classNamesByPackage);
+    }
+  }
+
+  private void write(@Nonnull Path indexFile, @Nonnull String fingerprint) throws IOException {
+    Files.createDirectories(indexFile.getParent());
+    // write to a temporary file first, so that concurrent runs never read an incomplete index
+    Path tmpFile = Files.createTempFile(indexFile.getParent(), "index", ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+        writer.write(FORMAT);
+        writer.newLine();
+        writer.write(fingerprint);
+        writer.newLine();
+        for (Map.Entry<String, Set<String>> entry : classNamesByPackage.entrySet()) {
+          writer.write(entry.getKey());
+          for (String className : entry.getValue()) {
+            writer.write('\t');
+            writer.write(className);
+          }
+          writer.newLine();
+        }
+      }
+      Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+}
@@ -22,6 +22,7 @@ package sootup.java.bytecode.inputlocation;
  */
 import java.util.List;
 import javax.annotation.Nonnull;
+import sootup.core.inputlocation.ClassLoadingOptionKey;
 import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.transform.BodyInterceptor;
 import sootup.java.bytecode.interceptors.BytecodeBodyInterceptors;
@@ -38,5 +39,66 @@ public enum BytecodeClassLoadingOptions implements ClassLoadingOptions {
     public List<BodyInterceptor> getBodyInterceptors() {
       return BytecodeBodyInterceptors.Default.bodyInterceptors();
     }
-  }
+  },
+
+  /**
+   * Like {@link #Default}, but only the headers of classes, fields and methods are parsed when a
+   * class is loaded. The code of a method is read again from its input location when its body is
+   * requested for the first time.
+   */
+  OnDemandMethodCode {
+    @Nonnull
+    @Override
+    public List<BodyInterceptor> getBodyInterceptors() {
+      return BytecodeBodyInterceptors.Default.bodyInterceptors();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(ClassLoadingOptionKey key) {
+      return key == LOAD_METHOD_CODE_ON_DEMAND ? (T) Boolean.TRUE : null;
+    }
+  },
+
+  /**
+   * Like {@link #OnDemandMethodCode}, and additionally the ASM tree of the code of a method is
+   * dropped once its body was built. The code is read again if the body is resolved another time,
+   * e.g. after it was evicted from the {@link sootup.core.cache.BodyCache} of the view.
+   */
+  TransientMethodCode {
+    @Nonnull
+    @Override
+    public List<BodyInterceptor> getBodyInterceptors() {
+      return BytecodeBodyInterceptors.Default.bodyInterceptors();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(ClassLoadingOptionKey key) {
+      return key == LOAD_METHOD_CODE_ON_DEMAND || key == RELEASE_METHOD_CODE_AFTER_RESOLUTION
+          ? (T) Boolean.TRUE
+          : null;
+    }
+  };
+
+  /**
+   * If the value of this key is {@link Boolean#TRUE}, method code is read from the input location
+   * when the body of a method is requested instead of when its class is loaded.
+   */
+  public static final ClassLoadingOptionKey LOAD_METHOD_CODE_ON_DEMAND =
+      new ClassLoadingOptionKey();
+
+  /**
+   * If the value of this key is {@link Boolean#TRUE}, the ASM tree of the code of a method is
+   * dropped once its body was built, so the method is not kept in two representations.
+   */
+  public static final ClassLoadingOptionKey RELEASE_METHOD_CODE_AFTER_RESOLUTION =
+      new ClassLoadingOptionKey();
+
+  /**
+   * If the value of this key is a {@link sootup.java.bytecode.frontend.JimpleBodyCache}, bodies are
+   * read from and written to it, so methods of unchanged class files are converted only once across
+   * runs.
+   */
+  public static final ClassLoadingOptionKey BODY_CACHE = new ClassLoadingOptionKey();
 }
@@ -22,9 +22,11 @@ package sootup.java.bytecode.inputlocation;
  * #L%
  */
 
+import com.google.common.base.Suppliers;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -35,7 +37,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassNameFilter;
 import sootup.core.model.SourceType;
+import sootup.core.typehierarchy.TypeHeader;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
 import sootup.core.util.StreamUtils;
@@ -55,11 +59,21 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
       LoggerFactory.getLogger(JavaClassPathAnalysisInputLocation.class);
   private static final @Nonnull String WILDCARD_CHAR = "*";
 
-  @Nonnull private final Collection<AnalysisInputLocation<JavaSootClass>> cpEntries;
+  @Nonnull private final List<AnalysisInputLocation<JavaSootClass>> cpEntries;
 
   /** Variable to track if user has specified the SourceType. By default, it will be set to null. */
   private SourceType srcType = null;
 
+  @Nullable private final Path indexCacheDirectory;
+
+  /** Built on the first class lookup, as indexing reads the central directory of every archive. */
+  @Nonnull
+  private final Supplier<ClassPathIndex> classPathIndex = Suppliers.memoize(this::buildIndex);
+
+  @Nonnull
+  private final Supplier<Optional<ClassNameFilter>> classNameFilter =
+      Suppliers.memoize(this::buildClassNameFilter);
+
   /**
    * Creates a {@link JavaClassPathAnalysisInputLocation} which locates classes in the given class
    * path.
@@ -67,15 +81,7 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
    * @param classPath The class path to search in
    */
   public JavaClassPathAnalysisInputLocation(@Nonnull String classPath) {
-    if (classPath.length() <= 0) {
-      throw new IllegalStateException("Empty class path given");
-    }
-
-    cpEntries = explodeClassPath(classPath);
-
-    if (cpEntries.isEmpty()) {
-      throw new IllegalStateException("Empty class path is given.");
-    }
+    this(classPath, null);
   }
 
   /**
@@ -87,10 +93,27 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
    */
   public JavaClassPathAnalysisInputLocation(
       @Nonnull String classPath, @Nullable SourceType srcType) {
+    this(classPath, srcType, null);
+  }
+
+  /**
+   * Creates a {@link JavaClassPathAnalysisInputLocation} which locates classes in the given class
+   * path.
+   *
+   * @param classPath the class path to search in
+   * @param srcType the source type for the path can be Library, Application, Phantom.
+   * @param indexCacheDirectory the directory in which the class indices of the archives are
+   *     persisted to be reused by later runs, or <code>null</code> to keep them only in memory. A
+   *     persisted index is trusted as long as the size and modification time of its archive are
+   *     unchanged, so the directory must not be writable by other users.
+   */
+  public JavaClassPathAnalysisInputLocation(
+      @Nonnull String classPath, @Nullable SourceType srcType, @Nullable Path indexCacheDirectory) {
     if (classPath.length() <= 0) {
       throw new IllegalStateException("Empty class path given");
     }
     setSpecifiedAsBuiltInByUser(srcType);
+    this.indexCacheDirectory = indexCacheDirectory;
     cpEntries = explodeClassPath(classPath);
 
     if (cpEntries.isEmpty()) {
@@ -187,18 +210,108 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     return found;
   }
 
+  @Override
+  @Nonnull
+  public Stream<? extends AbstractClassSource<JavaSootClass>> streamClassSources(
+      @Nonnull View<?> view) {
+    // an entry that occurs several times on the class path would yield the same sources again
+    return cpEntries.stream()
+        .distinct()
+        .flatMap(inputLocation -> inputLocation.streamClassSources(view));
+  }
+
+  @Override
+  @Nonnull
+  public Stream<TypeHeader> streamTypeHeaders(@Nonnull View<?> view) {
+    return PathBasedAnalysisInputLocation.readTypeHeaders(cpEntries, view);
+  }
+
   @Override
   @Nonnull
   public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
       @Nonnull ClassType type, @Nonnull View<?> view) {
-    for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
+    final ClassPathIndex index = classPathIndex.get();
+    final int archiveEntry =
+        index.firstArchiveEntries.getOrDefault(type.getFullyQualifiedName(), Integer.MAX_VALUE);
+
+    // entries without an index precede the indexed archive in the class path
+    for (int entry : index.unindexedEntries) {
+      if (entry > archiveEntry) {
+        break;
+      }
+      final AnalysisInputLocation<JavaSootClass> inputLocation = cpEntries.get(entry);
+      if (inputLocation
+          .getClassNameFilter()
+          .map(filter -> !filter.mightContain(type))
+          .orElse(false)) {
+        continue;
+      }
       final Optional<? extends AbstractClassSource<JavaSootClass>> classSource =
           inputLocation.getClassSource(type, view);
       if (classSource.isPresent()) {
         return classSource;
       }
     }
-    return Optional.empty();
+
+    if (archiveEntry == Integer.MAX_VALUE) {
+      return Optional.empty();
+    }
+    return cpEntries.get(archiveEntry).getClassSource(type, view);
+  }
+
+  /**
+   * Returns a filter of all classes on the class path if every entry that is not indexed provides a
+   * filter of its own.
+   */
+  @Nonnull
+  @Override
+  public Optional<ClassNameFilter> getClassNameFilter() {
+    return classNameFilter.get();
+  }
+
+  @Nonnull
+  private Optional<ClassNameFilter> buildClassNameFilter() {
+    final ClassPathIndex index = classPathIndex.get();
+    List<ClassNameFilter> filters = new ArrayList<>();
+    filters.add(ClassNameFilter.of(index.firstArchiveEntries.keySet()));
+    for (int entry : index.unindexedEntries) {
+      Optional<ClassNameFilter> filter = cpEntries.get(entry).getClassNameFilter();
+      if (!filter.isPresent()) {
+        return Optional.empty();
+      }
+      filters.add(filter.get());
+    }
+    return Optional.of(ClassNameFilter.anyOf(filters));
+  }
+
+  @Nonnull
+  private ClassPathIndex buildIndex() {
+    Map<String, Integer> firstArchiveEntries = new HashMap<>();
+    List<Integer> unindexedEntries = new ArrayList<>();
+    for (int entry = 0; entry < cpEntries.size(); entry++) {
+      AnalysisInputLocation<JavaSootClass> inputLocation = cpEntries.get(entry);
+      Optional<Path> archive =
+          inputLocation instanceof PathBasedAnalysisInputLocation
+              ? ((PathBasedAnalysisInputLocation) inputLocation).getPlainArchive()
+              : Optional.empty();
+      if (!archive.isPresent()) {
+        // e.g. directories, whose content may change
+        unindexedEntries.add(entry);
+        continue;
+      }
+
+      try {
+        for (String className :
+            ArchiveClassIndex.of(archive.get(), indexCacheDirectory).getClassNames()) {
+          firstArchiveEntries.putIfAbsent(className, entry);
+        }
+      } catch (IOException e) {
+        logger.warn("Could not index the class path entry " + archive.get(), e);
+        unindexedEntries.add(entry);
+      }
+    }
+    return new ClassPathIndex(
+        firstArchiveEntries, unindexedEntries.stream().mapToInt(Integer::intValue).toArray());
   }
 
   @Nonnull
@@ -240,6 +353,20 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     }
   }
 
+  /** Maps every class of the indexed archives to the first class path entry containing it. */
+  private static class ClassPathIndex {
+    @Nonnull private final Map<String, Integer> firstArchiveEntries;
+
+    /** The ascending positions of the class path entries that have to be probed. */
+    @Nonnull private final int[] unindexedEntries;
+
+    private ClassPathIndex(
+        @Nonnull Map<String, Integer> firstArchiveEntries, @Nonnull int[] unindexedEntries) {
+      this.firstArchiveEntries = firstArchiveEntries;
+      this.unindexedEntries = unindexedEntries;
+    }
+  }
+
   @Override
   public int hashCode() {
     return cpEntries.hashCode();
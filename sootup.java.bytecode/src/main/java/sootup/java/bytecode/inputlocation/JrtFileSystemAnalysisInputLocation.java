@@ -21,6 +21,7 @@ package sootup.java.bytecode.inputlocation;
  * #L%
  */
 
+import com.google.common.base.Suppliers;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.DirectoryStream;
@@ -30,6 +31,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -59,6 +61,14 @@ import sootup.java.core.types.JavaClassType;
 public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInputLocation {
 
   private static final FileSystem theFileSystem = FileSystems.getFileSystem(URI.create("jrt:/"));
+
+  /**
+   * Maps the name of every package of the JDK image to the modules that contain it. It is read once
+   * from the <code>/packages</code> directory of the jrt file system.
+   */
+  private static final Supplier<Map<String, List<String>>> packageModules =
+      Suppliers.memoize(JrtFileSystemAnalysisInputLocation::readPackageModules);
+
   Map<ModuleSignature, JavaModuleInfo> moduleInfoMap = new HashMap<>();
   boolean isResolved = false;
 
@@ -69,7 +79,7 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
     JavaClassType klassType = (JavaClassType) classType;
 
     ClassProvider<JavaSootClass> classProvider =
-        new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this));
+        new AsmJavaClassProvider((View<JavaSootClass>) view, this);
     Path filepath =
         theFileSystem.getPath(
             klassType.getFullyQualifiedName().replace('.', '/')
@@ -92,23 +102,42 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
       }
     }
 
-    // module information does not exist in Signature -> search for class
-    final Path moduleRoot = theFileSystem.getPath("modules");
-    try (DirectoryStream<Path> stream = Files.newDirectoryStream(moduleRoot)) {
-      {
-        for (Path entry : stream) {
-          // check each module folder for the class
-          Path foundfile = entry.resolve(filepath);
-          if (Files.isRegularFile(foundfile)) {
-            return Optional.of(classProvider.createClassSource(this, foundfile, klassType));
+    // module information does not exist in Signature -> look up the modules of the package
+    final List<String> modules =
+        packageModules
+            .get()
+            .getOrDefault(klassType.getPackageName().getPackageName(), Collections.emptyList());
+    for (String moduleName : modules) {
+      Path foundfile = theFileSystem.getPath("modules", moduleName).resolve(filepath);
+      if (Files.isRegularFile(foundfile)) {
+        return Optional.of(classProvider.createClassSource(this, foundfile, klassType));
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Reads the modules of each package from the entries <code>/packages/[package]/[module]</code>.
+   */
+  @Nonnull
+  private static Map<String, List<String>> readPackageModules() {
+    final Path packageRoot = theFileSystem.getPath("packages");
+    final Map<String, List<String>> packageModules = new HashMap<>();
+    try (DirectoryStream<Path> packages = Files.newDirectoryStream(packageRoot)) {
+      for (Path packageDir : packages) {
+        final List<String> modules = new ArrayList<>(1);
+        try (DirectoryStream<Path> moduleLinks = Files.newDirectoryStream(packageDir)) {
+          for (Path moduleLink : moduleLinks) {
+            modules.add(moduleLink.getFileName().toString());
           }
         }
+        packageModules.put(packageDir.getFileName().toString(), modules);
       }
     } catch (IOException e) {
-      throw new ResolveException("Error loading a module", moduleRoot, e);
+      throw new ResolveException("Error reading the packages of the modules", packageRoot, e);
     }
-
-    return Optional.empty();
+    return packageModules;
   }
 
   /** Retreive CLassSources of a module specified by methodSignature */
@@ -127,7 +156,7 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
       @Nonnull View<?> view) {
 
     ClassProvider<JavaSootClass> classProvider =
-        new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this));
+        new AsmJavaClassProvider((View<JavaSootClass>) view, this);
 
     String moduleInfoFilename =
         JavaModuleIdentifierFactory.MODULE_INFO_FILE
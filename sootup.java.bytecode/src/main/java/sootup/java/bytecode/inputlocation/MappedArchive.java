@@ -0,0 +1,323 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A read-only view of a zip or jar archive. The archive is memory-mapped and its central directory
+ * is parsed once; afterwards the content of an entry is accessed without any file system lookups.
+ *
+ * <p>Stored entries are returned as slices of the mapped archive, i.e. without copying them.
+ * Instances are thread-safe.
+ */
+final class MappedArchive {
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int ZIP64_EXTRA_FIELD = 0x0001;
+
+  private static final int END_SIZE = 22;
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+
+  @Nonnull private final Path path;
+  @Nonnull private final ByteBuffer archive;
+  @Nonnull private final Map<String, Entry> entries;
+
+  private MappedArchive(
+      @Nonnull Path path, @Nonnull ByteBuffer archive, @Nonnull Map<String, Entry> entries) {
+    this.path = path;
+    this.archive = archive;
+    this.entries = entries;
+  }
+
+  /** Maps the archive into memory and reads its central directory. */
+  @Nonnull
+  static MappedArchive open(@Nonnull Path path) throws IOException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new ZipException("Archives larger than 2 GB are not supported: " + path);
+      }
+      // the mapping stays valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    final ByteBuffer archive = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    return new MappedArchive(path, archive, readCentralDirectory(path, archive));
+  }
+
+  /**
+   * Reads the central directory of an archive that is already in memory, e.g. of a jar nested in
+   * another archive.
+   *
+   * @param path identifies the archive, e.g. in error messages
+   */
+  @Nonnull
+  static MappedArchive of(@Nonnull Path path, @Nonnull ByteBuffer content) throws IOException {
+    final ByteBuffer archive = content.slice().order(ByteOrder.LITTLE_ENDIAN);
+    return new MappedArchive(path, archive, readCentralDirectory(path, archive));
+  }
+
+  @Nonnull
+  Path getPath() {
+    return path;
+  }
+
+  /** Returns the names of all entries, e.g. <code>java/lang/Object.class</code>. */
+  @Nonnull
+  Set<String> getEntryNames() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  boolean contains(@Nonnull String entryName) {
+    return entries.containsKey(entryName);
+  }
+
+  /** Returns the uncompressed size of the entry or -1 if the archive does not contain it. */
+  int getSize(@Nonnull String entryName) {
+    final Entry entry = entries.get(entryName);
+    return entry == null ? -1 : entry.size;
+  }
+
+  /**
+   * Returns the (uncompressed) content of the entry or <code>null</code> if the archive does not
+   * contain it. The content of stored entries is a read-only slice of the mapped archive.
+   */
+  @Nullable
+  ByteBuffer getEntry(@Nonnull String entryName) throws IOException {
+    final Entry entry = entries.get(entryName);
+    if (entry == null) {
+      return null;
+    }
+
+    final ByteBuffer data = slice(dataOffset(entry), entry.compressedSize);
+    switch (entry.method) {
+      case STORED:
+        return data.asReadOnlyBuffer();
+      case DEFLATED:
+        return ByteBuffer.wrap(inflate(entryName, entry, data));
+      default:
+        throw new ZipException(
+            "Unsupported compression method " + entry.method + " of " + entryName + " in " + path);
+    }
+  }
+
+  /**
+   * Returns the (uncompressed) content of the entry as an array, e.g. for an ASM ClassReader, or
+   * <code>null</code> if the archive does not contain it.
+   */
+  @Nullable
+  byte[] readEntry(@Nonnull String entryName) throws IOException {
+    final ByteBuffer content = getEntry(entryName);
+    if (content == null) {
+      return null;
+    }
+    if (content.hasArray()) {
+      return content.array();
+    }
+    final byte[] bytes = new byte[content.remaining()];
+    content.get(bytes);
+    return bytes;
+  }
+
+  @Nonnull
+  private byte[] inflate(@Nonnull String entryName, @Nonnull Entry entry, @Nonnull ByteBuffer data)
+      throws IOException {
+    final byte[] compressed = new byte[data.remaining()];
+    data.get(compressed);
+    final byte[] content = new byte[entry.size];
+    final Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(compressed);
+      int length = 0;
+      while (length < content.length && !inflater.finished()) {
+        int inflated = inflater.inflate(content, length, content.length - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != content.length) {
+        throw new ZipException("Corrupt entry " + entryName + " in " + path);
+      }
+      return content;
+    } catch (DataFormatException e) {
+      throw new ZipException("Corrupt entry " + entryName + " in " + path + ": " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private int dataOffset(@Nonnull Entry entry) throws ZipException {
+    final int offset = entry.localHeaderOffset;
+    if (archive.getInt(offset) != LOCAL_HEADER_SIGNATURE) {
+      throw new ZipException("Invalid local header at " + offset + " in " + path);
+    }
+    final int nameLength = Short.toUnsignedInt(archive.getShort(offset + 26));
+    final int extraLength = Short.toUnsignedInt(archive.getShort(offset + 28));
+    return offset + 30 + nameLength + extraLength;
+  }
+
+  @Nonnull
+  private ByteBuffer slice(int offset, int length) {
+    final ByteBuffer duplicate = archive.duplicate();
+    // the casts keep the calls binary compatible with Java 8 when compiled on a newer JDK, which
+    // added covariant overrides of position and limit to ByteBuffer
+    ((Buffer) duplicate).position(offset);
+    ((Buffer) duplicate).limit(offset + length);
+    return duplicate.slice();
+  }
+
+  @Nonnull
+  private static Map<String, Entry> readCentralDirectory(
+      @Nonnull Path path, @Nonnull ByteBuffer archive) throws ZipException {
+    final int end = findEndOfCentralDirectory(path, archive);
+    long entryCount = Short.toUnsignedInt(archive.getShort(end + 10));
+    long offset = Integer.toUnsignedLong(archive.getInt(end + 16));
+
+    final int locator = end - ZIP64_LOCATOR_SIZE;
+    if (locator >= 0 && archive.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+      final int zip64End = toOffset(path, archive.getLong(locator + 8));
+      if (archive.getInt(zip64End) != ZIP64_END_SIGNATURE) {
+        throw new ZipException("Invalid zip64 end of central directory in " + path);
+      }
+      entryCount = archive.getLong(zip64End + 32);
+      offset = archive.getLong(zip64End + 48);
+    }
+
+    final Map<String, Entry> entries = new HashMap<>((int) Math.min(entryCount, 1 << 20) * 2);
+    int position = toOffset(path, offset);
+    for (long i = 0; i < entryCount; i++) {
+      if (archive.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+        throw new ZipException("Invalid central directory header at " + position + " in " + path);
+      }
+      final int method = Short.toUnsignedInt(archive.getShort(position + 10));
+      long compressedSize = Integer.toUnsignedLong(archive.getInt(position + 20));
+      long size = Integer.toUnsignedLong(archive.getInt(position + 24));
+      final int nameLength = Short.toUnsignedInt(archive.getShort(position + 28));
+      final int extraLength = Short.toUnsignedInt(archive.getShort(position + 30));
+      final int commentLength = Short.toUnsignedInt(archive.getShort(position + 32));
+      long localHeaderOffset = Integer.toUnsignedLong(archive.getInt(position + 42));
+
+      final byte[] name = new byte[nameLength];
+      final ByteBuffer nameBuffer = archive.duplicate();
+      ((Buffer) nameBuffer).position(position + 46);
+      nameBuffer.get(name);
+
+      // zip64: values that do not fit are stored in the extra field in this order
+      int extra = position + 46 + nameLength;
+      final int extraEnd = extra + extraLength;
+      while (extra + 4 <= extraEnd) {
+        final int id = Short.toUnsignedInt(archive.getShort(extra));
+        final int length = Short.toUnsignedInt(archive.getShort(extra + 2));
+        if (id == ZIP64_EXTRA_FIELD) {
+          int field = extra + 4;
+          if (size == 0xFFFFFFFFL) {
+            size = archive.getLong(field);
+            field += 8;
+          }
+          if (compressedSize == 0xFFFFFFFFL) {
+            compressedSize = archive.getLong(field);
+            field += 8;
+          }
+          if (localHeaderOffset == 0xFFFFFFFFL) {
+            localHeaderOffset = archive.getLong(field);
+          }
+          break;
+        }
+        extra += 4 + length;
+      }
+
+      final String entryName = new String(name, StandardCharsets.UTF_8);
+      if (!entryName.endsWith("/")) {
+        entries.putIfAbsent(
+            entryName,
+            new Entry(
+                method,
+                toOffset(path, compressedSize),
+                toOffset(path, size),
+                toOffset(path, localHeaderOffset)));
+      }
+      position = extraEnd + commentLength;
+    }
+    return entries;
+  }
+
+  private static int findEndOfCentralDirectory(@Nonnull Path path, @Nonnull ByteBuffer archive)
+      throws ZipException {
+    final int last = archive.limit() - END_SIZE;
+    final int first = Math.max(0, last - MAX_COMMENT_SIZE);
+    for (int position = last; position >= first; position--) {
+      if (archive.getInt(position) == END_SIGNATURE) {
+        return position;
+      }
+    }
+    throw new ZipException("No end of central directory found in " + path);
+  }
+
+  private static int toOffset(@Nonnull Path path, long value) throws ZipException {
+    if (value < 0 || value > Integer.MAX_VALUE) {
+      throw new ZipException("Invalid offset or size " + value + " in " + path);
+    }
+    return (int) value;
+  }
+
+  /** The location of an entry as read from the central directory. */
+  private static final class Entry {
+    private final int method;
+    private final int compressedSize;
+    private final int size;
+    private final int localHeaderOffset;
+
+    private Entry(int method, int compressedSize, int size, int localHeaderOffset) {
+      this.method = method;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+  }
+}
@@ -1,19 +1,16 @@
 package sootup.java.bytecode.inputlocation;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.cache.RemovalNotification;
-import com.googlecode.dex2jar.tools.Dex2jarCmd;
+import com.google.common.base.Suppliers;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import javax.annotation.Nonnull;
@@ -29,15 +26,19 @@ import org.xml.sax.SAXException;
 import sootup.core.IdentifierFactory;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ClassProvider;
+import sootup.core.frontend.ResolveException;
+import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassNameFilter;
 import sootup.core.inputlocation.FileType;
 import sootup.core.model.SourceType;
+import sootup.core.typehierarchy.TypeHeader;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
-import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
 import sootup.java.bytecode.frontend.AsmJavaClassProvider;
 import sootup.java.bytecode.frontend.AsmModuleSource;
+import sootup.java.bytecode.frontend.AsmUtil;
 import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.JavaModuleInfo;
 import sootup.java.core.JavaSootClass;
@@ -94,21 +95,71 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     return pathBasedAnalysisInputLocationObj;
   }
 
+  /**
+   * Returns the archive if classes are located by their entry name directly in it, i.e. if it is a
+   * plain jar or zip archive and not a multi-release jar, war or apk.
+   */
+  @Nonnull
+  Optional<Path> getPlainArchive() {
+    return pathBasedAnalysisInputLocationObj != null
+            && pathBasedAnalysisInputLocationObj.getClass()
+                == ArchiveBasedAnalysisInputLocation.class
+        ? Optional.of(pathBasedAnalysisInputLocationObj.path)
+        : Optional.empty();
+  }
+
   public PathBasedAnalysisInputLocation(@Nonnull Path path) {
     this.path = path;
   }
 
   public PathBasedAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
+    this(path, srcType, false);
+  }
+
+  /**
+   * @param readWarArchiveInPlace if set and the path is a war archive, the archive is not extracted
+   *     to java.io.tmpdir. Instead, the classes in <code>WEB-INF/classes</code> and in the jars of
+   *     <code>WEB-INF/lib</code> are read directly from the war archive; the nested jars are held
+   *     in memory. Other kinds of input locations ignore it.
+   */
+  public PathBasedAnalysisInputLocation(
+      @Nonnull Path path, @Nullable SourceType srcType, boolean readWarArchiveInPlace) {
+    this(path, srcType, readWarArchiveInPlace, null);
+  }
+
+  /**
+   * @param apkConversionCache if the path is an APK, the cache in which the jar converted from it
+   *     is kept for later runs. Its directory must not be writable by other users. Other kinds of
+   *     input locations ignore it.
+   */
+  public PathBasedAnalysisInputLocation(
+      @Nonnull Path path,
+      @Nullable SourceType srcType,
+      @Nonnull ApkConversionCache apkConversionCache) {
+    this(path, srcType, false, Objects.requireNonNull(apkConversionCache));
+  }
+
+  /**
+   * @param apkConversionCache the cache of converted APKs, or <code>null</code> to convert an APK
+   *     into a private temporary file
+   */
+  private PathBasedAnalysisInputLocation(
+      @Nonnull Path path,
+      @Nullable SourceType srcType,
+      boolean readWarArchiveInPlace,
+      @Nullable ApkConversionCache apkConversionCache) {
     if (Files.isDirectory(path)) {
       pathBasedAnalysisInputLocationObj = new DirectoryBasedAnalysisInputLocation(path, srcType);
     } else if (PathUtils.isArchive(path)) {
 
       if (PathUtils.hasExtension(path, FileType.WAR)) {
-        pathBasedAnalysisInputLocationObj = new WarArchiveAnalysisInputLocation(path, srcType);
+        pathBasedAnalysisInputLocationObj =
+            new WarArchiveAnalysisInputLocation(path, srcType, readWarArchiveInPlace);
       } else if (isMultiReleaseJar(path)) { // check if mainfest contains multi release flag
         pathBasedAnalysisInputLocationObj = new MultiReleaseJarAnalysisInputLocation(path, srcType);
       } else if (PathUtils.hasExtension(path, FileType.APK)) {
-        pathBasedAnalysisInputLocationObj = new ApkAnalysisInputLocation(path, srcType);
+        pathBasedAnalysisInputLocationObj =
+            new ApkAnalysisInputLocation(path, srcType, apkConversionCache);
       } else {
         pathBasedAnalysisInputLocationObj = new ArchiveBasedAnalysisInputLocation(path, srcType);
       }
@@ -156,6 +207,64 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     return pathBasedAnalysisInputLocationObj.getClassSources(view);
   }
 
+  @Nonnull
+  @Override
+  public Stream<? extends AbstractClassSource<JavaSootClass>> streamClassSources(
+      @Nonnull View<?> view) {
+    return pathBasedAnalysisInputLocationObj.streamClassSources(view);
+  }
+
+  @Nonnull
+  @Override
+  public Optional<ClassNameFilter> getClassNameFilter() {
+    return pathBasedAnalysisInputLocationObj != null
+        ? pathBasedAnalysisInputLocationObj.getClassNameFilter()
+        : Optional.empty();
+  }
+
+  @Nonnull
+  @Override
+  public Stream<TypeHeader> streamTypeHeaders(@Nonnull View<?> view) {
+    return pathBasedAnalysisInputLocationObj != null
+        ? pathBasedAnalysisInputLocationObj.streamTypeHeaders(view)
+        : AnalysisInputLocation.super.streamTypeHeaders(view);
+  }
+
+  /**
+   * Reads the headers of the given input locations in parallel and concatenates them in the order
+   * of the input locations. A plain {@link Stream#flatMap(java.util.function.Function) flatMap}
+   * would read the headers of each input location sequentially.
+   */
+  @Nonnull
+  static Stream<TypeHeader> readTypeHeaders(
+      @Nonnull Collection<? extends AnalysisInputLocation<?>> inputLocations,
+      @Nonnull View<?> view) {
+    return inputLocations.stream()
+        .distinct()
+        .collect(Collectors.toList())
+        .parallelStream()
+        .map(
+            inputLocation -> {
+              try (Stream<TypeHeader> headers = inputLocation.streamTypeHeaders(view)) {
+                return headers.parallel().collect(Collectors.toList());
+              }
+            })
+        .collect(Collectors.toList())
+        .stream()
+        .flatMap(List::stream);
+  }
+
+  /** Reads the header of a class file, wrapping a failure like the creation of class sources. */
+  @Nonnull
+  static TypeHeader readTypeHeader(
+      @Nonnull Path sourcePath, @Nonnull AsmJavaClassProvider.ClassFileReader reader) {
+    try {
+      return AsmUtil.readTypeHeader(reader.read());
+    } catch (IOException | RuntimeException e) {
+      throw new ResolveException("Can not read the header of the class file", sourcePath, e);
+    }
+  }
+
   @Override
   public SourceType getSourceType() {
     return srcType;
@@ -190,6 +299,21 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       @Nonnull Path dirPath,
       @Nonnull IdentifierFactory factory,
       @Nonnull ClassProvider<JavaSootClass> classProvider) {
+    try (Stream<? extends AbstractClassSource<JavaSootClass>> classSources =
+        streamDirectory(dirPath, factory, classProvider)) {
+      return classSources.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Walks the directory lazily, i.e. a class file is parsed when the stream reaches it. The stream
+   * has to be closed to release the directory handles.
+   */
+  @Nonnull
+  Stream<? extends AbstractClassSource<JavaSootClass>> streamDirectory(
+      @Nonnull Path dirPath,
+      @Nonnull IdentifierFactory factory,
+      @Nonnull ClassProvider<JavaSootClass> classProvider) {
     try {
       final FileType handledFileType = classProvider.getHandledFileType();
       final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
@@ -197,14 +321,9 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
           .filter(
               filePath ->
                   PathUtils.hasExtension(filePath, handledFileType)
-                  && filePath.toString().endsWith("." + handledFileType.getExtension())
+                      && filePath.toString().endsWith("." + handledFileType.getExtension())
                       && !filePath.toString().endsWith(moduleInfoFilename))
-          .flatMap(
-              p ->
-                  StreamUtils.optionalToStream(
-                      Optional.of(
-                          classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)))))
-          .collect(Collectors.toList());
+          .map(p -> classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)));
 
     } catch (IOException e) {
       throw new IllegalArgumentException(e);
@@ -232,6 +351,10 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     return Optional.of(classProvider.createClassSource(this, pathToClass, signature));
   }
 
+  /**
+   * Looks classes up by probing for their class file. It provides no {@link ClassNameFilter}, as
+   * class files may be added to the directory at any time.
+   */
   private static class DirectoryBasedAnalysisInputLocation extends PathBasedAnalysisInputLocation {
 
     private DirectoryBasedAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
@@ -246,7 +369,17 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       return walkDirectory(
           path,
           view.getIdentifierFactory(),
-          new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this)));
+          new AsmJavaClassProvider((View<JavaSootClass>) view, this));
+    }
+
+    @Override
+    @Nonnull
+    public Stream<? extends AbstractClassSource<JavaSootClass>> streamClassSources(
+        @Nonnull View<?> view) {
+      return streamDirectory(
+          path,
+          view.getIdentifierFactory(),
+          new AsmJavaClassProvider((View<JavaSootClass>) view, this));
     }
 
     @Override
@@ -254,270 +387,300 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
         @Nonnull ClassType type, @Nonnull View<?> view) {
       return getClassSourceInternal(
-          (JavaClassType) type,
-          path,
-          new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this)));
+          (JavaClassType) type, path, new AsmJavaClassProvider((View<JavaSootClass>) view, this));
+    }
+
+    @Override
+    @Nonnull
+    public Stream<TypeHeader> streamTypeHeaders(@Nonnull View<?> view) {
+      final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
+      final List<Path> classFiles;
+      try (Stream<Path> files = Files.walk(path)) {
+        classFiles =
+            files
+                .filter(
+                    filePath ->
+                        PathUtils.hasExtension(filePath, FileType.CLASS)
+                            && !filePath.toString().endsWith(moduleInfoFilename))
+                .collect(Collectors.toList());
+      } catch (IOException e) {
+        throw new IllegalArgumentException(e);
+      }
+      return classFiles
+          .parallelStream()
+          .map(classFile -> readTypeHeader(classFile, () -> Files.readAllBytes(classFile)));
     }
   }
 
+  /**
+   * Reads the classes of a multi-release jar. Class lookups go through a merged index, built on
+   * first use per target release, which maps each class name to the entry of the highest <code>
+   * META-INF/versions/N</code> directory not newer than the release, or to the base entry. Versions
+   * that declare a module are served as that module instead, from the same {@link MappedArchive}.
+   */
   public static class MultiReleaseJarAnalysisInputLocation extends ArchiveBasedAnalysisInputLocation
       implements ModuleInfoAnalysisInputLocation {
 
-    @Nonnull private final int[] availableVersions;
+    private static final String VERSIONS_DIRECTORY = "META-INF/versions/";
 
-    @Nonnull
-    private final Map<Integer, Map<ModuleSignature, JavaModuleInfo>> moduleInfoMap =
-        new HashMap<>();
+    /** The release to resolve classes for, or null to use the language version of the view. */
+    @Nullable private final Integer targetRelease;
 
+    /** Maps a release to the index of the class entries visible for it. */
     @Nonnull
-    private final Map<Integer, List<AnalysisInputLocation<JavaSootClass>>> inputLocations =
-        new HashMap<>();
+    private final Map<Integer, Map<String, String>> classIndexes = new ConcurrentHashMap<>();
 
     @Nonnull
-    private final List<AnalysisInputLocation<JavaSootClass>> baseInputLocations = new ArrayList<>();
-
-    boolean isResolved = false;
+    private final Supplier<NavigableMap<Integer, VersionedModule>> modules =
+        Suppliers.memoize(this::discoverModules);
 
     private MultiReleaseJarAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
-      super(path, srcType);
+      this(path, srcType, null);
+    }
 
-      int[] tmp;
-      try {
-        FileSystem fs = fileSystemCache.get(path);
-        final Path archiveRoot = fs.getPath("/");
-        tmp =
-            Files.list(archiveRoot.getFileSystem().getPath("/META-INF/versions/"))
-                .map(dir -> dir.getFileName().toString().replace("/", ""))
-                .mapToInt(Integer::new)
-                .sorted()
-                .toArray();
-      } catch (IOException | ExecutionException e) {
-        e.printStackTrace();
-        tmp = new int[] {};
-      }
-      availableVersions = tmp;
+    /**
+     * Creates an input location which resolves the classes of the multi-release jar for the given
+     * release instead of the language version of the view.
+     */
+    public MultiReleaseJarAnalysisInputLocation(
+        @Nonnull Path path, @Nullable SourceType srcType, int targetRelease) {
+      this(path, srcType, Integer.valueOf(targetRelease));
+    }
+
+    private MultiReleaseJarAnalysisInputLocation(
+        @Nonnull Path path, @Nullable SourceType srcType, @Nullable Integer targetRelease) {
+      super(path, srcType);
+      this.targetRelease = targetRelease;
+    }
 
-      discoverInputLocations(srcType);
+    private int getRelease(@Nonnull View<?> view) {
+      return targetRelease != null ? targetRelease : view.getProject().getLanguage().getVersion();
     }
 
-    /** Discovers all input locations for different java versions in this multi release jar */
-    private void discoverInputLocations(@Nullable SourceType srcType) {
-      FileSystem fs = null;
+    /**
+     * Returns the release of the versioned directory containing the entry, 0 for entries of the
+     * base directory and -1 for any other entry below <code>META-INF</code>.
+     */
+    private static int getReleaseOf(@Nonnull String entryName) {
+      if (!entryName.startsWith("META-INF/")) {
+        return 0;
+      }
+      if (!entryName.startsWith(VERSIONS_DIRECTORY)) {
+        return -1;
+      }
+      final int end = entryName.indexOf('/', VERSIONS_DIRECTORY.length());
+      if (end < 0) {
+        return -1;
+      }
       try {
-        fs = fileSystemCache.get(path);
-      } catch (ExecutionException e) {
-        e.printStackTrace();
+        return Integer.parseInt(entryName.substring(VERSIONS_DIRECTORY.length(), end));
+      } catch (NumberFormatException e) {
+        return -1;
       }
-      final Path archiveRoot = fs.getPath("/");
-      final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
-
-      baseInputLocations.add(new PathBasedAnalysisInputLocation(archiveRoot, srcType));
-
-      String sep = archiveRoot.getFileSystem().getSeparator();
-
-      if (!isResolved) {
-
-        for (int i = availableVersions.length - 1; i >= 0; i--) {
-          inputLocations.put(availableVersions[i], new ArrayList<>());
-
-          final Path versionRoot =
-              archiveRoot
-                  .getFileSystem()
-                  .getPath("/META-INF/versions/" + availableVersions[i] + sep);
-
-          // only versions >= 9 support java modules
-          if (availableVersions[i] > 8) {
-            moduleInfoMap.put(availableVersions[i], new HashMap<>());
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(versionRoot)) {
-              for (Path entry : stream) {
-
-                Path mi = path.resolve(moduleInfoFilename);
-
-                if (Files.exists(mi)) {
-                  JavaModuleInfo moduleInfo = new AsmModuleSource(mi);
-                  ModuleSignature moduleSignature = moduleInfo.getModuleSignature();
-                  JavaModulePathAnalysisInputLocation inputLocation =
-                      new JavaModulePathAnalysisInputLocation(
-                          versionRoot.toString(), versionRoot.getFileSystem());
-
-                  inputLocations.get(availableVersions[i]).add(inputLocation);
-                  moduleInfoMap.get(availableVersions[i]).put(moduleSignature, moduleInfo);
-                }
+    }
 
-                if (Files.isDirectory(entry)) {
-                  mi = versionRoot.resolve(moduleInfoFilename);
+    @Nonnull
+    private static String getClassNameOf(@Nonnull String entryName, int release) {
+      final int start =
+          release == 0 ? 0 : VERSIONS_DIRECTORY.length() + Integer.toString(release).length() + 1;
+      return entryName
+          .substring(start, entryName.length() - CLASS_FILE_SUFFIX.length())
+          .replace('/', '.');
+    }
 
-                  if (Files.exists(mi)) {
-                    JavaModuleInfo moduleInfo = new AsmModuleSource(mi);
-                    ModuleSignature moduleSignature = moduleInfo.getModuleSignature();
-                    JavaModulePathAnalysisInputLocation inputLocation =
-                        new JavaModulePathAnalysisInputLocation(
-                            versionRoot.toString(), versionRoot.getFileSystem());
+    /** Returns the index of the class entries visible for the given release. */
+    @Nonnull
+    private Map<String, String> getClassIndex(int release) {
+      return classIndexes.computeIfAbsent(release, this::buildClassIndex);
+    }
 
-                    inputLocations.get(availableVersions[i]).add(inputLocation);
-                    moduleInfoMap.get(availableVersions[i]).put(moduleSignature, moduleInfo);
-                  }
-                  // else TODO [bh] can we have automatic modules here?
-                }
-              }
-            } catch (IOException e) {
-              e.printStackTrace();
-            }
-          }
+    @Nonnull
+    private Map<String, String> buildClassIndex(int release) {
+      final Set<Integer> modularReleases = modules.get().keySet();
+      final Map<String, String> index = new HashMap<>();
+      final Map<String, Integer> indexedReleases = new HashMap<>();
+      for (String entryName : archive.get().getEntryNames()) {
+        if (!entryName.endsWith(CLASS_FILE_SUFFIX) || entryName.endsWith(MODULE_INFO_FILE)) {
+          continue;
+        }
+        final int entryRelease = getReleaseOf(entryName);
+        if (entryRelease < 0
+            || (entryRelease > 0 && entryRelease > release)
+            || modularReleases.contains(entryRelease)) {
+          continue;
+        }
+        final String className = getClassNameOf(entryName, entryRelease);
+        final Integer indexedRelease = indexedReleases.get(className);
+        if (indexedRelease == null || indexedRelease < entryRelease) {
+          index.put(className, entryName);
+          indexedReleases.put(className, entryRelease);
+        }
+      }
+      return index;
+    }
 
-          // if there was no module or the version is not > 8, we just add a directory based input
-          // location
-          if (inputLocations.get(availableVersions[i]).size() == 0) {
-            inputLocations
-                .get(availableVersions[i])
-                .add(new PathBasedAnalysisInputLocation(versionRoot, srcType));
-          }
+    /** Discovers the versions of this multi release jar which declare a java module. */
+    @Nonnull
+    private NavigableMap<Integer, VersionedModule> discoverModules() {
+      final NavigableMap<Integer, VersionedModule> result = new TreeMap<>();
+      for (String entryName : archive.get().getEntryNames()) {
+        final int release = getReleaseOf(entryName);
+        // only versions >= 9 support java modules
+        if (release <= 8
+            || !entryName.equals(VERSIONS_DIRECTORY + release + "/" + MODULE_INFO_FILE)) {
+          continue;
         }
+        final MappedArchive mappedArchive = archive.get();
+        final JavaModuleInfo moduleInfo =
+            new AsmModuleSource(
+                path.resolve(entryName),
+                () -> {
+                  final byte[] moduleInfoFile = mappedArchive.readEntry(entryName);
+                  if (moduleInfoFile == null) {
+                    throw new IOException(entryName + " does not exist in " + path);
+                  }
+                  return moduleInfoFile;
+                });
+        result.put(
+            release,
+            new VersionedModule(
+                moduleInfo,
+                new ArchiveBasedAnalysisInputLocation(
+                    path, getSourceType(), archive, VERSIONS_DIRECTORY + release + "/")));
       }
+      return result;
+    }
+
+    /** Returns the module of the highest version which is not newer than the given release. */
+    @Nonnull
+    private Optional<VersionedModule> getModule(int release) {
+      return Optional.ofNullable(modules.get().floorEntry(release)).map(Map.Entry::getValue);
+    }
 
-      isResolved = true;
+    /** Returns the module of the given release if it is the module with the given signature. */
+    @Nonnull
+    private Optional<VersionedModule> getModule(int release, @Nonnull ModuleSignature sig) {
+      return getModule(release)
+          .filter(module -> module.moduleInfo.getModuleSignature().equals(sig));
     }
 
     @Override
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
         @Nonnull ClassType type, @Nonnull View<?> view) {
-
-      Collection<AnalysisInputLocation<JavaSootClass>> il =
-          getBestMatchingInputLocationsRaw(view.getProject().getLanguage().getVersion());
-
-      Collection<AnalysisInputLocation<JavaSootClass>> baseIl = getBaseInputLocations();
-
       if (type instanceof ModuleJavaClassType) {
-        il =
-            il.stream()
-                .filter(location -> location instanceof ModuleInfoAnalysisInputLocation)
-                .collect(Collectors.toList());
-        baseIl =
-            baseIl.stream()
-                .filter(location -> location instanceof ModuleInfoAnalysisInputLocation)
-                .collect(Collectors.toList());
-      } else {
-        il =
-            il.stream()
-                .filter(location -> !(location instanceof ModuleInfoAnalysisInputLocation))
-                .collect(Collectors.toList());
-        baseIl =
-            baseIl.stream()
-                .filter(location -> !(location instanceof ModuleInfoAnalysisInputLocation))
-                .collect(Collectors.toList());
+        final ModuleSignature sig =
+            ((ModuleJavaClassType) type).getPackageName().getModuleSignature();
+        return getModule(getRelease(view), sig)
+            .flatMap(module -> module.classes.getClassSource(type, view));
       }
-
-      Optional<? extends AbstractClassSource<JavaSootClass>> foundClass =
-          il.stream()
-              .map(location -> location.getClassSource(type, view))
-              .filter(Optional::isPresent)
-              .limit(1)
-              .map(Optional::get)
-              .findAny();
-
-      if (foundClass.isPresent()) {
-        return foundClass;
-      } else {
-        return baseIl.stream()
-            .map(location -> location.getClassSource(type, view))
-            .filter(Optional::isPresent)
-            .limit(1)
-            .map(Optional::get)
-            .findAny();
+      final String entryName = getClassIndex(getRelease(view)).get(type.getFullyQualifiedName());
+      if (entryName == null) {
+        return Optional.empty();
       }
+      return Optional.of(
+          createClassSource(
+              entryName, type, new AsmJavaClassProvider((View<JavaSootClass>) view, this)));
     }
 
     @Nonnull
     @Override
     public Collection<? extends AbstractClassSource<JavaSootClass>> getModulesClassSources(
         @Nonnull ModuleSignature moduleSignature, @Nonnull View<?> view) {
-      return inputLocations.get(view.getProject().getLanguage().getVersion()).stream()
-          .filter(location -> location instanceof ModuleInfoAnalysisInputLocation)
-          .map(
-              location ->
-                  ((ModuleInfoAnalysisInputLocation) location)
-                      .getModulesClassSources(moduleSignature, view))
-          .flatMap(Collection::stream)
-          .collect(Collectors.toList());
+      return getModule(getRelease(view), moduleSignature)
+          .<Collection<? extends AbstractClassSource<JavaSootClass>>>map(
+              module -> module.classes.getClassSources(view))
+          .orElse(Collections.emptyList());
     }
 
-    /**
-     * Returns the best matching input locations or the base input location.
-     *
-     * @param javaVersion version to find best match to
-     * @return best match or base input locations
-     */
-    private Collection<AnalysisInputLocation<JavaSootClass>> getBestMatchingInputLocationsRaw(
-        int javaVersion) {
-      for (int i = availableVersions.length - 1; i >= 0; i--) {
-
-        if (availableVersions[i] > javaVersion) continue;
-
-        return new ArrayList<>(inputLocations.get(availableVersions[i]));
-      }
+    @Nonnull
+    private final Supplier<ClassNameFilter> classNameFilter =
+        Suppliers.memoize(this::buildClassNameFilter);
 
-      return getBaseInputLocations();
+    /** Contains the classes of every version, as the release is only known with the view. */
+    @Nonnull
+    @Override
+    public Optional<ClassNameFilter> getClassNameFilter() {
+      return Optional.of(classNameFilter.get());
     }
 
-    private Collection<AnalysisInputLocation<JavaSootClass>> getBaseInputLocations() {
-      return baseInputLocations;
+    @Nonnull
+    private ClassNameFilter buildClassNameFilter() {
+      return ClassNameFilter.of(
+          archive.get().getEntryNames().stream()
+              .filter(
+                  entryName ->
+                      entryName.endsWith(CLASS_FILE_SUFFIX)
+                          && !entryName.endsWith(MODULE_INFO_FILE)
+                          && getReleaseOf(entryName) >= 0)
+              .map(entryName -> getClassNameOf(entryName, getReleaseOf(entryName)))
+              .collect(Collectors.toList()));
     }
 
     @Override
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
-      Collection<AnalysisInputLocation<JavaSootClass>> il =
-          getBestMatchingInputLocationsRaw(view.getProject().getLanguage().getVersion());
-
-      Collection<AbstractClassSource<JavaSootClass>> result =
-          il.stream()
-              .map(location -> location.getClassSources(view))
-              .flatMap(Collection::stream)
-              .collect(Collectors.toList());
-
-      if (il != getBaseInputLocations()) {
+      return streamClassSources(view).collect(Collectors.toList());
+    }
 
-        Collection<AbstractClassSource<JavaSootClass>> baseSources =
-            getBaseInputLocations().stream()
-                .map(location -> location.getClassSources(view))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+    @Override
+    @Nonnull
+    public Stream<? extends AbstractClassSource<JavaSootClass>> streamClassSources(
+        @Nonnull View<?> view) {
+      final Collection<? extends AbstractClassSource<JavaSootClass>> moduleSources =
+          getModule(getRelease(view))
+              .<Collection<? extends AbstractClassSource<JavaSootClass>>>map(
+                  module -> module.classes.getClassSources(view))
+              .orElse(Collections.emptyList());
+      // do not add duplicate class sources
+      final Set<String> moduleClassNames =
+          moduleSources.stream()
+              .map(cs -> cs.getClassType().getFullyQualifiedName())
+              .collect(Collectors.toSet());
+
+      final IdentifierFactory identifierFactory = view.getProject().getIdentifierFactory();
+      final AsmJavaClassProvider classProvider =
+          new AsmJavaClassProvider((View<JavaSootClass>) view, this);
+      return Stream.concat(
+          moduleSources.stream(),
+          getClassIndex(getRelease(view)).entrySet().stream()
+              .filter(e -> !moduleClassNames.contains(e.getKey()))
+              .map(
+                  e ->
+                      createClassSource(
+                          e.getValue(),
+                          identifierFactory.getClassType(e.getKey()),
+                          classProvider)));
+    }
 
-        baseSources.forEach(
-            cs -> {
-              // do not add duplicate class sources
-              if (result.stream()
-                  .noneMatch(
-                      bestMatchCS ->
-                          bestMatchCS
-                              .getClassType()
-                              .getFullyQualifiedName()
-                              .equals(cs.getClassType().getFullyQualifiedName()))) {
-                result.add(cs);
-              }
-            });
+    @Override
+    @Nonnull
+    public Stream<TypeHeader> streamTypeHeaders(@Nonnull View<?> view) {
+      final Optional<VersionedModule> module = getModule(getRelease(view));
+      if (module.isPresent()) {
+        // the classes of a module shadow the other ones, see streamClassSources
+        return streamClassSources(view)
+            .filter(classSource -> classSource instanceof SootClassSource)
+            .map(classSource -> TypeHeader.of((SootClassSource<?>) classSource));
       }
-
-      return result;
+      return new ArrayList<>(getClassIndex(getRelease(view)).values())
+          .parallelStream()
+          .map(this::readTypeHeader);
     }
 
     @Nonnull
     @Override
     public Optional<JavaModuleInfo> getModuleInfo(ModuleSignature sig, View<?> view) {
-      return Optional.ofNullable(
-          moduleInfoMap.get(view.getProject().getLanguage().getVersion()).get(sig));
+      return getModule(getRelease(view), sig).map(module -> module.moduleInfo);
     }
 
     @Nonnull
     @Override
     public Set<ModuleSignature> getModules(View<?> view) {
-      return inputLocations.get(view.getProject().getLanguage().getVersion()).stream()
-          .filter(e -> e instanceof ModuleInfoAnalysisInputLocation)
-          .map(e -> ((ModuleInfoAnalysisInputLocation) e).getModules(view))
-          .flatMap(Set::stream)
-          .collect(Collectors.toSet());
+      return getModule(getRelease(view))
+          .map(module -> Collections.singleton(module.moduleInfo.getModuleSignature()))
+          .orElse(Collections.emptySet());
     }
 
     @Override
@@ -532,91 +695,206 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     public int hashCode() {
       return path.hashCode();
     }
+
+    /** The module declared by a version of a multi release jar. */
+    private static final class VersionedModule {
+      @Nonnull private final JavaModuleInfo moduleInfo;
+
+      /** Reads the classes of the module below <code>META-INF/versions/N</code>. */
+      @Nonnull private final ArchiveBasedAnalysisInputLocation classes;
+
+      private VersionedModule(
+          @Nonnull JavaModuleInfo moduleInfo, @Nonnull ArchiveBasedAnalysisInputLocation classes) {
+        this.moduleInfo = moduleInfo;
+        this.classes = classes;
+      }
+    }
   }
 
   private static class ApkAnalysisInputLocation extends ArchiveBasedAnalysisInputLocation {
 
-    private ApkAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
+    private ApkAnalysisInputLocation(
+        @Nonnull Path path,
+        @Nullable SourceType srcType,
+        @Nullable ApkConversionCache conversionCache) {
       super(path, srcType);
-      String jarPath = dex2jar(path);
-      this.path = Paths.get(jarPath);
-    }
-
-    private String dex2jar(Path path) {
-      String apkPath = path.toAbsolutePath().toString();
-      String outDir = "./tmp/";
-      int start = apkPath.lastIndexOf(File.separator);
-      int end = apkPath.lastIndexOf(".apk");
-      String outputFile = outDir + apkPath.substring(start + 1, end) + ".jar";
-      new Dex2jarCmd().doMain("-f", apkPath, "-o", outputFile);
-      return outputFile;
+      this.path =
+          conversionCache == null
+              ? ApkConversionCache.convertToTemporaryJar(path)
+              : conversionCache.getJar(path);
     }
   }
 
+  /**
+   * Reads the classes of a jar or zip archive directly from a {@link MappedArchive}, which is
+   * opened on first use and stays open for the life of the input location.
+   *
+   * <p>The source path of a class names the archive and its entry, e.g. <code>
+   * rt.jar/java/lang/Object.class</code>. It does not exist on the file system; the class file is
+   * read from the {@link MappedArchive} by the class source instead.
+   */
   private static class ArchiveBasedAnalysisInputLocation extends PathBasedAnalysisInputLocation {
 
-    // We cache the FileSystem instances as their creation is expensive.
-    // The Guava Cache is thread-safe (see JavaDoc of LoadingCache) hence this
-    // cache can be safely shared in a static variable.
-    protected static final LoadingCache<Path, FileSystem> fileSystemCache =
-        CacheBuilder.newBuilder()
-            .removalListener(
-                (RemovalNotification<Path, FileSystem> removalNotification) -> {
-                  try {
-                    removalNotification.getValue().close();
-                  } catch (IOException e) {
-                    throw new RuntimeException(
-                        "Could not close file system of " + removalNotification.getKey(), e);
-                  }
-                })
-            .expireAfterAccess(1, TimeUnit.SECONDS)
-            .build(
-                CacheLoader.from(
-                    path -> {
-                      try {
-                        return FileSystems.newFileSystem(
-                            Objects.requireNonNull(path), (ClassLoader) null);
-                      } catch (IOException e) {
-                        throw new RuntimeException("Could not open file system of " + path, e);
-                      }
-                    }));
+    protected static final String CLASS_FILE_SUFFIX = "." + FileType.CLASS.getExtension();
+    protected static final String MODULE_INFO_FILE =
+        JavaModuleIdentifierFactory.MODULE_INFO_FILE + CLASS_FILE_SUFFIX;
+
+    @Nonnull protected final Supplier<MappedArchive> archive;
+
+    /**
+     * The directory of the archive which contains the classes, e.g. <code>WEB-INF/classes/</code>.
+     */
+    @Nonnull private final String entryPrefix;
 
     private ArchiveBasedAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
       super(path);
       super.setSpecifiedAsBuiltInByUser(srcType);
+      // opened lazily as subclasses may still replace the path in their constructor
+      this.archive = Suppliers.memoize(this::openArchive);
+      this.entryPrefix = "";
+    }
+
+    /**
+     * Reads the classes below the given directory of an archive that is opened by the supplier,
+     * e.g. of an archive nested in another archive.
+     */
+    private ArchiveBasedAnalysisInputLocation(
+        @Nonnull Path path,
+        @Nullable SourceType srcType,
+        @Nonnull Supplier<MappedArchive> archive,
+        @Nonnull String entryPrefix) {
+      super(path);
+      super.setSpecifiedAsBuiltInByUser(srcType);
+      this.archive = Suppliers.memoize(archive::get);
+      this.entryPrefix = entryPrefix;
+    }
+
+    @Nonnull
+    private final Supplier<ClassNameFilter> classNameFilter =
+        Suppliers.memoize(this::buildClassNameFilter);
+
+    @Nonnull
+    @Override
+    public Optional<ClassNameFilter> getClassNameFilter() {
+      return Optional.of(classNameFilter.get());
+    }
+
+    @Nonnull
+    private ClassNameFilter buildClassNameFilter() {
+      return ClassNameFilter.of(
+          archive.get().getEntryNames().stream()
+              .filter(
+                  entryName ->
+                      entryName.startsWith(entryPrefix) && entryName.endsWith(CLASS_FILE_SUFFIX))
+              .map(this::toClassName)
+              .collect(Collectors.toList()));
+    }
+
+    @Nonnull
+    private MappedArchive openArchive() {
+      try {
+        return MappedArchive.open(path);
+      } catch (IOException e) {
+        throw new RuntimeException("Could not open archive " + path, e);
+      }
     }
 
     @Override
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
         @Nonnull ClassType type, @Nonnull View<?> view) {
-      try {
-        FileSystem fs = fileSystemCache.get(path);
-        final Path archiveRoot = fs.getPath("/");
-        return getClassSourceInternal(
-            (JavaClassType) type,
-            archiveRoot,
-            new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this)));
-      } catch (ExecutionException e) {
-        throw new RuntimeException("Failed to retrieve file system from cache for " + path, e);
+      final String entryName =
+          entryPrefix + type.getFullyQualifiedName().replace('.', '/') + CLASS_FILE_SUFFIX;
+      if (!archive.get().contains(entryName)) {
+        return Optional.empty();
       }
+      return Optional.of(
+          createClassSource(
+              entryName, type, new AsmJavaClassProvider((View<JavaSootClass>) view, this)));
     }
 
     @Override
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
-      // we don't use the filesystem cache here as it could close the filesystem after the timeout
-      // while we are still iterating
-      try (FileSystem fs = FileSystems.newFileSystem(path, (ClassLoader) null)) {
-        final Path archiveRoot = fs.getPath("/");
-        return walkDirectory(
-            archiveRoot,
-            view.getProject().getIdentifierFactory(),
-            new AsmJavaClassProvider(((View<JavaSootClass>) view).getBodyInterceptors(this)));
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
+      return streamClassSources(view).collect(Collectors.toList());
+    }
+
+    @Override
+    @Nonnull
+    public Stream<? extends AbstractClassSource<JavaSootClass>> streamClassSources(
+        @Nonnull View<?> view) {
+      final IdentifierFactory identifierFactory = view.getProject().getIdentifierFactory();
+      final AsmJavaClassProvider classProvider =
+          new AsmJavaClassProvider((View<JavaSootClass>) view, this);
+      return archive.get().getEntryNames().stream()
+          .filter(
+              entryName ->
+                  entryName.startsWith(entryPrefix)
+                      && entryName.endsWith(CLASS_FILE_SUFFIX)
+                      && !entryName.endsWith(MODULE_INFO_FILE)
+                      && !entryName.startsWith("META-INF/", entryPrefix.length()))
+          .map(
+              entryName ->
+                  createClassSource(
+                      entryName,
+                      identifierFactory.getClassType(toClassName(entryName)),
+                      classProvider));
+    }
+
+    @Override
+    @Nonnull
+    public Stream<TypeHeader> streamTypeHeaders(@Nonnull View<?> view) {
+      return archive.get().getEntryNames().stream()
+          .filter(
+              entryName ->
+                  entryName.startsWith(entryPrefix)
+                      && entryName.endsWith(CLASS_FILE_SUFFIX)
+                      && !entryName.endsWith(MODULE_INFO_FILE)
+                      && !entryName.startsWith("META-INF/", entryPrefix.length()))
+          .collect(Collectors.toList())
+          .parallelStream()
+          .map(this::readTypeHeader);
+    }
+
+    @Nonnull
+    protected TypeHeader readTypeHeader(@Nonnull String entryName) {
+      final MappedArchive mappedArchive = archive.get();
+      return PathBasedAnalysisInputLocation.readTypeHeader(
+          path.resolve(entryName),
+          () -> {
+            final byte[] classFile = mappedArchive.readEntry(entryName);
+            if (classFile == null) {
+              throw new IOException(entryName + " does not exist in " + path);
+            }
+            return classFile;
+          });
+    }
+
+    @Nonnull
+    private String toClassName(@Nonnull String entryName) {
+      return entryName
+          .substring(entryPrefix.length(), entryName.length() - CLASS_FILE_SUFFIX.length())
+          .replace('/', '.');
+    }
+
+    @Nonnull
+    protected AbstractClassSource<JavaSootClass> createClassSource(
+        @Nonnull String entryName,
+        @Nonnull ClassType type,
+        @Nonnull AsmJavaClassProvider classProvider) {
+      final MappedArchive mappedArchive = archive.get();
+      return classProvider.createClassSource(
+          this,
+          path.resolve(entryName),
+          type,
+          () -> {
+            final byte[] classFile = mappedArchive.readEntry(entryName);
+            if (classFile == null) {
+              throw new IOException(entryName + " does not exist in " + path);
+            }
+            return classFile;
+          });
     }
   }
 
@@ -626,16 +904,23 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
     public static int maxAllowedBytesToExtract =
         1024 * 1024 * 500; // limit of extracted file size to protect against archive bombs
 
-    private WarArchiveAnalysisInputLocation(@Nonnull Path warPath, @Nullable SourceType srcType) {
+    private WarArchiveAnalysisInputLocation(
+        @Nonnull Path warPath, @Nullable SourceType srcType, boolean readInPlace) {
       super(
-          Paths.get(
-              System.getProperty("java.io.tmpdir")
-                  + File.separator
-                  + "sootOutput"
-                  + "-war"
-                  + warPath.hashCode()
-                  + "/"),
+          readInPlace
+              ? warPath
+              : Paths.get(
+                  System.getProperty("java.io.tmpdir")
+                      + File.separator
+                      + "sootOutput"
+                      + "-war"
+                      + warPath.hashCode()
+                      + "/"),
           srcType);
+      if (readInPlace) {
+        discoverArchivedInputLocations(srcType);
+        return;
+      }
       extractWarFile(warPath, path);
 
       Path webInfPath = path.resolve("WEB-INF");
@@ -661,6 +946,68 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       }
     }
 
+    /**
+     * Adds input locations which read the classes of <code>WEB-INF/classes</code> and of the jars
+     * in <code>WEB-INF/lib</code> directly from the war archive at {@link #path}.
+     */
+    private void discoverArchivedInputLocations(@Nullable SourceType srcType) {
+      final MappedArchive war;
+      try {
+        war = MappedArchive.open(path);
+      } catch (IOException e) {
+        throw new RuntimeException("Could not open archive " + path, e);
+      }
+
+      final String classDir = "WEB-INF/classes/";
+      if (war.getEntryNames().stream().anyMatch(entryName -> entryName.startsWith(classDir))) {
+        containedInputLocations.add(
+            new ArchiveBasedAnalysisInputLocation(path, srcType, () -> war, classDir));
+      }
+
+      final String libDir = "WEB-INF/lib/";
+      war.getEntryNames().stream()
+          .filter(
+              entryName ->
+                  entryName.startsWith(libDir)
+                      && entryName.endsWith("." + FileType.JAR.getExtension()))
+          .sorted()
+          .forEach(
+              entryName ->
+                  containedInputLocations.add(
+                      new ArchiveBasedAnalysisInputLocation(
+                          path.resolve(entryName),
+                          srcType,
+                          () -> openNestedArchive(war, entryName),
+                          "")));
+    }
+
+    /** Opens a jar of the war archive; it is not copied if it is stored without compression. */
+    @Nonnull
+    private static MappedArchive openNestedArchive(
+        @Nonnull MappedArchive war, @Nonnull String entryName) {
+      final Path nestedPath = war.getPath().resolve(entryName);
+      if (war.getSize(entryName) > maxAllowedBytesToExtract) {
+        throw new RuntimeException(
+            "The archive "
+                + nestedPath
+                + " exceeds the size of "
+                + maxAllowedBytesToExtract
+                + " byte. Either the file is a big archive or maybe it contains an archive bomb.");
+      }
+      try {
+        return MappedArchive.of(nestedPath, Objects.requireNonNull(war.getEntry(entryName)));
+      } catch (IOException e) {
+        throw new RuntimeException("Could not open archive " + nestedPath, e);
+      }
+    }
+
+    /** The classes are located in the contained input locations. */
+    @Nonnull
+    @Override
+    public Optional<ClassNameFilter> getClassNameFilter() {
+      return Optional.empty();
+    }
+
     @Override
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
@@ -674,6 +1021,21 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       return foundClasses;
     }
 
+    @Override
+    @Nonnull
+    public Stream<? extends AbstractClassSource<JavaSootClass>> streamClassSources(
+        @Nonnull View<?> view) {
+      return containedInputLocations.stream()
+          .distinct()
+          .flatMap(inputLocation -> inputLocation.streamClassSources(view));
+    }
+
+    @Override
+    @Nonnull
+    public Stream<TypeHeader> streamTypeHeaders(@Nonnull View<?> view) {
+      return readTypeHeaders(containedInputLocations, view);
+    }
+
     @Override
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
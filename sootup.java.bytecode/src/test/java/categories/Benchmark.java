@@ -0,0 +1,9 @@
+package categories;
+
+/**
+ * Marks benchmarks, which are not part of the regular test suite. They are run with <code>
+ * mvn test -Dtestcase.groups=categories.Benchmark -Dtest=&lt;benchmark class&gt;</code>.
+ */
+public interface Benchmark {
+
+  /* category marker */ }
@@ -0,0 +1,141 @@
+package sootup.java.bytecode.frontend;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.cache.BodyCache;
+import sootup.core.cache.MemoryPolicy;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.inputlocation.BytecodeClassLoadingOptions;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class AsmJavaClassProviderTest {
+
+  private static final Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
+      onDemand = location -> BytecodeClassLoadingOptions.OnDemandMethodCode;
+  private static final Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
+      eager = location -> BytecodeClassLoadingOptions.Default;
+
+  @Test
+  public void testOnDemandMethodCodeOfFullView() {
+    JavaProject project =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new PathBasedAnalysisInputLocation(
+                    Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+            .build();
+
+    // the archive is closed after all classes were found, so the class files are located again
+    JavaView onDemandView = project.createOnDemandView(onDemand);
+    JavaView eagerView = project.createOnDemandView(eager);
+    for (JavaSootClass clazz : onDemandView.getClasses()) {
+      assertSameBodies(clazz, eagerView.getClass(clazz.getType()).get());
+    }
+  }
+
+  @Test
+  public void testOnDemandMethodCode() {
+    JavaProject project =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation(
+                    System.getProperty("java.home") + "/lib/rt.jar"))
+            .build();
+    JavaView onDemandView = project.createOnDemandView(onDemand);
+    JavaView eagerView = project.createOnDemandView(eager);
+
+    List<String> classNames =
+        Arrays.asList("java.util.HashMap", "java.util.ArrayList", "java.lang.Thread");
+    for (String className : classNames) {
+      ClassType type = JavaIdentifierFactory.getInstance().getClassType(className);
+      JavaSootClass clazz = onDemandView.getClass(type).get();
+
+      // only the headers were parsed
+      for (SootMethod method : clazz.getMethods()) {
+        assertEquals(0, ((AsmMethodSource) method.getBodySource()).instructions.size());
+      }
+      assertSameBodies(clazz, eagerView.getClass(type).get());
+    }
+  }
+
+  @Test
+  public void testTransientMethodCode() {
+    JavaProject project =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation(
+                    System.getProperty("java.home") + "/lib/rt.jar"))
+            .build();
+    JavaView transientView =
+        project.createOnDemandView(location -> BytecodeClassLoadingOptions.TransientMethodCode);
+    JavaView eagerView = project.createOnDemandView(eager);
+    ClassType type = JavaIdentifierFactory.getInstance().getClassType("java.util.HashMap");
+
+    BodyCache.setMemoryPolicy(transientView, MemoryPolicy.maximumSize(1));
+    JavaSootClass clazz = transientView.getClass(type).get();
+    for (SootMethod method : clazz.getMethods()) {
+      if (method.hasBody()) {
+        method.getBody();
+        // the body is the only representation of the method
+        assertEquals(0, ((AsmMethodSource) method.getBodySource()).instructions.size());
+      }
+    }
+
+    // the bodies were evicted, hence their code is read again
+    assertSameBodies(clazz, eagerView.getClass(type).get());
+  }
+
+  private static void assertSameBodies(JavaSootClass clazz, JavaSootClass expectedClass) {
+    assertEquals(expectedClass.getMethods().size(), clazz.getMethods().size());
+    for (SootMethod expected : expectedClass.getMethods()) {
+      SootMethod method = clazz.getMethod(expected.getSignature().getSubSignature()).get();
+      assertEquals(expected.getModifiers(), method.getModifiers());
+      if (expected.hasBody()) {
+        Body expectedBody = expected.getBody();
+        Body body = method.getBody();
+        assertEquals(expectedBody.getStmts().toString(), body.getStmts().toString());
+        assertEquals(expectedBody.getTraps().toString(), body.getTraps().toString());
+        assertEquals(expectedBody.getLocalCount(), body.getLocalCount());
+      }
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package sootup.java.bytecode.frontend;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.inputlocation.ClassLoadingOptionKey;
+import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.java.bytecode.inputlocation.BytecodeClassLoadingOptions;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.bytecode.interceptors.NopEliminator;
+import sootup.java.bytecode.interceptors.UnusedLocalEliminator;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class JimpleBodyCacheTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final List<BodyInterceptor> interceptors =
+      Arrays.asList(new NopEliminator(), new UnusedLocalEliminator());
+  private final List<BodyInterceptor> noInterceptors = Collections.emptyList();
+
+  private final JavaProject project =
+      JavaProject.builder(new JavaLanguage(8))
+          .addInputLocation(
+              new PathBasedAnalysisInputLocation(
+                  Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+          .build();
+
+  @Test
+  public void testCachedBodiesEqualConvertedBodies() throws IOException {
+    Map<MethodSignature, String> convertedBodies =
+        resolveBodies(project.createOnDemandView(location -> new CacheOptions(null, interceptors)));
+    assertFalse(convertedBodies.isEmpty());
+
+    JimpleBodyCache cache = new JimpleBodyCache(tempFolder.newFolder("cache").toPath());
+    assertEquals(convertedBodies, resolveBodies(createView(cache)));
+    BodyCacheStats firstRun = cache.getStats();
+    assertEquals(0, firstRun.hitCount());
+    assertEquals(convertedBodies.size(), firstRun.missCount());
+    assertEquals(convertedBodies.size(), firstRun.storeCount());
+    assertEquals(0, firstRun.failureCount());
+
+    // a new cache instance on the same directory stands for another run
+    JimpleBodyCache nextRun = new JimpleBodyCache(cache.getDirectory());
+    assertEquals(convertedBodies, resolveBodies(createView(nextRun)));
+    BodyCacheStats stats = nextRun.getStats();
+    assertEquals(convertedBodies.size(), stats.hitCount());
+    assertEquals(0, stats.missCount());
+    assertEquals(0, stats.storeCount());
+  }
+
+  @Test
+  public void testEntriesAreKeyedByInterceptors() throws IOException {
+    JimpleBodyCache cache = new JimpleBodyCache(tempFolder.newFolder("cache").toPath());
+    resolveBodies(createView(cache));
+
+    // bodies resolved without interceptors do not hit the entries of intercepted bodies
+    Map<MethodSignature, String> uninterceptedBodies =
+        resolveBodies(
+            project.createOnDemandView(location -> new CacheOptions(cache, noInterceptors)));
+    assertEquals(0, cache.getStats().hitCount());
+    assertNotEquals(resolveBodies(createView(cache)), uninterceptedBodies);
+    assertEquals(
+        uninterceptedBodies,
+        resolveBodies(
+            project.createOnDemandView(location -> new CacheOptions(cache, noInterceptors))));
+  }
+
+  @Test
+  public void testEntriesAreKeyedByInterceptorConfiguration() throws IOException {
+    JimpleBodyCache cache = new JimpleBodyCache(tempFolder.newFolder("cache").toPath());
+    List<BodyInterceptor> configured = Collections.singletonList(new ConfiguredInterceptor(1));
+    resolveBodies(project.createOnDemandView(location -> new CacheOptions(cache, configured)));
+
+    JimpleBodyCache sameConfiguration = new JimpleBodyCache(cache.getDirectory());
+    resolveBodies(
+        project.createOnDemandView(
+            location ->
+                new CacheOptions(
+                    sameConfiguration, Collections.singletonList(new ConfiguredInterceptor(1)))));
+    assertTrue(cache.getStats().storeCount() > 0);
+    assertEquals(cache.getStats().storeCount(), sameConfiguration.getStats().hitCount());
+
+    JimpleBodyCache otherConfiguration = new JimpleBodyCache(cache.getDirectory());
+    resolveBodies(
+        project.createOnDemandView(
+            location ->
+                new CacheOptions(
+                    otherConfiguration, Collections.singletonList(new ConfiguredInterceptor(2)))));
+    assertEquals(0, otherConfiguration.getStats().hitCount());
+  }
+
+  @Test
+  public void testCorruptEntriesAreConvertedAgain() throws IOException {
+    JimpleBodyCache cache = new JimpleBodyCache(tempFolder.newFolder("cache").toPath());
+    Map<MethodSignature, String> bodies = resolveBodies(createView(cache));
+    for (Path entry : entries(cache)) {
+      Files.write(entry, new byte[] {1, 2, 3});
+    }
+
+    JimpleBodyCache nextRun = new JimpleBodyCache(cache.getDirectory());
+    assertEquals(bodies, resolveBodies(createView(nextRun)));
+    assertEquals(0, nextRun.getStats().hitCount());
+    assertEquals(cache.getStats().storeCount(), nextRun.getStats().storeCount());
+  }
+
+  @Test
+  public void testPruneDeletesOldAndLeastRecentlyUsedEntries() throws IOException {
+    JimpleBodyCache cache = new JimpleBodyCache(tempFolder.newFolder("cache").toPath());
+    resolveBodies(createView(cache));
+    List<Path> entries = entries(cache);
+    assertTrue(entries.size() > 3);
+
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < entries.size(); i++) {
+      Files.setLastModifiedTime(entries.get(i), FileTime.fromMillis(now - (i + 1) * 60_000L));
+    }
+
+    // the entry unused for the longest time is older than an hour
+    long oneHour = 60 * 60_000L;
+    Files.setLastModifiedTime(
+        entries.get(entries.size() - 1), FileTime.fromMillis(now - 2 * oneHour));
+    assertEquals(1, cache.prune(Long.MAX_VALUE, oneHour));
+    assertFalse(Files.exists(entries.get(entries.size() - 1)));
+
+    long sizeOfNewest = Files.size(entries.get(0)) + Files.size(entries.get(1));
+    assertEquals(entries.size() - 3, cache.prune(sizeOfNewest, oneHour));
+    assertEquals(entries.subList(0, 2), entries(cache));
+    assertEquals(0, cache.prune(sizeOfNewest, oneHour));
+  }
+
+  private JavaView createView(JimpleBodyCache cache) {
+    return project.createOnDemandView(location -> new CacheOptions(cache, interceptors));
+  }
+
+  private static Map<MethodSignature, String> resolveBodies(JavaView view) {
+    Map<MethodSignature, String> bodies = new LinkedHashMap<>();
+    for (JavaSootClass clazz : view.getClasses()) {
+      for (SootMethod method : clazz.getMethods()) {
+        if (method.hasBody()) {
+          bodies.put(method.getSignature(), method.getBody().toString());
+        }
+      }
+    }
+    return bodies;
+  }
+
+  private static List<Path> entries(JimpleBodyCache cache) throws IOException {
+    try (Stream<Path> files = Files.walk(cache.getDirectory())) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(".body"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static class CacheOptions implements ClassLoadingOptions {
+
+    private final JimpleBodyCache cache;
+    private final List<BodyInterceptor> bodyInterceptors;
+
+    private CacheOptions(JimpleBodyCache cache, List<BodyInterceptor> bodyInterceptors) {
+      this.cache = cache;
+      this.bodyInterceptors = bodyInterceptors;
+    }
+
+    @Override
+    public List<BodyInterceptor> getBodyInterceptors() {
+      return bodyInterceptors;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(ClassLoadingOptionKey key) {
+      return key == BytecodeClassLoadingOptions.BODY_CACHE ? (T) cache : null;
+    }
+  }
+
+  /** Does not change the body, but is configured by a field. */
+  private static final class ConfiguredInterceptor implements BodyInterceptor {
+    private final int level;
+
+    private ConfiguredInterceptor(int level) {
+      this.level = level;
+    }
+
+    @Override
+    public void interceptBody(@Nonnull Body.BodyBuilder builder) {}
+  }
+}
@@ -6,6 +6,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.Before;
 import sootup.core.IdentifierFactory;
 import sootup.core.frontend.AbstractClassSource;
@@ -80,5 +83,20 @@ public abstract class AnalysisInputLocationTest {
     final Collection<? extends AbstractClassSource<?>> classSources = ns.getClassSources(view);
 
     assertTrue(classSources.size() >= minClassesFound);
+
+    final Set<ClassType> types =
+        classSources.stream().map(AbstractClassSource::getClassType).collect(Collectors.toSet());
+    try (Stream<? extends AbstractClassSource<JavaSootClass>> streamedClassSources =
+        ns.streamClassSources(view)) {
+      assertEquals(
+          types,
+          streamedClassSources.map(AbstractClassSource::getClassType).collect(Collectors.toSet()));
+    }
+    try (Stream<? extends AbstractClassSource<JavaSootClass>> streamedClassSources =
+        ns.streamClassSources(view).parallel()) {
+      assertEquals(
+          types,
+          streamedClassSources.map(AbstractClassSource::getClassType).collect(Collectors.toSet()));
+    }
   }
 }
@@ -0,0 +1,204 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+@Category(Java8Test.class)
+public class ApkConversionCacheTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final AtomicInteger conversions = new AtomicInteger();
+
+  /** Writes 100 bytes derived from the APK instead of running dex2jar. */
+  private final BiConsumer<Path, Path> converter =
+      (apk, jar) -> {
+        conversions.incrementAndGet();
+        try {
+          byte[] content = new byte[100];
+          byte[] apkContent = Files.readAllBytes(apk);
+          System.arraycopy(apkContent, 0, content, 0, Math.min(apkContent.length, 100));
+          Files.write(jar, content);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      };
+
+  @Test
+  public void testUnchangedApkIsConvertedOnce() throws Exception {
+    Path directory = tempFolder.newFolder("cache").toPath();
+    ApkConversionCache cache = new ApkConversionCache(directory, 1000, converter);
+    Path apk = writeApk("app.apk", "first");
+
+    Path jar = cache.getJar(apk);
+    assertTrue(Files.isRegularFile(jar));
+    assertEquals(directory, jar.getParent());
+    assertEquals(jar, cache.getJar(apk));
+    // the cache is keyed by the content, not the location of the APK
+    assertEquals(jar, new ApkConversionCache(directory, 1000, converter).getJar(copy(apk)));
+    assertEquals(1, conversions.get());
+
+    writeApk("app.apk", "changed");
+    assertNotEquals(jar, cache.getJar(apk));
+    assertEquals(2, conversions.get());
+  }
+
+  @Test
+  public void testConcurrentRequestsConvertOnce() throws Exception {
+    Path directory = tempFolder.newFolder("cache").toPath();
+    Path apk = writeApk("app.apk", "concurrent");
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Path>> jars = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        // separate caches on the same directory, like separate processes
+        ApkConversionCache cache = new ApkConversionCache(directory, 1000, converter);
+        jars.add(executor.submit(() -> cache.getJar(apk)));
+      }
+      for (Future<Path> jar : jars) {
+        assertEquals(jars.get(0).get(), jar.get());
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    assertEquals(1, conversions.get());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedJarsAreEvicted() throws Exception {
+    Path directory = tempFolder.newFolder("cache").toPath();
+    // room for two jars of 100 bytes
+    ApkConversionCache cache = new ApkConversionCache(directory, 250, converter);
+
+    Path first = cache.getJar(writeApk("first.apk", "first"));
+    Path second = cache.getJar(writeApk("second.apk", "second"));
+    // jars that were used recently are kept for other processes
+    Files.setLastModifiedTime(first, FileTime.fromMillis(System.currentTimeMillis() - 200_000));
+    Files.setLastModifiedTime(second, FileTime.fromMillis(System.currentTimeMillis() - 300_000));
+    // using the first jar makes the second one the least recently used
+    assertEquals(first, cache.getJar(directory.getParent().resolve("first.apk")));
+    Files.setLastModifiedTime(first, FileTime.fromMillis(System.currentTimeMillis() - 100_000));
+
+    Path third = cache.getJar(writeApk("third.apk", "third"));
+    assertTrue(Files.exists(first));
+    assertFalse(Files.exists(second));
+    assertTrue(Files.exists(third));
+    assertEquals(3, conversions.get());
+  }
+
+  @Test
+  public void testFailedConversionIsNotCached() throws Exception {
+    Path directory = tempFolder.newFolder("cache").toPath();
+    Path apk = writeApk("app.apk", "broken");
+
+    // a converter that fails silently leaves the temporary jar empty
+    ApkConversionCache silent = new ApkConversionCache(directory, 1000, (in, out) -> {});
+    try {
+      silent.getJar(apk);
+      fail();
+    } catch (UncheckedIOException expected) {
+    }
+    ApkConversionCache failing =
+        new ApkConversionCache(
+            directory,
+            1000,
+            (in, out) -> {
+              throw new IllegalStateException("conversion failed");
+            });
+    try {
+      failing.getJar(apk);
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      assertTrue(files.noneMatch(file -> file.toString().endsWith(".jar")));
+    }
+
+    // the next request converts the APK again
+    Path jar = new ApkConversionCache(directory, 1000, converter).getJar(apk);
+    assertEquals(100, Files.size(jar));
+    assertEquals(1, conversions.get());
+  }
+
+  @Test
+  public void testDex2jarConvertsApk() throws Exception {
+    Path directory = tempFolder.newFolder("cache").toPath();
+    Path jar =
+        new ApkConversionCache(directory, Long.MAX_VALUE)
+            .getJar(Paths.get("../shared-test-resources/apk/SimpleApk.apk"));
+    try (ZipFile zip = new ZipFile(jar.toFile())) {
+      assertTrue(zip.stream().anyMatch(entry -> entry.getName().endsWith(".class")));
+    }
+  }
+
+  @Test
+  public void testApkWithoutCacheIsConvertedIntoPrivateDirectory() throws Exception {
+    Path jar =
+        ApkConversionCache.convertToTemporaryJar(
+            Paths.get("../shared-test-resources/apk/SimpleApk.apk"));
+    try (ZipFile zip = new ZipFile(jar.toFile())) {
+      assertTrue(zip.stream().anyMatch(entry -> entry.getName().endsWith(".class")));
+    }
+    if (jar.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      assertEquals(
+          PosixFilePermissions.fromString("rwx------"),
+          Files.getPosixFilePermissions(jar.getParent()));
+    }
+  }
+
+  private Path writeApk(String name, String content) throws IOException {
+    return Files.write(
+        tempFolder.getRoot().toPath().resolve(name), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Path copy(Path apk) throws IOException {
+    return Files.copy(apk, tempFolder.newFolder().toPath().resolve(apk.getFileName()));
+  }
+}
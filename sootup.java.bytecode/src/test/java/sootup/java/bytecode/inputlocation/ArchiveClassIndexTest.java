@@ -0,0 +1,143 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class ArchiveClassIndexTest {
+
+  private final Path miniApp = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  private final String loggingJars =
+      "../shared-test-resources/jigsaw-examples/automatic-module-logging/jar/";
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testIndexContainsAllClasses() throws IOException {
+    ArchiveClassIndex index = ArchiveClassIndex.of(miniApp, null);
+    assertTrue(index.contains("MiniApp"));
+    assertTrue(index.contains("ds.Employee"));
+    assertTrue(index.contains("utils.Operations"));
+    assertFalse(index.contains("ds.Operations"));
+    assertFalse(index.contains("Employee"));
+    assertEquals(6, index.getClassNames().size());
+  }
+
+  @Test
+  public void testIndexIsReusedUntilArchiveChanges() throws IOException {
+    Path cacheDirectory = tempFolder.newFolder("index").toPath();
+    Path archive = tempFolder.getRoot().toPath().resolve("MiniApp.jar");
+    Files.copy(miniApp, archive);
+
+    assertTrue(ArchiveClassIndex.of(archive, cacheDirectory).contains("ds.Employee"));
+    List<Path> indexFiles = listFiles(cacheDirectory);
+    assertEquals(1, indexFiles.size());
+
+    // a persisted index is used instead of reading the archive again
+    Files.write(
+        indexFiles.get(0),
+        "fake\tIndexed\n".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+    assertTrue(ArchiveClassIndex.of(archive, cacheDirectory).contains("fake.Indexed"));
+
+    // the archive changed: the index is built again
+    Files.setLastModifiedTime(
+        archive, FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() + 10_000));
+    ArchiveClassIndex index = ArchiveClassIndex.of(archive, cacheDirectory);
+    assertFalse(index.contains("fake.Indexed"));
+    assertTrue(index.contains("ds.Employee"));
+  }
+
+  @Test
+  public void testClassPathLookupKeepsOrder() throws IOException {
+    Path cacheDirectory = tempFolder.newFolder("index").toPath();
+    ClassType binder =
+        JavaIdentifierFactory.getInstance().getClassType("org.slf4j.impl.StaticLoggerBinder");
+    ClassType employee = JavaIdentifierFactory.getInstance().getClassType("ds.Employee");
+    ClassType missing = JavaIdentifierFactory.getInstance().getClassType("ds.DoesNotExist");
+
+    for (String firstJar : new String[] {"slf4j-simple-1.7.12.jar", "slf4j-jdk14-1.7.12.jar"}) {
+      String secondJar =
+          firstJar.startsWith("slf4j-simple")
+              ? "slf4j-jdk14-1.7.12.jar"
+              : "slf4j-simple-1.7.12.jar";
+      JavaClassPathAnalysisInputLocation inputLocation =
+          new JavaClassPathAnalysisInputLocation(
+              loggingJars
+                  + firstJar
+                  + File.pathSeparator
+                  + miniApp
+                  + File.pathSeparator
+                  + loggingJars
+                  + secondJar,
+              null,
+              cacheDirectory);
+      JavaView view =
+          JavaProject.builder(new JavaLanguage(8))
+              .addInputLocation(inputLocation)
+              .build()
+              .createOnDemandView();
+
+      assertTrue(
+          inputLocation
+              .getClassSource(binder, view)
+              .get()
+              .getSourcePath()
+              .toUri()
+              .toString()
+              .contains(firstJar));
+      assertTrue(inputLocation.getClassSource(employee, view).isPresent());
+      assertFalse(inputLocation.getClassSource(missing, view).isPresent());
+    }
+    assertEquals(3, listFiles(cacheDirectory).size());
+  }
+
+  private static List<Path> listFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.jimple.binary.BinaryJimpleAnalysisInputLocation;
+import sootup.java.core.jimple.binary.BinaryJimpleFileWriter;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class BinaryJimpleAnalysisInputLocationTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final JavaView bytecodeView =
+      JavaProject.builder(new JavaLanguage(8))
+          .addInputLocation(
+              new PathBasedAnalysisInputLocation(
+                  Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+          .build()
+          .createOnDemandView();
+
+  private Path writeFile() throws IOException {
+    BinaryJimpleFileWriter writer = new BinaryJimpleFileWriter();
+    for (JavaSootClass clazz : bytecodeView.getClasses()) {
+      writer.addClass(clazz);
+    }
+    assertEquals(bytecodeView.getClasses().size(), writer.getClassCount());
+    Path file = tempFolder.newFile("MiniApp.bjimple").toPath();
+    writer.write(file);
+    return file;
+  }
+
+  private JavaView createView(Path file) {
+    return JavaProject.builder(new JavaLanguage(8))
+        .addInputLocation(new BinaryJimpleAnalysisInputLocation(file))
+        .build()
+        .createOnDemandView();
+  }
+
+  @Test
+  public void testClassesAreRestored() throws IOException {
+    JavaView view = createView(writeFile());
+    Collection<JavaSootClass> classes = view.getClasses();
+    assertEquals(bytecodeView.getClasses().size(), classes.size());
+
+    for (JavaSootClass clazz : classes) {
+      JavaSootClass original = bytecodeView.getClass(clazz.getType()).get();
+      assertEquals(original.getModifiers(), clazz.getModifiers());
+      assertEquals(original.getSuperclass(), clazz.getSuperclass());
+      assertEquals(original.getInterfaces(), clazz.getInterfaces());
+      assertEquals(original.getOuterClass(), clazz.getOuterClass());
+      assertEquals(original.getPosition(), clazz.getPosition());
+      assertEquals(
+          signatures(original.getFields(), SootField::getSignature),
+          signatures(clazz.getFields(), SootField::getSignature));
+      assertEquals(
+          signatures(original.getMethods(), SootMethod::getSignature),
+          signatures(clazz.getMethods(), SootMethod::getSignature));
+
+      for (SootMethod method : clazz.getMethods()) {
+        SootMethod originalMethod =
+            original.getMethod(method.getSignature().getSubSignature()).get();
+        assertEquals(originalMethod.getModifiers(), method.getModifiers());
+        assertEquals(originalMethod.getExceptionSignatures(), method.getExceptionSignatures());
+        assertEquals(originalMethod.hasBody(), method.hasBody());
+        if (method.hasBody()) {
+          assertEquals(originalMethod.getBody().toString(), method.getBody().toString());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSingleClassLookup() throws IOException {
+    JavaView view = createView(writeFile());
+    ClassType type = JavaIdentifierFactory.getInstance().getClassType("MiniApp");
+    Optional<JavaSootClass> clazz = view.getClass(type);
+    assertTrue(clazz.isPresent());
+    assertEquals(
+        bytecodeView.getClass(type).get().getMethods().size(), clazz.get().getMethods().size());
+
+    ClassType missing = JavaIdentifierFactory.getInstance().getClassType("does.not.Exist");
+    assertFalse(view.getClass(missing).isPresent());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testClassCanBeAddedOnce() {
+    BinaryJimpleFileWriter writer = new BinaryJimpleFileWriter();
+    JavaSootClass clazz = bytecodeView.getClasses().iterator().next();
+    writer.addClass(clazz);
+    writer.addClass(clazz);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsOtherFiles() throws IOException {
+    Path file = tempFolder.newFile("other.bjimple").toPath();
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+    createView(file).getClasses();
+  }
+
+  private static <T, S> Collection<S> signatures(
+      Collection<? extends T> members, Function<T, S> signature) {
+    return members.stream().map(signature).collect(Collectors.toSet());
+  }
+}
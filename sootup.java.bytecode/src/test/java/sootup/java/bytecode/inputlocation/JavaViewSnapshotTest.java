@@ -0,0 +1,199 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.SootMethod;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.jimple.binary.JavaViewSnapshot;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class JavaViewSnapshotTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final JavaView bytecodeView =
+      JavaProject.builder(new JavaLanguage(8))
+          .addInputLocation(
+              new PathBasedAnalysisInputLocation(
+                  Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+          .build()
+          .createOnDemandView();
+
+  @Test
+  public void testViewIsRestored() throws IOException {
+    Path file = tempFolder.newFile("MiniApp.snapshot").toPath();
+    JavaViewSnapshot.writer(bytecodeView).withBodies(true).write(file);
+
+    JavaView view = JavaViewSnapshot.open(file).createView();
+    Collection<JavaSootClass> classes = view.getClasses();
+    assertEquals(bytecodeView.getClasses().size(), classes.size());
+    for (JavaSootClass clazz : classes) {
+      JavaSootClass original = bytecodeView.getClass(clazz.getType()).get();
+      assertEquals(original.getMethods().size(), clazz.getMethods().size());
+      for (SootMethod method : clazz.getMethods()) {
+        if (method.hasBody()) {
+          SootMethod originalMethod =
+              original.getMethod(method.getSignature().getSubSignature()).get();
+          assertEquals(originalMethod.getBody().toString(), method.getBody().toString());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testHierarchyIsRestored() throws IOException {
+    Path file = tempFolder.newFile("MiniApp.snapshot").toPath();
+    JavaViewSnapshot.writer(bytecodeView).write(file);
+
+    TypeHierarchy original = bytecodeView.getTypeHierarchy();
+    TypeHierarchy restored = JavaViewSnapshot.open(file).createView().getTypeHierarchy();
+    for (JavaSootClass clazz : bytecodeView.getClasses()) {
+      ClassType type = clazz.getType();
+      assertEquals(original.subtypesOf(type), restored.subtypesOf(type));
+      assertEquals(original.directSubtypesOf(type), restored.directSubtypesOf(type));
+      assertEquals(original.implementedInterfacesOf(type), restored.implementedInterfacesOf(type));
+    }
+  }
+
+  @Test
+  public void testBodiesAreOptional() throws IOException {
+    Path file = tempFolder.newFile("MiniApp.snapshot").toPath();
+    JavaViewSnapshot.writer(bytecodeView).withBodies(false).write(file);
+
+    JavaView view = JavaViewSnapshot.open(file).createView();
+    SootMethod method =
+        view.getClasses().stream()
+            .flatMap(clazz -> clazz.getMethods().stream())
+            .filter(SootMethod::isConcrete)
+            .findAny()
+            .get();
+    try {
+      method.getBody();
+      fail("the body of " + method + " was not stored");
+    } catch (ResolveException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSections() throws IOException {
+    Path file = tempFolder.newFile("MiniApp.snapshot").toPath();
+    byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+    JavaViewSnapshot.writer(bytecodeView).addSection("extra", content).write(file);
+
+    JavaViewSnapshot snapshot = JavaViewSnapshot.open(file);
+    Optional<ByteBuffer> section = snapshot.getSection("extra");
+    assertTrue(section.isPresent());
+    byte[] restored = new byte[section.get().remaining()];
+    section.get().get(restored);
+    assertArrayEquals(content, restored);
+    assertFalse(snapshot.getSection("missing").isPresent());
+  }
+
+  @Test
+  public void testSnapshotIsReplaced() throws IOException {
+    Path directory = tempFolder.newFolder("snapshots").toPath();
+    Path file = directory.resolve("MiniApp.snapshot");
+    JavaViewSnapshot.writer(bytecodeView).withBodies(false).write(file);
+    JavaViewSnapshot previous = JavaViewSnapshot.open(file);
+
+    JavaViewSnapshot.writer(bytecodeView).withBodies(true).write(file);
+    // the mapping of the previous snapshot is not affected by the replacement
+    assertEquals(bytecodeView.getClasses().size(), previous.createView().getClasses().size());
+    assertEquals(
+        bytecodeView.getClasses().size(),
+        JavaViewSnapshot.open(file).createView().getClasses().size());
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(Collections.singletonList(file), files.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testMalformedSnapshotsAreRejected() throws IOException {
+    Path file = tempFolder.newFile("MiniApp.snapshot").toPath();
+    JavaViewSnapshot.writer(bytecodeView).write(file);
+    byte[] snapshot = Files.readAllBytes(file);
+
+    // truncated within the sections and within the section table
+    assertRejected(Arrays.copyOf(snapshot, snapshot.length - 1));
+    assertRejected(Arrays.copyOf(snapshot, 20));
+    // a negative and a huge section count
+    assertRejected(withIntAt(snapshot, 12, -1));
+    assertRejected(withIntAt(snapshot, 12, Integer.MAX_VALUE));
+    // the first section is named "classes", its length follows the name
+    assertRejected(withIntAt(snapshot, 16 + 2 + 7, -1));
+    assertRejected(withIntAt(snapshot, 16 + 2 + 7, snapshot.length));
+    // a name that is longer than the rest of the file
+    byte[] longName = snapshot.clone();
+    longName[16] = (byte) 0xFF;
+    longName[17] = (byte) 0xFF;
+    assertRejected(longName);
+  }
+
+  private void assertRejected(byte[] snapshot) throws IOException {
+    Path file = tempFolder.newFile().toPath();
+    Files.write(file, snapshot);
+    try {
+      JavaViewSnapshot.open(file);
+      fail("Opened a malformed snapshot.");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static byte[] withIntAt(byte[] snapshot, int position, int value) {
+    byte[] modified = snapshot.clone();
+    ByteBuffer.wrap(modified).putInt(position, value);
+    return modified;
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSectionNamesAreUnique() {
+    JavaViewSnapshot.writer(bytecodeView).addSection("classes", new byte[0]);
+  }
+}
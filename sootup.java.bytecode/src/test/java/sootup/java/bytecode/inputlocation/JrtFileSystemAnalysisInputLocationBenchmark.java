@@ -0,0 +1,122 @@
+package sootup.java.bytecode.inputlocation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import categories.Benchmark;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.frontend.AsmJavaClassProvider;
+import sootup.java.core.JavaModuleIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Looks up every class of <code>java.base</code> by a type without module information, through the
+ * <code>/packages</code> index of {@link JrtFileSystemAnalysisInputLocation} and through a probe of
+ * every directory below <code>/modules</code> like the lookup did before. Both have to find the
+ * same class files; the time of each is printed after some rounds that warm up the JIT.
+ *
+ * <p>Not part of the regular test suite, see {@link Benchmark}.
+ */
+@Category(Benchmark.class)
+public class JrtFileSystemAnalysisInputLocationBenchmark {
+
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 5;
+
+  private static final FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+
+  @Test
+  public void benchmarkClassLookupWithoutModule() {
+    JrtFileSystemAnalysisInputLocation inputLocation = new JrtFileSystemAnalysisInputLocation();
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(9))
+            .addInputLocation(inputLocation)
+            .build()
+            .createOnDemandView();
+    AsmJavaClassProvider classProvider = new AsmJavaClassProvider(view, inputLocation);
+    List<ClassType> types =
+        inputLocation
+            .getModulesClassSources(
+                JavaModuleIdentifierFactory.getModuleSignature("java.base"), view)
+            .stream()
+            .map(AbstractClassSource::getClassType)
+            .collect(Collectors.toList());
+    assertFalse(types.isEmpty());
+
+    Function<ClassType, Optional<Path>> indexed =
+        type -> inputLocation.getClassSource(type, view).map(AbstractClassSource::getSourcePath);
+    Function<ClassType, Optional<Path>> probed =
+        type ->
+            probeModules(type)
+                .map(
+                    file ->
+                        classProvider.createClassSource(inputLocation, file, type).getSourcePath());
+
+    for (ClassType type : types) {
+      assertEquals(type.toString(), probed.apply(type), indexed.apply(type));
+    }
+    for (int round = 1; round <= WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+      long indexedTime = measure(types, indexed);
+      long probedTime = measure(types, probed);
+      if (round > WARMUP_ROUNDS) {
+        System.out.println(
+            "Round "
+                + (round - WARMUP_ROUNDS)
+                + ": looked up "
+                + types.size()
+                + " classes of java.base in "
+                + TimeUnit.NANOSECONDS.toMillis(indexedTime)
+                + " ms through the /packages index and in "
+                + TimeUnit.NANOSECONDS.toMillis(probedTime)
+                + " ms through a probe of /modules");
+      }
+    }
+  }
+
+  /** Searches every module directory for the class file, as the input location did before. */
+  private static Optional<Path> probeModules(ClassType type) {
+    Path filepath = jrt.getPath(type.getFullyQualifiedName().replace('.', '/') + ".class");
+    try (DirectoryStream<Path> modules = Files.newDirectoryStream(jrt.getPath("modules"))) {
+      for (Path module : modules) {
+        Path foundFile = module.resolve(filepath);
+        if (Files.isRegularFile(foundFile)) {
+          return Optional.of(foundFile);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return Optional.empty();
+  }
+
+  /** Looks up every type once and returns the elapsed nanoseconds. */
+  private static long measure(List<ClassType> types, Function<ClassType, Optional<Path>> lookUp) {
+    long start = System.nanoTime();
+    int found = 0;
+    for (ClassType type : types) {
+      found += lookUp.apply(type).isPresent() ? 1 : 0;
+    }
+    long elapsed = System.nanoTime() - start;
+    // also keeps the JIT from dropping the lookups
+    assertEquals(types.size(), found);
+    return elapsed;
+  }
+}
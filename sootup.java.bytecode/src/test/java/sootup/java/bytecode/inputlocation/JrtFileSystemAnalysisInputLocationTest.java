@@ -5,15 +5,19 @@ import static org.junit.Assert.*;
 import categories.Java9Test;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import sootup.core.Project;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.DefaultSourceTypeSpecifier;
 import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
 import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.JavaModuleProject;
+import sootup.java.core.JavaProject;
 import sootup.java.core.JavaSootClass;
 import sootup.java.core.language.JavaLanguage;
 import sootup.java.core.signatures.ModuleSignature;
@@ -63,6 +67,48 @@ public class JrtFileSystemAnalysisInputLocationTest {
     assertTrue(classSources.stream().anyMatch(cs -> cs.getClassType().equals(sig2)));
   }
 
+  @Test
+  public void getClassSourceOfAllClassesOfJavaBase() {
+    // looks up every class of java.base by a type without module information
+    lookUpAllClassesOf("java.base");
+  }
+
+  @Test
+  public void getClassSourceOfAllClassesOfJavaSql() {
+    // java.base is the first module of the image, java.sql one of the later ones
+    lookUpAllClassesOf("java.sql");
+  }
+
+  private void lookUpAllClassesOf(String moduleName) {
+    JrtFileSystemAnalysisInputLocation inputLocation = new JrtFileSystemAnalysisInputLocation();
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(9))
+            .addInputLocation(inputLocation)
+            .build()
+            .createOnDemandView();
+    List<ClassType> types =
+        inputLocation
+            .getModulesClassSources(
+                JavaModuleIdentifierFactory.getModuleSignature(moduleName), view)
+            .stream()
+            .map(AbstractClassSource::getClassType)
+            .collect(Collectors.toList());
+    assertFalse(types.isEmpty());
+
+    for (ClassType type : types) {
+      Optional<? extends AbstractClassSource<JavaSootClass>> classSource =
+          inputLocation.getClassSource(type, view);
+      assertTrue(type.toString(), classSource.isPresent());
+      assertEquals(type, classSource.get().getClassType());
+    }
+
+    assertFalse(
+        inputLocation
+            .getClassSource(
+                JavaIdentifierFactory.getInstance().getClassType("java.lang.Missing"), view)
+            .isPresent());
+  }
+
   @Test
   public void discoverModules() {
     JrtFileSystemAnalysisInputLocation inputLocation = new JrtFileSystemAnalysisInputLocation();
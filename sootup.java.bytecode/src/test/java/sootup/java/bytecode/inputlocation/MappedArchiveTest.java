@@ -0,0 +1,132 @@
+package sootup.java.bytecode.inputlocation;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+@Category(Java8Test.class)
+public class MappedArchiveTest {
+
+  private final Path miniApp = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testEntriesMatchZipFile() throws IOException {
+    MappedArchive archive = MappedArchive.open(miniApp);
+
+    Set<String> expectedNames = new HashSet<>();
+    try (ZipFile zipFile = new ZipFile(miniApp.toFile())) {
+      for (Enumeration<? extends ZipEntry> entries = zipFile.entries();
+          entries.hasMoreElements(); ) {
+        ZipEntry entry = entries.nextElement();
+        if (entry.isDirectory()) {
+          continue;
+        }
+        expectedNames.add(entry.getName());
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+          assertArrayEquals(
+              entry.getName(), readFully(inputStream), archive.readEntry(entry.getName()));
+        }
+      }
+    }
+
+    assertEquals(expectedNames, archive.getEntryNames());
+    assertTrue(archive.contains("ds/Employee.class"));
+    assertFalse(archive.contains("ds/"));
+    assertNull(archive.getEntry("ds/Missing.class"));
+    assertNull(archive.readEntry("ds/Missing.class"));
+  }
+
+  @Test
+  public void testStoredAndDeflatedEntries() throws IOException {
+    byte[] content = "class file content".getBytes(StandardCharsets.UTF_8);
+    Path jar = tempFolder.getRoot().toPath().resolve("entries.jar");
+    try (ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(jar))) {
+      ZipEntry stored = new ZipEntry("a/Stored.class");
+      stored.setMethod(ZipEntry.STORED);
+      stored.setSize(content.length);
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      stored.setCrc(crc.getValue());
+      outputStream.putNextEntry(stored);
+      outputStream.write(content);
+      outputStream.closeEntry();
+
+      ZipEntry deflated = new ZipEntry("a/Deflated.class");
+      deflated.setMethod(ZipEntry.DEFLATED);
+      outputStream.putNextEntry(deflated);
+      outputStream.write(content);
+      outputStream.closeEntry();
+      outputStream.setComment("a trailing archive comment");
+    }
+
+    MappedArchive archive = MappedArchive.open(jar);
+    assertEquals(
+        new HashSet<>(Arrays.asList("a/Stored.class", "a/Deflated.class")),
+        archive.getEntryNames());
+
+    // stored entries are not copied
+    ByteBuffer storedEntry = archive.getEntry("a/Stored.class");
+    assertNotNull(storedEntry);
+    assertTrue(storedEntry.isReadOnly());
+    assertFalse(storedEntry.hasArray());
+    assertEquals(ByteBuffer.wrap(content), storedEntry);
+
+    assertEquals(ByteBuffer.wrap(content), archive.getEntry("a/Deflated.class"));
+    assertArrayEquals(content, archive.readEntry("a/Stored.class"));
+    assertArrayEquals(content, archive.readEntry("a/Deflated.class"));
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      outputStream.write(buffer, 0, read);
+    }
+    return outputStream.toByteArray();
+  }
+}
@@ -27,21 +27,30 @@ import static org.junit.Assert.assertTrue;
 
 import categories.Java8Test;
 import java.io.File;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.BodySource;
+import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.EagerInputLocation;
 import sootup.core.model.*;
 import sootup.core.signatures.FieldSubSignature;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.signatures.MethodSubSignature;
+import sootup.core.typehierarchy.FrozenTypeHierarchy;
+import sootup.core.typehierarchy.TypeHeader;
+import sootup.core.typehierarchy.ViewTypeHierarchy;
 import sootup.core.types.ClassType;
 import sootup.core.util.ImmutableUtils;
 import sootup.core.views.View;
@@ -98,10 +107,10 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
 
     // for java10
     Assert.assertEquals(
-        "/META-INF/versions/9/de/upb/swt/multirelease/Utility.class",
+        mrj.resolve("META-INF/versions/9/de/upb/swt/multirelease/Utility.class").toString(),
         view_10.getClass(classType).get().getClassSource().getSourcePath().toString());
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Main.class",
+        mrj.resolve("de/upb/swt/multirelease/Main.class").toString(),
         view_10.getClass(classType2).get().getClassSource().getSourcePath().toString());
 
     // assert that method is correctly resolved
@@ -122,18 +131,18 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
 
     // for java 9
     Assert.assertEquals(
-        "/META-INF/versions/9/de/upb/swt/multirelease/Utility.class",
+        mrj.resolve("META-INF/versions/9/de/upb/swt/multirelease/Utility.class").toString(),
         view_9.getClass(classType).get().getClassSource().getSourcePath().toString());
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Main.class",
+        mrj.resolve("de/upb/swt/multirelease/Main.class").toString(),
         view_9.getClass(classType2).get().getClassSource().getSourcePath().toString());
 
     // for java 8
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Utility.class",
+        mrj.resolve("de/upb/swt/multirelease/Utility.class").toString(),
         view_8.getClass(classType).get().getClassSource().getSourcePath().toString());
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Main.class",
+        mrj.resolve("de/upb/swt/multirelease/Main.class").toString(),
         view_8.getClass(classType2).get().getClassSource().getSourcePath().toString());
     // assert that method is correctly resolved to base
     Assert.assertTrue(
@@ -153,18 +162,18 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
 
     // for max int
     Assert.assertEquals(
-        "/META-INF/versions/9/de/upb/swt/multirelease/Utility.class",
+        mrj.resolve("META-INF/versions/9/de/upb/swt/multirelease/Utility.class").toString(),
         view_max.getClass(classType).get().getClassSource().getSourcePath().toString());
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Main.class",
+        mrj.resolve("de/upb/swt/multirelease/Main.class").toString(),
         view_max.getClass(classType2).get().getClassSource().getSourcePath().toString());
 
     // for min int
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Utility.class",
+        mrj.resolve("de/upb/swt/multirelease/Utility.class").toString(),
         view_min.getClass(classType).get().getClassSource().getSourcePath().toString());
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Main.class",
+        mrj.resolve("de/upb/swt/multirelease/Main.class").toString(),
         view_min.getClass(classType2).get().getClassSource().getSourcePath().toString());
   }
 
@@ -217,14 +226,14 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
 
     // for java 9
     Assert.assertEquals(
-        "/META-INF/versions/9/de/upb/swt/multirelease/Utility.class",
+        mmrj.resolve("META-INF/versions/9/de/upb/swt/multirelease/Utility.class").toString(),
         view_9.getClass(utilityModule).get().getClassSource().getSourcePath().toString());
     // different class will be returned if no module is specified
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Utility.class",
+        mmrj.resolve("de/upb/swt/multirelease/Utility.class").toString(),
         view_9.getClass(utilityNoModule).get().getClassSource().getSourcePath().toString());
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Main.class",
+        mmrj.resolve("de/upb/swt/multirelease/Main.class").toString(),
         view_9.getClass(classType2).get().getClassSource().getSourcePath().toString());
     // assert that method is correctly resolved to base
     Assert.assertTrue(
@@ -244,11 +253,11 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
 
     // for java 8
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Utility.class",
+        mmrj.resolve("de/upb/swt/multirelease/Utility.class").toString(),
         view_8.getClass(utilityNoModule).get().getClassSource().getSourcePath().toString());
     assertFalse(view_8.getClass(utilityModule).isPresent());
     Assert.assertEquals(
-        "/de/upb/swt/multirelease/Main.class",
+        mmrj.resolve("de/upb/swt/multirelease/Main.class").toString(),
         view_8.getClass(classType2).get().getClassSource().getSourcePath().toString());
     // assert that method is correctly resolved to base
     Assert.assertTrue(
@@ -267,6 +276,31 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
             .contains("java 8"));
   }
 
+  @Test
+  public void multiReleaseJarWithTargetRelease() {
+    final ClassType utility =
+        getIdentifierFactory().getClassType("de.upb.swt.multirelease.Utility");
+    final ClassType main = getIdentifierFactory().getClassType("de.upb.swt.multirelease.Main");
+
+    // the target release of the input location overrides the language version of the view
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                (AnalysisInputLocation<JavaSootClass>)
+                    new PathBasedAnalysisInputLocation.MultiReleaseJarAnalysisInputLocation(
+                        mrj, null, 9))
+            .build()
+            .createOnDemandView();
+
+    Assert.assertEquals(
+        mrj.resolve("META-INF/versions/9/de/upb/swt/multirelease/Utility.class").toString(),
+        view.getClass(utility).get().getClassSource().getSourcePath().toString());
+    Assert.assertEquals(
+        mrj.resolve("de/upb/swt/multirelease/Main.class").toString(),
+        view.getClass(main).get().getClassSource().getSourcePath().toString());
+    Assert.assertEquals(2, view.getClasses().size());
+  }
+
   @Test
   public void testApk() {
     PathBasedAnalysisInputLocation pathBasedNamespace =
@@ -287,6 +321,27 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
     testClassReceival(pathBasedNamespace, mainClass, 4);
   }
 
+  @Test
+  public void testArchiveClassesAreReadFromTheArchive() {
+    final ClassType employee = getIdentifierFactory().getClassType("Employee", "ds");
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(new PathBasedAnalysisInputLocation(jar, null))
+            .build()
+            .createOnDemandView();
+
+    JavaSootClass clazz = view.getClass(employee).get();
+    // the source path only names the entry, no zip file system is opened for it
+    Path sourcePath = clazz.getClassSource().getSourcePath();
+    assertEquals(jar.resolve("ds/Employee.class"), sourcePath);
+    assertSame(jar.getFileSystem(), sourcePath.getFileSystem());
+    for (JavaSootMethod method : clazz.getMethods()) {
+      if (method.isConcrete()) {
+        assertFalse(method.getBody().getStmts().isEmpty());
+      }
+    }
+  }
+
   @Test
   public void testWar() {
     PathBasedAnalysisInputLocation pathBasedNamespace =
@@ -295,6 +350,41 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
     testClassReceival(pathBasedNamespace, warClass1, 2);
   }
 
+  @Test
+  public void testWarReadInPlace() {
+    final ClassType warClass1 = getIdentifierFactory().getClassType("SimpleWarRead");
+    final ClassType libClass = getIdentifierFactory().getClassType("Employee", "ds");
+
+    Set<ClassType> extractedTypes =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(new PathBasedAnalysisInputLocation(war, null)).build()
+            .createFullView().getClasses().stream()
+            .map(SootClass::getType)
+            .collect(Collectors.toSet());
+
+    PathBasedAnalysisInputLocation pathBasedNamespace =
+        new PathBasedAnalysisInputLocation(war, null, true);
+    testClassReceival(pathBasedNamespace, warClass1, 2);
+    testClassReceival(pathBasedNamespace, libClass, 2);
+
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(pathBasedNamespace)
+            .build()
+            .createOnDemandView();
+    assertEquals(
+        extractedTypes,
+        view.getClasses().stream().map(SootClass::getType).collect(Collectors.toSet()));
+    SootMethod method =
+        view.getClass(libClass)
+            .get()
+            .getMethod(
+                JavaIdentifierFactory.getInstance()
+                    .parseMethodSubSignature("void setEmpSalary(int)"))
+            .get();
+    assertFalse(method.getBody().getStmts().isEmpty());
+  }
+
   @Test
   public void testClassInWar() {
 
@@ -431,4 +521,43 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
     runtimeContains(v, "Collection", "java.util");
     runtimeContains(v, "Comparator", "java.util");
   }
+
+  @Test
+  public void testTypeHeaders() {
+    for (Path path :
+        Arrays.asList(
+            jar, war, mrj, Paths.get("../shared-test-resources/miniTestSuite/java6/binary/"))) {
+      JavaView view =
+          JavaProject.builder(new JavaLanguage(8))
+              .addInputLocation(new PathBasedAnalysisInputLocation(path, null))
+              .build()
+              .createOnDemandView();
+      Set<TypeHeader> expected =
+          view.getClasses().stream().map(TypeHeader::of).collect(Collectors.toSet());
+      assertEquals(path.toString(), expected, new HashSet<>(TypeHeader.readAll(view)));
+    }
+  }
+
+  @Test
+  public void testRuntimeJarTypeHierarchyFromHeaders() {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new PathBasedAnalysisInputLocation(
+                    Paths.get(System.getProperty("java.home") + "/lib/rt.jar"), null))
+            .build()
+            .createOnDemandView();
+    final ClassType object = getIdentifierFactory().getClassType("Object", "java.lang");
+    final ClassType list = getIdentifierFactory().getClassType("List", "java.util");
+    final ClassType arrayList = getIdentifierFactory().getClassType("ArrayList", "java.util");
+
+    ViewTypeHierarchy typeHierarchy = ViewTypeHierarchy.fromHeaders(view);
+    assertTrue(typeHierarchy.subtypesOf(list).contains(arrayList));
+
+    assertEquals(object, typeHierarchy.superClassOf(list));
+    assertEquals(
+        getIdentifierFactory().getClassType("AbstractList", "java.util"),
+        typeHierarchy.superClassOf(arrayList));
+    assertTrue(FrozenTypeHierarchy.of(TypeHeader.readAll(view)).isSubtype(list, arrayList));
+  }
 }
@@ -0,0 +1,117 @@
+package sootup.java.bytecode.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.inputlocation.ClassNameFilter;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.ClassLookupStats;
+import sootup.java.core.views.JavaView;
+
+/** Tests the lookup of classes in the input locations of a {@link JavaView}. */
+@Category(Java8Test.class)
+public class JavaViewClassLookupTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final PathBasedAnalysisInputLocation archive =
+      new PathBasedAnalysisInputLocation(
+          Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null);
+  private final PathBasedAnalysisInputLocation directory =
+      new PathBasedAnalysisInputLocation(
+          Paths.get("../shared-test-resources/miniTestSuite/java8/binary"), null);
+
+  private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+  @Test
+  public void testClassNameFilters() {
+    Optional<ClassNameFilter> archiveFilter = archive.getClassNameFilter();
+    assertTrue(archiveFilter.isPresent());
+    assertTrue(archiveFilter.get().mightContain("ds.Employee"));
+    assertTrue(archiveFilter.get().mightContain(identifierFactory.getClassType("MiniApp")));
+
+    // class files may be added to a directory at any time
+    assertFalse(directory.getClassNameFilter().isPresent());
+  }
+
+  @Test
+  public void testMissingClassesAreRemembered() {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(archive)
+            .addInputLocation(
+                new PathBasedAnalysisInputLocation(
+                    Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+            .build()
+            .createOnDemandView();
+
+    assertTrue(view.getClass(identifierFactory.getClassType("ds.Employee")).isPresent());
+    assertTrue(view.getClass(identifierFactory.getClassType("MiniApp")).isPresent());
+
+    ClassType missing = identifierFactory.getClassType("does.not.Exist");
+    assertFalse(view.getClass(missing).isPresent());
+    assertFalse(view.getClass(missing).isPresent());
+
+    ClassLookupStats stats = view.getClassLookupStats();
+    assertEquals(4, stats.lookupCount());
+    assertEquals(2, stats.missCount());
+    assertEquals(1, stats.negativeCacheHitCount());
+    assertEquals(0.5, stats.missRate(), 0.0);
+    // both locations were skipped for the missing class, unless the filters report a false positive
+    assertTrue(stats.filteredLocationCount() >= 1);
+  }
+
+  @Test
+  public void testClassAddedToDirectoryIsFound() throws IOException {
+    Path classes = tempFolder.newFolder("classes").toPath();
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(archive)
+            .addInputLocation(new PathBasedAnalysisInputLocation(classes, null))
+            .build()
+            .createOnDemandView();
+
+    ClassType added = identifierFactory.getClassType("AnnotationData");
+    assertFalse(view.getClass(added).isPresent());
+    Files.copy(
+        Paths.get("../shared-test-resources/miniTestSuite/java8/binary/AnnotationData.class"),
+        classes.resolve("AnnotationData.class"));
+    assertTrue(view.getClass(added).isPresent());
+    assertEquals(0, view.getClassLookupStats().negativeCacheHitCount());
+  }
+}
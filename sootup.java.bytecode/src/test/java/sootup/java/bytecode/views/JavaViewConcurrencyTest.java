@@ -0,0 +1,223 @@
+package sootup.java.bytecode.views;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Stress tests concurrent class resolution of a {@link JavaView}. */
+@Category(Java8Test.class)
+public class JavaViewConcurrencyTest {
+
+  private final Path rtJar = Paths.get(System.getProperty("java.home") + "/lib/rt.jar");
+  private List<ClassType> types;
+
+  @Before
+  public void setUp() throws IOException {
+    try (ZipFile zipFile = new ZipFile(rtJar.toFile())) {
+      types =
+          zipFile.stream()
+              .map(entry -> entry.getName())
+              .filter(name -> name.startsWith("java/util/") && name.endsWith(".class"))
+              .map(name -> name.substring(0, name.length() - ".class".length()).replace('/', '.'))
+              .map(name -> JavaIdentifierFactory.getInstance().getClassType(name))
+              .collect(Collectors.toList());
+    }
+    assertFalse(types.isEmpty());
+  }
+
+  @Test
+  public void testEveryClassIsBuiltOnce() throws Exception {
+    CountingInputLocation inputLocation =
+        new CountingInputLocation(new PathBasedAnalysisInputLocation(rtJar, null));
+    JavaView view = createView(inputLocation);
+
+    int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<List<JavaSootClass>>> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < threadCount; i++) {
+        // every thread resolves every type to provoke as much contention as possible
+        final List<ClassType> shuffledTypes = new ArrayList<>(types);
+        Collections.shuffle(shuffledTypes);
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  List<JavaSootClass> classes = new ArrayList<>();
+                  for (ClassType type : shuffledTypes) {
+                    view.getClass(type).ifPresent(classes::add);
+                  }
+                  return classes;
+                }));
+      }
+      start.countDown();
+
+      Map<ClassType, JavaSootClass> seen = new ConcurrentHashMap<>();
+      for (Future<List<JavaSootClass>> result : results) {
+        for (JavaSootClass clazz : result.get()) {
+          JavaSootClass other = seen.putIfAbsent(clazz.getType(), clazz);
+          assertTrue(other == null || other == clazz);
+        }
+      }
+      assertEquals(types.size(), seen.size());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (ClassType type : types) {
+      assertEquals("lookups of " + type, 1, inputLocation.lookups.get(type).get());
+    }
+  }
+
+  @Test
+  public void testLookupDoesNotWaitForOtherTypes() throws Exception {
+    ClassType heldType = types.get(0);
+    CountingInputLocation inputLocation =
+        new CountingInputLocation(new PathBasedAnalysisInputLocation(rtJar, null));
+    inputLocation.heldType = heldType;
+    JavaView view = createView(inputLocation);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Optional<JavaSootClass>> heldLookup = executor.submit(() -> view.getClass(heldType));
+      assertTrue(inputLocation.held.await(10, TimeUnit.SECONDS));
+
+      // a view-wide lock would block these lookups until the held one is released
+      Future<Long> otherLookups =
+          executor.submit(
+              () ->
+                  types.subList(1, 50).stream()
+                      .filter(type -> view.getClass(type).isPresent())
+                      .count());
+      assertEquals(49, (long) otherLookups.get(10, TimeUnit.SECONDS));
+      assertFalse(heldLookup.isDone());
+
+      inputLocation.released.countDown();
+      assertTrue(heldLookup.get(10, TimeUnit.SECONDS).isPresent());
+    } finally {
+      inputLocation.released.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testParallelResolveAllKeepsFirstLocation() {
+    AnalysisInputLocation<JavaSootClass> simple =
+        new PathBasedAnalysisInputLocation(
+            Paths.get(
+                "../shared-test-resources/jigsaw-examples/automatic-module-logging/jar/slf4j-simple-1.7.12.jar"),
+            null);
+    AnalysisInputLocation<JavaSootClass> jdk14 =
+        new PathBasedAnalysisInputLocation(
+            Paths.get(
+                "../shared-test-resources/jigsaw-examples/automatic-module-logging/jar/slf4j-jdk14-1.7.12.jar"),
+            null);
+    ClassType binder =
+        JavaIdentifierFactory.getInstance().getClassType("org.slf4j.impl.StaticLoggerBinder");
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (boolean simpleFirst : new boolean[] {true, false}) {
+        JavaProject project =
+            JavaProject.builder(new JavaLanguage(8))
+                .addInputLocation(simpleFirst ? simple : jdk14)
+                .addInputLocation(simpleFirst ? jdk14 : simple)
+                .build();
+
+        JavaView sequentialView = project.createFullView();
+        JavaView parallelView = project.createFullView(pool);
+
+        assertEquals(
+            sequentialView.getClasses().stream()
+                .map(clazz -> clazz.getClassSource().getSourcePath().toUri())
+                .collect(Collectors.toSet()),
+            parallelView.getClasses().stream()
+                .map(clazz -> clazz.getClassSource().getSourcePath().toUri())
+                .collect(Collectors.toSet()));
+        String binderSource =
+            parallelView.getClass(binder).get().getClassSource().getSourcePath().toUri().toString();
+        assertTrue(binderSource.contains(simpleFirst ? "slf4j-simple" : "slf4j-jdk14"));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private JavaView createView(AnalysisInputLocation<JavaSootClass> inputLocation) {
+    return JavaProject.builder(new JavaLanguage(8))
+        .addInputLocation(inputLocation)
+        .build()
+        .createOnDemandView();
+  }
+
+  /** Counts the class source lookups per type. */
+  private static class CountingInputLocation implements AnalysisInputLocation<JavaSootClass> {
+    private final AnalysisInputLocation<JavaSootClass> delegate;
+    private final Map<ClassType, AtomicInteger> lookups = new ConcurrentHashMap<>();
+
+    /** Lookups of this type wait in the input location until {@link #released} is counted down. */
+    @Nullable private volatile ClassType heldType;
+
+    private final CountDownLatch held = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private CountingInputLocation(AnalysisInputLocation<JavaSootClass> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
+        @Nonnull ClassType type, @Nonnull View<?> view) {
+      lookups.computeIfAbsent(type, t -> new AtomicInteger()).incrementAndGet();
+      if (type.equals(heldType)) {
+        held.countDown();
+        Uninterruptibles.awaitUninterruptibly(released);
+      }
+      return delegate.getClassSource(type, view);
+    }
+
+    @Nonnull
+    @Override
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view) {
+      return delegate.getClassSources(view);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package sootup.java.bytecode.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import com.google.common.cache.CacheStats;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.cache.BodyCache;
+import sootup.core.cache.MemoryPolicy;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/** Tests the {@link MemoryPolicy} of classes in a {@link JavaView} and of method bodies. */
+@Category(Java8Test.class)
+public class JavaViewMemoryPolicyTest {
+
+  private final JavaProject project =
+      JavaProject.builder(new JavaLanguage(8))
+          .addInputLocation(
+              new PathBasedAnalysisInputLocation(
+                  Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+          .build();
+
+  @Test
+  public void testEvictedClassesAreResolvedAgain() {
+    Set<ClassType> types =
+        project.createFullView().getClasses().stream()
+            .map(JavaSootClass::getType)
+            .collect(Collectors.toSet());
+    assertTrue(types.size() > 2);
+
+    JavaView view =
+        project.createOnDemandView(location -> null, MemoryPolicy.<JavaSootClass>maximumSize(1));
+    for (ClassType type : types) {
+      assertTrue(view.getClass(type).isPresent());
+    }
+    ClassType first = types.iterator().next();
+    assertTrue(view.getClass(first).isPresent());
+
+    CacheStats stats = view.getClassCacheStats();
+    assertTrue(stats.evictionCount() >= types.size() - 1);
+    assertEquals(types.size() + 1, stats.missCount());
+
+    // evicted classes are still part of the full view
+    assertEquals(
+        types, view.getClasses().stream().map(JavaSootClass::getType).collect(Collectors.toSet()));
+    assertEquals(types.size(), view.getClasses().size());
+  }
+
+  @Test
+  public void testUnboundedViewRetainsClasses() {
+    JavaView view = project.createFullView();
+    ClassType type = view.getClasses().iterator().next().getType();
+    assertSame(view.getClass(type).get(), view.getClass(type).get());
+    assertEquals(0, view.getClassCacheStats().evictionCount());
+  }
+
+  @Test
+  public void testEvictedBodiesAreResolvedAgain() {
+    JavaView view = project.createOnDemandView();
+    BodyCache.setMemoryPolicy(view, MemoryPolicy.maximumSize(1));
+    JavaSootClass clazz =
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("MiniApp")).get();
+    List<SootMethod> methods =
+        clazz.getMethods().stream().filter(SootMethod::hasBody).collect(Collectors.toList());
+    assertTrue(methods.size() > 1);
+
+    SootMethod method = methods.get(0);
+    Body body = method.getBody();
+    assertSame(body, method.getBody());
+    for (SootMethod other : methods) {
+      other.getBody();
+    }
+
+    Body resolvedAgain = method.getBody();
+    assertNotSame(body, resolvedAgain);
+    assertEquals(body.toString(), resolvedAgain.toString());
+    assertTrue(BodyCache.of(view).get().getStats().evictionCount() > 0);
+
+    // the policy belongs to the view
+    JavaView otherView = project.createOnDemandView();
+    assertFalse(BodyCache.of(otherView).isPresent());
+    SootMethod otherMethod = otherView.getMethod(method.getSignature()).get();
+    assertSame(otherMethod.getBody(), otherMethod.getBody());
+  }
+
+  @Test
+  public void testUnboundedBodyPolicy() {
+    JavaView view = project.createOnDemandView();
+    BodyCache.setMemoryPolicy(view, MemoryPolicy.unbounded());
+    assertFalse(BodyCache.of(view).isPresent());
+  }
+}
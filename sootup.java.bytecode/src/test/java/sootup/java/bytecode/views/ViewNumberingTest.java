@@ -0,0 +1,118 @@
+package sootup.java.bytecode.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.util.DenseIndex;
+import sootup.core.views.ViewNumbering;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class ViewNumberingTest {
+
+  private final JavaProject project =
+      JavaProject.builder(new JavaLanguage(8))
+          .addInputLocation(
+              new PathBasedAnalysisInputLocation(
+                  Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+          .build();
+
+  @Test
+  public void testSignaturesAreNumberedDensely() {
+    JavaView view = project.createOnDemandView();
+    ViewNumbering numbering = ViewNumbering.of(view);
+    assertSame(numbering, ViewNumbering.of(view));
+    assertNotSame(numbering, ViewNumbering.of(project.createOnDemandView()));
+
+    BitSet methodNumbers = new BitSet();
+    int methodCount = 0;
+    int fieldCount = 0;
+    for (JavaSootClass clazz : view.getClasses()) {
+      numbering.getNumber(clazz.getType());
+      for (SootMethod method : clazz.getMethods()) {
+        methodNumbers.set(numbering.getNumber(method.getSignature()));
+        methodCount++;
+      }
+      for (SootField field : clazz.getFields()) {
+        numbering.getNumber(field.getSignature());
+        fieldCount++;
+      }
+    }
+
+    assertEquals(view.getClasses().size(), numbering.getClassTypes().size());
+    assertEquals(methodCount, numbering.getMethods().size());
+    assertEquals(fieldCount, numbering.getFields().size());
+    assertEquals(methodCount, methodNumbers.cardinality());
+    assertEquals(methodCount, methodNumbers.length());
+
+    // numbers are stable
+    for (JavaSootClass clazz : view.getClasses()) {
+      int number = numbering.getClassTypes().getNumber(clazz.getType());
+      assertEquals(clazz.getType(), numbering.getClassTypes().get(number));
+      assertEquals(number, numbering.getNumber(clazz.getType()));
+    }
+  }
+
+  @Test
+  public void testBodyIndexes() {
+    JavaView view = project.createOnDemandView();
+    for (JavaSootClass clazz : view.getClasses()) {
+      for (SootMethod method : clazz.getMethods()) {
+        if (!method.hasBody()) {
+          continue;
+        }
+        Body body = method.getBody();
+
+        DenseIndex<Local> locals = body.getLocalIndex();
+        assertSame(locals, body.getLocalIndex());
+        assertEquals(body.getLocalCount(), locals.size());
+        for (Local local : body.getLocals()) {
+          assertEquals(local, locals.get(locals.indexOf(local)));
+        }
+
+        DenseIndex<Stmt> stmts = body.getStmtIndex();
+        List<Stmt> stmtList = body.getStmts();
+        assertEquals(stmtList, stmts.getElements());
+        for (int i = 0; i < stmtList.size(); i++) {
+          assertEquals(i, stmts.indexOf(stmtList.get(i)));
+        }
+      }
+    }
+  }
+}
@@ -22,9 +22,12 @@ package sootup.java.core;
  * #L%
  */
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Maps;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -56,11 +59,28 @@ public class JavaIdentifierFactory implements IdentifierFactory {
 
   @Nonnull private static final JavaIdentifierFactory INSTANCE = new JavaIdentifierFactory();
 
+  /*
+   * Canonical instances of the class types and signatures returned by the factories. Equal
+   * signatures are then identical, which short-cuts their equals methods, and the heap holds each
+   * signature once. The tables hold the instances weakly, so unused ones are still collected.
+   */
+  @Nonnull private static final Interner<ClassType> classTypes = Interners.newWeakInterner();
+
+  @Nonnull
+  private static final Interner<MethodSubSignature> methodSubSignatures =
+      Interners.newWeakInterner();
+
+  @Nonnull
+  private static final Interner<MethodSignature> methodSignatures = Interners.newWeakInterner();
+
+  @Nonnull
+  private static final Interner<FieldSignature> fieldSignatures = Interners.newWeakInterner();
+
   /** Caches the created PackageNames for packages. */
-  @Nonnull protected final Map<String, PackageName> packages = new HashMap<>();
+  @Nonnull protected final Map<String, PackageName> packages = new ConcurrentHashMap<>();
 
   /** Caches annotation types */
-  @Nonnull protected final Map<String, AnnotationType> annotationTypes = new HashMap<>();
+  @Nonnull protected final Map<String, AnnotationType> annotationTypes = new ConcurrentHashMap<>();
 
   @Nonnull
   protected final Map<String, PrimitiveType> primitiveTypeMap = Maps.newHashMapWithExpectedSize(8);
@@ -93,8 +113,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   }
 
   /**
-   * Always creates a new ClassSignature. In opposite to PackageSignatures, ClassSignatures are not
-   * cached because the are unique per class, and thus reusing them does not make sense.
+   * Returns the canonical ClassSignature, i.e. equal ClassSignatures are identical as long as one
+   * of them is referenced.
    *
    * @param className the simple class name
    * @param packageName the Java package name; must not be null use empty string for the default
@@ -106,11 +126,18 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Override
   public JavaClassType getClassType(final String className, final String packageName) {
     PackageName packageIdentifier = getPackageName(packageName);
-    return new JavaClassType(className, packageIdentifier);
+    return intern(new JavaClassType(className, packageIdentifier));
+  }
+
+  /** Returns the canonical instance of the given class type. */
+  @SuppressWarnings("unchecked") // equal class types are of the same class
+  @Nonnull
+  protected static <T extends JavaClassType> T intern(@Nonnull T classType) {
+    return (T) classTypes.intern(classType);
   }
 
   /**
-   * Always creates a new ClassSignature.
+   * Returns the canonical ClassSignature.
    *
    * @param fullyQualifiedClassName the fully-qualified name of the class
    * @return a ClassSignature for a Java Class
@@ -255,7 +282,7 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   }
 
   /**
-   * Always creates a new MethodSignature AND a new ClassSignature.
+   * Returns the canonical MethodSignature.
    *
    * @param methodName the method's name
    * @param fullyQualifiedNameDeclClass the fully-qualified name of the declaring class
@@ -276,11 +303,13 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       Type parameterSignature = getType(fqParameterName);
       parameterSignatures.add(parameterSignature);
     }
-    return new MethodSignature(declaringClass, methodName, parameterSignatures, returnType);
+    return getMethodSignature(
+        declaringClass, getMethodSubSignature(methodName, returnType, parameterSignatures));
   }
 
   /**
-   * Always creates a new MethodSignature reusing the given ClassSignature.
+   * Returns the canonical MethodSignature. It refers to the given ClassSignature, unless an equal
+   * MethodSignature already exists.
    *
    * @param declaringClassSignature the ClassSignature of the declaring class
    * @param methodName the method's name
@@ -300,8 +329,9 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       Type parameterSignature = getType(fqParameterName);
       parameterSignatures.add(parameterSignature);
     }
-    return new MethodSignature(
-        declaringClassSignature, methodName, parameterSignatures, returnType);
+    return getMethodSignature(
+        declaringClassSignature,
+        getMethodSubSignature(methodName, returnType, parameterSignatures));
   }
 
   @Override
@@ -311,7 +341,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       final Type fqReturnType,
       final List<Type> parameters) {
 
-    return new MethodSignature(declaringClassSignature, methodName, parameters, fqReturnType);
+    return getMethodSignature(
+        declaringClassSignature, getMethodSubSignature(methodName, fqReturnType, parameters));
   }
 
   @Override
@@ -325,7 +356,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   @Nonnull
   public MethodSignature getMethodSignature(
       @Nonnull ClassType declaringClassSignature, @Nonnull MethodSubSignature subSignature) {
-    return new MethodSignature(declaringClassSignature, subSignature);
+    return methodSignatures.intern(
+        new MethodSignature(declaringClassSignature, methodSubSignatures.intern(subSignature)));
   }
 
   private static final class MethodSignatureParserPatternHolder {
@@ -427,7 +459,8 @@ public class JavaIdentifierFactory implements IdentifierFactory {
       @Nonnull String name,
       @Nonnull Type returnType,
       @Nonnull Iterable<? extends Type> parameterSignatures) {
-    return new MethodSubSignature(name, parameterSignatures, returnType);
+    return methodSubSignatures.intern(
+        new MethodSubSignature(name, parameterSignatures, returnType));
   }
 
   @Nonnull
@@ -580,20 +613,21 @@ public class JavaIdentifierFactory implements IdentifierFactory {
   public FieldSignature getFieldSignature(
       final String fieldName, final ClassType declaringClassSignature, final String fieldType) {
     Type type = getType(fieldType);
-    return new FieldSignature(declaringClassSignature, fieldName, type);
+    return getFieldSignature(fieldName, declaringClassSignature, type);
   }
 
   @Override
   public FieldSignature getFieldSignature(
       final String fieldName, final ClassType declaringClassSignature, final Type fieldType) {
-    return new FieldSignature(declaringClassSignature, fieldName, fieldType);
+    return fieldSignatures.intern(
+        new FieldSignature(declaringClassSignature, fieldName, fieldType));
   }
 
   @Override
   @Nonnull
   public FieldSignature getFieldSignature(
       @Nonnull ClassType declaringClassSignature, @Nonnull FieldSubSignature subSignature) {
-    return new FieldSignature(declaringClassSignature, subSignature);
+    return fieldSignatures.intern(new FieldSignature(declaringClassSignature, subSignature));
   }
 
   @Nonnull
@@ -22,9 +22,9 @@ package sootup.java.core;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import org.apache.commons.lang3.ClassUtils;
 import sootup.core.signatures.MethodSignature;
@@ -36,7 +36,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
 
   public static final String MODULE_INFO_FILE = "module-info";
 
-  private static final Map<String, ModuleSignature> modules = new HashMap<>();
+  private static final Map<String, ModuleSignature> modules = new ConcurrentHashMap<>();
 
   private static final JavaModuleIdentifierFactory INSTANCE = new JavaModuleIdentifierFactory();
 
@@ -49,7 +49,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
   }
 
   private static final Map<ModuleSignature, JavaModuleIdentifierFactory>
-      moduleIdentifierFactoryWrapper = new HashMap<>();
+      moduleIdentifierFactoryWrapper = new ConcurrentHashMap<>();
 
   public static JavaModuleIdentifierFactory getInstance(@Nonnull ModuleSignature moduleSignature) {
     return moduleIdentifierFactoryWrapper.computeIfAbsent(
@@ -99,9 +99,8 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
   }
 
   /**
-   * Always creates a new ClassSignature. In opposite to PackageSignatures and ModuleSignatures,
-   * ClassSignatures are not cached because the are unique per class, and thus reusing them does not
-   * make sense.
+   * Returns the canonical ClassSignature, like the other signatures of {@link
+   * JavaIdentifierFactory}.
    *
    * @param className the simple name of the class
    * @param packageName the declaring package
@@ -115,7 +114,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
       final @Nonnull String packageName,
       final @Nonnull String moduleName) {
     ModulePackageName packageIdentifier = getPackageName(packageName, moduleName);
-    return new ModuleJavaClassType(className, packageIdentifier);
+    return intern(new ModuleJavaClassType(className, packageIdentifier));
   }
 
   public ModuleJavaClassType getClassType(
@@ -123,7 +122,7 @@ public class JavaModuleIdentifierFactory extends JavaIdentifierFactory {
       final @Nonnull String packageName,
       final @Nonnull ModuleSignature moduleSignature) {
     ModulePackageName packageIdentifier = getPackageName(packageName, moduleSignature);
-    return new ModuleJavaClassType(className, packageIdentifier);
+    return intern(new ModuleJavaClassType(className, packageIdentifier));
   }
 
   /**
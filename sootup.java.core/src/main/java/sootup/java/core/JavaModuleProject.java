@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 import sootup.core.SourceTypeSpecifier;
+import sootup.core.cache.MemoryPolicy;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.java.core.language.JavaLanguage;
@@ -55,4 +56,14 @@ public class JavaModuleProject extends JavaProject {
               classLoadingOptionsSpecifier) {
     return new JavaModuleView(this, classLoadingOptionsSpecifier);
   }
+
+  @Nonnull
+  @Override
+  public JavaModuleView createOnDemandView(
+      @Nonnull
+          Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
+              classLoadingOptionsSpecifier,
+      @Nonnull MemoryPolicy<JavaSootClass> memoryPolicy) {
+    return new JavaModuleView(this, classLoadingOptionsSpecifier, memoryPolicy);
+  }
 }
@@ -25,10 +25,12 @@ package sootup.java.core;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 import sootup.core.Project;
 import sootup.core.SourceTypeSpecifier;
+import sootup.core.cache.MemoryPolicy;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.inputlocation.DefaultSourceTypeSpecifier;
@@ -71,6 +73,19 @@ public class JavaProject extends Project<JavaSootClass, JavaView> {
     return new JavaView(this, classLoadingOptionsSpecifier);
   }
 
+  /**
+   * Creates an on-demand view whose class cache follows the given {@link MemoryPolicy}, e.g. to
+   * analyze large class paths within a bounded heap.
+   */
+  @Nonnull
+  public JavaView createOnDemandView(
+      @Nonnull
+          Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
+              classLoadingOptionsSpecifier,
+      @Nonnull MemoryPolicy<JavaSootClass> memoryPolicy) {
+    return new JavaView(this, classLoadingOptionsSpecifier, memoryPolicy);
+  }
+
   @Nonnull
   @Override
   public JavaView createFullView() {
@@ -79,6 +94,18 @@ public class JavaProject extends Project<JavaSootClass, JavaView> {
     return view;
   }
 
+  /**
+   * Creates a full view whose classes are resolved in parallel using the given executor, e.g. a
+   * {@link java.util.concurrent.ForkJoinPool}.
+   */
+  @Nonnull
+  public JavaView createFullView(@Nonnull Executor executor) {
+    final JavaView view = createOnDemandView();
+    view.setResolutionExecutor(executor);
+    view.getClasses();
+    return view;
+  }
+
   @Nonnull
   public MutableJavaView createMutableFullView() {
     final MutableJavaView view = createMutableOnDemandView();
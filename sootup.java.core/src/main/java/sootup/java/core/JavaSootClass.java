@@ -134,6 +134,12 @@ public class JavaSootClass extends SootClass<JavaSootClassSource> {
     return (Optional<JavaSootMethod>) super.getMethod(subSignature);
   }
 
+  @Nonnull
+  @Override
+  public List<? extends JavaSootMethod> getMethodsByName(@Nonnull String name) {
+    return (List<? extends JavaSootMethod>) super.getMethodsByName(name);
+  }
+
   @Nonnull
   @Override
   public JavaSootClassSource getClassSource() {
@@ -27,6 +27,8 @@ import java.util.Collections;
 import java.util.Optional;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.BodySource;
 import sootup.core.frontend.OverridingBodySource;
 import sootup.core.model.Body;
@@ -49,7 +51,22 @@ public class JavaSootMethod extends SootMethod {
       @Nonnull Iterable<ClassType> thrownExceptions,
       @Nonnull Iterable<AnnotationUsage> annotations,
       @Nonnull Position position) {
-    super(source, methodSignature, modifiers, thrownExceptions, position);
+    this(source, methodSignature, modifiers, thrownExceptions, annotations, position, null);
+  }
+
+  /**
+   * @param bodyCache the cache of the view the method belongs to, or null to memoize the body in
+   *     the method
+   */
+  public JavaSootMethod(
+      @Nonnull BodySource source,
+      @Nonnull MethodSignature methodSignature,
+      @Nonnull Iterable<Modifier> modifiers,
+      @Nonnull Iterable<ClassType> thrownExceptions,
+      @Nonnull Iterable<AnnotationUsage> annotations,
+      @Nonnull Position position,
+      @Nullable BodyCache bodyCache) {
+    super(source, methodSignature, modifiers, thrownExceptions, position, bodyCache);
     this.annotations = annotations;
   }
 
@@ -99,7 +116,8 @@ public class JavaSootMethod extends SootMethod {
         getModifiers(),
         exceptions,
         getAnnotations(Optional.empty()),
-        getPosition());
+        getPosition(),
+        bodyCache);
   }
 
   @Nonnull
@@ -111,7 +129,8 @@ public class JavaSootMethod extends SootMethod {
         getModifiers(),
         exceptions,
         getAnnotations(Optional.empty()),
-        getPosition());
+        getPosition(),
+        bodyCache);
   }
 
   @Nonnull
@@ -123,7 +142,8 @@ public class JavaSootMethod extends SootMethod {
         modifiers,
         getExceptionSignatures(),
         getAnnotations(Optional.empty()),
-        getPosition());
+        getPosition(),
+        bodyCache);
   }
 
   @Nonnull
@@ -135,7 +155,8 @@ public class JavaSootMethod extends SootMethod {
         getModifiers(),
         thrownExceptions,
         getAnnotations(Optional.empty()),
-        getPosition());
+        getPosition(),
+        bodyCache);
   }
 
   @Nonnull
@@ -146,7 +167,8 @@ public class JavaSootMethod extends SootMethod {
         getModifiers(),
         getExceptionSignatures(),
         annotations,
-        getPosition());
+        getPosition(),
+        bodyCache);
   }
 
   @Nonnull
@@ -158,7 +180,8 @@ public class JavaSootMethod extends SootMethod {
         getModifiers(),
         exceptions,
         getAnnotations(Optional.empty()),
-        getPosition());
+        getPosition(),
+        bodyCache);
   }
 
   @Nonnull
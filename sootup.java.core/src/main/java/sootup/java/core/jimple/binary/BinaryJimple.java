@@ -0,0 +1,175 @@
+package sootup.java.core.jimple.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.EnumSet;
+import javax.annotation.Nonnull;
+import sootup.core.model.Modifier;
+
+/**
+ * The tags of the binary Jimple format written by {@link BinaryJimpleWriter} and read by {@link
+ * BinaryJimpleReader}.
+ *
+ * <p>The format consists of a constant pool followed by a code section. The constant pool holds
+ * every string, type and signature once; everything else refers to it by index. The code section
+ * holds method bodies, i.e. a local table, a statement stream, the branch targets and the traps.
+ * Integers are written as unsigned LEB128 varints, signed values are zigzag encoded beforehand.
+ *
+ * <p>A binary Jimple file wraps the format: it starts with {@link #FILE_MAGIC}, its code section
+ * holds the bodies and headers of classes followed by a table of the class headers, and it ends
+ * with the offset of that table as a four byte integer.
+ *
+ * <p>The format has two users: the body cache of the bytecode frontend stores every body with a
+ * constant pool of its own, and {@link BinaryJimpleAnalysisInputLocation} reads binary Jimple
+ * files. An incompatible change increments {@link #VERSION}, so both reject data written before.
+ */
+final class BinaryJimple {
+
+  /** Incremented on every incompatible change of the format. */
+  static final int VERSION = 1;
+
+  // constant pool entries
+  static final int POOL_STRING = 0;
+  static final int POOL_CLASS_TYPE = 1;
+  static final int POOL_ARRAY_TYPE = 2;
+  static final int POOL_BASIC_TYPE = 3;
+  static final int POOL_METHOD_SIGNATURE = 4;
+  static final int POOL_FIELD_SIGNATURE = 5;
+
+  // kinds of POOL_BASIC_TYPE
+  static final int TYPE_BOOLEAN = 0;
+  static final int TYPE_BYTE = 1;
+  static final int TYPE_CHAR = 2;
+  static final int TYPE_SHORT = 3;
+  static final int TYPE_INT = 4;
+  static final int TYPE_LONG = 5;
+  static final int TYPE_FLOAT = 6;
+  static final int TYPE_DOUBLE = 7;
+  static final int TYPE_VOID = 8;
+  static final int TYPE_NULL = 9;
+  static final int TYPE_UNKNOWN = 10;
+
+  // positions
+  static final int NO_POSITION = 0;
+  static final int POSITION = 1;
+
+  // locals
+  static final int LOCAL = 0;
+  static final int JAVA_LOCAL = 1;
+
+  // statements
+  static final int STMT_IDENTITY = 0;
+  static final int STMT_ASSIGN = 1;
+  static final int STMT_INVOKE = 2;
+  static final int STMT_IF = 3;
+  static final int STMT_GOTO = 4;
+  static final int STMT_NOP = 5;
+  static final int STMT_RETURN = 6;
+  static final int STMT_RETURN_VOID = 7;
+  static final int STMT_THROW = 8;
+  static final int STMT_ENTER_MONITOR = 9;
+  static final int STMT_EXIT_MONITOR = 10;
+  static final int STMT_TABLE_SWITCH = 11;
+  static final int STMT_LOOKUP_SWITCH = 12;
+  static final int STMT_RET = 13;
+  static final int STMT_BREAKPOINT = 14;
+
+  // values
+  static final int VALUE_LOCAL = 0;
+  static final int VALUE_INT = 1;
+  static final int VALUE_LONG = 2;
+  static final int VALUE_FLOAT = 3;
+  static final int VALUE_DOUBLE = 4;
+  static final int VALUE_NULL = 5;
+  static final int VALUE_STRING = 6;
+  static final int VALUE_CLASS = 7;
+  static final int VALUE_ENUM = 8;
+  static final int VALUE_BOOLEAN = 9;
+  static final int VALUE_METHOD_HANDLE = 10;
+  static final int VALUE_METHOD_TYPE = 11;
+  static final int VALUE_THIS_REF = 12;
+  static final int VALUE_PARAMETER_REF = 13;
+  static final int VALUE_CAUGHT_EXCEPTION_REF = 14;
+  static final int VALUE_STATIC_FIELD_REF = 15;
+  static final int VALUE_INSTANCE_FIELD_REF = 16;
+  static final int VALUE_ARRAY_REF = 17;
+  static final int VALUE_ADD = 18;
+  static final int VALUE_AND = 19;
+  static final int VALUE_CMP = 20;
+  static final int VALUE_CMPG = 21;
+  static final int VALUE_CMPL = 22;
+  static final int VALUE_DIV = 23;
+  static final int VALUE_EQ = 24;
+  static final int VALUE_NE = 25;
+  static final int VALUE_GE = 26;
+  static final int VALUE_GT = 27;
+  static final int VALUE_LE = 28;
+  static final int VALUE_LT = 29;
+  static final int VALUE_MUL = 30;
+  static final int VALUE_OR = 31;
+  static final int VALUE_REM = 32;
+  static final int VALUE_SHL = 33;
+  static final int VALUE_SHR = 34;
+  static final int VALUE_USHR = 35;
+  static final int VALUE_SUB = 36;
+  static final int VALUE_XOR = 37;
+  static final int VALUE_NEG = 38;
+  static final int VALUE_LENGTH = 39;
+  static final int VALUE_CAST = 40;
+  static final int VALUE_INSTANCE_OF = 41;
+  static final int VALUE_NEW = 42;
+  static final int VALUE_NEW_ARRAY = 43;
+  static final int VALUE_NEW_MULTI_ARRAY = 44;
+  static final int VALUE_STATIC_INVOKE = 45;
+  static final int VALUE_VIRTUAL_INVOKE = 46;
+  static final int VALUE_SPECIAL_INVOKE = 47;
+  static final int VALUE_INTERFACE_INVOKE = 48;
+  static final int VALUE_DYNAMIC_INVOKE = 49;
+
+  /** The first four bytes of a file written by {@link BinaryJimpleFileWriter}, i.e. "BJIM". */
+  static final int FILE_MAGIC = 0x424A494D;
+
+  /** Written instead of a body offset for methods without a body. */
+  static final int NO_BODY = 0;
+
+  static int toBits(@Nonnull Iterable<Modifier> modifiers) {
+    int bits = 0;
+    for (Modifier modifier : modifiers) {
+      bits |= 1 << modifier.ordinal();
+    }
+    return bits;
+  }
+
+  @Nonnull
+  static EnumSet<Modifier> fromBits(int bits) {
+    final EnumSet<Modifier> modifiers = EnumSet.noneOf(Modifier.class);
+    for (Modifier modifier : Modifier.values()) {
+      if ((bits & (1 << modifier.ordinal())) != 0) {
+        modifiers.add(modifier);
+      }
+    }
+    return modifiers;
+  }
+
+  private BinaryJimple() {}
+}
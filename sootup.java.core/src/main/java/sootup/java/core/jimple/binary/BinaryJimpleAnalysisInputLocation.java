@@ -0,0 +1,192 @@
+package sootup.java.core.jimple.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.SourceType;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootClassSource;
+
+/**
+ * An {@link AnalysisInputLocation} for a binary Jimple file written by {@link
+ * BinaryJimpleFileWriter}. The file is memory-mapped when a class is requested for the first time;
+ * only its constant pool and its class table are scanned then. The header of a class is decoded
+ * when its class source is created and the body of a method when it is requested.
+ *
+ * <p>The body interceptors of the view are applied to the decoded bodies.
+ */
+public class BinaryJimpleAnalysisInputLocation implements AnalysisInputLocation<JavaSootClass> {
+
+  @Nonnull private final Path file;
+  @Nullable private final SourceType srcType;
+  @Nullable private final ByteBuffer content;
+  @Nonnull private final Supplier<MappedFile> mappedFile = Suppliers.memoize(this::map);
+
+  public BinaryJimpleAnalysisInputLocation(@Nonnull Path file) {
+    this(file, null);
+  }
+
+  public BinaryJimpleAnalysisInputLocation(@Nonnull Path file, @Nullable SourceType srcType) {
+    if (!Files.isRegularFile(file)) {
+      throw new IllegalArgumentException(
+          "The configured file '"
+              + file
+              + "' pointing to '"
+              + file.toAbsolutePath()
+              + "' does not exist.");
+    }
+    this.file = file;
+    this.srcType = srcType;
+    this.content = null;
+  }
+
+  /** Reads the classes from content that is embedded in the given file, e.g. in a snapshot. */
+  BinaryJimpleAnalysisInputLocation(
+      @Nonnull Path file, @Nonnull ByteBuffer content, @Nullable SourceType srcType) {
+    this.file = file;
+    this.srcType = srcType;
+    this.content = content;
+  }
+
+  @Override
+  @Nullable
+  public SourceType getSourceType() {
+    return srcType;
+  }
+
+  @Override
+  @Nonnull
+  public Optional<JavaSootClassSource> getClassSource(
+      @Nonnull ClassType type, @Nonnull View<?> view) {
+    final MappedFile mapped = mappedFile.get();
+    final Integer offset = mapped.classOffsets.get(type);
+    if (offset == null) {
+      return Optional.empty();
+    }
+    return Optional.of(createClassSource(mapped, offset, view));
+  }
+
+  @Override
+  @Nonnull
+  public Collection<JavaSootClassSource> getClassSources(@Nonnull View<?> view) {
+    return streamClassSources(view).collect(Collectors.toList());
+  }
+
+  @Override
+  @Nonnull
+  public Stream<JavaSootClassSource> streamClassSources(@Nonnull View<?> view) {
+    final MappedFile mapped = mappedFile.get();
+    return mapped.classOffsets.values().stream()
+        .map(offset -> createClassSource(mapped, offset, view));
+  }
+
+  @Nonnull
+  @SuppressWarnings("unchecked")
+  private JavaSootClassSource createClassSource(
+      @Nonnull MappedFile mapped, int offset, @Nonnull View<?> view) {
+    final List<BodyInterceptor> bodyInterceptors =
+        ((View<JavaSootClass>) view).getBodyInterceptors(this);
+    return new BinaryJimpleClassSource(this, file, mapped.reader, offset, bodyInterceptors);
+  }
+
+  @Nonnull
+  private MappedFile map() {
+    final ByteBuffer buffer = content != null ? content.duplicate() : mapFile();
+    if (buffer.limit() < 8 || buffer.getInt(0) != BinaryJimple.FILE_MAGIC) {
+      throw new IllegalArgumentException(file + " is no binary Jimple file.");
+    }
+    final int classTableOffset = buffer.getInt(buffer.limit() - 4);
+    ((Buffer) buffer).position(4);
+    ((Buffer) buffer).limit(buffer.limit() - 4);
+    final BinaryJimpleReader reader =
+        new BinaryJimpleReader(buffer, JavaIdentifierFactory.getInstance());
+
+    final BinaryJimpleReader.Cursor cursor = reader.cursor(classTableOffset);
+    final int classCount = cursor.readVarInt();
+    final Map<ClassType, Integer> classOffsets = new HashMap<>(classCount * 2);
+    for (int i = 0; i < classCount; i++) {
+      final ClassType type = (ClassType) cursor.readType();
+      classOffsets.put(type, cursor.readVarInt());
+    }
+    return new MappedFile(reader, Collections.unmodifiableMap(classOffsets));
+  }
+
+  @Nonnull
+  private ByteBuffer mapFile() {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not map " + file, e);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof BinaryJimpleAnalysisInputLocation)) {
+      return false;
+    }
+    return file.equals(((BinaryJimpleAnalysisInputLocation) o).file);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(file);
+  }
+
+  private static final class MappedFile {
+    @Nonnull private final BinaryJimpleReader reader;
+    @Nonnull private final Map<ClassType, Integer> classOffsets;
+
+    private MappedFile(
+        @Nonnull BinaryJimpleReader reader, @Nonnull Map<ClassType, Integer> classOffsets) {
+      this.reader = reader;
+      this.classOffsets = classOffsets;
+    }
+  }
+}
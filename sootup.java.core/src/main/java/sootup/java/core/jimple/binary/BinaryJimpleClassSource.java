@@ -0,0 +1,240 @@
+package sootup.java.core.jimple.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.BodySource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.Body;
+import sootup.core.model.Modifier;
+import sootup.core.model.Position;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.types.ClassType;
+import sootup.java.core.AnnotationUsage;
+import sootup.java.core.JavaSootClassSource;
+import sootup.java.core.JavaSootField;
+import sootup.java.core.JavaSootMethod;
+
+/** A class decoded from a binary Jimple file. Bodies are decoded when they are requested. */
+final class BinaryJimpleClassSource extends JavaSootClassSource {
+
+  @Nonnull private final Set<Modifier> modifiers;
+  @Nullable private final ClassType superclass;
+  @Nonnull private final Set<ClassType> interfaces;
+  @Nullable private final ClassType outerClass;
+  @Nonnull private final Position position;
+  @Nonnull private final List<JavaSootField> fields;
+  @Nonnull private final List<JavaSootMethod> methods;
+
+  BinaryJimpleClassSource(
+      @Nonnull BinaryJimpleAnalysisInputLocation inputLocation,
+      @Nonnull Path file,
+      @Nonnull BinaryJimpleReader reader,
+      int offset,
+      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+    this(inputLocation, file, reader, reader.cursor(offset), bodyInterceptors);
+  }
+
+  private BinaryJimpleClassSource(
+      @Nonnull BinaryJimpleAnalysisInputLocation inputLocation,
+      @Nonnull Path file,
+      @Nonnull BinaryJimpleReader reader,
+      @Nonnull BinaryJimpleReader.Cursor cursor,
+      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+    super(inputLocation, (ClassType) cursor.readType(), file);
+    modifiers = BinaryJimple.fromBits(cursor.readVarInt());
+    superclass = readOptionalType(cursor);
+    final int interfaceCount = cursor.readVarInt();
+    interfaces = new LinkedHashSet<>(interfaceCount * 2);
+    for (int i = 0; i < interfaceCount; i++) {
+      interfaces.add((ClassType) cursor.readType());
+    }
+    outerClass = readOptionalType(cursor);
+    position = cursor.readPosition();
+
+    final int fieldCount = cursor.readVarInt();
+    fields = new ArrayList<>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      fields.add(
+          new JavaSootField(
+              cursor.readFieldSignature(),
+              BinaryJimple.fromBits(cursor.readVarInt()),
+              Collections.emptyList(),
+              cursor.readPosition()));
+    }
+
+    final int methodCount = cursor.readVarInt();
+    methods = new ArrayList<>(methodCount);
+    for (int i = 0; i < methodCount; i++) {
+      final MethodSignature signature = cursor.readMethodSignature();
+      final Set<Modifier> methodModifiers = BinaryJimple.fromBits(cursor.readVarInt());
+      final int exceptionCount = cursor.readVarInt();
+      final List<ClassType> exceptions = new ArrayList<>(exceptionCount);
+      for (int j = 0; j < exceptionCount; j++) {
+        exceptions.add((ClassType) cursor.readType());
+      }
+      final Position methodPosition = cursor.readPosition();
+      final int bodyOffset = cursor.readVarInt();
+      methods.add(
+          new JavaSootMethod(
+              new BinaryJimpleBodySource(reader, signature, bodyOffset, bodyInterceptors),
+              signature,
+              methodModifiers,
+              exceptions,
+              Collections.emptyList(),
+              methodPosition));
+    }
+  }
+
+  @Nullable
+  private static ClassType readOptionalType(@Nonnull BinaryJimpleReader.Cursor cursor) {
+    return cursor.readVarInt() == 0 ? null : (ClassType) cursor.readType();
+  }
+
+  @Override
+  @Nonnull
+  public Collection<JavaSootMethod> resolveMethods() {
+    return methods;
+  }
+
+  @Override
+  @Nonnull
+  public Collection<JavaSootField> resolveFields() {
+    return fields;
+  }
+
+  @Override
+  @Nonnull
+  public Set<Modifier> resolveModifiers() {
+    return modifiers;
+  }
+
+  @Override
+  @Nonnull
+  public Set<ClassType> resolveInterfaces() {
+    return interfaces;
+  }
+
+  @Override
+  @Nonnull
+  public Optional<ClassType> resolveSuperclass() {
+    return Optional.ofNullable(superclass);
+  }
+
+  @Override
+  @Nonnull
+  public Optional<ClassType> resolveOuterClass() {
+    return Optional.ofNullable(outerClass);
+  }
+
+  @Override
+  @Nonnull
+  public Position resolvePosition() {
+    return position;
+  }
+
+  @Override
+  @Nonnull
+  protected Iterable<AnnotationUsage> resolveAnnotations() {
+    return Collections.emptyList();
+  }
+
+  /** All classes of a file share its path, so the type tells them apart. */
+  @Override
+  public boolean equals(@Nullable Object o) {
+    return super.equals(o) && getClassType().equals(((BinaryJimpleClassSource) o).getClassType());
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * super.hashCode() + getClassType().hashCode();
+  }
+
+  @Override
+  @Nonnull
+  public String toString() {
+    return getSourcePath() + "!" + getClassType();
+  }
+
+  /** Decodes the body of a method from the file and applies the body interceptors to it. */
+  private static final class BinaryJimpleBodySource implements BodySource {
+
+    @Nonnull private final BinaryJimpleReader reader;
+    @Nonnull private final MethodSignature signature;
+    private final int bodyOffset;
+    @Nonnull private final List<BodyInterceptor> bodyInterceptors;
+
+    private BinaryJimpleBodySource(
+        @Nonnull BinaryJimpleReader reader,
+        @Nonnull MethodSignature signature,
+        int bodyOffset,
+        @Nonnull List<BodyInterceptor> bodyInterceptors) {
+      this.reader = reader;
+      this.signature = signature;
+      this.bodyOffset = bodyOffset;
+      this.bodyInterceptors = bodyInterceptors;
+    }
+
+    @Override
+    @Nonnull
+    public Body resolveBody(@Nonnull Iterable<Modifier> modifiers) {
+      if (bodyOffset == BinaryJimple.NO_BODY) {
+        throw new ResolveException("No body is stored for " + signature);
+      }
+      final Body body = reader.readBody(bodyOffset - 1, signature);
+      if (bodyInterceptors.isEmpty()) {
+        return body;
+      }
+      final Set<Modifier> modifierSet = EnumSet.noneOf(Modifier.class);
+      modifiers.forEach(modifierSet::add);
+      final Body.BodyBuilder bodyBuilder = Body.builder(body, modifierSet);
+      for (BodyInterceptor bodyInterceptor : bodyInterceptors) {
+        bodyInterceptor.interceptBody(bodyBuilder);
+      }
+      return bodyBuilder.build();
+    }
+
+    @Override
+    @Nullable
+    public Object resolveAnnotationsDefaultValue() {
+      return null;
+    }
+
+    @Override
+    @Nonnull
+    public MethodSignature getSignature() {
+      return signature;
+    }
+  }
+}
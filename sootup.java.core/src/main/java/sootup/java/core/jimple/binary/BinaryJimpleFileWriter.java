@@ -0,0 +1,159 @@
+package sootup.java.core.jimple.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaSootClass;
+
+/**
+ * Writes classes into a binary Jimple file, which is read by {@link
+ * BinaryJimpleAnalysisInputLocation}. The bodies of all methods are resolved and stored, so the
+ * file holds a pre-processed code base that is loaded without any conversion. Annotations are not
+ * stored.
+ */
+public class BinaryJimpleFileWriter {
+
+  @Nonnull private final BinaryJimpleWriter writer = new BinaryJimpleWriter();
+  @Nonnull private final Map<ClassType, Integer> classOffsets = new LinkedHashMap<>();
+
+  /**
+   * Adds the class with the bodies of its methods.
+   *
+   * @throws IllegalArgumentException if the class was already added or a body can not be
+   *     represented in the format; the class is not added in this case
+   */
+  public void addClass(@Nonnull JavaSootClass clazz) {
+    addClass(clazz, true);
+  }
+
+  /**
+   * Adds the class, optionally without the bodies of its methods. Requesting the body of a method
+   * that was added without its body fails with a {@link sootup.core.frontend.ResolveException}.
+   *
+   * @throws IllegalArgumentException if the class was already added or a body can not be
+   *     represented in the format; the class is not added in this case
+   */
+  public void addClass(@Nonnull JavaSootClass clazz, boolean withBodies) {
+    if (classOffsets.containsKey(clazz.getType())) {
+      throw new IllegalArgumentException(clazz.getType() + " was already added.");
+    }
+    final int start = writer.getCodeSize();
+    try {
+      final List<SootMethod> methods = new ArrayList<>(clazz.getMethods());
+      final int[] bodyOffsets = new int[methods.size()];
+      for (int i = 0; i < bodyOffsets.length; i++) {
+        final SootMethod method = methods.get(i);
+        // offsets are stored incremented, as 0 marks methods without a body
+        bodyOffsets[i] =
+            withBodies && method.hasBody()
+                ? writer.writeBody(method.getBody()) + 1
+                : BinaryJimple.NO_BODY;
+      }
+
+      final int offset = writer.getCodeSize();
+      writer.writeType(clazz.getType());
+      writer.writeVarInt(BinaryJimple.toBits(clazz.getModifiers()));
+      writeOptionalType(clazz.getSuperclass());
+      final Set<? extends ClassType> interfaces = clazz.getInterfaces();
+      writer.writeVarInt(interfaces.size());
+      for (ClassType anInterface : interfaces) {
+        writer.writeType(anInterface);
+      }
+      writeOptionalType(clazz.getOuterClass());
+      writer.writePosition(clazz.getPosition());
+
+      final Set<? extends SootField> fields = clazz.getFields();
+      writer.writeVarInt(fields.size());
+      for (SootField field : fields) {
+        writer.writeFieldSignature(field.getSignature());
+        writer.writeVarInt(BinaryJimple.toBits(field.getModifiers()));
+        writer.writePosition(field.getPosition());
+      }
+
+      writer.writeVarInt(methods.size());
+      for (int i = 0; i < bodyOffsets.length; i++) {
+        final SootMethod method = methods.get(i);
+        writer.writeMethodSignature(method.getSignature());
+        writer.writeVarInt(BinaryJimple.toBits(method.getModifiers()));
+        final List<ClassType> exceptions = method.getExceptionSignatures();
+        writer.writeVarInt(exceptions.size());
+        for (ClassType exception : exceptions) {
+          writer.writeType(exception);
+        }
+        writer.writePosition(method.getPosition());
+        writer.writeVarInt(bodyOffsets[i]);
+      }
+      classOffsets.put(clazz.getType(), offset);
+    } catch (RuntimeException e) {
+      writer.discardCode(start);
+      throw e;
+    }
+  }
+
+  private void writeOptionalType(@Nonnull Optional<? extends ClassType> type) {
+    writer.writeVarInt(type.isPresent() ? 1 : 0);
+    type.ifPresent(writer::writeType);
+  }
+
+  /** Returns the number of classes that were added. */
+  public int getClassCount() {
+    return classOffsets.size();
+  }
+
+  /** Returns the content of the binary Jimple file. */
+  @Nonnull
+  public byte[] toByteArray() {
+    final int codeSize = writer.getCodeSize();
+    writer.writeVarInt(classOffsets.size());
+    for (Map.Entry<ClassType, Integer> entry : classOffsets.entrySet()) {
+      writer.writeType(entry.getKey());
+      writer.writeVarInt(entry.getValue());
+    }
+    final byte[] content = writer.toByteArray();
+    // the class table is written anew on the next call
+    writer.discardCode(codeSize);
+
+    return ByteBuffer.allocate(content.length + 8)
+        .putInt(BinaryJimple.FILE_MAGIC)
+        .put(content)
+        .putInt(codeSize)
+        .array();
+  }
+
+  public void write(@Nonnull Path file) throws IOException {
+    Files.write(file, toByteArray());
+  }
+}
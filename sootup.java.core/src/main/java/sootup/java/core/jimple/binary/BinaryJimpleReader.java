@@ -0,0 +1,714 @@
+package sootup.java.core.jimple.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nonnull;
+import sootup.core.IdentifierFactory;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Trap;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.*;
+import sootup.core.jimple.common.expr.*;
+import sootup.core.jimple.common.ref.*;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.model.Body;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.*;
+import sootup.java.core.language.JavaJimple;
+
+/**
+ * Decodes {@link Body}s written by a {@link BinaryJimpleWriter}. The constant pool is only scanned
+ * on construction; its entries are decoded on first use, so reading a single body of a large file
+ * stays cheap. A reader is thread safe, as every read works on its own view of the buffer.
+ */
+public class BinaryJimpleReader {
+
+  @Nonnull private final ByteBuffer buffer;
+  @Nonnull private final IdentifierFactory identifierFactory;
+  @Nonnull private final int[] poolOffsets;
+  @Nonnull private final AtomicReferenceArray<Object> poolEntries;
+  private final int codeOffset;
+
+  /**
+   * @param buffer the bytes of {@link BinaryJimpleWriter#toByteArray()} from its position to its
+   *     limit
+   * @throws IllegalArgumentException if the buffer is not in the supported version of the format
+   */
+  public BinaryJimpleReader(
+      @Nonnull ByteBuffer buffer, @Nonnull IdentifierFactory identifierFactory) {
+    this.buffer = buffer.slice();
+    this.identifierFactory = identifierFactory;
+
+    final Cursor header = new Cursor(0);
+    final int version = header.readVarInt();
+    if (version != BinaryJimple.VERSION) {
+      throw new IllegalArgumentException("Unsupported binary Jimple version " + version);
+    }
+    final int poolSize = header.readVarInt();
+    final int poolLength = header.readVarInt();
+    final int poolOffset = header.position();
+    codeOffset = poolOffset + poolLength;
+    poolOffsets = new int[poolSize];
+    poolEntries = new AtomicReferenceArray<>(poolSize);
+
+    final Cursor pool = new Cursor(poolOffset);
+    for (int i = 0; i < poolSize; i++) {
+      poolOffsets[i] = pool.position();
+      pool.skipPoolEntry();
+    }
+    if (pool.position() != codeOffset) {
+      throw new IllegalArgumentException("Corrupt constant pool.");
+    }
+  }
+
+  /** Returns a cursor at the given offset of the code section. */
+  @Nonnull
+  public Cursor cursor(int offset) {
+    return new Cursor(codeOffset + offset);
+  }
+
+  /** Reads the body at the given offset of the code section, see {@link Cursor#readBody}. */
+  @Nonnull
+  public Body readBody(int offset, @Nonnull MethodSignature signature) {
+    return cursor(offset).readBody(signature);
+  }
+
+  @Nonnull
+  private Object getPoolEntry(int index) {
+    Object entry = poolEntries.get(index);
+    if (entry == null) {
+      // decoding twice in a race is harmless, as the entries are values
+      entry = new Cursor(poolOffsets[index]).readPoolEntry();
+      poolEntries.set(index, entry);
+    }
+    return entry;
+  }
+
+  @Nonnull
+  private <T> T getPoolEntry(int index, @Nonnull Class<T> entryClass) {
+    final Object entry = getPoolEntry(index);
+    if (!entryClass.isInstance(entry)) {
+      throw new IllegalArgumentException(
+          "Constant pool entry " + index + " is no " + entryClass.getSimpleName());
+    }
+    return entryClass.cast(entry);
+  }
+
+  /** Reads the values in the order they were written by the corresponding writer methods. */
+  public class Cursor {
+
+    @Nonnull private final ByteBuffer in;
+
+    private Cursor(int position) {
+      in = buffer.duplicate();
+      // Buffer#position(int), as ByteBuffer#position(int) does not exist on Java 8
+      ((Buffer) in).position(position);
+    }
+
+    /** Returns the position relative to the start of the code section. */
+    public int getOffset() {
+      return in.position() - codeOffset;
+    }
+
+    private int position() {
+      return in.position();
+    }
+
+    public int readVarInt() {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        final byte b = readByte();
+        value |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed varint.");
+    }
+
+    private int readSignedVarInt() {
+      final int zigzag = readVarInt();
+      return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private long readSignedVarLong() {
+      long zigzag = 0;
+      for (int shift = 0; ; shift += 7) {
+        if (shift >= 70) {
+          throw new IllegalArgumentException("Malformed varint.");
+        }
+        final byte b = readByte();
+        zigzag |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          break;
+        }
+      }
+      return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private byte readByte() {
+      try {
+        return in.get();
+      } catch (BufferUnderflowException e) {
+        throw new IllegalArgumentException("Unexpected end of binary Jimple.", e);
+      }
+    }
+
+    @Nonnull
+    public String readString() {
+      return getPoolEntry(readVarInt(), String.class);
+    }
+
+    @Nonnull
+    public Type readType() {
+      return getPoolEntry(readVarInt(), Type.class);
+    }
+
+    @Nonnull
+    public MethodSignature readMethodSignature() {
+      return getPoolEntry(readVarInt(), MethodSignature.class);
+    }
+
+    @Nonnull
+    public FieldSignature readFieldSignature() {
+      return getPoolEntry(readVarInt(), FieldSignature.class);
+    }
+
+    @Nonnull
+    public Position readPosition() {
+      final int kind = readVarInt();
+      if (kind == BinaryJimple.NO_POSITION) {
+        return NoPositionInformation.getInstance();
+      }
+      final int firstLine = readSignedVarInt();
+      final int firstCol = readSignedVarInt();
+      final int lastLine = readSignedVarInt();
+      return new Position(firstLine, firstCol, lastLine, readSignedVarInt());
+    }
+
+    @Nonnull
+    private ClassType readClassType() {
+      return getPoolEntry(readVarInt(), ClassType.class);
+    }
+
+    private void skipPoolEntry() {
+      final int tag = readVarInt();
+      switch (tag) {
+        case BinaryJimple.POOL_STRING:
+          final int length = readVarInt();
+          for (int i = 0; i < length; i++) {
+            readVarInt();
+          }
+          break;
+        case BinaryJimple.POOL_CLASS_TYPE:
+        case BinaryJimple.POOL_BASIC_TYPE:
+          readVarInt();
+          break;
+        case BinaryJimple.POOL_ARRAY_TYPE:
+          readVarInt();
+          readVarInt();
+          break;
+        case BinaryJimple.POOL_METHOD_SIGNATURE:
+          readVarInt();
+          readVarInt();
+          readVarInt();
+          final int parameterCount = readVarInt();
+          for (int i = 0; i < parameterCount; i++) {
+            readVarInt();
+          }
+          break;
+        case BinaryJimple.POOL_FIELD_SIGNATURE:
+          readVarInt();
+          readVarInt();
+          readVarInt();
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+      }
+    }
+
+    @Nonnull
+    private Object readPoolEntry() {
+      final int tag = readVarInt();
+      switch (tag) {
+        case BinaryJimple.POOL_STRING:
+          final char[] chars = new char[readVarInt()];
+          for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) readVarInt();
+          }
+          return new String(chars);
+        case BinaryJimple.POOL_CLASS_TYPE:
+          return identifierFactory.getClassType(readString());
+        case BinaryJimple.POOL_ARRAY_TYPE:
+          {
+            final Type baseType = readType();
+            return identifierFactory.getArrayType(baseType, readVarInt());
+          }
+        case BinaryJimple.POOL_BASIC_TYPE:
+          return readBasicType();
+        case BinaryJimple.POOL_METHOD_SIGNATURE:
+          {
+            final ClassType declClassType = readClassType();
+            final String name = readString();
+            final Type returnType = readType();
+            final List<Type> parameterTypes = readTypes();
+            return identifierFactory.getMethodSignature(
+                declClassType, name, returnType, parameterTypes);
+          }
+        case BinaryJimple.POOL_FIELD_SIGNATURE:
+          {
+            final ClassType declClassType = readClassType();
+            final String name = readString();
+            return identifierFactory.getFieldSignature(name, declClassType, readType());
+          }
+        default:
+          throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+      }
+    }
+
+    @Nonnull
+    private Type readBasicType() {
+      final int kind = readVarInt();
+      switch (kind) {
+        case BinaryJimple.TYPE_BOOLEAN:
+          return PrimitiveType.getBoolean();
+        case BinaryJimple.TYPE_BYTE:
+          return PrimitiveType.getByte();
+        case BinaryJimple.TYPE_CHAR:
+          return PrimitiveType.getChar();
+        case BinaryJimple.TYPE_SHORT:
+          return PrimitiveType.getShort();
+        case BinaryJimple.TYPE_INT:
+          return PrimitiveType.getInt();
+        case BinaryJimple.TYPE_LONG:
+          return PrimitiveType.getLong();
+        case BinaryJimple.TYPE_FLOAT:
+          return PrimitiveType.getFloat();
+        case BinaryJimple.TYPE_DOUBLE:
+          return PrimitiveType.getDouble();
+        case BinaryJimple.TYPE_VOID:
+          return VoidType.getInstance();
+        case BinaryJimple.TYPE_NULL:
+          return NullType.getInstance();
+        case BinaryJimple.TYPE_UNKNOWN:
+          return UnknownType.getInstance();
+        default:
+          throw new IllegalArgumentException("Unknown basic type " + kind);
+      }
+    }
+
+    @Nonnull
+    private List<Type> readTypes() {
+      final int count = readVarInt();
+      final List<Type> types = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        types.add(readType());
+      }
+      return types;
+    }
+
+    /**
+     * Reads a body written by {@link BinaryJimpleWriter#writeBody(Body)}.
+     *
+     * @param signature the signature of the method the body belongs to, as it is not part of the
+     *     encoded body
+     */
+    @Nonnull
+    public Body readBody(@Nonnull MethodSignature signature) {
+      return new BodyDecoder().decode(signature);
+    }
+
+    /** Decodes the locals, statements, branch targets and traps of a body. */
+    private class BodyDecoder {
+
+      @Nonnull private Local[] locals = new Local[0];
+
+      @Nonnull
+      private Body decode(@Nonnull MethodSignature signature) {
+        final Position bodyPosition = readPosition();
+        final int declaredLocalCount = readVarInt();
+        locals = new Local[readVarInt()];
+        final Set<Local> declaredLocals = new LinkedHashSet<>();
+        for (int i = 0; i < locals.length; i++) {
+          locals[i] = readLocal();
+          if (i < declaredLocalCount) {
+            declaredLocals.add(locals[i]);
+          }
+        }
+
+        final int stmtCount = readVarInt();
+        final List<Stmt> stmts = new ArrayList<>(stmtCount);
+        final List<BranchingStmt> branchingStmts = new ArrayList<>();
+        for (int i = 0; i < stmtCount; i++) {
+          final Stmt stmt = readStmt();
+          stmts.add(stmt);
+          if (stmt instanceof BranchingStmt) {
+            branchingStmts.add((BranchingStmt) stmt);
+          }
+        }
+
+        final Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
+        for (BranchingStmt stmt : branchingStmts) {
+          final int targetCount = readVarInt();
+          final List<Stmt> targets = new ArrayList<>(targetCount);
+          for (int i = 0; i < targetCount; i++) {
+            targets.add(readStmtRef(stmts));
+          }
+          branchingMap.put(stmt, targets);
+        }
+
+        final int trapCount = readVarInt();
+        final List<Trap> traps = new ArrayList<>(trapCount);
+        for (int i = 0; i < trapCount; i++) {
+          final ClassType exceptionType = readClassType();
+          final Stmt beginStmt = readStmtRef(stmts);
+          final Stmt endStmt = readStmtRef(stmts);
+          final Stmt handlerStmt = readStmtRef(stmts);
+          traps.add(Jimple.newTrap(exceptionType, beginStmt, endStmt, handlerStmt));
+        }
+
+        final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+        graph.initializeWith(stmts, branchingMap, traps);
+        return Body.builder(graph)
+            .setMethodSignature(signature)
+            .setLocals(declaredLocals)
+            .setPosition(bodyPosition)
+            .build();
+      }
+
+      @Nonnull
+      private Stmt readStmtRef(@Nonnull List<Stmt> stmts) {
+        final int index = readVarInt();
+        if (index >= stmts.size()) {
+          throw new IllegalArgumentException("Invalid statement index " + index);
+        }
+        return stmts.get(index);
+      }
+
+      @Nonnull
+      private Local readLocal() {
+        final int kind = readVarInt();
+        final String name = readString();
+        final Type type = readType();
+        if (kind == BinaryJimple.JAVA_LOCAL) {
+          return JavaJimple.newLocal(name, type, Collections.emptyList());
+        } else if (kind == BinaryJimple.LOCAL) {
+          return new Local(name, type, readPosition());
+        }
+        throw new IllegalArgumentException("Unknown local kind " + kind);
+      }
+
+      @Nonnull
+      private Local readLocalRef() {
+        final int index = readVarInt();
+        if (index >= locals.length) {
+          throw new IllegalArgumentException("Invalid local index " + index);
+        }
+        return locals[index];
+      }
+
+      @Nonnull
+      private Stmt readStmt() {
+        final StmtPositionInfo positionInfo = new StmtPositionInfo(readPosition(), null);
+        final int tag = readVarInt();
+        switch (tag) {
+          case BinaryJimple.STMT_IDENTITY:
+            {
+              final Local local = readLocalRef();
+              return Jimple.newIdentityStmt(local, (IdentityRef) readValue(), positionInfo);
+            }
+          case BinaryJimple.STMT_ASSIGN:
+            {
+              final Value leftOp = readValue();
+              return Jimple.newAssignStmt(leftOp, readValue(), positionInfo);
+            }
+          case BinaryJimple.STMT_INVOKE:
+            return Jimple.newInvokeStmt((AbstractInvokeExpr) readValue(), positionInfo);
+          case BinaryJimple.STMT_IF:
+            return Jimple.newIfStmt((AbstractConditionExpr) readValue(), positionInfo);
+          case BinaryJimple.STMT_GOTO:
+            return Jimple.newGotoStmt(positionInfo);
+          case BinaryJimple.STMT_NOP:
+            return Jimple.newNopStmt(positionInfo);
+          case BinaryJimple.STMT_RETURN:
+            return Jimple.newReturnStmt(readImmediate(), positionInfo);
+          case BinaryJimple.STMT_RETURN_VOID:
+            return Jimple.newReturnVoidStmt(positionInfo);
+          case BinaryJimple.STMT_THROW:
+            return Jimple.newThrowStmt(readImmediate(), positionInfo);
+          case BinaryJimple.STMT_ENTER_MONITOR:
+            return Jimple.newEnterMonitorStmt(readImmediate(), positionInfo);
+          case BinaryJimple.STMT_EXIT_MONITOR:
+            return Jimple.newExitMonitorStmt(readImmediate(), positionInfo);
+          case BinaryJimple.STMT_TABLE_SWITCH:
+            {
+              final Immediate key = readImmediate();
+              final int lowIndex = readSignedVarInt();
+              final int highIndex = readSignedVarInt();
+              return Jimple.newTableSwitchStmt(key, lowIndex, highIndex, positionInfo);
+            }
+          case BinaryJimple.STMT_LOOKUP_SWITCH:
+            {
+              final Immediate key = readImmediate();
+              final int valueCount = readVarInt();
+              final List<IntConstant> values = new ArrayList<>(valueCount);
+              for (int i = 0; i < valueCount; i++) {
+                values.add(IntConstant.getInstance(readSignedVarInt()));
+              }
+              return Jimple.newLookupSwitchStmt(key, values, positionInfo);
+            }
+          case BinaryJimple.STMT_RET:
+            return Jimple.newRetStmt(readImmediate(), positionInfo);
+          case BinaryJimple.STMT_BREAKPOINT:
+            return Jimple.newBreakpointStmt(positionInfo);
+          default:
+            throw new IllegalArgumentException("Unknown statement tag " + tag);
+        }
+      }
+
+      @Nonnull
+      private Immediate readImmediate() {
+        final Value value = readValue();
+        if (!(value instanceof Immediate)) {
+          throw new IllegalArgumentException(value + " is no immediate.");
+        }
+        return (Immediate) value;
+      }
+
+      @Nonnull
+      private List<Immediate> readImmediates() {
+        final int count = readVarInt();
+        final List<Immediate> immediates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          immediates.add(readImmediate());
+        }
+        return immediates;
+      }
+
+      @Nonnull
+      private Value readValue() {
+        final int tag = readVarInt();
+        switch (tag) {
+          case BinaryJimple.VALUE_LOCAL:
+            return readLocalRef();
+          case BinaryJimple.VALUE_INT:
+            return IntConstant.getInstance(readSignedVarInt());
+          case BinaryJimple.VALUE_LONG:
+            return LongConstant.getInstance(readSignedVarLong());
+          case BinaryJimple.VALUE_FLOAT:
+            return FloatConstant.getInstance(Float.intBitsToFloat(readInt()));
+          case BinaryJimple.VALUE_DOUBLE:
+            {
+              final long high = readInt() & 0xFFFFFFFFL;
+              final long low = readInt() & 0xFFFFFFFFL;
+              return DoubleConstant.getInstance(Double.longBitsToDouble((high << 32) | low));
+            }
+          case BinaryJimple.VALUE_NULL:
+            return NullConstant.getInstance();
+          case BinaryJimple.VALUE_STRING:
+            {
+              final String value = readString();
+              return new StringConstant(value, readType());
+            }
+          case BinaryJimple.VALUE_CLASS:
+            {
+              final String value = readString();
+              return new ClassConstant(value, readType());
+            }
+          case BinaryJimple.VALUE_ENUM:
+            {
+              final String value = readString();
+              return new EnumConstant(value, readClassType());
+            }
+          case BinaryJimple.VALUE_BOOLEAN:
+            return BooleanConstant.getInstance(readVarInt());
+          case BinaryJimple.VALUE_METHOD_HANDLE:
+            {
+              final MethodSignature methodSignature = readMethodSignature();
+              final int handleTag = readVarInt();
+              return new MethodHandle(methodSignature, handleTag, readType());
+            }
+          case BinaryJimple.VALUE_METHOD_TYPE:
+            {
+              final ClassType type = readClassType();
+              final Type returnType = readType();
+              return new MethodType(
+                  identifierFactory.getMethodSubSignature(
+                      "__METHODTYPE__", returnType, readTypes()),
+                  type);
+            }
+          case BinaryJimple.VALUE_THIS_REF:
+            return new JThisRef(readClassType());
+          case BinaryJimple.VALUE_PARAMETER_REF:
+            {
+              final Type type = readType();
+              return new JParameterRef(type, readVarInt());
+            }
+          case BinaryJimple.VALUE_CAUGHT_EXCEPTION_REF:
+            return new JCaughtExceptionRef(readType());
+          case BinaryJimple.VALUE_STATIC_FIELD_REF:
+            return Jimple.newStaticFieldRef(readFieldSignature());
+          case BinaryJimple.VALUE_INSTANCE_FIELD_REF:
+            {
+              final Local base = readLocalRef();
+              return Jimple.newInstanceFieldRef(base, readFieldSignature());
+            }
+          case BinaryJimple.VALUE_ARRAY_REF:
+            {
+              final Local base = readLocalRef();
+              return new JArrayRef(base, readImmediate(), identifierFactory);
+            }
+          case BinaryJimple.VALUE_ADD:
+            return Jimple.newAddExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_AND:
+            return Jimple.newAndExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_CMP:
+            return Jimple.newCmpExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_CMPG:
+            return Jimple.newCmpgExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_CMPL:
+            return Jimple.newCmplExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_DIV:
+            return Jimple.newDivExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_EQ:
+            return Jimple.newEqExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_NE:
+            return Jimple.newNeExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_GE:
+            return Jimple.newGeExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_GT:
+            return Jimple.newGtExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_LE:
+            return Jimple.newLeExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_LT:
+            return Jimple.newLtExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_MUL:
+            return Jimple.newMulExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_OR:
+            return Jimple.newOrExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_REM:
+            return Jimple.newRemExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_SHL:
+            return Jimple.newShlExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_SHR:
+            return Jimple.newShrExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_USHR:
+            return Jimple.newUshrExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_SUB:
+            return Jimple.newSubExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_XOR:
+            return Jimple.newXorExpr(readImmediate(), readImmediate());
+          case BinaryJimple.VALUE_NEG:
+            return Jimple.newNegExpr(readImmediate());
+          case BinaryJimple.VALUE_LENGTH:
+            return Jimple.newLengthExpr(readImmediate());
+          case BinaryJimple.VALUE_CAST:
+            {
+              final Immediate op = readImmediate();
+              return Jimple.newCastExpr(op, readType());
+            }
+          case BinaryJimple.VALUE_INSTANCE_OF:
+            {
+              final Immediate op = readImmediate();
+              return Jimple.newInstanceOfExpr(op, readType());
+            }
+          case BinaryJimple.VALUE_NEW:
+            return Jimple.newNewExpr(readClassType());
+          case BinaryJimple.VALUE_NEW_ARRAY:
+            {
+              final Immediate size = readImmediate();
+              return new JNewArrayExpr(readType(), size, identifierFactory);
+            }
+          case BinaryJimple.VALUE_NEW_MULTI_ARRAY:
+            {
+              final Type type = readType();
+              if (!(type instanceof ArrayType)) {
+                throw new IllegalArgumentException(type + " is no array type.");
+              }
+              return Jimple.newNewMultiArrayExpr((ArrayType) type, readImmediates());
+            }
+          case BinaryJimple.VALUE_STATIC_INVOKE:
+            {
+              final MethodSignature methodSignature = readMethodSignature();
+              return Jimple.newStaticInvokeExpr(methodSignature, readImmediates());
+            }
+          case BinaryJimple.VALUE_VIRTUAL_INVOKE:
+            {
+              final Local base = readLocalRef();
+              final MethodSignature methodSignature = readMethodSignature();
+              return Jimple.newVirtualInvokeExpr(base, methodSignature, readImmediates());
+            }
+          case BinaryJimple.VALUE_SPECIAL_INVOKE:
+            {
+              final Local base = readLocalRef();
+              final MethodSignature methodSignature = readMethodSignature();
+              return Jimple.newSpecialInvokeExpr(base, methodSignature, readImmediates());
+            }
+          case BinaryJimple.VALUE_INTERFACE_INVOKE:
+            {
+              final Local base = readLocalRef();
+              final MethodSignature methodSignature = readMethodSignature();
+              return Jimple.newInterfaceInvokeExpr(base, methodSignature, readImmediates());
+            }
+          case BinaryJimple.VALUE_DYNAMIC_INVOKE:
+            {
+              final MethodSignature bootstrapMethod = readMethodSignature();
+              final List<Immediate> bootstrapArgs = readImmediates();
+              final MethodSignature methodSignature = readMethodSignature();
+              final int handleTag = readVarInt();
+              return Jimple.newDynamicInvokeExpr(
+                  bootstrapMethod, bootstrapArgs, methodSignature, handleTag, readImmediates());
+            }
+          default:
+            throw new IllegalArgumentException("Unknown value tag " + tag);
+        }
+      }
+
+      private int readInt() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+          value = (value << 8) | (readByte() & 0xFF);
+        }
+        return value;
+      }
+    }
+  }
+}
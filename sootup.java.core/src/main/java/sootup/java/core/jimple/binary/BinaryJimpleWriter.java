@@ -0,0 +1,881 @@
+package sootup.java.core.jimple.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Trap;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.*;
+import sootup.core.jimple.common.expr.*;
+import sootup.core.jimple.common.ref.*;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.jimple.javabytecode.stmt.*;
+import sootup.core.jimple.visitor.AbstractStmtVisitor;
+import sootup.core.jimple.visitor.AbstractValueVisitor;
+import sootup.core.model.Body;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.*;
+import sootup.java.core.jimple.basic.JavaLocal;
+import sootup.java.core.types.JavaClassType;
+
+/**
+ * Encodes {@link Body}s into the binary Jimple format described in {@link BinaryJimple}. Strings,
+ * types and signatures are pooled, so a repeated reference costs a single varint.
+ *
+ * <p>The format keeps what the bytecode and the Jimple frontends produce: the position of a
+ * statement, but not the positions of its operands, and locals without annotations. Bodies that
+ * carry more, phi expressions and method handles of fields are rejected with an {@link
+ * IllegalArgumentException}.
+ */
+public class BinaryJimpleWriter {
+
+  @Nonnull private final Map<Object, Integer> poolIndices = new HashMap<>();
+  @Nonnull private final ByteOutput pool = new ByteOutput();
+  @Nonnull private final ByteOutput code = new ByteOutput();
+
+  /** Returns the offset at which the next body or value is written to the code section. */
+  public int getCodeSize() {
+    return code.size();
+  }
+
+  /**
+   * Appends the given body to the code section.
+   *
+   * @return the offset of the body in the code section
+   * @throws IllegalArgumentException if the body can not be represented in the format; nothing is
+   *     written to the code section in this case
+   */
+  public int writeBody(@Nonnull Body body) {
+    final int offset = code.size();
+    try {
+      new BodyEncoder(body).encode();
+    } catch (RuntimeException e) {
+      code.truncate(offset);
+      throw e;
+    }
+    return offset;
+  }
+
+  /** Discards everything that was written to the code section from the given offset on. */
+  public void discardCode(int offset) {
+    if (offset < 0 || offset > code.size()) {
+      throw new IllegalArgumentException("Invalid offset " + offset);
+    }
+    code.truncate(offset);
+  }
+
+  public void writeVarInt(int value) {
+    code.writeVarInt(value);
+  }
+
+  public void writeString(@Nonnull String value) {
+    code.writeVarInt(poolIndexOf(value));
+  }
+
+  public void writeType(@Nonnull Type type) {
+    code.writeVarInt(poolIndexOf(type));
+  }
+
+  public void writeMethodSignature(@Nonnull MethodSignature signature) {
+    code.writeVarInt(poolIndexOf(signature));
+  }
+
+  public void writeFieldSignature(@Nonnull FieldSignature signature) {
+    code.writeVarInt(poolIndexOf(signature));
+  }
+
+  public void writePosition(@Nullable Position position) {
+    writePosition(code, position);
+  }
+
+  private static void writePosition(@Nonnull ByteOutput out, @Nullable Position position) {
+    if (position == null || position instanceof NoPositionInformation) {
+      out.writeVarInt(BinaryJimple.NO_POSITION);
+      return;
+    }
+    out.writeVarInt(BinaryJimple.POSITION);
+    out.writeSignedVarInt(position.getFirstLine());
+    out.writeSignedVarInt(position.getFirstCol());
+    out.writeSignedVarInt(position.getLastLine());
+    out.writeSignedVarInt(position.getLastCol());
+  }
+
+  /** Returns the format version, the constant pool and the code section. */
+  @Nonnull
+  public byte[] toByteArray() {
+    final ByteOutput header = new ByteOutput();
+    header.writeVarInt(BinaryJimple.VERSION);
+    header.writeVarInt(poolIndices.size());
+    header.writeVarInt(pool.size());
+    final byte[] result = new byte[header.size() + pool.size() + code.size()];
+    header.copyTo(result, 0);
+    pool.copyTo(result, header.size());
+    code.copyTo(result, header.size() + pool.size());
+    return result;
+  }
+
+  public void writeTo(@Nonnull OutputStream out) throws IOException {
+    out.write(toByteArray());
+  }
+
+  private int poolIndexOf(@Nonnull String value) {
+    final Integer index = poolIndices.get(value);
+    if (index != null) {
+      return index;
+    }
+    pool.writeVarInt(BinaryJimple.POOL_STRING);
+    pool.writeString(value);
+    return addPoolEntry(value);
+  }
+
+  private int poolIndexOf(@Nonnull Type type) {
+    final Integer index = poolIndices.get(type);
+    if (index != null) {
+      return index;
+    }
+    if (type instanceof ClassType) {
+      if (type.getClass() != JavaClassType.class) {
+        throw new IllegalArgumentException("Unsupported class type " + type.getClass());
+      }
+      final int name = poolIndexOf(((ClassType) type).getFullyQualifiedName());
+      pool.writeVarInt(BinaryJimple.POOL_CLASS_TYPE);
+      pool.writeVarInt(name);
+    } else if (type instanceof ArrayType) {
+      final int baseType = poolIndexOf(((ArrayType) type).getBaseType());
+      pool.writeVarInt(BinaryJimple.POOL_ARRAY_TYPE);
+      pool.writeVarInt(baseType);
+      pool.writeVarInt(((ArrayType) type).getDimension());
+    } else {
+      pool.writeVarInt(BinaryJimple.POOL_BASIC_TYPE);
+      pool.writeVarInt(getBasicTypeKind(type));
+    }
+    return addPoolEntry(type);
+  }
+
+  private static int getBasicTypeKind(@Nonnull Type type) {
+    if (type == PrimitiveType.getBoolean()) {
+      return BinaryJimple.TYPE_BOOLEAN;
+    } else if (type == PrimitiveType.getByte()) {
+      return BinaryJimple.TYPE_BYTE;
+    } else if (type == PrimitiveType.getChar()) {
+      return BinaryJimple.TYPE_CHAR;
+    } else if (type == PrimitiveType.getShort()) {
+      return BinaryJimple.TYPE_SHORT;
+    } else if (type == PrimitiveType.getInt()) {
+      return BinaryJimple.TYPE_INT;
+    } else if (type == PrimitiveType.getLong()) {
+      return BinaryJimple.TYPE_LONG;
+    } else if (type == PrimitiveType.getFloat()) {
+      return BinaryJimple.TYPE_FLOAT;
+    } else if (type == PrimitiveType.getDouble()) {
+      return BinaryJimple.TYPE_DOUBLE;
+    } else if (type == VoidType.getInstance()) {
+      return BinaryJimple.TYPE_VOID;
+    } else if (type == NullType.getInstance()) {
+      return BinaryJimple.TYPE_NULL;
+    } else if (type == UnknownType.getInstance()) {
+      return BinaryJimple.TYPE_UNKNOWN;
+    }
+    throw new IllegalArgumentException("Unsupported type " + type.getClass());
+  }
+
+  private int poolIndexOf(@Nonnull MethodSignature signature) {
+    final Integer index = poolIndices.get(signature);
+    if (index != null) {
+      return index;
+    }
+    final int declClassType = poolIndexOf(signature.getDeclClassType());
+    final int name = poolIndexOf(signature.getName());
+    final int returnType = poolIndexOf(signature.getType());
+    final List<Type> parameterTypes = signature.getParameterTypes();
+    final int[] parameters = new int[parameterTypes.size()];
+    for (int i = 0; i < parameters.length; i++) {
+      parameters[i] = poolIndexOf(parameterTypes.get(i));
+    }
+    pool.writeVarInt(BinaryJimple.POOL_METHOD_SIGNATURE);
+    pool.writeVarInt(declClassType);
+    pool.writeVarInt(name);
+    pool.writeVarInt(returnType);
+    pool.writeVarInt(parameters.length);
+    for (int parameter : parameters) {
+      pool.writeVarInt(parameter);
+    }
+    return addPoolEntry(signature);
+  }
+
+  private int poolIndexOf(@Nonnull FieldSignature signature) {
+    final Integer index = poolIndices.get(signature);
+    if (index != null) {
+      return index;
+    }
+    final int declClassType = poolIndexOf(signature.getDeclClassType());
+    final int name = poolIndexOf(signature.getName());
+    final int type = poolIndexOf(signature.getType());
+    pool.writeVarInt(BinaryJimple.POOL_FIELD_SIGNATURE);
+    pool.writeVarInt(declClassType);
+    pool.writeVarInt(name);
+    pool.writeVarInt(type);
+    return addPoolEntry(signature);
+  }
+
+  private int addPoolEntry(@Nonnull Object entry) {
+    final int index = poolIndices.size();
+    poolIndices.put(entry, index);
+    return index;
+  }
+
+  /** Encodes the locals, statements, branch targets and traps of a body. */
+  private class BodyEncoder {
+
+    @Nonnull private final Body body;
+    @Nonnull private final Map<Local, Integer> localIndices = new LinkedHashMap<>();
+    @Nonnull private final ByteOutput stmtOut = new ByteOutput();
+    @Nonnull private final ValueEncoder valueEncoder = new ValueEncoder();
+    @Nonnull private final StmtEncoder stmtEncoder = new StmtEncoder();
+
+    private BodyEncoder(@Nonnull Body body) {
+      this.body = body;
+    }
+
+    private void encode() {
+      for (Local local : body.getLocals()) {
+        localIndices.put(local, localIndices.size());
+      }
+      final int declaredLocalCount = localIndices.size();
+
+      final StmtGraph<?> graph = body.getStmtGraph();
+      final List<Stmt> stmts = graph.getStmts();
+      final Map<Stmt, Integer> stmtIndices = new HashMap<>();
+      final List<BranchingStmt> branchingStmts = new ArrayList<>();
+      for (Stmt stmt : stmts) {
+        stmtIndices.put(stmt, stmtIndices.size());
+        writeStmtPosition(stmtOut, stmt.getPositionInfo());
+        stmt.accept(stmtEncoder);
+        if (stmt instanceof BranchingStmt) {
+          branchingStmts.add((BranchingStmt) stmt);
+        }
+      }
+
+      // the locals first, as the statements may refer to locals which are not declared
+      writePosition(code, body.getPosition());
+      code.writeVarInt(declaredLocalCount);
+      code.writeVarInt(localIndices.size());
+      for (Local local : localIndices.keySet()) {
+        writeLocal(local);
+      }
+
+      code.writeVarInt(stmts.size());
+      stmtOut.copyTo(code);
+
+      for (BranchingStmt stmt : branchingStmts) {
+        final List<Stmt> targets = graph.getBranchTargetsOf(stmt);
+        code.writeVarInt(targets.size());
+        for (Stmt target : targets) {
+          code.writeVarInt(indexOf(stmtIndices, target));
+        }
+      }
+
+      final List<Trap> traps = graph.getTraps();
+      code.writeVarInt(traps.size());
+      for (Trap trap : traps) {
+        code.writeVarInt(poolIndexOf(trap.getExceptionType()));
+        code.writeVarInt(indexOf(stmtIndices, trap.getBeginStmt()));
+        code.writeVarInt(indexOf(stmtIndices, trap.getEndStmt()));
+        code.writeVarInt(indexOf(stmtIndices, trap.getHandlerStmt()));
+      }
+    }
+
+    private int indexOf(@Nonnull Map<Stmt, Integer> stmtIndices, @Nonnull Stmt stmt) {
+      final Integer index = stmtIndices.get(stmt);
+      if (index == null) {
+        throw new IllegalArgumentException(stmt + " is not contained in the body.");
+      }
+      return index;
+    }
+
+    private void writeLocal(@Nonnull Local local) {
+      if (local instanceof JavaLocal) {
+        if (((JavaLocal) local).getAnnotations().iterator().hasNext()) {
+          throw new IllegalArgumentException("Annotations of local " + local + " are unsupported.");
+        }
+        code.writeVarInt(BinaryJimple.JAVA_LOCAL);
+        code.writeVarInt(poolIndexOf(local.getName()));
+        code.writeVarInt(poolIndexOf(local.getType()));
+      } else if (local.getClass() == Local.class) {
+        code.writeVarInt(BinaryJimple.LOCAL);
+        code.writeVarInt(poolIndexOf(local.getName()));
+        code.writeVarInt(poolIndexOf(local.getType()));
+        writePosition(code, local.getPosition());
+      } else {
+        throw new IllegalArgumentException("Unsupported local " + local.getClass());
+      }
+    }
+
+    private void writeStmtPosition(
+        @Nonnull ByteOutput out, @Nonnull StmtPositionInfo positionInfo) {
+      if (!(positionInfo.getOperandPosition(0) instanceof NoPositionInformation)) {
+        throw new IllegalArgumentException("Positions of operands are unsupported.");
+      }
+      writePosition(out, positionInfo.getStmtPosition());
+    }
+
+    private void writeValue(@Nonnull Value value) {
+      value.accept(valueEncoder);
+    }
+
+    private void writeLocalIndex(@Nonnull Local local) {
+      Integer index = localIndices.get(local);
+      if (index == null) {
+        index = localIndices.size();
+        localIndices.put(local, index);
+      }
+      stmtOut.writeVarInt(index);
+    }
+
+    private void writeValues(@Nonnull List<? extends Value> values) {
+      stmtOut.writeVarInt(values.size());
+      for (Value value : values) {
+        writeValue(value);
+      }
+    }
+
+    private void writeTag(int tag) {
+      stmtOut.writeVarInt(tag);
+    }
+
+    private void writeOp(int tag, @Nonnull Immediate op) {
+      writeTag(tag);
+      writeValue(op);
+    }
+
+    private class StmtEncoder extends AbstractStmtVisitor<Void> {
+
+      @Override
+      public void caseBreakpointStmt(@Nonnull JBreakpointStmt stmt) {
+        writeTag(BinaryJimple.STMT_BREAKPOINT);
+      }
+
+      @Override
+      public void caseInvokeStmt(@Nonnull JInvokeStmt stmt) {
+        writeTag(BinaryJimple.STMT_INVOKE);
+        writeValue(stmt.getInvokeExpr());
+      }
+
+      @Override
+      public void caseAssignStmt(@Nonnull JAssignStmt<?, ?> stmt) {
+        writeTag(BinaryJimple.STMT_ASSIGN);
+        writeValue(stmt.getLeftOp());
+        writeValue(stmt.getRightOp());
+      }
+
+      @Override
+      public void caseIdentityStmt(@Nonnull JIdentityStmt<?> stmt) {
+        writeTag(BinaryJimple.STMT_IDENTITY);
+        writeLocalIndex(stmt.getLeftOp());
+        writeValue(stmt.getRightOp());
+      }
+
+      @Override
+      public void caseEnterMonitorStmt(@Nonnull JEnterMonitorStmt stmt) {
+        writeOp(BinaryJimple.STMT_ENTER_MONITOR, stmt.getOp());
+      }
+
+      @Override
+      public void caseExitMonitorStmt(@Nonnull JExitMonitorStmt stmt) {
+        writeOp(BinaryJimple.STMT_EXIT_MONITOR, stmt.getOp());
+      }
+
+      @Override
+      public void caseGotoStmt(@Nonnull JGotoStmt stmt) {
+        writeTag(BinaryJimple.STMT_GOTO);
+      }
+
+      @Override
+      public void caseIfStmt(@Nonnull JIfStmt stmt) {
+        writeTag(BinaryJimple.STMT_IF);
+        writeValue(stmt.getCondition());
+      }
+
+      @Override
+      public void caseNopStmt(@Nonnull JNopStmt stmt) {
+        writeTag(BinaryJimple.STMT_NOP);
+      }
+
+      @Override
+      public void caseRetStmt(@Nonnull JRetStmt stmt) {
+        writeTag(BinaryJimple.STMT_RET);
+        writeValue(stmt.getStmtAddress());
+      }
+
+      @Override
+      public void caseReturnStmt(@Nonnull JReturnStmt stmt) {
+        writeOp(BinaryJimple.STMT_RETURN, stmt.getOp());
+      }
+
+      @Override
+      public void caseReturnVoidStmt(@Nonnull JReturnVoidStmt stmt) {
+        writeTag(BinaryJimple.STMT_RETURN_VOID);
+      }
+
+      @Override
+      public void caseSwitchStmt(@Nonnull JSwitchStmt stmt) {
+        final int valueCount = stmt.getValueCount();
+        if (stmt.isTableSwitch()) {
+          writeOp(BinaryJimple.STMT_TABLE_SWITCH, stmt.getKey());
+          // the values of a table switch are the range from the lowest to the highest one
+          stmtOut.writeSignedVarInt(valueCount > 0 ? stmt.getValue(0) : 0);
+          stmtOut.writeSignedVarInt(valueCount > 0 ? stmt.getValue(valueCount - 1) : -1);
+        } else {
+          writeOp(BinaryJimple.STMT_LOOKUP_SWITCH, stmt.getKey());
+          stmtOut.writeVarInt(valueCount);
+          for (int i = 0; i < valueCount; i++) {
+            stmtOut.writeSignedVarInt(stmt.getValue(i));
+          }
+        }
+      }
+
+      @Override
+      public void caseThrowStmt(@Nonnull JThrowStmt stmt) {
+        writeOp(BinaryJimple.STMT_THROW, stmt.getOp());
+      }
+
+      @Override
+      public void defaultCaseStmt(@Nonnull Stmt stmt) {
+        throw new IllegalArgumentException("Unsupported statement " + stmt.getClass());
+      }
+    }
+
+    private class ValueEncoder extends AbstractValueVisitor<Void> {
+
+      @Override
+      public void caseLocal(@Nonnull Local local) {
+        writeTag(BinaryJimple.VALUE_LOCAL);
+        writeLocalIndex(local);
+      }
+
+      @Override
+      public void caseBooleanConstant(@Nonnull BooleanConstant constant) {
+        writeTag(BinaryJimple.VALUE_BOOLEAN);
+        stmtOut.writeVarInt(constant == BooleanConstant.getTrue() ? 1 : 0);
+      }
+
+      @Override
+      public void caseDoubleConstant(@Nonnull DoubleConstant constant) {
+        writeTag(BinaryJimple.VALUE_DOUBLE);
+        stmtOut.writeLong(Double.doubleToRawLongBits(constant.getValue()));
+      }
+
+      @Override
+      public void caseFloatConstant(@Nonnull FloatConstant constant) {
+        writeTag(BinaryJimple.VALUE_FLOAT);
+        stmtOut.writeInt(Float.floatToRawIntBits(constant.getValue()));
+      }
+
+      @Override
+      public void caseIntConstant(@Nonnull IntConstant constant) {
+        writeTag(BinaryJimple.VALUE_INT);
+        stmtOut.writeSignedVarInt(constant.getValue());
+      }
+
+      @Override
+      public void caseLongConstant(@Nonnull LongConstant constant) {
+        writeTag(BinaryJimple.VALUE_LONG);
+        stmtOut.writeSignedVarLong(constant.getValue());
+      }
+
+      @Override
+      public void caseNullConstant(@Nonnull NullConstant constant) {
+        writeTag(BinaryJimple.VALUE_NULL);
+      }
+
+      @Override
+      public void caseStringConstant(@Nonnull StringConstant constant) {
+        writeTag(BinaryJimple.VALUE_STRING);
+        stmtOut.writeVarInt(poolIndexOf(constant.getValue()));
+        stmtOut.writeVarInt(poolIndexOf(constant.getType()));
+      }
+
+      @Override
+      public void caseEnumConstant(@Nonnull EnumConstant constant) {
+        writeTag(BinaryJimple.VALUE_ENUM);
+        stmtOut.writeVarInt(poolIndexOf(constant.getValue()));
+        stmtOut.writeVarInt(poolIndexOf(constant.getType()));
+      }
+
+      @Override
+      public void caseClassConstant(@Nonnull ClassConstant constant) {
+        writeTag(BinaryJimple.VALUE_CLASS);
+        stmtOut.writeVarInt(poolIndexOf(constant.getValue()));
+        stmtOut.writeVarInt(poolIndexOf(constant.getType()));
+      }
+
+      @Override
+      public void caseMethodHandle(@Nonnull MethodHandle handle) {
+        if (handle.getMethodSignature() == null) {
+          throw new IllegalArgumentException("Method handles of fields are unsupported.");
+        }
+        writeTag(BinaryJimple.VALUE_METHOD_HANDLE);
+        stmtOut.writeVarInt(poolIndexOf(handle.getMethodSignature()));
+        stmtOut.writeVarInt(handle.tag);
+        stmtOut.writeVarInt(poolIndexOf(handle.getType()));
+      }
+
+      @Override
+      public void caseMethodType(@Nonnull MethodType methodType) {
+        writeTag(BinaryJimple.VALUE_METHOD_TYPE);
+        stmtOut.writeVarInt(poolIndexOf(methodType.getType()));
+        stmtOut.writeVarInt(poolIndexOf(methodType.getReturnType()));
+        writeTypes(methodType.getParameterTypes());
+      }
+
+      @Override
+      public void caseThisRef(@Nonnull JThisRef ref) {
+        writeTag(BinaryJimple.VALUE_THIS_REF);
+        stmtOut.writeVarInt(poolIndexOf(ref.getType()));
+      }
+
+      @Override
+      public void caseParameterRef(@Nonnull JParameterRef ref) {
+        writeTag(BinaryJimple.VALUE_PARAMETER_REF);
+        stmtOut.writeVarInt(poolIndexOf(ref.getType()));
+        stmtOut.writeVarInt(ref.getIndex());
+      }
+
+      @Override
+      public void caseCaughtExceptionRef(@Nonnull JCaughtExceptionRef ref) {
+        writeTag(BinaryJimple.VALUE_CAUGHT_EXCEPTION_REF);
+        stmtOut.writeVarInt(poolIndexOf(ref.getType()));
+      }
+
+      @Override
+      public void caseStaticFieldRef(@Nonnull JStaticFieldRef ref) {
+        writeTag(BinaryJimple.VALUE_STATIC_FIELD_REF);
+        stmtOut.writeVarInt(poolIndexOf(ref.getFieldSignature()));
+      }
+
+      @Override
+      public void caseInstanceFieldRef(@Nonnull JInstanceFieldRef ref) {
+        writeTag(BinaryJimple.VALUE_INSTANCE_FIELD_REF);
+        writeLocalIndex(ref.getBase());
+        stmtOut.writeVarInt(poolIndexOf(ref.getFieldSignature()));
+      }
+
+      @Override
+      public void caseArrayRef(@Nonnull JArrayRef ref) {
+        writeTag(BinaryJimple.VALUE_ARRAY_REF);
+        writeLocalIndex(ref.getBase());
+        writeValue(ref.getIndex());
+      }
+
+      @Override
+      public void caseAddExpr(@Nonnull JAddExpr expr) {
+        writeBinop(BinaryJimple.VALUE_ADD, expr);
+      }
+
+      @Override
+      public void caseAndExpr(@Nonnull JAndExpr expr) {
+        writeBinop(BinaryJimple.VALUE_AND, expr);
+      }
+
+      @Override
+      public void caseCmpExpr(@Nonnull JCmpExpr expr) {
+        writeBinop(BinaryJimple.VALUE_CMP, expr);
+      }
+
+      @Override
+      public void caseCmpgExpr(@Nonnull JCmpgExpr expr) {
+        writeBinop(BinaryJimple.VALUE_CMPG, expr);
+      }
+
+      @Override
+      public void caseCmplExpr(@Nonnull JCmplExpr expr) {
+        writeBinop(BinaryJimple.VALUE_CMPL, expr);
+      }
+
+      @Override
+      public void caseDivExpr(@Nonnull JDivExpr expr) {
+        writeBinop(BinaryJimple.VALUE_DIV, expr);
+      }
+
+      @Override
+      public void caseEqExpr(@Nonnull JEqExpr expr) {
+        writeBinop(BinaryJimple.VALUE_EQ, expr);
+      }
+
+      @Override
+      public void caseNeExpr(@Nonnull JNeExpr expr) {
+        writeBinop(BinaryJimple.VALUE_NE, expr);
+      }
+
+      @Override
+      public void caseGeExpr(@Nonnull JGeExpr expr) {
+        writeBinop(BinaryJimple.VALUE_GE, expr);
+      }
+
+      @Override
+      public void caseGtExpr(@Nonnull JGtExpr expr) {
+        writeBinop(BinaryJimple.VALUE_GT, expr);
+      }
+
+      @Override
+      public void caseLeExpr(@Nonnull JLeExpr expr) {
+        writeBinop(BinaryJimple.VALUE_LE, expr);
+      }
+
+      @Override
+      public void caseLtExpr(@Nonnull JLtExpr expr) {
+        writeBinop(BinaryJimple.VALUE_LT, expr);
+      }
+
+      @Override
+      public void caseMulExpr(@Nonnull JMulExpr expr) {
+        writeBinop(BinaryJimple.VALUE_MUL, expr);
+      }
+
+      @Override
+      public void caseOrExpr(@Nonnull JOrExpr expr) {
+        writeBinop(BinaryJimple.VALUE_OR, expr);
+      }
+
+      @Override
+      public void caseRemExpr(@Nonnull JRemExpr expr) {
+        writeBinop(BinaryJimple.VALUE_REM, expr);
+      }
+
+      @Override
+      public void caseShlExpr(@Nonnull JShlExpr expr) {
+        writeBinop(BinaryJimple.VALUE_SHL, expr);
+      }
+
+      @Override
+      public void caseShrExpr(@Nonnull JShrExpr expr) {
+        writeBinop(BinaryJimple.VALUE_SHR, expr);
+      }
+
+      @Override
+      public void caseUshrExpr(@Nonnull JUshrExpr expr) {
+        writeBinop(BinaryJimple.VALUE_USHR, expr);
+      }
+
+      @Override
+      public void caseSubExpr(@Nonnull JSubExpr expr) {
+        writeBinop(BinaryJimple.VALUE_SUB, expr);
+      }
+
+      @Override
+      public void caseXorExpr(@Nonnull JXorExpr expr) {
+        writeBinop(BinaryJimple.VALUE_XOR, expr);
+      }
+
+      @Override
+      public void caseStaticInvokeExpr(@Nonnull JStaticInvokeExpr expr) {
+        writeTag(BinaryJimple.VALUE_STATIC_INVOKE);
+        stmtOut.writeVarInt(poolIndexOf(expr.getMethodSignature()));
+        writeValues(expr.getArgs());
+      }
+
+      @Override
+      public void caseVirtualInvokeExpr(@Nonnull JVirtualInvokeExpr expr) {
+        writeInstanceInvoke(BinaryJimple.VALUE_VIRTUAL_INVOKE, expr);
+      }
+
+      @Override
+      public void caseSpecialInvokeExpr(@Nonnull JSpecialInvokeExpr expr) {
+        writeInstanceInvoke(BinaryJimple.VALUE_SPECIAL_INVOKE, expr);
+      }
+
+      @Override
+      public void caseInterfaceInvokeExpr(@Nonnull JInterfaceInvokeExpr expr) {
+        writeInstanceInvoke(BinaryJimple.VALUE_INTERFACE_INVOKE, expr);
+      }
+
+      @Override
+      public void caseDynamicInvokeExpr(@Nonnull JDynamicInvokeExpr expr) {
+        writeTag(BinaryJimple.VALUE_DYNAMIC_INVOKE);
+        stmtOut.writeVarInt(poolIndexOf(expr.getBootstrapMethodSignature()));
+        writeValues(expr.getBootstrapArgs());
+        stmtOut.writeVarInt(poolIndexOf(expr.getMethodSignature()));
+        stmtOut.writeVarInt(expr.getHandleTag());
+        writeValues(expr.getArgs());
+      }
+
+      @Override
+      public void caseCastExpr(@Nonnull JCastExpr expr) {
+        writeOp(BinaryJimple.VALUE_CAST, expr.getOp());
+        stmtOut.writeVarInt(poolIndexOf(expr.getType()));
+      }
+
+      @Override
+      public void caseInstanceOfExpr(@Nonnull JInstanceOfExpr expr) {
+        writeOp(BinaryJimple.VALUE_INSTANCE_OF, expr.getOp());
+        stmtOut.writeVarInt(poolIndexOf(expr.getCheckType()));
+      }
+
+      @Override
+      public void caseNewArrayExpr(@Nonnull JNewArrayExpr expr) {
+        writeOp(BinaryJimple.VALUE_NEW_ARRAY, expr.getSize());
+        stmtOut.writeVarInt(poolIndexOf(expr.getBaseType()));
+      }
+
+      @Override
+      public void caseNewMultiArrayExpr(@Nonnull JNewMultiArrayExpr expr) {
+        writeTag(BinaryJimple.VALUE_NEW_MULTI_ARRAY);
+        stmtOut.writeVarInt(poolIndexOf(expr.getBaseType()));
+        writeValues(expr.getSizes());
+      }
+
+      @Override
+      public void caseNewExpr(@Nonnull JNewExpr expr) {
+        writeTag(BinaryJimple.VALUE_NEW);
+        stmtOut.writeVarInt(poolIndexOf(expr.getType()));
+      }
+
+      @Override
+      public void caseLengthExpr(@Nonnull JLengthExpr expr) {
+        writeOp(BinaryJimple.VALUE_LENGTH, expr.getOp());
+      }
+
+      @Override
+      public void caseNegExpr(@Nonnull JNegExpr expr) {
+        writeOp(BinaryJimple.VALUE_NEG, expr.getOp());
+      }
+
+      @Override
+      public void casePhiExpr(@Nonnull JPhiExpr expr) {
+        defaultCaseValue(expr);
+      }
+
+      @Override
+      public void defaultCaseValue(@Nonnull Value value) {
+        throw new IllegalArgumentException("Unsupported value " + value.getClass());
+      }
+
+      private void writeBinop(int tag, @Nonnull AbstractBinopExpr expr) {
+        writeOp(tag, expr.getOp1());
+        writeValue(expr.getOp2());
+      }
+
+      private void writeInstanceInvoke(int tag, @Nonnull AbstractInstanceInvokeExpr expr) {
+        writeTag(tag);
+        writeLocalIndex(expr.getBase());
+        stmtOut.writeVarInt(poolIndexOf(expr.getMethodSignature()));
+        writeValues(expr.getArgs());
+      }
+
+      private void writeTypes(@Nonnull List<Type> types) {
+        stmtOut.writeVarInt(types.size());
+        for (Type type : types) {
+          stmtOut.writeVarInt(poolIndexOf(type));
+        }
+      }
+    }
+  }
+
+  /** A growable byte array with the varint encodings of the format. */
+  private static final class ByteOutput {
+
+    @Nonnull private byte[] bytes = new byte[64];
+    private int size = 0;
+
+    int size() {
+      return size;
+    }
+
+    void truncate(int size) {
+      this.size = size;
+    }
+
+    void writeByte(int value) {
+      if (size == bytes.length) {
+        bytes = Arrays.copyOf(bytes, size * 2);
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    void writeVarInt(int value) {
+      while ((value & ~0x7F) != 0) {
+        writeByte((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      writeByte(value);
+    }
+
+    void writeSignedVarInt(int value) {
+      writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    void writeSignedVarLong(long value) {
+      long zigzag = (value << 1) ^ (value >> 63);
+      while ((zigzag & ~0x7FL) != 0) {
+        writeByte((int) ((zigzag & 0x7F) | 0x80));
+        zigzag >>>= 7;
+      }
+      writeByte((int) zigzag);
+    }
+
+    void writeInt(int value) {
+      for (int shift = 24; shift >= 0; shift -= 8) {
+        writeByte(value >>> shift);
+      }
+    }
+
+    void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    /** Writes the chars of the string, so unpaired surrogates survive unlike with UTF-8. */
+    void writeString(@Nonnull String value) {
+      writeVarInt(value.length());
+      for (int i = 0; i < value.length(); i++) {
+        writeVarInt(value.charAt(i));
+      }
+    }
+
+    void copyTo(@Nonnull ByteOutput out) {
+      for (int i = 0; i < size; i++) {
+        out.writeByte(bytes[i]);
+      }
+    }
+
+    void copyTo(@Nonnull byte[] target, int offset) {
+      System.arraycopy(bytes, 0, target, offset, size);
+    }
+  }
+}
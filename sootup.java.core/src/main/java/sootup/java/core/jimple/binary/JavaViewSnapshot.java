@@ -0,0 +1,345 @@
+package sootup.java.core.jimple.binary;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Suppliers;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import sootup.core.typehierarchy.TypeHeader;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.typehierarchy.ViewTypeHierarchy;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/**
+ * A snapshot of a fully resolved {@link JavaView}, stored in a single file. It holds the classes in
+ * the binary Jimple format, optionally with their bodies, the type hierarchy and further named
+ * sections, e.g. a call graph.
+ *
+ * <p>A snapshot is memory-mapped on {@link #open(Path)}. Restoring the view does no work up front:
+ * a class is decoded when it is requested, a body when it is requested and the type hierarchy on
+ * its first query, without resolving any class.
+ *
+ * <pre>
+ * JavaViewSnapshot.writer(view).withBodies(true).write(file);
+ * JavaView restored = JavaViewSnapshot.open(file).createView();
+ * </pre>
+ *
+ * <p>The bodies are stored as returned by the view, i.e. after its body interceptors were applied.
+ * The restored view applies no further interceptors.
+ */
+public class JavaViewSnapshot {
+
+  /** "BJVS" */
+  static final int SNAPSHOT_MAGIC = 0x424A5653;
+
+  static final String CLASSES_SECTION = "classes";
+  static final String HIERARCHY_SECTION = "hierarchy";
+
+  @Nonnull private final Path file;
+  private final int languageVersion;
+  @Nonnull private final Map<String, ByteBuffer> sections;
+
+  private JavaViewSnapshot(
+      @Nonnull Path file, int languageVersion, @Nonnull Map<String, ByteBuffer> sections) {
+    this.file = file;
+    this.languageVersion = languageVersion;
+    this.sections = sections;
+  }
+
+  @Nonnull
+  public static Writer writer(@Nonnull JavaView view) {
+    return new Writer(view);
+  }
+
+  /**
+   * Maps the snapshot file into memory and reads its section table.
+   *
+   * @throws IllegalArgumentException if the file is no snapshot or was written by an incompatible
+   *     version
+   */
+  @Nonnull
+  public static JavaViewSnapshot open(@Nonnull Path file) throws IOException {
+    final ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.limit() < 16 || buffer.getInt() != SNAPSHOT_MAGIC) {
+      throw new IllegalArgumentException(file + " is no view snapshot.");
+    }
+    final int version = buffer.getInt();
+    if (version != BinaryJimple.VERSION) {
+      throw new IllegalArgumentException(
+          file + " was written in version " + version + " of the format.");
+    }
+    final int languageVersion = buffer.getInt();
+    final int sectionCount = buffer.getInt();
+    // each entry of the section table takes at least 6 bytes
+    if (sectionCount < 0 || sectionCount > buffer.remaining() / 6) {
+      throw invalidSnapshot(file);
+    }
+
+    final List<String> names = new ArrayList<>(sectionCount);
+    final int[] lengths = new int[sectionCount];
+    long sectionsSize = 0;
+    for (int i = 0; i < sectionCount; i++) {
+      if (buffer.remaining() < 2) {
+        throw invalidSnapshot(file);
+      }
+      final int nameLength = Short.toUnsignedInt(buffer.getShort());
+      if (buffer.remaining() < nameLength + 4) {
+        throw invalidSnapshot(file);
+      }
+      final byte[] name = new byte[nameLength];
+      buffer.get(name);
+      names.add(new String(name, StandardCharsets.UTF_8));
+      lengths[i] = buffer.getInt();
+      if (lengths[i] < 0) {
+        throw invalidSnapshot(file);
+      }
+      sectionsSize += lengths[i];
+    }
+    if (sectionsSize > buffer.remaining()) {
+      throw invalidSnapshot(file);
+    }
+    final Map<String, ByteBuffer> sections = new LinkedHashMap<>();
+    for (int i = 0; i < sectionCount; i++) {
+      final ByteBuffer section = buffer.slice();
+      ((Buffer) section).limit(lengths[i]);
+      sections.put(names.get(i), section.asReadOnlyBuffer());
+      ((Buffer) buffer).position(buffer.position() + lengths[i]);
+    }
+    if (!sections.containsKey(CLASSES_SECTION) || !sections.containsKey(HIERARCHY_SECTION)) {
+      throw new IllegalArgumentException(file + " is no complete view snapshot.");
+    }
+    return new JavaViewSnapshot(file, languageVersion, Collections.unmodifiableMap(sections));
+  }
+
+  @Nonnull
+  private static IllegalArgumentException invalidSnapshot(@Nonnull Path file) {
+    return new IllegalArgumentException(file + " is no valid view snapshot.");
+  }
+
+  @Nonnull
+  public Path getFile() {
+    return file;
+  }
+
+  /** Returns the content of the section that was added with the given name. */
+  @Nonnull
+  public Optional<ByteBuffer> getSection(@Nonnull String name) {
+    final ByteBuffer section = sections.get(name);
+    return section == null ? Optional.empty() : Optional.of(section.duplicate());
+  }
+
+  /**
+   * Creates a view of the classes in the snapshot. Its type hierarchy is restored from the snapshot
+   * as well.
+   */
+  @Nonnull
+  public JavaView createView() {
+    final BinaryJimpleAnalysisInputLocation inputLocation =
+        new BinaryJimpleAnalysisInputLocation(file, sections.get(CLASSES_SECTION), null);
+    final JavaProject project =
+        JavaProject.builder(new JavaLanguage(languageVersion))
+            .addInputLocation(inputLocation)
+            .build();
+    return new SnapshotView(project, Suppliers.memoize(this::readHierarchy));
+  }
+
+  @Nonnull
+  private List<TypeHeader> readHierarchy() {
+    final BinaryJimpleReader.Cursor cursor =
+        new BinaryJimpleReader(sections.get(HIERARCHY_SECTION), JavaIdentifierFactory.getInstance())
+            .cursor(0);
+    final int count = cursor.readVarInt();
+    final List<TypeHeader> headers = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final ClassType type = (ClassType) cursor.readType();
+      final boolean isInterface = cursor.readVarInt() != 0;
+      final ClassType superClass = cursor.readVarInt() != 0 ? (ClassType) cursor.readType() : null;
+      final int interfaceCount = cursor.readVarInt();
+      final Set<ClassType> interfaces = new HashSet<>(interfaceCount * 2);
+      for (int j = 0; j < interfaceCount; j++) {
+        interfaces.add((ClassType) cursor.readType());
+      }
+      headers.add(new TypeHeader(type, isInterface, superClass, interfaces));
+    }
+    return headers;
+  }
+
+  /** Collects the content of a view and writes it as a snapshot. */
+  public static class Writer {
+
+    @Nonnull private final JavaView view;
+    @Nonnull private final Map<String, byte[]> extraSections = new LinkedHashMap<>();
+    private boolean withBodies = false;
+
+    private Writer(@Nonnull JavaView view) {
+      this.view = view;
+    }
+
+    /**
+     * Whether the bodies of the methods are stored. They are resolved while the snapshot is
+     * written; without them, only the structure of the classes can be restored.
+     */
+    @Nonnull
+    public Writer withBodies(boolean withBodies) {
+      this.withBodies = withBodies;
+      return this;
+    }
+
+    /** Adds a section with the given name, which is returned by {@link #getSection(String)}. */
+    @Nonnull
+    public Writer addSection(@Nonnull String name, @Nonnull byte[] content) {
+      if (name.equals(CLASSES_SECTION)
+          || name.equals(HIERARCHY_SECTION)
+          || extraSections.containsKey(name)) {
+        throw new IllegalArgumentException("A section named " + name + " already exists.");
+      }
+      if (name.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+        throw new IllegalArgumentException("The name of the section " + name + " is too long.");
+      }
+      extraSections.put(name, content);
+      return this;
+    }
+
+    /**
+     * Resolves all classes of the view and writes them to the given file. The file is replaced
+     * atomically, so a snapshot that is opened concurrently is either the previous or the new one.
+     *
+     * @throws IllegalArgumentException if a body can not be represented in the binary Jimple format
+     */
+    public void write(@Nonnull Path file) throws IOException {
+      final BinaryJimpleFileWriter classes = new BinaryJimpleFileWriter();
+      final BinaryJimpleWriter hierarchy = new BinaryJimpleWriter();
+      final Collection<JavaSootClass> viewClasses = view.getClasses();
+      hierarchy.writeVarInt(viewClasses.size());
+      for (JavaSootClass clazz : viewClasses) {
+        classes.addClass(clazz, withBodies);
+        hierarchy.writeType(clazz.getType());
+        hierarchy.writeVarInt(clazz.isInterface() ? 1 : 0);
+        hierarchy.writeVarInt(clazz.getSuperclass().isPresent() ? 1 : 0);
+        clazz.getSuperclass().ifPresent(hierarchy::writeType);
+        hierarchy.writeVarInt(clazz.getInterfaces().size());
+        for (ClassType anInterface : clazz.getInterfaces()) {
+          hierarchy.writeType(anInterface);
+        }
+      }
+
+      final Map<String, byte[]> sections = new LinkedHashMap<>();
+      sections.put(CLASSES_SECTION, classes.toByteArray());
+      sections.put(HIERARCHY_SECTION, hierarchy.toByteArray());
+      sections.putAll(extraSections);
+
+      final List<byte[]> names = new ArrayList<>(sections.size());
+      int headerSize = 16;
+      for (String name : sections.keySet()) {
+        final byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+        names.add(encodedName);
+        headerSize += 2 + encodedName.length + 4;
+      }
+      final List<byte[]> contents = new ArrayList<>(sections.values());
+      final ByteBuffer header =
+          ByteBuffer.allocate(headerSize)
+              .putInt(SNAPSHOT_MAGIC)
+              .putInt(BinaryJimple.VERSION)
+              .putInt(((JavaLanguage) view.getProject().getLanguage()).getVersion())
+              .putInt(sections.size());
+      for (int i = 0; i < names.size(); i++) {
+        header.putShort((short) names.get(i).length);
+        header.put(names.get(i));
+        header.putInt(contents.get(i).length);
+      }
+      ((Buffer) header).flip();
+
+      // readers that map the file concurrently must never see a partially written snapshot
+      final Path directory = file.toAbsolutePath().getParent();
+      final Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try {
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+          writeFully(channel, header);
+          for (byte[] content : contents) {
+            writeFully(channel, ByteBuffer.wrap(content));
+          }
+        }
+        try {
+          Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    }
+
+    private static void writeFully(@Nonnull FileChannel channel, @Nonnull ByteBuffer buffer)
+        throws IOException {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /** A view whose type hierarchy is built from the headers stored in the snapshot. */
+  private static class SnapshotView extends JavaView {
+
+    @Nonnull private final TypeHierarchy typeHierarchy;
+
+    private SnapshotView(
+        @Nonnull JavaProject project, @Nonnull Supplier<List<TypeHeader>> hierarchyHeaders) {
+      super(project);
+      this.typeHierarchy = new ViewTypeHierarchy(this, hierarchyHeaders);
+    }
+
+    @Nonnull
+    @Override
+    public TypeHierarchy getTypeHierarchy() {
+      return typeHierarchy;
+    }
+  }
+}
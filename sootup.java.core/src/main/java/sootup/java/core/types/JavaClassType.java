@@ -44,6 +44,9 @@ public class JavaClassType extends ClassType {
   @Nonnull private final String className;
   @Nonnull private final PackageName packageName;
 
+  /** The hash code, computed on first use. */
+  private int hashCode;
+
   /**
    * Internal: Constructs the fully-qualified ClassSignature. Instances should only be created by a
    * {@link IdentifierFactory}
@@ -75,7 +78,12 @@ public class JavaClassType extends ClassType {
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(className, packageName);
+    int h = hashCode;
+    if (h == 0) {
+      h = Objects.hashCode(className, packageName);
+      hashCode = h;
+    }
+    return h;
   }
 
   /**
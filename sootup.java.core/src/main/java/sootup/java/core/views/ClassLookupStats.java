@@ -0,0 +1,88 @@
+package sootup.java.core.views;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+
+/**
+ * Statistics about the lookups of class sources in the input locations of a {@link JavaView}, i.e.
+ * of the requests for classes that were not cached.
+ */
+public final class ClassLookupStats {
+
+  private final long lookupCount;
+  private final long missCount;
+  private final long negativeCacheHitCount;
+  private final long filteredLocationCount;
+
+  ClassLookupStats(
+      long lookupCount, long missCount, long negativeCacheHitCount, long filteredLocationCount) {
+    this.lookupCount = lookupCount;
+    this.missCount = missCount;
+    this.negativeCacheHitCount = negativeCacheHitCount;
+    this.filteredLocationCount = filteredLocationCount;
+  }
+
+  /** Returns the number of lookups, including those answered by the negative cache. */
+  public long lookupCount() {
+    return lookupCount;
+  }
+
+  /** Returns the number of lookups of types that are not contained in any input location. */
+  public long missCount() {
+    return missCount;
+  }
+
+  /** Returns the number of misses that were answered by the negative cache. */
+  public long negativeCacheHitCount() {
+    return negativeCacheHitCount;
+  }
+
+  /**
+   * Returns the number of input locations that were skipped because their class name filter ruled
+   * out the looked up type.
+   */
+  public long filteredLocationCount() {
+    return filteredLocationCount;
+  }
+
+  /** Returns the ratio of misses to lookups, or 0 if there was no lookup. */
+  public double missRate() {
+    return lookupCount == 0 ? 0.0 : (double) missCount / lookupCount;
+  }
+
+  @Override
+  @Nonnull
+  public String toString() {
+    return "ClassLookupStats{"
+        + "lookupCount="
+        + lookupCount
+        + ", missCount="
+        + missCount
+        + ", negativeCacheHitCount="
+        + negativeCacheHitCount
+        + ", filteredLocationCount="
+        + filteredLocationCount
+        + '}';
+  }
+}
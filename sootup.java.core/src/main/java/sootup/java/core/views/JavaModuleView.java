@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import sootup.core.Project;
+import sootup.core.cache.MemoryPolicy;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
@@ -72,7 +73,24 @@ public class JavaModuleView extends JavaView {
       @Nonnull
           Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
               classLoadingOptionsSpecifier) {
-    super(project);
+    this(project, classLoadingOptionsSpecifier, MemoryPolicy.unbounded());
+  }
+
+  /**
+   * Creates a new instance of the {@link JavaModuleView} class.
+   *
+   * @param classLoadingOptionsSpecifier To use the default {@link ClassLoadingOptions} for an
+   *     {@link AnalysisInputLocation}, simply return <code>null</code>, otherwise the desired
+   *     options.
+   * @param memoryPolicy determines how many resolved classes are retained.
+   */
+  public JavaModuleView(
+      @Nonnull Project<JavaSootClass, ? extends JavaView> project,
+      @Nonnull
+          Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
+              classLoadingOptionsSpecifier,
+      @Nonnull MemoryPolicy<JavaSootClass> memoryPolicy) {
+    super(project, classLoadingOptionsSpecifier, memoryPolicy);
     this.classLoadingOptionsSpecifier = classLoadingOptionsSpecifier;
     JavaModuleInfo unnamedModuleInfo = JavaModuleInfo.getUnnamedModuleInfo();
     moduleInfoMap.put(unnamedModuleInfo.getModuleSignature(), unnamedModuleInfo);
@@ -453,13 +471,10 @@ public class JavaModuleView extends JavaView {
       return;
     }
 
-    getProject().getInputLocations().stream()
-        .flatMap(location -> location.getClassSources(this).stream())
-        .forEach(this::buildClassFrom);
-
-    getProject().getModuleInfoAnalysisInputLocation().stream()
-        .flatMap(location -> location.getClassSources(this).stream())
-        .forEach(this::buildClassFrom);
+    List<AnalysisInputLocation<? extends JavaSootClass>> inputLocations =
+        new ArrayList<>(getProject().getInputLocations());
+    inputLocations.addAll(getProject().getModuleInfoAnalysisInputLocation());
+    resolveAll(inputLocations);
     isFullyResolved = true;
   }
 }
@@ -22,18 +22,33 @@ package sootup.java.core.views;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.Project;
+import sootup.core.cache.MemoryPolicy;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.inputlocation.ClassNameFilter;
 import sootup.core.inputlocation.EmptyClassLoadingOptions;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.ClassType;
@@ -52,10 +67,44 @@ import sootup.java.core.types.AnnotationType;
  */
 public class JavaView extends AbstractView<JavaSootClass> {
 
-  @Nonnull protected final Map<ClassType, JavaSootClass> cache = new HashMap<>();
+  /** Holds the resolved classes according to the {@link MemoryPolicy} of this view. */
+  @Nonnull private final Cache<ClassType, JavaSootClass> classCache;
+
+  /** A map view of the class cache. */
+  @Nonnull protected final Map<ClassType, JavaSootClass> cache;
+
+  /**
+   * The types that were found by {@link #resolveAll()}. It is only tracked if classes can be
+   * evicted from the cache so that {@link #getClasses()} can resolve evicted classes again.
+   */
+  @Nullable private final Set<ClassType> resolvedTypes;
+
+  /**
+   * Resolutions that are currently in progress. Threads that ask for a class which is being
+   * resolved by another thread wait for that resolution instead of building the class a second
+   * time.
+   */
+  @Nonnull
+  private final Map<ClassType, InFlightResolution> inFlightResolutions = new ConcurrentHashMap<>();
+
+  /**
+   * Types that are contained in none of the input locations. They are rejected without asking the
+   * input locations again. Types are only remembered if every input location provides a {@link
+   * ClassNameFilter}, i.e. a fixed listing of its classes; the content of other input locations,
+   * like directories, may change.
+   */
+  @Nonnull private final Set<ClassType> missingTypes = ConcurrentHashMap.newKeySet();
+
+  @Nonnull private final LongAdder lookupCount = new LongAdder();
+  @Nonnull private final LongAdder missCount = new LongAdder();
+  @Nonnull private final LongAdder negativeCacheHitCount = new LongAdder();
+  @Nonnull private final LongAdder filteredLocationCount = new LongAdder();
 
   protected volatile boolean isFullyResolved = false;
 
+  /** Resolves all classes in parallel if set, otherwise all classes are resolved sequentially. */
+  @Nullable private volatile Executor resolutionExecutor = null;
+
   @Nonnull
   protected Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
       classLoadingOptionsSpecifier;
@@ -77,8 +126,48 @@ public class JavaView extends AbstractView<JavaSootClass> {
       @Nonnull
           Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
               classLoadingOptionsSpecifier) {
+    this(project, classLoadingOptionsSpecifier, MemoryPolicy.unbounded());
+  }
+
+  /**
+   * Creates a new instance of the {@link JavaView} class.
+   *
+   * @param classLoadingOptionsSpecifier To use the default {@link ClassLoadingOptions} for an
+   *     {@link AnalysisInputLocation}, simply return <code>null</code>, otherwise the desired
+   *     options.
+   * @param memoryPolicy determines how many resolved classes are retained. Evicted classes are
+   *     resolved again from their input location on the next access.
+   */
+  public JavaView(
+      @Nonnull Project<JavaSootClass, ? extends JavaView> project,
+      @Nonnull
+          Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
+              classLoadingOptionsSpecifier,
+      @Nonnull MemoryPolicy<JavaSootClass> memoryPolicy) {
     super(project);
     this.classLoadingOptionsSpecifier = classLoadingOptionsSpecifier;
+    this.classCache = memoryPolicy.buildCache();
+    this.cache = classCache.asMap();
+    this.resolvedTypes = memoryPolicy.isBounded() ? ConcurrentHashMap.newKeySet() : null;
+  }
+
+  /**
+   * Returns the statistics of the lookups in the input locations, e.g. how many of the requested
+   * classes do not exist.
+   */
+  @Nonnull
+  public ClassLookupStats getClassLookupStats() {
+    return new ClassLookupStats(
+        lookupCount.sum(),
+        missCount.sum(),
+        negativeCacheHitCount.sum(),
+        filteredLocationCount.sum());
+  }
+
+  /** Returns the hit, miss and eviction counts of the class cache of this view. */
+  @Nonnull
+  public CacheStats getClassCacheStats() {
+    return classCache.stats();
   }
 
   @Nonnull
@@ -89,6 +178,13 @@ public class JavaView extends AbstractView<JavaSootClass> {
         : getBodyInterceptors();
   }
 
+  @Nonnull
+  @Override
+  public Optional<ClassLoadingOptions> getClassLoadingOptions(
+      AnalysisInputLocation<JavaSootClass> inputLocation) {
+    return Optional.ofNullable(classLoadingOptionsSpecifier.apply(inputLocation));
+  }
+
   @Nonnull
   @Override
   public List<BodyInterceptor> getBodyInterceptors() {
@@ -97,61 +193,172 @@ public class JavaView extends AbstractView<JavaSootClass> {
     return Collections.emptyList();
   }
 
+  /**
+   * Enables the parallel resolution of {@link #getClasses()}: the class sources of the input
+   * locations are created and the classes are built using the given executor, e.g. a {@link
+   * java.util.concurrent.ForkJoinPool}. If multiple input locations contain the same type, the
+   * class of the first input location is kept just like in the sequential resolution.
+   *
+   * @param executor the executor to use or <code>null</code> to resolve sequentially
+   */
+  public void setResolutionExecutor(@Nullable Executor executor) {
+    this.resolutionExecutor = executor;
+  }
+
   /** Resolves all classes that are part of the view and stores them in the cache. */
   @Override
   @Nonnull
-  public synchronized Collection<JavaSootClass> getClasses() {
+  public Collection<JavaSootClass> getClasses() {
     resolveAll();
-    return cache.values();
+    if (resolvedTypes == null) {
+      return cache.values();
+    }
+
+    // classes could have been evicted: resolve them again while iterating
+    final Set<ClassType> types = resolvedTypes;
+    return new AbstractCollection<JavaSootClass>() {
+      @Override
+      @Nonnull
+      public Iterator<JavaSootClass> iterator() {
+        return types.stream()
+            .map(JavaView.this::getClass)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .iterator();
+      }
+
+      @Override
+      public int size() {
+        return types.size();
+      }
+    };
   }
 
-  /** Resolves the class matching the provided {@link ClassType ClassType}. */
+  /**
+   * Resolves the class matching the provided {@link ClassType ClassType}. This method can be called
+   * concurrently; different classes are resolved in parallel and each class is built at most once.
+   */
   @Override
   @Nonnull
-  public synchronized Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
-    JavaSootClass cachedClass = cache.get(type);
+  public Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+    JavaSootClass cachedClass = classCache.getIfPresent(type);
     if (cachedClass != null) {
       return Optional.of(cachedClass);
     }
 
-    Optional<? extends AbstractClassSource<? extends JavaSootClass>> abstractClass =
-        getAbstractClass(type);
-    if (!abstractClass.isPresent()) {
-      return Optional.empty();
-    }
-
-    return buildClassFrom(abstractClass.get());
+    return resolveOnce(type, () -> getAbstractClass(type).map(this::createClass));
   }
 
+  /**
+   * Looks up the class source of the type in the input locations. Input locations whose {@link
+   * AnalysisInputLocation#getClassNameFilter() class name filter} rules out the type are skipped,
+   * and types that were not found are remembered so that they are rejected right away next time,
+   * see {@link #missingTypes}.
+   */
   @Nonnull
   protected Optional<? extends AbstractClassSource<? extends JavaSootClass>> getAbstractClass(
       @Nonnull ClassType type) {
-    return getProject().getInputLocations().stream()
-        .map(location -> location.getClassSource(type, this))
-        .filter(Optional::isPresent)
-        // like javas behaviour: if multiple matching Classes(ClassTypes) are found on the
-        // classpath the first is returned (see splitpackage)
-        .limit(1)
-        .map(Optional::get)
-        .findAny();
+    lookupCount.increment();
+    if (missingTypes.contains(type)) {
+      negativeCacheHitCount.increment();
+      missCount.increment();
+      return Optional.empty();
+    }
+
+    Optional<? extends AbstractClassSource<? extends JavaSootClass>> classSource =
+        getProject().getInputLocations().stream()
+            .filter(location -> mightContain(location, type))
+            .map(location -> location.getClassSource(type, this))
+            .filter(Optional::isPresent)
+            // like javas behaviour: if multiple matching Classes(ClassTypes) are found on the
+            // classpath the first is returned (see splitpackage)
+            .limit(1)
+            .map(Optional::get)
+            .findAny();
+
+    if (!classSource.isPresent()) {
+      if (getProject().getInputLocations().stream()
+          .allMatch(location -> location.getClassNameFilter().isPresent())) {
+        missingTypes.add(type);
+      }
+      missCount.increment();
+    }
+    return classSource;
+  }
+
+  private boolean mightContain(
+      @Nonnull AnalysisInputLocation<? extends JavaSootClass> location, @Nonnull ClassType type) {
+    Optional<ClassNameFilter> filter = location.getClassNameFilter();
+    if (filter.isPresent() && !filter.get().mightContain(type)) {
+      filteredLocationCount.increment();
+      return false;
+    }
+    return true;
   }
 
   @Nonnull
-  protected synchronized Optional<JavaSootClass> buildClassFrom(
+  protected Optional<JavaSootClass> buildClassFrom(
       AbstractClassSource<? extends JavaSootClass> classSource) {
-    JavaSootClass theClass =
-        cache.computeIfAbsent(
-            classSource.getClassType(),
-            type ->
-                classSource.buildClass(
-                    getProject().getSourceTypeSpecifier().sourceTypeFor(classSource)));
-
-    if (theClass.getType() instanceof AnnotationType) {
-      JavaAnnotationSootClass jasc = (JavaAnnotationSootClass) theClass;
+    ClassType type = classSource.getClassType();
+    JavaSootClass cachedClass = classCache.getIfPresent(type);
+    if (cachedClass != null) {
+      return Optional.of(cachedClass);
+    }
+
+    return resolveOnce(type, () -> Optional.of(createClass(classSource)));
+  }
+
+  /**
+   * Builds the class from its source and publishes it in the cache. If another class with the same
+   * type was published in the meantime, the already cached class wins.
+   */
+  @Nonnull
+  private JavaSootClass createClass(@Nonnull AbstractClassSource<? extends JavaSootClass> cs) {
+    JavaSootClass builtClass =
+        cs.buildClass(getProject().getSourceTypeSpecifier().sourceTypeFor(cs));
+    JavaSootClass theClass = cache.putIfAbsent(cs.getClassType(), builtClass);
+    if (theClass != null) {
+      return theClass;
+    }
+
+    // the class is already visible in the cache so that (cyclic) annotation references resolve
+    if (builtClass.getType() instanceof AnnotationType) {
+      JavaAnnotationSootClass jasc = (JavaAnnotationSootClass) builtClass;
       jasc.getAnnotations(Optional.of(this)).forEach(AnnotationUsage::getValuesWithDefaults);
     }
+    return builtClass;
+  }
 
-    return Optional.of(theClass);
+  /**
+   * Runs the resolver for the given type unless another thread is already resolving it; in that
+   * case the result of the other thread is awaited and returned.
+   */
+  @Nonnull
+  private Optional<JavaSootClass> resolveOnce(
+      @Nonnull ClassType type, @Nonnull Supplier<Optional<JavaSootClass>> resolver) {
+    InFlightResolution resolution = new InFlightResolution();
+    InFlightResolution runningResolution = inFlightResolutions.putIfAbsent(type, resolution);
+    if (runningResolution != null) {
+      if (runningResolution.owner == Thread.currentThread()) {
+        // reentrant request of the resolving thread itself: waiting would deadlock
+        return resolver.get();
+      }
+      return join(runningResolution.result);
+    }
+
+    try {
+      // the class could have been published between the cache lookup and the registration
+      JavaSootClass cachedClass = cache.get(type);
+      Optional<JavaSootClass> result =
+          cachedClass != null ? Optional.of(cachedClass) : resolver.get();
+      resolution.result.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      resolution.result.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightResolutions.remove(type, resolution);
+    }
   }
 
   protected synchronized void resolveAll() {
@@ -159,9 +366,86 @@ public class JavaView extends AbstractView<JavaSootClass> {
       return;
     }
 
-    getProject().getInputLocations().stream()
-        .flatMap(location -> location.getClassSources(this).stream())
-        .forEach(this::buildClassFrom);
+    resolveAll(getProject().getInputLocations());
     isFullyResolved = true;
   }
+
+  /**
+   * Builds the classes of all given input locations, either sequentially or - if a {@link
+   * #setResolutionExecutor(Executor) resolution executor} is set - in parallel.
+   */
+  protected void resolveAll(
+      @Nonnull List<? extends AnalysisInputLocation<? extends JavaSootClass>> inputLocations) {
+    Executor executor = resolutionExecutor;
+    if (executor == null) {
+      inputLocations.stream()
+          // the classes are built while the input locations are still being scanned
+          .flatMap(location -> location.streamClassSources(this))
+          .forEach(
+              classSource -> {
+                if (resolvedTypes != null) {
+                  resolvedTypes.add(classSource.getClassType());
+                }
+                buildClassFrom(classSource);
+              });
+      return;
+    }
+
+    List<
+            CompletableFuture<
+                ? extends Collection<? extends AbstractClassSource<? extends JavaSootClass>>>>
+        classSourcesPerLocation =
+            inputLocations.stream()
+                .map(
+                    location ->
+                        CompletableFuture.supplyAsync(
+                            () -> location.getClassSources(this), executor))
+                .collect(Collectors.toList());
+
+    // the class source of the first input location that contains a type shadows the others
+    Map<ClassType, AbstractClassSource<? extends JavaSootClass>> firstClassSources =
+        new LinkedHashMap<>();
+    for (CompletableFuture<
+            ? extends Collection<? extends AbstractClassSource<? extends JavaSootClass>>>
+        classSources : classSourcesPerLocation) {
+      for (AbstractClassSource<? extends JavaSootClass> classSource : join(classSources)) {
+        firstClassSources.putIfAbsent(classSource.getClassType(), classSource);
+      }
+    }
+
+    if (resolvedTypes != null) {
+      resolvedTypes.addAll(firstClassSources.keySet());
+    }
+
+    CompletableFuture<?>[] builds =
+        firstClassSources.values().stream()
+            .map(
+                classSource ->
+                    CompletableFuture.runAsync(() -> buildClassFrom(classSource), executor))
+            .toArray(CompletableFuture[]::new);
+    join(CompletableFuture.allOf(builds));
+  }
+
+  /** Waits for the future and rethrows the original exception if it completed exceptionally. */
+  private static <T> T join(@Nonnull CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /** A class resolution that is in progress and the thread which performs it. */
+  private static final class InFlightResolution {
+    @Nonnull private final Thread owner = Thread.currentThread();
+
+    @Nonnull
+    private final CompletableFuture<Optional<JavaSootClass>> result = new CompletableFuture<>();
+  }
 }
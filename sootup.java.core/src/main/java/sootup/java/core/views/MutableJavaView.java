@@ -9,6 +9,7 @@ import sootup.core.Project;
 import sootup.core.ViewChangeListener;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSubSignature;
+import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.types.ClassType;
 import sootup.core.views.MutableView;
 import sootup.java.core.JavaSootClass;
@@ -24,6 +25,11 @@ public class MutableJavaView extends JavaView implements MutableView {
 
   public MutableJavaView(@Nonnull Project<JavaSootClass, ? extends JavaView> project) {
     super(project);
+    // keeps the type hierarchy up to date instead of scanning the view again after each change
+    TypeHierarchy typeHierarchy = getTypeHierarchy();
+    if (typeHierarchy instanceof ViewChangeListener) {
+      addChangeListener((ViewChangeListener) typeHierarchy);
+    }
   }
 
   /**
@@ -56,8 +62,18 @@ public class MutableJavaView extends JavaView implements MutableView {
 
   /** Removes the provided oldClass from the view and adds the provided newClass. */
   public void replaceClass(JavaSootClass oldClass, JavaSootClass newClass) {
-    this.removeClass(oldClass);
-    this.addClass(newClass);
+    ClassType classType = newClass.getClassSource().getClassType();
+    if (!classType.equals(oldClass.getClassSource().getClassType())) {
+      this.removeClass(oldClass);
+      this.addClass(newClass);
+      return;
+    }
+    JavaSootClass replacedClass = this.cache.put(classType, newClass);
+    if (replacedClass == null) {
+      this.fireAddition(newClass);
+    } else {
+      this.fireReplacement(replacedClass, newClass);
+    }
   }
 
   /**
@@ -146,6 +162,16 @@ public class MutableJavaView extends JavaView implements MutableView {
     }
   }
 
+  /**
+   * Triggers an event in the {@link ViewChangeListener ViewChangeListener} class, when a class is
+   * replaced by a class of the same type.
+   */
+  private void fireReplacement(JavaSootClass oldClass, JavaSootClass newClass) {
+    for (ViewChangeListener viewChangeListener : changeListeners) {
+      viewChangeListener.classReplaced(oldClass, newClass);
+    }
+  }
+
   /**
    * Triggers an event in the {@link ViewChangeListener ViewChangeListener} class, when a method is
    * removed from the view.
@@ -0,0 +1,110 @@
+package sootup.java.core.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import categories.Benchmark;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSubSignature;
+
+/**
+ * Looks up every member of a class with hundreds of methods and fields, through the member indexes
+ * of {@link SootClass} and through a scan over all members like the lookup did before. Both have to
+ * find the same members; the time of each is printed after some rounds that warm up the JIT.
+ *
+ * <p>Not part of the regular test suite, see {@link Benchmark}.
+ */
+@Category(Benchmark.class)
+public class SootClassMemberLookupBenchmark {
+
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 5;
+  private static final int LOOKUPS_PER_ROUND = 1000;
+
+  @Test
+  public void benchmarkMethodLookup() {
+    SootClass<?> clazz = new SootClassMemberLookupTest().buildLargeClass();
+    List<MethodSubSignature> subSignatures = new ArrayList<>();
+    for (SootMethod method : clazz.getMethods()) {
+      subSignatures.add(method.getSignature().getSubSignature());
+    }
+
+    compare(
+        "methods",
+        subSignatures,
+        subSignature -> clazz.getMethod(subSignature),
+        subSignature ->
+            clazz.getMethods().stream()
+                .filter(method -> method.getSignature().getSubSignature().equals(subSignature))
+                .findAny());
+  }
+
+  @Test
+  public void benchmarkFieldLookup() {
+    SootClass<?> clazz = new SootClassMemberLookupTest().buildLargeClass();
+    List<String> names = new ArrayList<>();
+    for (SootField field : clazz.getFields()) {
+      names.add(field.getName());
+    }
+
+    compare(
+        "fields",
+        names,
+        name -> clazz.getField(name),
+        name -> clazz.getFields().stream().filter(field -> field.getName().equals(name)).findAny());
+  }
+
+  private static <K> void compare(
+      String members,
+      List<K> keys,
+      Function<K, Optional<?>> indexed,
+      Function<K, Optional<?>> scanned) {
+    for (K key : keys) {
+      assertSame(key.toString(), scanned.apply(key).get(), indexed.apply(key).get());
+    }
+    for (int round = 1; round <= WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+      long indexedTime = measure(keys, indexed);
+      long scannedTime = measure(keys, scanned);
+      if (round > WARMUP_ROUNDS) {
+        System.out.println(
+            "Round "
+                + (round - WARMUP_ROUNDS)
+                + ": looked up "
+                + keys.size()
+                + " "
+                + members
+                + " "
+                + LOOKUPS_PER_ROUND
+                + " times in "
+                + TimeUnit.NANOSECONDS.toMillis(indexedTime)
+                + " ms through the index and in "
+                + TimeUnit.NANOSECONDS.toMillis(scannedTime)
+                + " ms through a scan");
+      }
+    }
+  }
+
+  /** Looks up every key {@link #LOOKUPS_PER_ROUND} times and returns the elapsed nanoseconds. */
+  private static <K> long measure(List<K> keys, Function<K, Optional<?>> lookUp) {
+    long start = System.nanoTime();
+    int found = 0;
+    for (int i = 0; i < LOOKUPS_PER_ROUND; i++) {
+      for (K key : keys) {
+        found += lookUp.apply(key).isPresent() ? 1 : 0;
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    // also keeps the JIT from dropping the lookups
+    assertEquals(keys.size() * LOOKUPS_PER_ROUND, found);
+    return elapsed;
+  }
+}
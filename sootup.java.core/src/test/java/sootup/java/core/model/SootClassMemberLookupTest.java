@@ -0,0 +1,172 @@
+package sootup.java.core.model;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.OverridingBodySource;
+import sootup.core.frontend.OverridingClassSource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.EagerInputLocation;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JReturnVoidStmt;
+import sootup.core.model.Body;
+import sootup.core.model.Modifier;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.Type;
+import sootup.core.types.VoidType;
+import sootup.java.core.JavaIdentifierFactory;
+
+@Category(Java8Test.class)
+public class SootClassMemberLookupTest {
+
+  private static final int METHOD_NAMES = 100;
+  private static final int OVERLOADS = 5;
+  private static final int FIELDS = 300;
+
+  private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+  private final ClassType classType = identifierFactory.getClassType("some.package.LargeClass");
+  private final List<Type> parameterTypes =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              PrimitiveType.getInt(),
+              PrimitiveType.getLong(),
+              PrimitiveType.getDouble(),
+              identifierFactory.getClassType("java.lang.String")));
+
+  private List<Type> parametersOfOverload(int overload) {
+    return parameterTypes.subList(0, overload);
+  }
+
+  SootClass<?> buildLargeClass(SootField... additionalFields) {
+    MethodSignature anySignature =
+        identifierFactory.getMethodSignature(
+            classType, "m0", "void", Collections.<String>emptyList());
+    JReturnVoidStmt returnStmt = new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo());
+    Body body =
+        Body.builder()
+            .setStartingStmt(returnStmt)
+            .setMethodSignature(anySignature)
+            .setPosition(NoPositionInformation.getInstance())
+            .build();
+
+    Set<SootMethod> methods = new LinkedHashSet<>();
+    for (int name = 0; name < METHOD_NAMES; name++) {
+      for (int overload = 0; overload < OVERLOADS; overload++) {
+        MethodSignature signature =
+            identifierFactory.getMethodSignature(
+                classType, "m" + name, VoidType.getInstance(), parametersOfOverload(overload));
+        methods.add(
+            new SootMethod(
+                new OverridingBodySource(signature, body),
+                signature,
+                EnumSet.of(Modifier.PUBLIC),
+                Collections.emptyList(),
+                NoPositionInformation.getInstance()));
+      }
+    }
+    Set<SootField> fields = new LinkedHashSet<>();
+    for (int i = 0; i < FIELDS; i++) {
+      fields.add(
+          new SootField(
+              identifierFactory.getFieldSignature("f" + i, classType, PrimitiveType.getInt()),
+              EnumSet.of(Modifier.PRIVATE),
+              NoPositionInformation.getInstance()));
+    }
+    fields.addAll(Arrays.asList(additionalFields));
+    return new SootClass(
+        new OverridingClassSource(
+            methods,
+            fields,
+            EnumSet.of(Modifier.PUBLIC),
+            Collections.emptySet(),
+            identifierFactory.getClassType("java.lang.Object"),
+            null,
+            NoPositionInformation.getInstance(),
+            Paths.get("some/package/LargeClass.class"),
+            classType,
+            new EagerInputLocation()),
+        SourceType.Application);
+  }
+
+  @Test
+  public void testMethodLookup() {
+    SootClass<?> clazz = buildLargeClass();
+    assertEquals(METHOD_NAMES * OVERLOADS, clazz.getMethods().size());
+
+    MethodSubSignature subSignature =
+        identifierFactory.getMethodSubSignature(
+            "m42", VoidType.getInstance(), parametersOfOverload(2));
+    Optional<? extends SootMethod> method = clazz.getMethod(subSignature);
+    assertTrue(method.isPresent());
+    assertEquals(subSignature, method.get().getSignature().getSubSignature());
+
+    Optional<? extends SootMethod> byName = clazz.getMethod("m42", parametersOfOverload(2));
+    assertEquals(method, byName);
+
+    assertEquals(OVERLOADS, clazz.getMethodsByName("m42").size());
+    assertTrue(clazz.getMethodsByName("missing").isEmpty());
+    assertFalse(
+        clazz
+            .getMethod(
+                identifierFactory.getMethodSubSignature(
+                    "m42", PrimitiveType.getInt(), parametersOfOverload(2)))
+            .isPresent());
+    assertFalse(clazz.getMethod("m42", parameterTypes.subList(3, 4)).isPresent());
+  }
+
+  @Test
+  public void testFieldLookup() {
+    SootClass<?> clazz = buildLargeClass();
+    FieldSignature signature =
+        identifierFactory.getFieldSignature("f17", classType, PrimitiveType.getInt());
+
+    Optional<? extends SootField> field = clazz.getField(signature.getSubSignature());
+    assertTrue(field.isPresent());
+    assertEquals(signature, field.get().getSignature());
+    assertEquals(field, clazz.getField("f17"));
+    assertFalse(clazz.getField("missing").isPresent());
+  }
+
+  @Test(expected = ResolveException.class)
+  public void testAmbiguousFieldName() {
+    SootClass<?> clazz =
+        buildLargeClass(
+            new SootField(
+                identifierFactory.getFieldSignature("f17", classType, PrimitiveType.getLong()),
+                EnumSet.of(Modifier.PRIVATE),
+                NoPositionInformation.getInstance()));
+    clazz.getField("f17");
+  }
+
+  @Test
+  public void testEveryMethodIsFoundThroughTheIndex() {
+    SootClass<?> clazz = buildLargeClass();
+    for (SootMethod method : clazz.getMethods()) {
+      MethodSubSignature subSignature = method.getSignature().getSubSignature();
+      assertSame(method, clazz.getMethod(subSignature).orElse(null));
+      assertSame(
+          method,
+          clazz.getMethod(subSignature.getName(), subSignature.getParameterTypes()).orElse(null));
+      assertTrue(clazz.getMethodsByName(subSignature.getName()).contains(method));
+    }
+  }
+}
@@ -83,8 +83,8 @@ public class JavaIdentifierFactoryTest {
     JavaIdentifierFactory typeFactory = JavaIdentifierFactory.getInstance();
     ClassType classSignature1 = typeFactory.getClassType("System", "java.lang");
     ClassType classSignature2 = typeFactory.getClassType("System", "java.lang");
-    // Class Signatures are unique but not their package
-    assertNotSame(classSignature1, classSignature2);
+    // Class Signatures are canonical, like their package
+    assertSame(classSignature1, classSignature2);
   }
 
   @Test
@@ -136,8 +136,8 @@ public class JavaIdentifierFactoryTest {
     JavaIdentifierFactory typeFactory = JavaIdentifierFactory.getInstance();
     JavaClassType classSignature1 = typeFactory.getClassType("A", "");
     JavaClassType classSignature2 = typeFactory.getClassType("A");
-    // Class Signatures are unique but not their package
-    assertNotSame(classSignature1, classSignature2);
+    // Class Signatures are canonical, like their package
+    assertSame(classSignature1, classSignature2);
 
     assertSame(classSignature1.getPackageName(), classSignature2.getPackageName());
 
@@ -151,8 +151,8 @@ public class JavaIdentifierFactoryTest {
     JavaIdentifierFactory typeFactory = JavaIdentifierFactory.getInstance();
     ClassType classSignature1 = typeFactory.getClassType("java.lang.System");
     ClassType classSignature2 = typeFactory.getClassType("System", "java.lang");
-    // Class Signatures are unique but not their package
-    assertNotSame(classSignature1, classSignature2);
+    // Class Signatures are canonical, like their package
+    assertSame(classSignature1, classSignature2);
   }
 
   @Test
@@ -160,8 +160,8 @@ public class JavaIdentifierFactoryTest {
     JavaIdentifierFactory typeFactory = JavaIdentifierFactory.getInstance();
     JavaClassType classSignature1 = typeFactory.getClassType("java.lang.System$MyClass");
     JavaClassType classSignature2 = typeFactory.getClassType("System$MyClass", "java.lang");
-    // Class Signatures are unique but not their package
-    assertNotSame(classSignature1, classSignature2);
+    // Class Signatures are canonical, like their package
+    assertSame(classSignature1, classSignature2);
     assertEquals(classSignature1, classSignature2);
   }
 
@@ -251,6 +251,41 @@ public class JavaIdentifierFactoryTest {
     assertEquals("<java.lang.System: int foo>" + "", fieldSignature.toString());
   }
 
+  @Test
+  public void getCanonicalSignatures() {
+    JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+    ClassType classSignature = identifierFactory.getClassType("java.lang.System");
+
+    MethodSignature methodSignature1 =
+        identifierFactory.getMethodSignature(
+            "foo", "java.lang.System", "void", Collections.singletonList("int"));
+    MethodSignature methodSignature2 =
+        identifierFactory.getMethodSignature(
+            classSignature,
+            identifierFactory.getMethodSubSignature(
+                "foo", VoidType.getInstance(), Collections.singletonList(PrimitiveType.getInt())));
+    assertSame(methodSignature1, methodSignature2);
+    assertSame(methodSignature1.getSubSignature(), methodSignature2.getSubSignature());
+    assertSame(classSignature, methodSignature1.getDeclClassType());
+
+    FieldSignature fieldSignature1 =
+        identifierFactory.getFieldSignature("foo", classSignature, "int");
+    FieldSignature fieldSignature2 =
+        identifierFactory.getFieldSignature("foo", classSignature, PrimitiveType.getInt());
+    assertSame(fieldSignature1, fieldSignature2);
+
+    // signatures created without the factory are still equal to the canonical ones
+    MethodSignature uninterned =
+        new MethodSignature(
+            classSignature,
+            "foo",
+            Collections.singletonList(PrimitiveType.getInt()),
+            VoidType.getInstance());
+    assertNotSame(methodSignature1, uninterned);
+    assertEquals(methodSignature1, uninterned);
+    assertEquals(methodSignature1.hashCode(), uninterned.hashCode());
+  }
+
   @Test
   public void compMethodSignature2() {
     IdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
@@ -0,0 +1,164 @@
+package sootup.java.core.typehierarchy;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2022 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.ResolveException;
+import sootup.core.typehierarchy.FrozenTypeHierarchy;
+import sootup.core.typehierarchy.TypeHeader;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
+
+@Category(Java8Test.class)
+public class FrozenTypeHierarchyTest {
+
+  private final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+
+  private final ClassType object = factory.getClassType("java.lang.Object");
+  private final ClassType a = factory.getClassType("h.A");
+  private final ClassType b = factory.getClassType("h.B");
+  private final ClassType c = factory.getClassType("h.C");
+  private final ClassType d = factory.getClassType("h.D");
+  private final ClassType e = factory.getClassType("h.E");
+  private final ClassType f = factory.getClassType("h.F");
+  private final ClassType missing = factory.getClassType("h.Missing");
+  private final ClassType i = factory.getClassType("h.I");
+  private final ClassType j = factory.getClassType("h.J");
+  private final ClassType k = factory.getClassType("h.K");
+
+  private final FrozenTypeHierarchy hierarchy =
+      FrozenTypeHierarchy.of(
+          Arrays.asList(
+              classHeader(c, b),
+              classHeader(b, a),
+              classHeader(a, object, i),
+              classHeader(d, a),
+              classHeader(e, object, j),
+              classHeader(f, missing),
+              classHeader(object, null),
+              interfaceHeader(j, i),
+              interfaceHeader(i),
+              interfaceHeader(k)));
+
+  private TypeHeader classHeader(ClassType type, ClassType superClass, ClassType... interfaces) {
+    return new TypeHeader(type, false, superClass, ImmutableSet.copyOf(interfaces));
+  }
+
+  private TypeHeader interfaceHeader(ClassType type, ClassType... interfaces) {
+    return new TypeHeader(type, true, object, ImmutableSet.copyOf(interfaces));
+  }
+
+  @Test
+  public void testSubclassesAreContiguous() {
+    assertEquals(ImmutableSet.of(b, c, d), hierarchy.subclassesOf(a));
+    assertEquals(ImmutableSet.of(a, b, c, d, e), hierarchy.subclassesOf(object));
+    assertEquals(Collections.emptySet(), hierarchy.subclassesOf(c));
+    assertEquals(ImmutableSet.of(f), hierarchy.subclassesOf(missing));
+    assertEquals(11, hierarchy.size());
+
+    for (ClassType subclass : hierarchy.subclassesOf(a)) {
+      int id = hierarchy.getId(subclass);
+      assertTrue(hierarchy.getId(a) < id && id <= hierarchy.getId(a) + 3);
+      assertEquals(subclass, hierarchy.getType(id));
+    }
+    assertEquals(-1, hierarchy.getId(factory.getClassType("h.Unknown")));
+  }
+
+  @Test
+  public void testInterfaces() {
+    assertEquals(ImmutableSet.of(a, b, c, d, e, j), hierarchy.implementersOf(i));
+    assertEquals(ImmutableSet.of(e), hierarchy.subtypesOf(j));
+    assertEquals(Collections.emptySet(), hierarchy.implementersOf(k));
+
+    assertEquals(ImmutableSet.of(i), hierarchy.implementedInterfacesOf(c));
+    assertEquals(ImmutableSet.of(i, j), hierarchy.implementedInterfacesOf(e));
+    assertEquals(ImmutableSet.of(i), hierarchy.implementedInterfacesOf(j));
+    assertEquals(Collections.emptySet(), hierarchy.implementedInterfacesOf(object));
+
+    assertEquals(ImmutableSet.of(a, j), hierarchy.directSubtypesOf(i));
+    assertEquals(ImmutableSet.of(b, d), hierarchy.directSubtypesOf(a));
+  }
+
+  @Test
+  public void testIsSubtype() {
+    assertTrue(hierarchy.isSubtype(a, c));
+    assertTrue(hierarchy.isSubtype(i, c));
+    assertTrue(hierarchy.isSubtype(i, j));
+    assertTrue(hierarchy.isSubtype(object, j));
+    assertTrue(hierarchy.isSubtype(object, c));
+
+    assertFalse(hierarchy.isSubtype(a, a));
+    assertFalse(hierarchy.isSubtype(c, a));
+    assertFalse(hierarchy.isSubtype(b, d));
+    assertFalse(hierarchy.isSubtype(j, c));
+    assertFalse(hierarchy.isSubtype(k, c));
+    assertFalse(hierarchy.isSubtype(a, j));
+    assertFalse(hierarchy.isSubtype(object, object));
+
+    assertTrue(hierarchy.isSubtype(factory.getArrayType(a, 1), factory.getArrayType(c, 1)));
+  }
+
+  @Test
+  public void testObjectIsSupertypeOfClassesWithMissingSuperclass() {
+    // neither F nor Missing are in the subtree of java.lang.Object, as Missing has no header
+    assertFalse(hierarchy.subclassesOf(object).contains(f));
+    assertTrue(hierarchy.isSubtype(object, f));
+    assertTrue(hierarchy.isSubtype(object, missing));
+    assertTrue(hierarchy.isSubtype(missing, f));
+    assertFalse(hierarchy.isSubtype(a, f));
+    assertFalse(hierarchy.isSubtype(f, object));
+  }
+
+  @Test
+  public void testSuperClasses() {
+    List<ClassType> expected = ImmutableList.of(b, a, object);
+    assertEquals(expected, hierarchy.superClassesOf(c));
+    assertEquals(object, hierarchy.superClassOf(i));
+    assertNull(hierarchy.superClassOf(object));
+    assertNull(hierarchy.superClassOf(missing));
+  }
+
+  @Test(expected = ResolveException.class)
+  public void testUnknownType() {
+    hierarchy.subtypesOf(factory.getClassType("h.Unknown"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testImplementersOfClass() {
+    hierarchy.implementersOf(a);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetsAreUnmodifiable() {
+    hierarchy.subclassesOf(a).add(e);
+  }
+}
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
@@ -22,7 +23,6 @@ import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
-import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
 
 /** @author Markus Schmidt */
@@ -78,16 +78,26 @@ public class JimpleAnalysisInputLocation<T extends SootClass<? extends SootClass
       @Nonnull Path dirPath,
       @Nonnull IdentifierFactory factory,
       @Nonnull ClassProvider<? extends SootClass<?>> classProvider) {
+    try (Stream<AbstractClassSource<? extends AbstractClass<?>>> classSources =
+        streamDirectory(dirPath, factory, classProvider)) {
+      return classSources.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Walks the directory lazily, i.e. a file is parsed when the stream reaches it. The stream has to
+   * be closed to release the directory handles.
+   */
+  @Nonnull
+  Stream<AbstractClassSource<? extends AbstractClass<?>>> streamDirectory(
+      @Nonnull Path dirPath,
+      @Nonnull IdentifierFactory factory,
+      @Nonnull ClassProvider<? extends SootClass<?>> classProvider) {
     try {
       final FileType handledFileType = classProvider.getHandledFileType();
       return Files.walk(dirPath)
           .filter(filePath -> PathUtils.hasExtension(filePath, handledFileType))
-          .flatMap(
-              p ->
-                  StreamUtils.optionalToStream(
-                      Optional.of(
-                          classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)))))
-          .collect(Collectors.toList());
+          .map(p -> classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)));
 
     } catch (IOException e) {
       throw new IllegalArgumentException(e);
@@ -101,6 +111,13 @@ public class JimpleAnalysisInputLocation<T extends SootClass<? extends SootClass
         path, view.getIdentifierFactory(), new JimpleClassProvider(view.getBodyInterceptors()));
   }
 
+  @Override
+  @Nonnull
+  public Stream<? extends SootClassSource<T>> streamClassSources(@Nonnull View<?> view) {
+    return streamDirectory(
+        path, view.getIdentifierFactory(), new JimpleClassProvider(view.getBodyInterceptors()));
+  }
+
   @Override
   @Nonnull
   public Optional<? extends SootClassSource<T>> getClassSource(
@@ -141,10 +141,7 @@ public class JimpleView extends AbstractView<SootClass<?>> {
     }
 
     getProject().getInputLocations().stream()
-        .flatMap(
-            location -> {
-              return location.getClassSources(this).stream();
-            })
+        .flatMap(location -> location.streamClassSources(this))
         .forEach(this::buildClassFrom);
     isFullyResolved = true;
   }
@@ -8,6 +8,7 @@ import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -17,6 +18,7 @@ import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.model.*;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.types.ClassType;
 import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
 import sootup.java.core.*;
@@ -156,4 +158,61 @@ public class MutableSootClientTest {
     SootClass<JavaSootClassSource> updatedUtilsClass = updatedUtilsClassOpt.get();
     assertTrue(updatedUtilsClass.getMethods().contains(newMethod));
   }
+
+  /**
+   * Add and remove a subclass of an existing class and check whether the type hierarchy of the
+   * mutable view follows the changes without being built again.
+   */
+  @Test
+  public void typeHierarchyFollowsClassChangesTest() {
+    ClassType employee = p.getIdentifierFactory().getClassType("ds.Employee");
+    ClassType addedClassType = p.getIdentifierFactory().getClassType("AddedClass");
+    TypeHierarchy typeHierarchy = mv.getTypeHierarchy();
+    assertFalse(typeHierarchy.subtypesOf(employee).contains(addedClassType));
+
+    OverridingJavaClassSource newClass =
+        new OverridingJavaClassSource(
+            location,
+            pathToJar,
+            addedClassType,
+            employee,
+            Collections.emptySet(),
+            null,
+            Collections.emptySet(),
+            Collections.emptySet(),
+            new Position(0, 0, 0, 0),
+            EnumSet.noneOf(Modifier.class),
+            Collections.emptySet(),
+            Collections.emptySet(),
+            Collections.emptySet());
+    mv.addClass(newClass.buildClass(SourceType.Application));
+    assertSame(typeHierarchy, mv.getTypeHierarchy());
+    assertTrue(typeHierarchy.subtypesOf(employee).contains(addedClassType));
+    assertEquals(employee, typeHierarchy.superClassOf(addedClassType));
+
+    mv.removeClass(addedClassType);
+    assertFalse(typeHierarchy.subtypesOf(employee).contains(addedClassType));
+  }
+
+  /**
+   * Remove a method and check whether the memoized results of the type hierarchy are kept, as
+   * methods do not change the hierarchy.
+   */
+  @Test
+  public void typeHierarchyIsKeptOnMethodChangesTest() {
+    ClassType classType = p.getIdentifierFactory().getClassType("utils.Operations");
+    ClassType object = p.getIdentifierFactory().getClassType("java.lang.Object");
+    TypeHierarchy typeHierarchy = mv.getTypeHierarchy();
+    Set<ClassType> subtypes = typeHierarchy.subtypesOf(object);
+    assertTrue(subtypes.contains(classType));
+
+    MethodSignature ms =
+        p.getIdentifierFactory()
+            .parseMethodSignature("<utils.Operations: void removeDepartment(ds.Department)>");
+    SootMethod removeDepartmentMethod =
+        mv.getClass(classType).get().getMethod(ms.getSubSignature()).get();
+    mv.removeMethod((JavaSootMethod) removeDepartmentMethod);
+
+    assertSame(subtypes, typeHierarchy.subtypesOf(object));
+  }
 }
@@ -3,6 +3,7 @@ package sootup.tests.typehierarchy;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static sootup.core.util.ImmutableUtils.immutableList;
 import static sootup.core.util.ImmutableUtils.immutableSet;
@@ -27,6 +28,7 @@ import sootup.core.IdentifierFactory;
 import sootup.core.model.Modifier;
 import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
+import sootup.core.typehierarchy.FrozenTypeHierarchy;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 import sootup.core.types.ArrayType;
 import sootup.core.types.ClassType;
@@ -156,6 +158,35 @@ public class ViewTypeHierarchyTest {
             assertTrue(typeHierarchy.isSubtype(expectedSuperClass, javaClassPathNamespace)));
   }
 
+  @Test
+  public void freeze() {
+    IdentifierFactory factory = view.getIdentifierFactory();
+    FrozenTypeHierarchy frozenTypeHierarchy = typeHierarchy.freeze();
+    Stream.of("ds.AbstractDataStrcture", "utils.IFaceOperations", "java.util.Collection")
+        .map(factory::getClassType)
+        .forEach(
+            type ->
+                assertEquals(typeHierarchy.subtypesOf(type), frozenTypeHierarchy.subtypesOf(type)));
+    Stream.of("ds.Employee", "utils.Operations", "java.util.ArrayList", "java.util.List")
+        .map(factory::getClassType)
+        .forEach(
+            type -> {
+              assertEquals(
+                  typeHierarchy.implementedInterfacesOf(type),
+                  frozenTypeHierarchy.implementedInterfacesOf(type));
+              assertEquals(
+                  typeHierarchy.superClassesOf(type), frozenTypeHierarchy.superClassesOf(type));
+              assertEquals(
+                  typeHierarchy.directSubtypesOf(type), frozenTypeHierarchy.directSubtypesOf(type));
+            });
+
+    ClassType collection = factory.getClassType("java.util.Collection");
+    ClassType arrayList = factory.getClassType("java.util.ArrayList");
+    assertTrue(frozenTypeHierarchy.isSubtype(collection, arrayList));
+    assertFalse(frozenTypeHierarchy.isSubtype(arrayList, collection));
+    assertTrue(frozenTypeHierarchy.isSubtype(factory.getClassType("java.lang.Object"), collection));
+  }
+
   @Test
   public void primitiveTypeSubtyping() {
     assertFalse(
@@ -217,6 +248,45 @@ public class ViewTypeHierarchyTest {
             .contains(sootClass.getType()));
   }
 
+  @Test
+  public void memoizedQueriesAreInvalidatedByAddType() {
+    IdentifierFactory factory = view.getIdentifierFactory();
+    ClassType abstractDataStructure = factory.getClassType("ds.AbstractDataStrcture");
+    ClassType employee = factory.getClassType("ds.Employee");
+    Set<ClassType> subtypes = typeHierarchy.subtypesOf(abstractDataStructure);
+    assertSame(subtypes, typeHierarchy.subtypesOf(abstractDataStructure));
+    assertSame(
+        typeHierarchy.implementedInterfacesOf(employee),
+        typeHierarchy.implementedInterfacesOf(employee));
+    assertSame(typeHierarchy.superClassesOf(employee), typeHierarchy.superClassesOf(employee));
+
+    OverridingJavaClassSource classSource =
+        new OverridingJavaClassSource(
+            analysisInputLocation,
+            null,
+            factory.getClassType("adummytype.Type"),
+            employee,
+            Collections.emptySet(),
+            null,
+            Collections.emptySet(),
+            Collections.emptySet(),
+            null,
+            EnumSet.of(Modifier.FINAL),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList());
+    SootClass sootClass = new SootClass(classSource, SourceType.Application);
+    typeHierarchy.addType(sootClass);
+
+    Set<ClassType> updatedSubtypes = typeHierarchy.subtypesOf(abstractDataStructure);
+    assertFalse(subtypes.contains(sootClass.getType()));
+    assertTrue(updatedSubtypes.contains(sootClass.getType()));
+    assertTrue(typeHierarchy.subtypesOf(employee).contains(sootClass.getType()));
+    assertEquals(
+        typeHierarchy.implementedInterfacesOf(employee),
+        typeHierarchy.implementedInterfacesOf(sootClass.getType()));
+  }
+
   @Test
   public void arraySubtyping() {
     IdentifierFactory factory = view.getIdentifierFactory();
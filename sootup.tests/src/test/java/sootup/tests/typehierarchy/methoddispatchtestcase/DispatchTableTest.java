@@ -0,0 +1,226 @@
+package sootup.tests.typehierarchy.methoddispatchtestcase;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.Method;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.MethodDispatchResolver;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+import sootup.java.sourcecode.inputlocation.JavaSourcePathAnalysisInputLocation;
+
+/**
+ * Compares the memoized results of {@link MethodDispatchResolver} with the results of searching the
+ * hierarchy directly, for every method of the fixture resolved against every class.
+ */
+@Category(Java8Test.class)
+public class DispatchTableTest {
+
+  private static final List<String> fixtureClasses =
+      Arrays.asList(
+          "Shape",
+          "AbstractShape",
+          "Square",
+          "ColoredSquare",
+          "Outline",
+          "DashedOutline",
+          "Circle");
+
+  private static final JavaIdentifierFactory identifierFactory =
+      JavaIdentifierFactory.getInstance();
+
+  /** Shared by the tests, as its hierarchy covers the whole rt.jar. */
+  private static JavaView view;
+
+  @BeforeClass
+  public static void setUp() {
+    // the return types are compared in a hierarchy that ends in java.lang.Object
+    String rtJar =
+        Arrays.stream(
+                ManagementFactory.getRuntimeMXBean().getBootClassPath().split(File.pathSeparator))
+            .filter(pathEntry -> pathEntry.endsWith(File.separator + "rt.jar"))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("rt.jar is not on the boot class path"));
+    JavaProject project =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new JavaSourcePathAnalysisInputLocation(
+                    "src/test/resources/methoddispatchresolver/DispatchTable"))
+            .addInputLocation(new JavaClassPathAnalysisInputLocation(rtJar))
+            .build();
+    view = project.createOnDemandView();
+  }
+
+  @Test
+  public void testCovariantReturnTypes() {
+    Set<MethodSignature> shapeCopyTargets =
+        MethodDispatchResolver.resolveAbstractDispatch(view, copy("Shape", "Shape"));
+    assertTrue(
+        shapeCopyTargets.containsAll(
+            ImmutableSet.of(
+                copy("Square", "Square"),
+                copy("ColoredSquare", "ColoredSquare"),
+                copy("Circle", "Circle"))));
+    assertFalse(shapeCopyTargets.contains(copy("AbstractShape", "AbstractShape")));
+    // the return type is part of the table key
+    assertEquals(
+        ImmutableSet.of(copy("ColoredSquare", "ColoredSquare")),
+        MethodDispatchResolver.resolveAbstractDispatch(view, copy("Square", "ColoredSquare")));
+    assertFalse(
+        MethodDispatchResolver.resolveAbstractDispatch(view, copy("Square", "Square"))
+            .contains(copy("Circle", "Circle")));
+
+    // the covariant method and its bridge methods are all valid targets, so only the class matters
+    assertEquals(
+        getClassType("ColoredSquare"),
+        MethodDispatchResolver.resolveConcreteDispatch(view, copy("ColoredSquare", "Shape"))
+            .getDeclClassType());
+    assertEquals(
+        getClassType("Square"),
+        MethodDispatchResolver.resolveConcreteDispatch(view, copy("Square", "AbstractShape"))
+            .getDeclClassType());
+  }
+
+  @Test
+  public void testAbstractOverrides() {
+
+    assertEquals(
+        ImmutableSet.of(area("AbstractShape"), area("Square"), area("DashedOutline")),
+        MethodDispatchResolver.resolveAbstractDispatch(view, area("Shape")));
+    assertEquals(
+        ImmutableSet.of(area("DashedOutline")),
+        MethodDispatchResolver.resolveAbstractDispatch(view, area("Outline")));
+
+    assertEquals(
+        area("DashedOutline"),
+        MethodDispatchResolver.resolveConcreteDispatch(view, area("DashedOutline")));
+    // the abstract redeclaration is skipped like every abstract method
+    assertEquals(
+        area("Square"), MethodDispatchResolver.resolveConcreteDispatch(view, area("Outline")));
+    // classes share the entries of their superclasses
+    assertEquals(
+        area("AbstractShape"),
+        MethodDispatchResolver.resolveConcreteDispatch(view, area("Circle")));
+    assertEquals(
+        area("Square"),
+        MethodDispatchResolver.resolveConcreteDispatch(view, area("ColoredSquare")));
+  }
+
+  @Test
+  public void testTablesMatchDirectResolution() {
+    TypeHierarchy hierarchy = view.getTypeHierarchy();
+
+    List<MethodSignature> calls = new ArrayList<>();
+    for (String receiver : fixtureClasses) {
+      for (String declaring : fixtureClasses) {
+        for (SootMethod method : view.getClassOrThrow(getClassType(declaring)).getMethods()) {
+          calls.add(
+              identifierFactory.getMethodSignature(
+                  getClassType(receiver), method.getSignature().getSubSignature()));
+        }
+      }
+    }
+    assertFalse(calls.isEmpty());
+
+    // the second round is answered from the filled tables
+    for (int round = 0; round < 2; round++) {
+      for (MethodSignature call : calls) {
+        assertEquals(
+            call.toString(),
+            outcome(() -> resolveAbstractDispatchDirectly(view, hierarchy, call)),
+            outcome(() -> MethodDispatchResolver.resolveAbstractDispatch(view, call)));
+        assertEquals(
+            call.toString(),
+            outcome(() -> resolveConcreteDispatchDirectly(view, hierarchy, call)),
+            outcome(() -> MethodDispatchResolver.resolveConcreteDispatch(view, call)));
+      }
+    }
+  }
+
+  private static ClassType getClassType(String className) {
+    return identifierFactory.getClassType(className);
+  }
+
+  private static MethodSignature copy(String className, String returnType) {
+    return identifierFactory.getMethodSignature(
+        getClassType(className), "copy", returnType, Collections.emptyList());
+  }
+
+  private static MethodSignature area(String className) {
+    return identifierFactory.getMethodSignature(
+        getClassType(className), "area", "double", Collections.emptyList());
+  }
+
+  /** Returns the result, or the type of the exception if the resolution fails. */
+  static Object outcome(Supplier<?> resolution) {
+    try {
+      return resolution.get();
+    } catch (ResolveException e) {
+      return ResolveException.class;
+    }
+  }
+
+  /** Searches all subtypes, without any table. */
+  static Set<MethodSignature> resolveAbstractDispatchDirectly(
+      JavaView view, TypeHierarchy hierarchy, MethodSignature m) {
+    return hierarchy.subtypesOf(m.getDeclClassType()).stream()
+        .map(
+            subtype ->
+                view.getClass(subtype)
+                    .orElseThrow(() -> new ResolveException("Could not resolve " + subtype)))
+        .flatMap(sootClass -> sootClass.getMethodsByName(m.getName()).stream())
+        .filter(
+            potentialTarget ->
+                MethodDispatchResolver.canDispatch(m, potentialTarget.getSignature(), hierarchy))
+        .filter(method -> !method.isAbstract())
+        .map(Method::getSignature)
+        .collect(Collectors.toSet());
+  }
+
+  /** Walks the superclass chain, without any table. */
+  static MethodSignature resolveConcreteDispatchDirectly(
+      JavaView view, TypeHierarchy hierarchy, MethodSignature m) {
+    ClassType type = m.getDeclClassType();
+    do {
+      ClassType currentType = type;
+      SootClass<?> sootClass =
+          view.getClass(currentType)
+              .orElseThrow(() -> new ResolveException("Did not find class " + currentType));
+      SootMethod concreteMethod =
+          sootClass.getMethodsByName(m.getName()).stream()
+              .filter(
+                  potentialTarget ->
+                      MethodDispatchResolver.canDispatch(
+                          m, potentialTarget.getSignature(), hierarchy))
+              .findAny()
+              .orElse(null);
+      if (concreteMethod != null && !concreteMethod.isAbstract()) {
+        return concreteMethod.getSignature();
+      }
+      type = hierarchy.superClassOf(type);
+    } while (type != null);
+    throw new ResolveException("Could not find concrete method for " + m);
+  }
+}
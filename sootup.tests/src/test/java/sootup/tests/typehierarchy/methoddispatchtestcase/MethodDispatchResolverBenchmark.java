@@ -0,0 +1,184 @@
+package sootup.tests.typehierarchy.methoddispatchtestcase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import categories.Benchmark;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JVirtualInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.MethodDispatchResolver;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Resolves the virtual, interface and special call sites of all methods in the rt.jar of the
+ * running JDK, once by searching the hierarchy like {@link MethodDispatchResolver} did before it
+ * kept dispatch tables, and twice through the tables. The first pass through the tables fills them,
+ * the second one only looks the targets up. Every call site has to resolve to the same targets in
+ * all passes; the time of each pass is printed.
+ *
+ * <p>Not part of the regular test suite, see {@link Benchmark}.
+ */
+@Category(Benchmark.class)
+public class MethodDispatchResolverBenchmark {
+
+  /** A call site and the method that contains it. */
+  private static class CallSite {
+    final MethodSignature container;
+    final AbstractInvokeExpr invokeExpr;
+
+    CallSite(MethodSignature container, AbstractInvokeExpr invokeExpr) {
+      this.container = container;
+      this.invokeExpr = invokeExpr;
+    }
+  }
+
+  @Test
+  public void resolveAllCallSitesOfRuntimeJar() {
+    Path rtJar = Paths.get(System.getProperty("java.home"), "lib", "rt.jar");
+    Assume.assumeTrue("rt.jar of the running JDK not found", Files.exists(rtJar));
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(new PathBasedAnalysisInputLocation(rtJar, null))
+            .build()
+            .createOnDemandView();
+    TypeHierarchy hierarchy = view.getTypeHierarchy();
+
+    List<CallSite> callSites = collectCallSites(view);
+    assertFalse(callSites.isEmpty());
+
+    List<Object> expected =
+        resolveAll(
+            "the hierarchy search",
+            callSites,
+            callSite ->
+                callSite.invokeExpr instanceof JSpecialInvokeExpr
+                    ? resolveSpecialDispatchDirectly(view, hierarchy, callSite)
+                    : DispatchTableTest.resolveAbstractDispatchDirectly(
+                        view, hierarchy, callSite.invokeExpr.getMethodSignature()));
+    for (String pass : new String[] {"the first table pass", "the second table pass"}) {
+      List<Object> actual =
+          resolveAll(
+              pass,
+              callSites,
+              callSite ->
+                  callSite.invokeExpr instanceof JSpecialInvokeExpr
+                      ? MethodDispatchResolver.resolveSpecialDispatch(
+                              view, (JSpecialInvokeExpr) callSite.invokeExpr, callSite.container)
+                          // a covariant method and its bridge methods are all valid targets
+                          .getDeclClassType()
+                      : MethodDispatchResolver.resolveAbstractDispatch(
+                          view, callSite.invokeExpr.getMethodSignature()));
+      for (int i = 0; i < callSites.size(); i++) {
+        assertEquals(
+            callSites.get(i).invokeExpr + " in " + callSites.get(i).container,
+            expected.get(i),
+            actual.get(i));
+      }
+    }
+  }
+
+  private static List<CallSite> collectCallSites(JavaView view) {
+    long start = System.currentTimeMillis();
+    List<CallSite> callSites = new ArrayList<>();
+    int skippedBodies = 0;
+    for (JavaSootClass sootClass : view.getClasses()) {
+      for (JavaSootMethod method : sootClass.getMethods()) {
+        if (!method.hasBody()) {
+          continue;
+        }
+        Body body;
+        try {
+          body = method.getBody();
+        } catch (RuntimeException e) {
+          // the benchmark does not depend on the few bodies the frontend can not convert
+          skippedBodies++;
+          continue;
+        }
+        for (Stmt stmt : body.getStmts()) {
+          if (stmt.containsInvokeExpr()) {
+            AbstractInvokeExpr invokeExpr = stmt.getInvokeExpr();
+            if (invokeExpr instanceof JVirtualInvokeExpr
+                || invokeExpr instanceof JInterfaceInvokeExpr
+                || invokeExpr instanceof JSpecialInvokeExpr) {
+              callSites.add(new CallSite(method.getSignature(), invokeExpr));
+            }
+          }
+        }
+      }
+    }
+    System.out.println(
+        "Collected "
+            + callSites.size()
+            + " call sites of rt.jar in "
+            + (System.currentTimeMillis() - start)
+            + " ms, skipped "
+            + skippedBodies
+            + " bodies");
+    return callSites;
+  }
+
+  /** Resolves the call sites and returns their outcomes, see {@link DispatchTableTest#outcome}. */
+  private static List<Object> resolveAll(
+      String pass, List<CallSite> callSites, Function<CallSite, Object> resolution) {
+    long start = System.currentTimeMillis();
+    List<Object> outcomes = new ArrayList<>(callSites.size());
+    for (CallSite callSite : callSites) {
+      outcomes.add(DispatchTableTest.outcome(() -> resolution.apply(callSite)));
+    }
+    System.out.println(
+        "Resolved "
+            + callSites.size()
+            + " call sites with "
+            + pass
+            + " in "
+            + (System.currentTimeMillis() - start)
+            + " ms");
+    return outcomes;
+  }
+
+  /**
+   * Resolves a special invoke like {@link MethodDispatchResolver#resolveSpecialDispatch} without
+   * any table and returns the declaring class of the target.
+   */
+  private static Object resolveSpecialDispatchDirectly(
+      JavaView view, TypeHierarchy hierarchy, CallSite callSite) {
+    MethodSignature specialMethodSig = callSite.invokeExpr.getMethodSignature();
+    if (specialMethodSig.getSubSignature().getName().equals("<init>")) {
+      return specialMethodSig.getDeclClassType();
+    }
+    SootMethod specialMethod =
+        view.getClass(specialMethodSig.getDeclClassType())
+            .flatMap(cl -> cl.getMethod(specialMethodSig.getSubSignature()))
+            .orElse(null);
+    if (specialMethod != null && specialMethod.isPrivate()) {
+      return specialMethodSig.getDeclClassType();
+    }
+    if (hierarchy.isSubtype(
+        callSite.container.getDeclClassType(), specialMethodSig.getDeclClassType())) {
+      return DispatchTableTest.resolveConcreteDispatchDirectly(view, hierarchy, specialMethodSig)
+          .getDeclClassType();
+    }
+    return specialMethodSig.getDeclClassType();
+  }
+}
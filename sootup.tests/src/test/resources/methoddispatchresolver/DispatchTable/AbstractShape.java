@@ -0,0 +1,11 @@
+public abstract class AbstractShape implements Shape {
+    public abstract AbstractShape copy();
+
+    public double area() {
+        return 0;
+    }
+
+    public String name() {
+        return "shape";
+    }
+}
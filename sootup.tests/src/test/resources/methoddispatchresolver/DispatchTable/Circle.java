@@ -0,0 +1,5 @@
+public class Circle extends AbstractShape {
+    public Circle copy() {
+        return new Circle();
+    }
+}
@@ -0,0 +1,9 @@
+public class ColoredSquare extends Square {
+    public ColoredSquare copy() {
+        return new ColoredSquare();
+    }
+
+    public String name() {
+        return "colored square";
+    }
+}
@@ -0,0 +1,5 @@
+public class DashedOutline extends Outline {
+    public double area() {
+        return 2;
+    }
+}
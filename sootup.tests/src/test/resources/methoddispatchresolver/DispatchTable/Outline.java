@@ -0,0 +1,3 @@
+public abstract class Outline extends Square {
+    public abstract double area();
+}
@@ -0,0 +1,5 @@
+public interface Shape {
+    Shape copy();
+
+    double area();
+}
@@ -0,0 +1,9 @@
+public class Square extends AbstractShape {
+    public Square copy() {
+        return new Square();
+    }
+
+    public double area() {
+        return 1;
+    }
+}